@@ -0,0 +1,199 @@
+/*
+ * ProActive Parallel Suite(TM):
+ * The Open Source library for parallel and distributed
+ * Workflows & Scheduling, Orchestration, Cloud Automation
+ * and Big Data Analysis on Enterprise Grids & Clouds.
+ *
+ * Copyright (c) 2007 - 2017 ActiveEon
+ * Contact: contact@activeeon.com
+ *
+ * This library is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation: version 3 of
+ * the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ */
+package org.ow2.proactive.resourcemanager.selection;
+
+import static java.util.Collections.singleton;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.objectweb.proactive.core.node.Node;
+import org.objectweb.proactive.core.node.NodeInformation;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.ow2.proactive.authentication.principals.UserNamePrincipal;
+import org.ow2.proactive.permissions.PrincipalPermission;
+import org.ow2.proactive.resourcemanager.authentication.Client;
+import org.ow2.proactive.resourcemanager.core.RMCore;
+import org.ow2.proactive.resourcemanager.nodesource.NodeSource;
+import org.ow2.proactive.resourcemanager.rmnode.RMNode;
+import org.ow2.proactive.resourcemanager.selection.topology.TopologyHandler;
+import org.ow2.proactive.resourcemanager.selection.topology.TopologyManager;
+import org.ow2.proactive.scripting.ScriptResult;
+import org.ow2.proactive.scripting.SelectionScript;
+import org.ow2.proactive.topology.descriptor.TopologyDescriptor;
+import org.ow2.proactive.utils.Criteria;
+import org.ow2.proactive.utils.NodeSet;
+
+
+/**
+ * Measures the overhead of {@link SelectionManager#selectNodes(Criteria, Client)} on top of the node
+ * answers: free nodes filtering (permissions and black list) and, when selection scripts are given,
+ * the reservation of the nodes executing scripts and the cleanup of this in-progress set.
+ * <p>
+ * The nodes are stub-only mocks answering scripts immediately, so the measured time is the selection
+ * bookkeeping plus a constant mock dispatch cost per node.
+ *
+ * @author ActiveEon Team
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class SelectionManagerBenchmark {
+
+    @Param({ "100", "1000", "10000" })
+    public int numberOfFreeNodes;
+
+    @Param({ "10" })
+    public int numberOfRequestedNodes;
+
+    @Param({ "0", "100" })
+    public int blackListSize;
+
+    private SelectionManager selectionManager;
+
+    private Client client;
+
+    private NodeSet blackList;
+
+    private List<SelectionScript> scripts;
+
+    @Setup
+    public void setUp() throws Exception {
+        TopologyManager topologyManager = mock(TopologyManager.class);
+        when(topologyManager.getHandler(any(TopologyDescriptor.class))).thenReturn(new TopologyHandler() {
+            @Override
+            public NodeSet select(int number, List<Node> matchedNodes) {
+                return new NodeSet(matchedNodes);
+            }
+        });
+        RMCore.topologyManager = topologyManager;
+
+        NodeSource nodeSource = new NodeSource();
+        PrincipalPermission userPermission = new PrincipalPermission("permissions",
+                                                                     singleton(new UserNamePrincipal("user")));
+        List<RMNode> freeNodes = new ArrayList<>(numberOfFreeNodes);
+        for (int i = 0; i < numberOfFreeNodes; i++) {
+            freeNodes.add(createNode("node-" + i, nodeSource, userPermission));
+        }
+        RMCore rmCore = mock(RMCore.class);
+        // the selection manager works on its own copies, each request sees the same free nodes
+        when(rmCore.getFreeNodes(any())).thenAnswer(invocation -> new ArrayList<>(freeNodes));
+
+        blackList = new NodeSet();
+        for (int i = 0; i < blackListSize; i++) {
+            blackList.add(createNode("blacklisted-node-" + i, nodeSource, userPermission).getNode());
+        }
+
+        scripts = Collections.singletonList(new SelectionScript("selected = true", "js"));
+        client = mock(Client.class);
+        selectionManager = new SelectionManager(rmCore) {
+            @Override
+            public List<RMNode> arrangeNodesForScriptExecution(List<RMNode> nodes, List<SelectionScript> scripts,
+                    Map<String, Serializable> bindings) {
+                return nodes;
+            }
+
+            @Override
+            public boolean isPassed(SelectionScript script, Map<String, Serializable> bindings, RMNode rmnode) {
+                return false;
+            }
+
+            @Override
+            public boolean processScriptResult(SelectionScript script, Map<String, Serializable> bindings,
+                    ScriptResult<Boolean> scriptResult, RMNode rmnode) {
+                return true;
+            }
+        };
+    }
+
+    @TearDown
+    public void tearDown() {
+        selectionManager.shutdown();
+        RMCore.topologyManager = null;
+    }
+
+    @Benchmark
+    public NodeSet selectWithoutScripts() {
+        return selectionManager.selectNodes(createCriteria(null), client);
+    }
+
+    @Benchmark
+    public NodeSet selectWithScripts() {
+        return selectionManager.selectNodes(createCriteria(scripts), client);
+    }
+
+    /**
+     * Concurrent requests compete for the reservation of the nodes executing scripts.
+     */
+    @Benchmark
+    @Threads(4)
+    public NodeSet selectWithScriptsConcurrently() {
+        return selectionManager.selectNodes(createCriteria(scripts), client);
+    }
+
+    private Criteria createCriteria(List<SelectionScript> selectionScripts) {
+        Criteria criteria = new Criteria(numberOfRequestedNodes);
+        criteria.setTopology(TopologyDescriptor.ARBITRARY);
+        criteria.setScripts(selectionScripts);
+        criteria.setBlackList(blackList);
+        criteria.setBestEffort(true);
+        return criteria;
+    }
+
+    private static RMNode createNode(String nodeName, NodeSource nodeSource, PrincipalPermission userPermission) {
+        String nodeUrl = "pnp://localhost:64738/" + nodeName;
+        RMNode rmNode = mock(RMNode.class, withSettings().stubOnly());
+        NodeInformation nodeInformation = mock(NodeInformation.class, withSettings().stubOnly());
+        Node node = mock(Node.class, withSettings().stubOnly());
+        when(nodeInformation.getURL()).thenReturn(nodeUrl);
+        when(nodeInformation.getName()).thenReturn(nodeName);
+        when(node.getNodeInformation()).thenReturn(nodeInformation);
+        when(rmNode.getNodeName()).thenReturn(nodeName);
+        when(rmNode.getNodeSource()).thenReturn(nodeSource);
+        when(rmNode.getNode()).thenReturn(node);
+        when(rmNode.getNodeURL()).thenReturn(nodeUrl);
+        when(rmNode.getUserPermission()).thenReturn(userPermission);
+        when(rmNode.executeScript(any(), any())).thenReturn(new ScriptResult<>(true));
+        return rmNode;
+    }
+}
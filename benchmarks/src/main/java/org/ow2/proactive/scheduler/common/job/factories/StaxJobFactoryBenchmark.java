@@ -0,0 +1,137 @@
+/*
+ * ProActive Parallel Suite(TM):
+ * The Open Source library for parallel and distributed
+ * Workflows & Scheduling, Orchestration, Cloud Automation
+ * and Big Data Analysis on Enterprise Grids & Clouds.
+ *
+ * Copyright (c) 2007 - 2017 ActiveEon
+ * Contact: contact@activeeon.com
+ *
+ * This library is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation: version 3 of
+ * the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ */
+package org.ow2.proactive.scheduler.common.job.factories;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.ow2.proactive.scheduler.common.job.Job;
+
+
+/**
+ * Measures the parsing of a workflow by {@link StaxJobFactory}, schema validation and variables
+ * replacement included, as done on each job submission.
+ * <p>
+ * The workflow is generated: a chain of script tasks, each with its own variables, generic information
+ * and selection script, referencing the job variables.
+ *
+ * @author ActiveEon Team
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class StaxJobFactoryBenchmark {
+
+    @Param({ "10", "100", "1000" })
+    public int numberOfTasks;
+
+    @Param({ "10" })
+    public int numberOfVariables;
+
+    private JobFactory jobFactory;
+
+    private byte[] workflow;
+
+    @Setup
+    public void setUp() {
+        // global variables come from the scheduler configuration, they are left out of the measure
+        jobFactory = JobFactory.getFactory(false);
+        workflow = createWorkflow().getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public Job createJob() throws JobCreationException {
+        return jobFactory.createJob(new ByteArrayInputStream(workflow));
+    }
+
+    private String createWorkflow() {
+        StringBuilder xml = new StringBuilder();
+        xml.append("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n");
+        xml.append("<job xmlns=\"urn:proactive:jobdescriptor:dev\" name=\"benchmark_${job_suffix}\"")
+           .append(" onTaskError=\"continueJobExecution\" priority=\"normal\">\n");
+        xml.append("  <variables>\n");
+        xml.append("    <variable name=\"job_suffix\" value=\"").append(numberOfTasks).append("\"/>\n");
+        for (int i = 0; i < numberOfVariables; i++) {
+            xml.append("    <variable name=\"job_var_")
+               .append(i)
+               .append("\" value=\"value_")
+               .append(i)
+               .append("_${job_suffix}\" model=\"PA:NOT_EMPTY_STRING\"/>\n");
+        }
+        xml.append("  </variables>\n");
+        xml.append("  <description>Generated workflow</description>\n");
+        xml.append("  <genericInformation>\n");
+        xml.append("    <info name=\"job_info\" value=\"${job_var_0}\"/>\n");
+        xml.append("  </genericInformation>\n");
+        xml.append("  <taskFlow>\n");
+        for (int i = 0; i < numberOfTasks; i++) {
+            xml.append("    <task name=\"task_").append(i).append("\">\n");
+            xml.append("      <description>Task ").append(i).append("</description>\n");
+            xml.append("      <variables>\n");
+            for (int j = 0; j < numberOfVariables; j++) {
+                xml.append("        <variable name=\"task_var_")
+                   .append(j)
+                   .append("\" value=\"${job_var_")
+                   .append(j)
+                   .append("}_")
+                   .append(i)
+                   .append("\" inherited=\"false\"/>\n");
+            }
+            xml.append("      </variables>\n");
+            xml.append("      <genericInformation>\n");
+            xml.append("        <info name=\"task_info\" value=\"${task_var_0}\"/>\n");
+            xml.append("      </genericInformation>\n");
+            if (i > 0) {
+                xml.append("      <depends>\n");
+                xml.append("        <task ref=\"task_").append(i - 1).append("\"/>\n");
+                xml.append("      </depends>\n");
+            }
+            xml.append("      <selection>\n");
+            xml.append("        <script>\n");
+            xml.append("          <code language=\"javascript\">selected = true</code>\n");
+            xml.append("        </script>\n");
+            xml.append("      </selection>\n");
+            xml.append("      <scriptExecutable>\n");
+            xml.append("        <script>\n");
+            xml.append("          <code language=\"javascript\">print(variables.get('task_var_0'))</code>\n");
+            xml.append("        </script>\n");
+            xml.append("      </scriptExecutable>\n");
+            xml.append("    </task>\n");
+        }
+        xml.append("  </taskFlow>\n");
+        xml.append("</job>\n");
+        return xml.toString();
+    }
+}
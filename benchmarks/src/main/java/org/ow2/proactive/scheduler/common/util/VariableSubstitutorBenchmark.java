@@ -0,0 +1,119 @@
+/*
+ * ProActive Parallel Suite(TM):
+ * The Open Source library for parallel and distributed
+ * Workflows & Scheduling, Orchestration, Cloud Automation
+ * and Big Data Analysis on Enterprise Grids & Clouds.
+ *
+ * Copyright (c) 2007 - 2017 ActiveEon
+ * Contact: contact@activeeon.com
+ *
+ * This library is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation: version 3 of
+ * the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ */
+package org.ow2.proactive.scheduler.common.util;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+
+/**
+ * Measures {@link VariableSubstitutor}, used on job submission and on each task start to replace
+ * variables in attributes, generic information and scripts.
+ *
+ * @author ActiveEon Team
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class VariableSubstitutorBenchmark {
+
+    @Param({ "10", "100" })
+    public int numberOfVariables;
+
+    /** number of strings to filter, half of them repeated, as the same attributes are found in every task */
+    @Param({ "100" })
+    public int numberOfStrings;
+
+    private Map<String, Serializable> variables;
+
+    private List<String> inputs;
+
+    private Map<String, String> inputMap;
+
+    @Setup
+    public void setUp() {
+        variables = new LinkedHashMap<>();
+        variables.put("var_0", "value_0");
+        for (int i = 1; i < numberOfVariables; i++) {
+            // each variable references the previous one, as in "var log=${LOG_DIR}/task.log"
+            variables.put("var_" + i, "${var_" + (i - 1) + "}/value_" + i);
+        }
+        inputs = new ArrayList<>(numberOfStrings);
+        for (int i = 0; i < numberOfStrings; i++) {
+            int index = i % Math.max(1, numberOfStrings / 2);
+            if (index % 4 == 0) {
+                inputs.add("string without variable " + index);
+            } else {
+                inputs.add("prefix ${var_" + (index % numberOfVariables) + "} and $VAR_" +
+                           ((index + 1) % numberOfVariables) + " suffix " + index);
+            }
+        }
+        inputMap = new HashMap<>(inputs.size());
+        for (int i = 0; i < inputs.size(); i++) {
+            inputMap.put("key_" + i, inputs.get(i));
+        }
+    }
+
+    @Benchmark
+    public void filterEachString(Blackhole blackhole) {
+        for (String input : inputs) {
+            blackhole.consume(VariableSubstitutor.filterAndUpdate(input, variables));
+        }
+    }
+
+    @Benchmark
+    public void filterWithContext(Blackhole blackhole) {
+        VariableSubstitutor.Context context = VariableSubstitutor.newContext(variables);
+        for (String input : inputs) {
+            blackhole.consume(context.filterAndUpdate(input));
+        }
+    }
+
+    @Benchmark
+    public Map<String, String> filterMap() {
+        return VariableSubstitutor.filterAndUpdate(inputMap, variables);
+    }
+
+    @Benchmark
+    public Map<String, Serializable> resolveVariables() {
+        return VariableSubstitutor.resolveVariables(variables, variables);
+    }
+}
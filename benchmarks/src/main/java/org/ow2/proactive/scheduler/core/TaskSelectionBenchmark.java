@@ -0,0 +1,140 @@
+/*
+ * ProActive Parallel Suite(TM):
+ * The Open Source library for parallel and distributed
+ * Workflows & Scheduling, Orchestration, Cloud Automation
+ * and Big Data Analysis on Enterprise Grids & Clouds.
+ *
+ * Copyright (c) 2007 - 2017 ActiveEon
+ * Contact: contact@activeeon.com
+ *
+ * This library is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation: version 3 of
+ * the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ */
+package org.ow2.proactive.scheduler.core;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.ow2.proactive.scheduler.common.JobDescriptor;
+import org.ow2.proactive.scheduler.common.job.JobId;
+import org.ow2.proactive.scheduler.descriptor.EligibleTaskDescriptor;
+import org.ow2.proactive.scheduler.descriptor.JobDescriptorImpl;
+import org.ow2.proactive.scheduler.job.InternalJob;
+import org.ow2.proactive.scheduler.job.SyntheticJobs;
+import org.ow2.proactive.scheduler.policy.DefaultPolicy;
+import org.ow2.proactive.scheduler.policy.Policy;
+import org.ow2.proactive.scheduler.task.internal.InternalTask;
+import org.ow2.proactive.scripting.SelectionScript;
+
+
+/**
+ * Measures the CPU side of the task selection done by {@link SchedulingMethodImpl} on each scheduling loop:
+ * the policy ordering followed by the grouping of compatible tasks with {@link SchedulingTaskComparator}.
+ * <p>
+ * {@link SchedulingMethodImpl} itself needs the scheduling service active objects, so the grouping loop of
+ * {@link SchedulingMethodImpl#getNextcompatibleTasks} is reproduced here, without the attempt counters and
+ * the task variables update which only happen once per task.
+ *
+ * @author ActiveEon Team
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class TaskSelectionBenchmark {
+
+    private static final String SELECTION_SCRIPT = "selected = variables.get('PA_TASK_NAME') != null";
+
+    @Param({ "100", "1000" })
+    public int numberOfJobs;
+
+    @Param({ "10" })
+    public int tasksPerJob;
+
+    @Param({ "1", "10" })
+    public int numberOfOwners;
+
+    @Param({ "true", "false" })
+    public boolean withSelectionScripts;
+
+    private final Policy policy = new DefaultPolicy();
+
+    private List<JobDescriptor> jobs;
+
+    private Map<JobId, JobDescriptor> jobsMap;
+
+    @Setup
+    public void setUp() throws Exception {
+        SelectionScript selectionScript = withSelectionScripts ? new SelectionScript(SELECTION_SCRIPT, "js") : null;
+        jobs = SyntheticJobs.createJobDescriptors(numberOfJobs, tasksPerJob, numberOfOwners, selectionScript);
+        jobsMap = new HashMap<>();
+        for (JobDescriptor job : jobs) {
+            jobsMap.put(job.getJobId(), job);
+        }
+    }
+
+    /**
+     * Orders the eligible tasks and splits them into groups of compatible tasks, as successive
+     * scheduling loop iterations would do when no node can be obtained.
+     *
+     * @return the number of groups
+     */
+    @Benchmark
+    public int orderAndGroupTasks() {
+        LinkedList<EligibleTaskDescriptor> bagOfTasks = policy.getOrderedTasks(new ArrayList<>(jobs));
+        int groups = 0;
+        while (!bagOfTasks.isEmpty()) {
+            groups++;
+            fillNextCompatibleTasks(bagOfTasks, new LinkedList<>());
+        }
+        return groups;
+    }
+
+    private int fillNextCompatibleTasks(LinkedList<EligibleTaskDescriptor> bagOfTasks,
+            LinkedList<EligibleTaskDescriptor> toFill) {
+        int totalNeededNodes = 0;
+        EligibleTaskDescriptor etd = bagOfTasks.removeFirst();
+        InternalJob currentJob = ((JobDescriptorImpl) jobsMap.get(etd.getJobId())).getInternal();
+        InternalTask internalTask = currentJob.getIHMTasks().get(etd.getTaskId());
+        SchedulingTaskComparator referent = new SchedulingTaskComparator(internalTask, currentJob, null);
+        totalNeededNodes += internalTask.getNumberOfNodesNeeded();
+        toFill.add(etd);
+        while (!bagOfTasks.isEmpty()) {
+            etd = bagOfTasks.removeFirst();
+            currentJob = ((JobDescriptorImpl) jobsMap.get(etd.getJobId())).getInternal();
+            internalTask = currentJob.getIHMTasks().get(etd.getTaskId());
+            if (referent.equals(new SchedulingTaskComparator(internalTask, currentJob, null))) {
+                totalNeededNodes += internalTask.getNumberOfNodesNeeded();
+                toFill.add(etd);
+            } else {
+                bagOfTasks.addFirst(etd);
+                break;
+            }
+        }
+        return totalNeededNodes;
+    }
+}
@@ -0,0 +1,198 @@
+/*
+ * ProActive Parallel Suite(TM):
+ * The Open Source library for parallel and distributed
+ * Workflows & Scheduling, Orchestration, Cloud Automation
+ * and Big Data Analysis on Enterprise Grids & Clouds.
+ *
+ * Copyright (c) 2007 - 2017 ActiveEon
+ * Contact: contact@activeeon.com
+ *
+ * This library is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation: version 3 of
+ * the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ */
+package org.ow2.proactive.scheduler.core.db;
+
+import java.security.KeyPairGenerator;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.ow2.proactive.authentication.crypto.Credentials;
+import org.ow2.proactive.db.SortOrder;
+import org.ow2.proactive.db.SortParameter;
+import org.ow2.proactive.scheduler.common.JobSortParameter;
+import org.ow2.proactive.scheduler.common.Page;
+import org.ow2.proactive.scheduler.common.job.JobInfo;
+import org.ow2.proactive.scheduler.common.job.JobVariable;
+import org.ow2.proactive.scheduler.common.job.TaskFlowJob;
+import org.ow2.proactive.scheduler.common.task.JavaTask;
+import org.ow2.proactive.scheduler.job.InternalJob;
+import org.ow2.proactive.scheduler.job.InternalJobFactory;
+
+
+/**
+ * Measures the {@link SchedulerDBManager} queries behind the job listings of the portals and the
+ * scheduler state recovery, against an in-memory HSQLDB database filled with synthetic jobs.
+ *
+ * @author ActiveEon Team
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class SchedulerDBManagerBenchmark {
+
+    private static final List<SortParameter<JobSortParameter>> SORT_BY_ID_DESC = Collections.singletonList(new SortParameter<>(JobSortParameter.ID,
+                                                                                                                                 SortOrder.DESC));
+
+    @Param({ "100", "1000" })
+    public int numberOfJobs;
+
+    @Param({ "10" })
+    public int tasksPerJob;
+
+    @Param({ "10" })
+    public int numberOfUsers;
+
+    private SchedulerDBManager dbManager;
+
+    private List<String> jobIds;
+
+    @Setup
+    public void setUp() throws Exception {
+        dbManager = SchedulerDBManager.createInMemorySchedulerDBManager();
+
+        KeyPairGenerator keyGen = KeyPairGenerator.getInstance("RSA");
+        keyGen.initialize(1024);
+        Credentials credentials = Credentials.createCredentials("user",
+                                                                "password",
+                                                                keyGen.generateKeyPair().getPublic());
+
+        jobIds = new ArrayList<>(numberOfJobs);
+        for (int i = 0; i < numberOfJobs; i++) {
+            TaskFlowJob job = new TaskFlowJob();
+            job.setName("job_" + i);
+            Map<String, JobVariable> variables = new HashMap<>();
+            variables.put("variable", new JobVariable("variable", "value_" + i));
+            job.setVariables(variables);
+            for (int j = 0; j < tasksPerJob; j++) {
+                JavaTask task = new JavaTask();
+                task.setName("task_" + j);
+                task.setExecutableClassName("org.ow2.proactive.scheduler.examples.EmptyTask");
+                job.addTask(task);
+            }
+            InternalJob internalJob = InternalJobFactory.createJob(job, credentials);
+            internalJob.setOwner("user_" + (i % numberOfUsers));
+            internalJob.submitAction();
+            dbManager.newJobSubmitted(internalJob);
+            jobIds.add(internalJob.getId().value());
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        dbManager.close();
+    }
+
+    /**
+     * First page of all the jobs, most recent first, as displayed by the portals.
+     */
+    @Benchmark
+    public Page<JobInfo> getJobsFirstPage() {
+        return dbManager.getJobs(0,
+                                 50,
+                                 null,
+                                 null,
+                                 null,
+                                 false,
+                                 true,
+                                 true,
+                                 true,
+                                 false,
+                                 true,
+                                 null,
+                                 null,
+                                 null,
+                                 null,
+                                 null,
+                                 null,
+                                 SORT_BY_ID_DESC,
+                                 null,
+                                 0,
+                                 0,
+                                 0,
+                                 0);
+    }
+
+    /**
+     * First page of the jobs of a single user.
+     */
+    @Benchmark
+    public Page<JobInfo> getUserJobsFirstPage() {
+        return dbManager.getJobs(0,
+                                 50,
+                                 null,
+                                 "user_0",
+                                 null,
+                                 false,
+                                 true,
+                                 true,
+                                 true,
+                                 false,
+                                 true,
+                                 null,
+                                 null,
+                                 null,
+                                 null,
+                                 null,
+                                 null,
+                                 SORT_BY_ID_DESC,
+                                 null,
+                                 0,
+                                 0,
+                                 0,
+                                 0);
+    }
+
+    @Benchmark
+    public List<JobInfo> getJobsByIds() {
+        return dbManager.getJobs(jobIds);
+    }
+
+    @Benchmark
+    public long getTotalJobsCount() {
+        return dbManager.getTotalJobsCount();
+    }
+
+    /**
+     * Loading of the pending jobs done by the scheduler state recovery.
+     */
+    @Benchmark
+    public List<InternalJob> loadNotFinishedJobs() {
+        return dbManager.loadNotFinishedJobs(true);
+    }
+}
@@ -0,0 +1,86 @@
+/*
+ * ProActive Parallel Suite(TM):
+ * The Open Source library for parallel and distributed
+ * Workflows & Scheduling, Orchestration, Cloud Automation
+ * and Big Data Analysis on Enterprise Grids & Clouds.
+ *
+ * Copyright (c) 2007 - 2017 ActiveEon
+ * Contact: contact@activeeon.com
+ *
+ * This library is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation: version 3 of
+ * the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ */
+package org.ow2.proactive.scheduler.job;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.ow2.proactive.scheduler.common.JobDescriptor;
+import org.ow2.proactive.scheduler.common.job.JobPriority;
+import org.ow2.proactive.scheduler.common.task.OnTaskError;
+import org.ow2.proactive.scheduler.descriptor.JobDescriptorImpl;
+import org.ow2.proactive.scheduler.task.internal.InternalScriptTask;
+import org.ow2.proactive.scheduler.task.internal.InternalTask;
+import org.ow2.proactive.scripting.SelectionScript;
+
+
+/**
+ * Builds in-memory pending jobs for the benchmarks, without any database or active object involved.
+ *
+ * @author ActiveEon Team
+ */
+public final class SyntheticJobs {
+
+    private static final JobPriority[] PRIORITIES = { JobPriority.LOW, JobPriority.NORMAL, JobPriority.HIGH };
+
+    private SyntheticJobs() {
+    }
+
+    /**
+     * Creates the descriptors of pending jobs, each one holding independent (hence eligible) tasks.
+     * Priorities and owners are spread over the jobs so that ordering and grouping have work to do.
+     *
+     * @param numberOfJobs number of jobs to create
+     * @param tasksPerJob number of tasks of each job
+     * @param numberOfOwners number of distinct job owners
+     * @param selectionScript selection script given to every task, may be null
+     * @return the job descriptors, in submission order
+     */
+    public static List<JobDescriptor> createJobDescriptors(int numberOfJobs, int tasksPerJob, int numberOfOwners,
+            SelectionScript selectionScript) {
+        List<JobDescriptor> descriptors = new ArrayList<>(numberOfJobs);
+        for (int i = 0; i < numberOfJobs; i++) {
+            InternalTaskFlowJob job = new InternalTaskFlowJob("job_" + i,
+                                                              PRIORITIES[i % PRIORITIES.length],
+                                                              OnTaskError.CANCEL_JOB,
+                                                              "");
+            job.setId(JobIdImpl.makeJobId(Integer.toString(i + 1)));
+            job.setOwner("user_" + (i % numberOfOwners));
+            List<InternalTask> tasks = new ArrayList<>(tasksPerJob);
+            for (int j = 0; j < tasksPerJob; j++) {
+                InternalScriptTask task = new InternalScriptTask(job);
+                task.setName("task_" + j);
+                if (selectionScript != null) {
+                    task.setSelectionScript(selectionScript);
+                }
+                tasks.add(task);
+            }
+            job.addTasks(tasks);
+            descriptors.add(new JobDescriptorImpl(job));
+        }
+        return descriptors;
+    }
+}
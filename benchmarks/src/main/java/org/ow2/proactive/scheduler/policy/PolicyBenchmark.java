@@ -0,0 +1,83 @@
+/*
+ * ProActive Parallel Suite(TM):
+ * The Open Source library for parallel and distributed
+ * Workflows & Scheduling, Orchestration, Cloud Automation
+ * and Big Data Analysis on Enterprise Grids & Clouds.
+ *
+ * Copyright (c) 2007 - 2017 ActiveEon
+ * Contact: contact@activeeon.com
+ *
+ * This library is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation: version 3 of
+ * the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ */
+package org.ow2.proactive.scheduler.policy;
+
+import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.ow2.proactive.scheduler.common.JobDescriptor;
+import org.ow2.proactive.scheduler.descriptor.EligibleTaskDescriptor;
+import org.ow2.proactive.scheduler.job.SyntheticJobs;
+
+
+/**
+ * Measures {@link Policy#getOrderedTasks(List)}, which is called at the start of every scheduling loop
+ * with all the pending and running jobs.
+ *
+ * @author ActiveEon Team
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class PolicyBenchmark {
+
+    @Param({ "org.ow2.proactive.scheduler.policy.DefaultPolicy",
+             "org.ow2.proactive.scheduler.policy.ExtendedSchedulerPolicy",
+             "org.ow2.proactive.scheduler.policy.edf.EDFPolicy" })
+    public String policyClassName;
+
+    @Param({ "100", "1000" })
+    public int numberOfJobs;
+
+    @Param({ "10" })
+    public int tasksPerJob;
+
+    private Policy policy;
+
+    private List<JobDescriptor> jobs;
+
+    @Setup
+    public void setUp() throws Exception {
+        policy = (Policy) Class.forName(policyClassName).newInstance();
+        jobs = SyntheticJobs.createJobDescriptors(numberOfJobs, tasksPerJob, 10, null);
+    }
+
+    @Benchmark
+    public LinkedList<EligibleTaskDescriptor> getOrderedTasks() {
+        // the scheduling loop hands a fresh list to the policy, which may sort it in place
+        return policy.getOrderedTasks(new ArrayList<>(jobs));
+    }
+}
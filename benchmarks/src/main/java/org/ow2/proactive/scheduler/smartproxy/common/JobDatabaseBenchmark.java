@@ -0,0 +1,248 @@
+/*
+ * ProActive Parallel Suite(TM):
+ * The Open Source library for parallel and distributed
+ * Workflows & Scheduling, Orchestration, Cloud Automation
+ * and Big Data Analysis on Enterprise Grids & Clouds.
+ *
+ * Copyright (c) 2007 - 2017 ActiveEon
+ * Contact: contact@activeeon.com
+ *
+ * This library is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation: version 3 of
+ * the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ */
+package org.ow2.proactive.scheduler.smartproxy.common;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+
+/**
+ * Compares the throughput of the smart proxy {@link JobDatabase} store with the former {@link JdbmJobDatabase},
+ * on the operations done by the job trackers: job submissions, output transfers of tasks and task removals.
+ *
+ * @author ActiveEon Team
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class JobDatabaseBenchmark {
+
+    @Param({ "jdbm", "store" })
+    public String database;
+
+    @Param({ "1000" })
+    public int numberOfJobs;
+
+    @Param({ "20" })
+    public int tasksPerJob;
+
+    private AwaitedJobsDatabase awaitedJobs;
+
+    private int nextJobId;
+
+    private int operation;
+
+    @Setup
+    public void setUp() {
+        awaitedJobs = "jdbm".equals(database) ? new JdbmDatabase() : new StoreDatabase();
+        awaitedJobs.cleanDataBase();
+        awaitedJobs.loadJobs();
+        for (nextJobId = 0; nextJobId < numberOfJobs; nextJobId++) {
+            awaitedJobs.putAwaitedJob(createAwaitedJob(String.valueOf(nextJobId)));
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        awaitedJobs.close();
+        awaitedJobs.cleanDataBase();
+    }
+
+    @Benchmark
+    public void submitJob() {
+        awaitedJobs.putAwaitedJob(createAwaitedJob(String.valueOf(nextJobId++)));
+    }
+
+    /**
+     * Transferring flag updates done around the output transfer of a task.
+     */
+    @Benchmark
+    public void transferTaskOutput() {
+        String jobId = String.valueOf(operation % numberOfJobs);
+        String taskName = "task_" + (operation++ / numberOfJobs) % tasksPerJob;
+        awaitedJobs.setTaskTransferring(jobId, taskName, true);
+        awaitedJobs.setTaskTransferring(jobId, taskName, false);
+    }
+
+    /**
+     * Removal of a task once its output is transferred, the removed task is added back to keep the same jobs.
+     */
+    @Benchmark
+    public AwaitedJob removeTask() throws IOException {
+        String jobId = String.valueOf(operation++ % numberOfJobs);
+        AwaitedJob awaitedJob = awaitedJobs.getAwaitedJob(jobId);
+        AwaitedTask awaitedTask = awaitedJob.getAwaitedTask("task_0");
+        awaitedJob.removeAwaitedTask("task_0");
+        awaitedJobs.putAwaitedJob(awaitedJob);
+        awaitedJobs.commit();
+        awaitedJob.putAwaitedTask("task_0", awaitedTask);
+        awaitedJobs.putAwaitedJob(awaitedJob);
+        awaitedJobs.commit();
+        return awaitedJob;
+    }
+
+    @Benchmark
+    public AwaitedJob getAwaitedJob() {
+        return awaitedJobs.getAwaitedJob(String.valueOf(operation++ % numberOfJobs));
+    }
+
+    private AwaitedJob createAwaitedJob(String jobId) {
+        HashMap<String, AwaitedTask> awaitedTasks = new HashMap<>();
+        for (int i = 0; i < tasksPerJob; i++) {
+            String taskName = "task_" + i;
+            awaitedTasks.put(taskName, new AwaitedTask(taskName, null));
+        }
+        return new AwaitedJob(jobId,
+                              "/tmp/input/" + jobId,
+                              "file:///tmp/input-space",
+                              "file:///tmp/input-space/" + jobId,
+                              "/tmp/output/" + jobId,
+                              "file:///tmp/output-space",
+                              "file:///tmp/output-space/" + jobId,
+                              true,
+                              true,
+                              awaitedTasks);
+    }
+
+    /**
+     * Operations of the job trackers, which both databases provide without sharing a common type.
+     */
+    private interface AwaitedJobsDatabase {
+
+        void cleanDataBase();
+
+        void loadJobs();
+
+        void close();
+
+        void commit() throws IOException;
+
+        void putAwaitedJob(AwaitedJob awaitedJob);
+
+        AwaitedJob getAwaitedJob(String id);
+
+        void setTaskTransferring(String id, String taskName, boolean transferring);
+    }
+
+    private static class JdbmDatabase implements AwaitedJobsDatabase {
+
+        private final JdbmJobDatabase jobDatabase = new JdbmJobDatabase();
+
+        JdbmDatabase() {
+            jobDatabase.setSessionName("JdbmJobDatabaseBenchmark");
+        }
+
+        @Override
+        public void cleanDataBase() {
+            jobDatabase.cleanDataBase();
+        }
+
+        @Override
+        public void loadJobs() {
+            jobDatabase.loadJobs();
+        }
+
+        @Override
+        public void close() {
+            jobDatabase.close();
+        }
+
+        @Override
+        public void commit() throws IOException {
+            jobDatabase.commit();
+        }
+
+        @Override
+        public void putAwaitedJob(AwaitedJob awaitedJob) {
+            jobDatabase.putAwaitedJob(awaitedJob.getJobId(), awaitedJob);
+        }
+
+        @Override
+        public AwaitedJob getAwaitedJob(String id) {
+            return jobDatabase.getAwaitedJob(id);
+        }
+
+        @Override
+        public void setTaskTransferring(String id, String taskName, boolean transferring) {
+            jobDatabase.setTaskTransferring(id, taskName, transferring);
+        }
+    }
+
+    private static class StoreDatabase implements AwaitedJobsDatabase {
+
+        private final JobDatabase jobDatabase = new JobDatabase();
+
+        StoreDatabase() {
+            jobDatabase.setSessionName("JobDatabaseBenchmark");
+        }
+
+        @Override
+        public void cleanDataBase() {
+            jobDatabase.cleanDataBase();
+        }
+
+        @Override
+        public void loadJobs() {
+            jobDatabase.loadJobs();
+        }
+
+        @Override
+        public void close() {
+            jobDatabase.close();
+        }
+
+        @Override
+        public void commit() throws IOException {
+            jobDatabase.commit();
+        }
+
+        @Override
+        public void putAwaitedJob(AwaitedJob awaitedJob) {
+            jobDatabase.putAwaitedJob(awaitedJob.getJobId(), awaitedJob);
+        }
+
+        @Override
+        public AwaitedJob getAwaitedJob(String id) {
+            return jobDatabase.getAwaitedJob(id);
+        }
+
+        @Override
+        public void setTaskTransferring(String id, String taskName, boolean transferring) {
+            jobDatabase.setTaskTransferring(id, taskName, transferring);
+        }
+    }
+}
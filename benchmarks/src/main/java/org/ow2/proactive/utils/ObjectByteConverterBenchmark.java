@@ -0,0 +1,92 @@
+/*
+ * ProActive Parallel Suite(TM):
+ * The Open Source library for parallel and distributed
+ * Workflows & Scheduling, Orchestration, Cloud Automation
+ * and Big Data Analysis on Enterprise Grids & Clouds.
+ *
+ * Copyright (c) 2007 - 2017 ActiveEon
+ * Contact: contact@activeeon.com
+ *
+ * This library is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation: version 3 of
+ * the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ */
+package org.ow2.proactive.utils;
+
+import java.io.Serializable;
+import java.util.HashMap;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+
+/**
+ * Measures {@link ObjectByteConverter}, which serializes task results, variables and infrastructure
+ * data before they are stored in the database.
+ * <p>
+ * The payload is a map of variables, the most frequent serialized structure, with values of the given size.
+ *
+ * @author ActiveEon Team
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ObjectByteConverterBenchmark {
+
+    @Param({ "10", "1000" })
+    public int numberOfEntries;
+
+    @Param({ "16", "1024" })
+    public int valueLength;
+
+    @Param({ "false", "true" })
+    public boolean compress;
+
+    private HashMap<String, Serializable> payload;
+
+    private byte[] serializedPayload;
+
+    @Setup
+    public void setUp() {
+        payload = new HashMap<>(numberOfEntries);
+        StringBuilder value = new StringBuilder(valueLength);
+        for (int i = 0; i < numberOfEntries; i++) {
+            value.setLength(0);
+            while (value.length() < valueLength) {
+                value.append("value_").append(i).append(' ');
+            }
+            value.setLength(valueLength);
+            payload.put("variable_" + i, value.toString());
+        }
+        serializedPayload = ObjectByteConverter.objectToByteArray(payload, compress);
+    }
+
+    @Benchmark
+    public byte[] objectToByteArray() {
+        return ObjectByteConverter.objectToByteArray(payload, compress);
+    }
+
+    @Benchmark
+    public Object byteArrayToObject() {
+        return ObjectByteConverter.byteArrayToObject(serializedPayload, compress);
+    }
+}
@@ -29,15 +29,15 @@ import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
+import java.nio.ByteBuffer;
 import java.text.DecimalFormat;
 import java.text.DecimalFormatSymbols;
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
-import java.util.stream.Collectors;
 
 import javax.management.Attribute;
 import javax.management.AttributeList;
@@ -67,6 +67,15 @@ public final class MBeanInfoViewer {
 
     private static final Logger LOGGER = Logger.getLogger(MBeanInfoViewer.class);
 
+    /** Start of the signature of RRD4J databases */
+    private static final String RRD_SIGNATURE = "RRD4J";
+
+    /**
+     * The header starts with the signature (20 characters), the step (long) and the counts of data sources
+     * and archives (int)
+     */
+    private static final int RRD_LAST_UPDATE_TIME_OFFSET = 40 + 8 + 4 + 4;
+
     /** The authentication interface */
     private final Authentication auth;
 
@@ -113,10 +122,71 @@ public final class MBeanInfoViewer {
 
     public static String rrdContent(byte[] rrd4j, String newRange, String[] dataSources, String function)
             throws IOException {
+        Map<Character, List<String>> dataSourcesByZone = new LinkedHashMap<>();
+        for (int i = 0; i < dataSources.length; i++) {
+            dataSourcesByZone.computeIfAbsent(newRange.charAt(i), zone -> new ArrayList<>()).add(dataSources[i]);
+        }
 
-        File rrd4jDb = File.createTempFile("database", "rr4dj");
+        return seriesToJson(rrdSeries(rrd4j, dataSourcesByZone, function), newRange, dataSources);
+    }
+
+    static String seriesToJson(Map<Character, Map<String, String>> series, String range, String[] dataSources) {
         // construct the JSON response directly in a String
         StringBuilder result = new StringBuilder();
+        result.append("{");
+        for (int i = 0; i < dataSources.length; i++) {
+            String dataSource = dataSources[i];
+            result.append("\"").append(dataSource).append("\":[");
+            result.append(series.get(range.charAt(i)).get(dataSource));
+            result.append(']');
+            if (i < dataSources.length - 1) {
+                result.append(',');
+            }
+        }
+        result.append("}");
+
+        return result.toString();
+    }
+
+    /**
+     * Renders the values of the given data sources as comma separated JSON numbers.
+     * <p>
+     * The data sources sharing the same time range are retrieved by a single fetch of the RRD database.
+     *
+     * @param rrd4j content of the RRD4J database backing file
+     * @param dataSourcesByZone data sources to render, grouped by time range (see {@link #secondsInZone(char)})
+     * @param function name of the consolidation function, AVERAGE if null
+     * @return rendered values of each data source, grouped by time range
+     */
+    static Map<Character, Map<String, String>> rrdSeries(byte[] rrd4j, Map<Character, List<String>> dataSourcesByZone,
+            String function) throws IOException {
+        return readRrdDb(rrd4j, db -> {
+            Map<Character, Map<String, String>> result = new HashMap<>();
+            ConsolFun consolFun = consolFun(function);
+            DecimalFormat formatter = newValuesFormatter();
+
+            for (Map.Entry<Character, List<String>> zoneDataSources : dataSourcesByZone.entrySet()) {
+                FetchData fetchData = fetchZone(db, consolFun, zoneDataSources.getKey(), zoneDataSources.getValue());
+
+                Map<String, String> zoneSeries = new HashMap<>();
+                for (String dataSource : zoneDataSources.getValue()) {
+                    zoneSeries.put(dataSource, formatValues(fetchData.getValues(dataSource), formatter));
+                }
+                result.put(zoneDataSources.getKey(), zoneSeries);
+            }
+            return result;
+        });
+    }
+
+    /**
+     * Opens the RRD4J database of the given content and reads it with the given reader.
+     *
+     * @param rrd4j content of the RRD4J database backing file
+     * @param reader reads the opened database
+     * @return the result of the reader
+     */
+    static <T> T readRrdDb(byte[] rrd4j, RrdReader<T> reader) throws IOException {
+        File rrd4jDb = File.createTempFile("database", "rr4dj");
         try {
             try (OutputStream out = new FileOutputStream(rrd4jDb)) {
                 out.write(rrd4j);
@@ -124,66 +194,82 @@ public final class MBeanInfoViewer {
 
             // create RRD4J DB, should be identical to the one held by the RM
             RrdDb db = new RrdDb(rrd4jDb.getAbsolutePath(), true);
+            try {
+                return reader.read(db);
+            } finally {
+                db.close();
+            }
+        } finally {
+            FileUtils.deleteQuietly(rrd4jDb);
+        }
+    }
 
-            long timeEnd = db.getLastUpdateTime();
-            // force float separator for JSON parsing
-            DecimalFormatSymbols otherSymbols = new DecimalFormatSymbols(Locale.US);
-            otherSymbols.setDecimalSeparator('.');
-            // formatting will greatly reduce response size
-            DecimalFormat formatter = new DecimalFormat("###.###", otherSymbols);
-
-            result.append("{");
-
-            for (int i = 0; i < dataSources.length; i++) {
-                String dataSource = dataSources[i];
-                char zone = newRange.charAt(i);
-                long timeStart = timeEnd - secondsInZone(zone);
-
-                FetchRequest req = db.createFetchRequest(function != null ? ConsolFun.valueOf(function)
-                                                                          : ConsolFun.AVERAGE,
-                                                         timeStart,
-                                                         timeEnd);
-                req.setFilter(dataSource);
-                FetchData fetchData = req.fetchData();
-                result.append("\"").append(dataSource).append("\":[");
-
-                double[] values = fetchData.getValues(dataSource);
-
-                int nValuesToTake = values.length;
-                // if the last value is NaN then we decide to not send it to the client
-                // why? Because when we retrieve from RDD file, somehow the latest is
-                // always NaN, which is not what we want.
-                if (Double.compare(values[values.length - 1], Double.NaN) == 0) {
-                    --nValuesToTake;
-                }
+    @FunctionalInterface
+    interface RrdReader<T> {
+        T read(RrdDb db) throws IOException;
+    }
 
-                String collect = Arrays.stream(values)
-                                       .boxed()
-                                       .collect(Collectors.toList())
-                                       .subList(0, nValuesToTake)
-                                       .stream()
-                                       .map(value -> {
-                                           if (Double.compare(Double.NaN, value) == 0) {
-                                               return "null";
-                                           } else {
-                                               return formatter.format(value);
-                                           }
-                                       })
-                                       .collect(Collectors.joining(","));
-                result.append(collect);
-                result.append(']');
-                if (i < dataSources.length - 1) {
-                    result.append(',');
-                }
+    /**
+     * Reads the last update time stored in the header of a RRD4J database content, without opening the database.
+     *
+     * @param rrd4j content of the RRD4J database backing file
+     * @return the last update time of the database in seconds, or -1 if the content is not a RRD4J database
+     */
+    static long lastUpdateTime(byte[] rrd4j) {
+        if (rrd4j == null || rrd4j.length < RRD_LAST_UPDATE_TIME_OFFSET + Long.BYTES) {
+            return -1;
+        }
+        // header strings are stored with two bytes per character
+        for (int i = 0; i < RRD_SIGNATURE.length(); i++) {
+            if (rrd4j[2 * i] != 0 || rrd4j[2 * i + 1] != RRD_SIGNATURE.charAt(i)) {
+                return -1;
             }
-            result.append("}");
+        }
+        return ByteBuffer.wrap(rrd4j, RRD_LAST_UPDATE_TIME_OFFSET, Long.BYTES).getLong();
+    }
 
-            db.close();
-        } finally {
-            FileUtils.deleteQuietly(rrd4jDb);
+    static ConsolFun consolFun(String function) {
+        return function != null ? ConsolFun.valueOf(function) : ConsolFun.AVERAGE;
+    }
+
+    static FetchData fetchZone(RrdDb db, ConsolFun consolFun, char zone, List<String> dataSources)
+            throws IOException {
+        long timeEnd = db.getLastUpdateTime();
+        long timeStart = timeEnd - secondsInZone(zone);
+        FetchRequest req = db.createFetchRequest(consolFun, timeStart, timeEnd);
+        req.setFilter(dataSources.toArray(new String[0]));
+        return req.fetchData();
+    }
+
+    static DecimalFormat newValuesFormatter() {
+        // force float separator for JSON parsing
+        DecimalFormatSymbols otherSymbols = new DecimalFormatSymbols(Locale.US);
+        otherSymbols.setDecimalSeparator('.');
+        // formatting will greatly reduce response size
+        return new DecimalFormat("###.###", otherSymbols);
+    }
+
+    static String formatValues(double[] values, DecimalFormat formatter) {
+        int nValuesToTake = values.length;
+        // if the last value is NaN then we decide to not send it to the client
+        // why? Because when we retrieve from RDD file, somehow the latest is
+        // always NaN, which is not what we want.
+        if (nValuesToTake > 0 && Double.isNaN(values[nValuesToTake - 1])) {
+            --nValuesToTake;
         }
 
-        return result.toString();
+        StringBuilder collect = new StringBuilder(nValuesToTake * 4);
+        for (int i = 0; i < nValuesToTake; i++) {
+            if (i > 0) {
+                collect.append(',');
+            }
+            if (Double.isNaN(values[i])) {
+                collect.append("null");
+            } else {
+                collect.append(formatter.format(values[i]));
+            }
+        }
+        return collect.toString();
     }
 
     private synchronized void lazyConnect() {
@@ -256,10 +342,13 @@ public final class MBeanInfoViewer {
             // content of the RRD4J database backing file
             byte[] rrd4j = (byte[]) attr.getValue();
 
-            return MBeanInfoViewer.rrdContent(rrd4j,
-                                              MBeanInfoViewer.possibleModifyRange(range, dataSources, 'd'),
-                                              dataSources,
-                                              function);
+            return RrdSeriesCache.getInstance().rrdContent(mbeanName,
+                                                           rrd4j,
+                                                           MBeanInfoViewer.possibleModifyRange(range,
+                                                                                               dataSources,
+                                                                                               'd'),
+                                                           dataSources,
+                                                           function);
         } catch (Exception e) {
             LOGGER.error("Could not retrieve statistics history, " + e.getMessage());
             throw new RuntimeException(e);
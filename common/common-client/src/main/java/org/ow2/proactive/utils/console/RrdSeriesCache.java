@@ -0,0 +1,290 @@
+/*
+ * ProActive Parallel Suite(TM):
+ * The Open Source library for parallel and distributed
+ * Workflows & Scheduling, Orchestration, Cloud Automation
+ * and Big Data Analysis on Enterprise Grids & Clouds.
+ *
+ * Copyright (c) 2007 - 2017 ActiveEon
+ * Contact: contact@activeeon.com
+ *
+ * This library is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation: version 3 of
+ * the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ */
+package org.ow2.proactive.utils.console;
+
+import java.io.IOException;
+import java.text.DecimalFormat;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.rrd4j.ConsolFun;
+import org.rrd4j.core.Archive;
+import org.rrd4j.core.FetchData;
+import org.rrd4j.core.Robin;
+import org.rrd4j.core.RrdDb;
+
+
+/**
+ * Cache of the JSON series rendered from statistic history RRD databases.
+ * <p>
+ * Statistic history requests transfer the whole RRD4J database of an MBean and only differ by the
+ * time range of each data source and the consolidation function. The series of each
+ * (function, time range, data source) are kept for each MBean along with the last update time of
+ * the database they were read from, which is read from the database header. Requests with other
+ * ranges, or from other users, reuse them while the database is not updated. When it is updated,
+ * only the archive rows written since the series were read are fetched and appended, the rows
+ * which went out of the time range are dropped. Series are only read entirely the first time they
+ * are requested, or when the database was replaced by an older one.
+ * <p>
+ * An updated series keeps the archive selected when it was read entirely.
+ *
+ * @author The ProActive Team
+ */
+public final class RrdSeriesCache {
+
+    private static final RrdSeriesCache instance = new RrdSeriesCache();
+
+    private final Map<String, SourceSeries> sources = new ConcurrentHashMap<>();
+
+    private final AtomicLong renderedSeries = new AtomicLong();
+
+    private final AtomicLong updatedSeries = new AtomicLong();
+
+    /**
+     * Series of a single MBean
+     */
+    private static class SourceSeries {
+        // function -> time range -> data source -> series
+        private final Map<String, Map<Character, Map<String, Series>>> series = new HashMap<>();
+
+        private Map<Character, Map<String, Series>> get(String function) {
+            return series.computeIfAbsent(function, key -> new HashMap<>());
+        }
+    }
+
+    /**
+     * Values of a data source over a time range, as fetched from an archive of the database
+     */
+    private static class Series {
+        private final long arcStep;
+
+        private final long lastUpdateTime;
+
+        // last archive row included in the values
+        private final long arcEndTime;
+
+        // timestamp of the first value
+        private final long firstTime;
+
+        private final double[] values;
+
+        private final String rendered;
+
+        private Series(long arcStep, long lastUpdateTime, long arcEndTime, long firstTime, double[] values,
+                DecimalFormat formatter) {
+            this.arcStep = arcStep;
+            this.lastUpdateTime = lastUpdateTime;
+            this.arcEndTime = arcEndTime;
+            this.firstTime = firstTime;
+            this.values = values;
+            this.rendered = MBeanInfoViewer.formatValues(values, formatter);
+        }
+    }
+
+    RrdSeriesCache() {
+    }
+
+    public static RrdSeriesCache getInstance() {
+        return instance;
+    }
+
+    /**
+     * Same as {@link MBeanInfoViewer#rrdContent(byte[], String, String[], String)}, reusing the series
+     * already read for the given source and appending the values added to its database since then.
+     *
+     * @param source name of the MBean the database comes from
+     * @param rrd4j content of the RRD4J database backing file
+     * @param range time range of each data source
+     * @param dataSources data sources to render
+     * @param function name of the consolidation function, AVERAGE if null
+     * @return the JSON object of the data sources values
+     */
+    public String rrdContent(String source, byte[] rrd4j, String range, String[] dataSources, String function)
+            throws IOException {
+        long lastUpdateTime = MBeanInfoViewer.lastUpdateTime(rrd4j);
+        if (lastUpdateTime < 0) {
+            // unknown database format, the series cannot be compared
+            return MBeanInfoViewer.rrdContent(rrd4j, range, dataSources, function);
+        }
+        String functionName = function != null ? function : "";
+        SourceSeries sourceSeries = sources.computeIfAbsent(source, key -> new SourceSeries());
+
+        synchronized (sourceSeries) {
+            Map<Character, Map<String, Series>> functionSeries = sourceSeries.get(functionName);
+
+            Map<Character, List<String>> missing = new LinkedHashMap<>();
+            Map<Character, List<String>> outdated = new LinkedHashMap<>();
+            for (int i = 0; i < dataSources.length; i++) {
+                char zone = range.charAt(i);
+                Series series = functionSeries.computeIfAbsent(zone, key -> new HashMap<>()).get(dataSources[i]);
+                if (series == null || series.lastUpdateTime > lastUpdateTime) {
+                    missing.computeIfAbsent(zone, key -> new ArrayList<>()).add(dataSources[i]);
+                } else if (series.lastUpdateTime < lastUpdateTime) {
+                    outdated.computeIfAbsent(zone, key -> new ArrayList<>()).add(dataSources[i]);
+                }
+            }
+            if (!missing.isEmpty() || !outdated.isEmpty()) {
+                MBeanInfoViewer.readRrdDb(rrd4j, db -> {
+                    readSeries(db, functionSeries, missing, outdated, MBeanInfoViewer.consolFun(function));
+                    return null;
+                });
+            }
+
+            Map<Character, Map<String, String>> rendered = new HashMap<>();
+            for (int i = 0; i < dataSources.length; i++) {
+                char zone = range.charAt(i);
+                rendered.computeIfAbsent(zone, key -> new HashMap<>())
+                        .put(dataSources[i], functionSeries.get(zone).get(dataSources[i]).rendered);
+            }
+            return MBeanInfoViewer.seriesToJson(rendered, range, dataSources);
+        }
+    }
+
+    private void readSeries(RrdDb db, Map<Character, Map<String, Series>> functionSeries,
+            Map<Character, List<String>> missing, Map<Character, List<String>> outdated, ConsolFun consolFun)
+            throws IOException {
+        DecimalFormat formatter = MBeanInfoViewer.newValuesFormatter();
+
+        for (Map.Entry<Character, List<String>> zoneDataSources : outdated.entrySet()) {
+            Map<String, Series> zoneSeries = functionSeries.get(zoneDataSources.getKey());
+            for (String dataSource : zoneDataSources.getValue()) {
+                Series series = appendRows(db, consolFun, zoneDataSources.getKey(), dataSource,
+                                           zoneSeries.get(dataSource), formatter);
+                if (series != null) {
+                    zoneSeries.put(dataSource, series);
+                    updatedSeries.incrementAndGet();
+                } else {
+                    missing.computeIfAbsent(zoneDataSources.getKey(), key -> new ArrayList<>()).add(dataSource);
+                }
+            }
+        }
+
+        long lastUpdateTime = db.getLastUpdateTime();
+        for (Map.Entry<Character, List<String>> zoneDataSources : missing.entrySet()) {
+            FetchData fetchData = MBeanInfoViewer.fetchZone(db,
+                                                            consolFun,
+                                                            zoneDataSources.getKey(),
+                                                            zoneDataSources.getValue());
+            Map<String, Series> zoneSeries = functionSeries.get(zoneDataSources.getKey());
+            for (String dataSource : zoneDataSources.getValue()) {
+                zoneSeries.put(dataSource,
+                               new Series(fetchData.getArcStep(),
+                                          lastUpdateTime,
+                                          fetchData.getArcEndTime(),
+                                          fetchData.getTimestamps()[0],
+                                          fetchData.getValues(dataSource),
+                                          formatter));
+            }
+            renderedSeries.addAndGet(zoneDataSources.getValue().size());
+        }
+    }
+
+    /**
+     * Builds the values of the series at the last update time of the database, as a fetch on the archive of the
+     * series would: rows out of the archive are NaN, rows already in the series are reused and only the rows
+     * written since then are read.
+     *
+     * @return the updated series, or null if the series must be read entirely
+     */
+    private static Series appendRows(RrdDb db, ConsolFun consolFun, char zone, String dataSource, Series series,
+            DecimalFormat formatter) throws IOException {
+        Archive archive = findArchive(db, consolFun, series.arcStep);
+        if (archive == null) {
+            return null;
+        }
+        long step = series.arcStep;
+        long lastUpdateTime = db.getLastUpdateTime();
+        long arcStartTime = archive.getStartTime();
+        long arcEndTime = archive.getEndTime();
+        if (arcEndTime < series.arcEndTime) {
+            return null;
+        }
+
+        long fetchStart = normalize(lastUpdateTime - MBeanInfoViewer.secondsInZone(zone), step);
+        long fetchEnd = normalize(lastUpdateTime, step);
+        if (fetchEnd < lastUpdateTime) {
+            fetchEnd += step;
+        }
+        long matchStart = Math.max(fetchStart, arcStartTime);
+        long matchEnd = Math.min(fetchEnd, arcEndTime);
+        if (matchStart < series.firstTime) {
+            return null;
+        }
+        // rows up to the last archive row of the series did not change
+        long readStart = Math.max(matchStart, series.arcEndTime + step);
+
+        Robin robin = null;
+        double[] values = new double[(int) ((fetchEnd - fetchStart) / step + 1)];
+        for (int i = 0; i < values.length; i++) {
+            long time = fetchStart + i * step;
+            if (time < matchStart || time > matchEnd) {
+                values[i] = Double.NaN;
+            } else if (time < readStart) {
+                values[i] = series.values[(int) ((time - series.firstTime) / step)];
+            } else {
+                if (robin == null) {
+                    robin = archive.getRobin(db.getDsIndex(dataSource));
+                }
+                values[i] = robin.getValue((int) ((time - arcStartTime) / step));
+            }
+        }
+        return new Series(step, lastUpdateTime, arcEndTime, fetchStart, values, formatter);
+    }
+
+    private static Archive findArchive(RrdDb db, ConsolFun consolFun, long arcStep) throws IOException {
+        for (int i = 0; i < db.getArcCount(); i++) {
+            Archive archive = db.getArchive(i);
+            if (archive.getConsolFun() == consolFun && archive.getArcStep() == arcStep) {
+                return archive;
+            }
+        }
+        return null;
+    }
+
+    private static long normalize(long timestamp, long step) {
+        return timestamp - timestamp % step;
+    }
+
+    /**
+     * @return the number of series read entirely since the cache creation
+     */
+    public long getRenderedSeriesCount() {
+        return renderedSeries.get();
+    }
+
+    /**
+     * @return the number of series updated with the rows added to their database since the cache creation
+     */
+    public long getUpdatedSeriesCount() {
+        return updatedSeries.get();
+    }
+
+}
@@ -0,0 +1,113 @@
+/*
+ * ProActive Parallel Suite(TM):
+ * The Open Source library for parallel and distributed
+ * Workflows & Scheduling, Orchestration, Cloud Automation
+ * and Big Data Analysis on Enterprise Grids & Clouds.
+ *
+ * Copyright (c) 2007 - 2017 ActiveEon
+ * Contact: contact@activeeon.com
+ *
+ * This library is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation: version 3 of
+ * the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ */
+package org.ow2.proactive.utils.console;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.IOException;
+
+import org.junit.Test;
+import org.rrd4j.ConsolFun;
+import org.rrd4j.DsType;
+import org.rrd4j.core.RrdBackendFactory;
+import org.rrd4j.core.RrdDb;
+import org.rrd4j.core.RrdDef;
+import org.rrd4j.core.Sample;
+
+
+public class RrdSeriesCacheTest {
+
+    private static final String[] DATA_SOURCES = { "FreeNodesCount", "BusyNodesCount", "DownNodesCount" };
+
+    @Test
+    public void testSeriesAreReusedUntilDatabaseChanges() throws Exception {
+        RrdSeriesCache cache = new RrdSeriesCache();
+        long end = System.currentTimeMillis() / 1000;
+        RrdDb rrdDb = createRrdDb("first", end - 3600);
+        addSamples(rrdDb, end - 3600, end, 1);
+        byte[] rrd4j = rrdDb.getBytes();
+        assertEquals(rrdDb.getLastUpdateTime(), MBeanInfoViewer.lastUpdateTime(rrd4j));
+
+        assertEquals(MBeanInfoViewer.rrdContent(rrd4j, "aah", DATA_SOURCES, "AVERAGE"),
+                     cache.rrdContent("bean", rrd4j, "aah", DATA_SOURCES, "AVERAGE"));
+        assertEquals(3, cache.getRenderedSeriesCount());
+
+        // another range only renders the new series
+        assertEquals(MBeanInfoViewer.rrdContent(rrd4j, "ahh", DATA_SOURCES, "AVERAGE"),
+                     cache.rrdContent("bean", rrd4j.clone(), "ahh", DATA_SOURCES, "AVERAGE"));
+        assertEquals(4, cache.getRenderedSeriesCount());
+
+        cache.rrdContent("bean", rrd4j, "aah", DATA_SOURCES, "AVERAGE");
+        assertEquals(4, cache.getRenderedSeriesCount());
+
+        // other function and other source are rendered separately
+        cache.rrdContent("bean", rrd4j, "aah", DATA_SOURCES, "MAX");
+        cache.rrdContent("other", rrd4j, "aah", DATA_SOURCES, "AVERAGE");
+        assertEquals(10, cache.getRenderedSeriesCount());
+
+        // the rows added to the database are appended to the series
+        addSamples(rrdDb, end + 4, end + 100, 2);
+        byte[] updated = rrdDb.getBytes();
+        assertEquals(MBeanInfoViewer.rrdContent(updated, "aah", DATA_SOURCES, "AVERAGE"),
+                     cache.rrdContent("bean", updated, "aah", DATA_SOURCES, "AVERAGE"));
+        assertEquals(MBeanInfoViewer.rrdContent(updated, "ahh", DATA_SOURCES, "AVERAGE"),
+                     cache.rrdContent("bean", updated, "ahh", DATA_SOURCES, "AVERAGE"));
+        assertEquals(10, cache.getRenderedSeriesCount());
+        assertEquals(4, cache.getUpdatedSeriesCount());
+
+        // an older database is rendered again
+        RrdDb older = createRrdDb("second", end - 3600);
+        addSamples(older, end - 3600, end - 60, 3);
+        byte[] olderContent = older.getBytes();
+        assertEquals(MBeanInfoViewer.rrdContent(olderContent, "aah", DATA_SOURCES, "AVERAGE"),
+                     cache.rrdContent("bean", olderContent, "aah", DATA_SOURCES, "AVERAGE"));
+        assertEquals(13, cache.getRenderedSeriesCount());
+    }
+
+    private RrdDb createRrdDb(String path, long start) throws IOException {
+        RrdDef rrdDef = new RrdDef(path, start - 1, 4);
+        for (String dataSource : DATA_SOURCES) {
+            rrdDef.addDatasource(dataSource, DsType.GAUGE, 600, 0, Double.NaN);
+        }
+        rrdDef.addArchive(ConsolFun.AVERAGE, 0.5, 1, 150);
+        rrdDef.addArchive(ConsolFun.MAX, 0.5, 1, 150);
+        rrdDef.addArchive(ConsolFun.AVERAGE, 0.5, 5, 180);
+        rrdDef.addArchive(ConsolFun.MAX, 0.5, 5, 180);
+
+        return new RrdDb(rrdDef, RrdBackendFactory.getFactory("MEMORY"));
+    }
+
+    private void addSamples(RrdDb rrdDb, long start, long end, double value) throws IOException {
+        Sample sample = rrdDb.createSample();
+        for (long time = start; time <= end; time += 4) {
+            sample.setTime(time);
+            for (String dataSource : DATA_SOURCES) {
+                sample.setValue(dataSource, value);
+            }
+            sample.update();
+        }
+    }
+}
@@ -224,6 +224,10 @@ public interface SchedulerRestInterface {
      *             Include only jobs with a submittedTime after the given EPOCh time
      * @param submittedTimeLessThan
      *             Include only jobs with a submittedTime earlier than the given EPOCH time
+     * @param afterJobId
+     *             optional, id of the last job of the previous page. When set, the page starts right after
+     *             this job in the sort order and index is ignored, which is much faster to browse deep pages.
+     *             index is still used when the jobs are sorted on their start at time, which can be undefined
      * @return a map containing one entry with the revision id as key and the
      *         list of UserJobData as value.
      */
@@ -251,7 +255,8 @@ public interface SchedulerRestInterface {
             @QueryParam("submittedTimeGreater") @DefaultValue("0") long submittedTimeGreater,
             @QueryParam("submittedTimeLessThan") @DefaultValue("0") long submittedTimeLessThan,
             @QueryParam("startAtTimeGreater") @DefaultValue("0") long startAtTimeGreater,
-            @QueryParam("startAtTimeLessThan") @DefaultValue("0") long startAtTimeLessThan) throws RestException;
+            @QueryParam("startAtTimeLessThan") @DefaultValue("0") long startAtTimeLessThan,
+            @QueryParam("afterJobId") @DefaultValue("-1") Long afterJobId) throws RestException;
 
     /**
      * Returns the revision number of the scheduler state
@@ -391,17 +396,27 @@ public interface SchedulerRestInterface {
     /**
      * Returns job server logs
      *
+     * The offset and limit are byte offsets in the log files. A character split by
+     * the requested window is returned by the window containing its first byte.
+     *
      * @param sessionId
      *            a valid session id
      * @param jobId
      *            the id of the job
-     * @return job traces from the scheduler and resource manager
+     * @param offset
+     *            number of bytes of the logs to skip, default is 0
+     * @param limit
+     *            maximum number of bytes to return, default is -1 (logs are
+     *            returned until the end)
+     * @return job traces from the scheduler and resource manager, streamed as
+     *         UTF-8 text
      */
     @GET
     @GZIP
     @Path("jobs/{jobid}/log/server")
     @Produces({ MediaType.TEXT_PLAIN, MediaType.APPLICATION_JSON })
-    String jobServerLog(@HeaderParam("sessionid") String sessionId, @PathParam("jobid") String jobId)
+    Response jobServerLog(@HeaderParam("sessionid") String sessionId, @PathParam("jobid") String jobId,
+            @QueryParam("offset") @DefaultValue("0") long offset, @QueryParam("limit") @DefaultValue("-1") long limit)
             throws RestException;
 
     /**
@@ -1322,20 +1337,30 @@ public interface SchedulerRestInterface {
     /**
      * Returns task server logs
      *
+     * The offset and limit are byte offsets in the log files. A character split by
+     * the requested window is returned by the window containing its first byte.
+     *
      * @param sessionId
      *            a valid session id
      * @param jobId
      *            the id of the job
      * @param taskname
      *            the name of the task
-     * @return task traces from the scheduler and resource manager
+     * @param offset
+     *            number of bytes of the logs to skip, default is 0
+     * @param limit
+     *            maximum number of bytes to return, default is -1 (logs are
+     *            returned until the end)
+     * @return task traces from the scheduler and resource manager, streamed as
+     *         UTF-8 text
      */
     @GET
     @GZIP
     @Path("jobs/{jobid}/tasks/{taskname}/log/server")
     @Produces({ MediaType.TEXT_PLAIN, MediaType.APPLICATION_JSON })
-    String taskServerLog(@HeaderParam("sessionid") String sessionId, @PathParam("jobid") String jobId,
-            @PathParam("taskname") String taskname) throws RestException;
+    Response taskServerLog(@HeaderParam("sessionid") String sessionId, @PathParam("jobid") String jobId,
+            @PathParam("taskname") String taskname, @QueryParam("offset") @DefaultValue("0") long offset,
+            @QueryParam("limit") @DefaultValue("-1") long limit) throws RestException;
 
     /**
      * Returns server logs for a set of tasks filtered by a given tag.
@@ -107,8 +107,12 @@ public interface RestDataspace {
      * </li>
      * <li>If the pathname represents a file, its contents will be returned as:
      * <ul>
-     * <li>an octet stream, if its a compressed file already or if the client doesn't
-     * accept encoded content (encoding specified as "identity")</li>
+     * <li>an octet stream, if it is a zip archive, if it is a compressed file already and no encoding is
+     * specified through the 'encoding' query parameter, or if the client doesn't accept encoded content
+     * (encoding specified as "identity")</li>
+     * <li>a partial octet stream (status 206), if a single byte range is requested through the 'Range' header.
+     * Interrupted downloads can then be resumed, the 'If-Range' header ensuring the file was not modified
+     * in between</li>
      * <li>a 'gzip' encoded stream, if the client accepts 'gzip' encoded content
      * </li>
      * <li>a 'zip' encoded stream, if the client accepts 'zip' encoded contents</li>
@@ -129,6 +133,9 @@ public interface RestDataspace {
      * @param includes a list of inclusion directives
      * @param excludes a list of exclusion directives
      * @param encoding the accepted encoding supported by the client, can be "*", "gzip", "zip", "identity" or empty. It overrides the accepted encoding specified in {@code headerAcceptEncoding}.
+     * @param token a token which can be used instead of the session id, when the latter is not specified
+     * @param range the byte range of the file to retrieve, for example "bytes=1024-". When specified, the content is never encoded.
+     * @param ifRange the entity tag or the last modification date of the file previously retrieved. The range is ignored and the whole file is returned if it does not match the current file.
      * @return a REST response which can have various content-types
      */
     @GET
@@ -138,7 +145,8 @@ public interface RestDataspace {
             @HeaderParam("Accept-Encoding") String headerAcceptEncoding, @PathParam("dataspace") String dataspace,
             @PathParam("path-name") String pathname, @QueryParam("comp") String component,
             @QueryParam("includes") List<String> includes, @QueryParam("excludes") List<String> excludes,
-            @QueryParam("encoding") String encoding, @QueryParam("token") String token)
+            @QueryParam("encoding") String encoding, @QueryParam("token") String token,
+            @HeaderParam("Range") String range, @HeaderParam("If-Range") String ifRange)
             throws NotConnectedRestException, PermissionRestException;
 
     /**
@@ -213,4 +221,69 @@ public interface RestDataspace {
     Response create(@HeaderParam("sessionid") String sessionId, @PathParam("dataspace") String dataspacePath,
             @PathParam("path-name") String pathname, @FormParam("mimetype") String mimeType)
             throws NotConnectedRestException, PermissionRestException;
+
+    /**
+     * Returns, among the given chunk checksums, those of the chunks which have not been uploaded yet by the
+     * current user. This is the first step of a chunked upload: large files are split in chunks identified by
+     * the hex encoded SHA-256 checksum of their content, and only the missing chunks need to be sent. A chunked
+     * upload interrupted by a dropped connection is thus resumed where it stopped.
+     * The format of the POST URI is:
+     * <p>
+     * {@code http://<rest-server-path>/data/chunks/<dataspace>}
+     *
+     * @param sessionId a valid session id
+     * @param dataspace can have two possible values, 'user' or 'global',
+     * depending on the target <i>DATASPACE</i>
+     * @param checksums SHA-256 checksums of the chunks
+     * @return the checksums of the chunks which must be uploaded, in JSON format
+     */
+    @POST
+    @Path("/chunks/{dataspace}")
+    @Produces(MediaType.APPLICATION_JSON)
+    List<String> findMissingChunks(@HeaderParam("sessionid") String sessionId,
+            @PathParam("dataspace") String dataspace, @FormParam("checksum") List<String> checksums)
+            throws NotConnectedRestException, PermissionRestException;
+
+    /**
+     * Upload a chunk of a file. The server verifies that the content matches the checksum.
+     * The format of the PUT URI is:
+     * <p>
+     * {@code http://<rest-server-path>/data/chunks/<dataspace>/<checksum>}
+     *
+     * @param sessionId a valid session id
+     * @param dataspace can have two possible values, 'user' or 'global',
+     * depending on the target <i>DATASPACE</i>
+     * @param checksum the hex encoded SHA-256 checksum of the chunk
+     * @param is the content of the chunk
+     * @return a REST response with status 201 (CREATED) if the chunk was stored, 400 (BAD_REQUEST) if its content
+     * does not match the checksum, or 413 (REQUEST_ENTITY_TOO_LARGE) if the chunk exceeds the maximum chunk size or
+     * the quota of chunks kept for the user
+     */
+    @PUT
+    @Path("/chunks/{dataspace}/{checksum}")
+    Response storeChunk(@HeaderParam("sessionid") String sessionId, @PathParam("dataspace") String dataspace,
+            @PathParam("checksum") String checksum, InputStream is)
+            throws NotConnectedRestException, PermissionRestException;
+
+    /**
+     * Assemble previously uploaded chunks into a file at the specified location in the <i>dataspace</i>.
+     * The format of the POST URI is:
+     * <p>
+     * {@code http://<rest-server-path>/data/assemble/<dataspace>/<path-name>}
+     *
+     * @param sessionId a valid session id
+     * @param dataspace can have two possible values, 'user' or 'global',
+     * depending on the target <i>DATASPACE</i>
+     * @param pathname location of the file to create
+     * @param chunks checksums of the chunks of the file, in order
+     * @param checksum the SHA-256 checksum of the whole file, verified once the file is assembled
+     * @return a REST response with status 201 (CREATED) if the file was assembled, 409 (CONFLICT) with the list of
+     * the checksums of the missing chunks in JSON format if some chunks must be uploaded first, or 400 (BAD_REQUEST)
+     * if the assembled file does not match the checksum
+     */
+    @POST
+    @Path("/assemble/{dataspace}/{path-name:.*}")
+    Response assemble(@HeaderParam("sessionid") String sessionId, @PathParam("dataspace") String dataspace,
+            @PathParam("path-name") String pathname, @FormParam("chunk") List<String> chunks,
+            @FormParam("checksum") String checksum) throws NotConnectedRestException, PermissionRestException;
 }
@@ -67,7 +67,8 @@ public class SchedulerClientExample {
         JobIdData flatJob = scheduler.submitFlat(sessionId, "echo hello", "test-hello", null, null);
         System.out.println("Jobid=" + flatJob);
 
-        String serverlog = scheduler.jobServerLog(sessionId, Long.toString(flatJob.getId()));
+        String serverlog = scheduler.jobServerLog(sessionId, Long.toString(flatJob.getId()), 0, -1)
+                                    .readEntity(String.class);
         System.out.println(serverlog);
 
         while (true) {
@@ -121,7 +122,8 @@ public class SchedulerClientExample {
                                                                                        0,
                                                                                        0,
                                                                                        0,
-                                                                                       0);
+                                                                                       0,
+                                                                                       -1L);
         Map<Long, ArrayList<UserJobData>> map = page.getMap();
         System.out.println(map);
 
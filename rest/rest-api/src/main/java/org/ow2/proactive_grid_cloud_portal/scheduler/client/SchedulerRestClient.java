@@ -700,26 +700,36 @@ public class SchedulerRestClient {
 
         @Override
         public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            Object result;
             try {
-                return method.invoke(scheduler, args);
+                result = method.invoke(scheduler, args);
             } catch (InvocationTargetException targetException) {
                 if (targetException.getTargetException() instanceof WebApplicationException) {
-                    WebApplicationException clientException = (WebApplicationException) targetException.getTargetException();
-                    try {
-                        ExceptionToJson json = clientException.getResponse().readEntity(ExceptionToJson.class);
-                        // here we take the server side exception and recreate it on the client side
-                        throw rebuildServerSideException(json);
-                    } catch (ProcessingException couldNotReadJsonException) {
-                        // rethrow server side exception as runtime exception but do not transform it
-                        throw clientException;
-                    } catch (IllegalStateException couldNotReadJsonException) {
-                        // rethrow server side exception as runtime exception but do not transform it
-                        throw clientException;
-                    }
+                    throw rebuildServerSideException((WebApplicationException) targetException.getTargetException());
                 }
                 // rethrow real exception as runtime (client side exception)
                 throw new RuntimeException(targetException.getTargetException());
             }
+            if (result instanceof Response && ((Response) result).getStatus() >= 400) {
+                // methods returning a response do not fail on errors
+                throw rebuildServerSideException(new WebApplicationException((Response) result));
+            }
+            return result;
+        }
+
+        private static Exception rebuildServerSideException(WebApplicationException clientException)
+                throws Exception {
+            try {
+                ExceptionToJson json = clientException.getResponse().readEntity(ExceptionToJson.class);
+                // here we take the server side exception and recreate it on the client side
+                return SchedulerRestClient.rebuildServerSideException(json);
+            } catch (ProcessingException couldNotReadJsonException) {
+                // rethrow server side exception as runtime exception but do not transform it
+                return clientException;
+            } catch (IllegalStateException couldNotReadJsonException) {
+                // rethrow server side exception as runtime exception but do not transform it
+                return clientException;
+            }
         }
     }
 
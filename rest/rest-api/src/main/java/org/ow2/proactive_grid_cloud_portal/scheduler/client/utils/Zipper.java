@@ -144,14 +144,32 @@ public class Zipper {
             logger.trace("Excludes list : " + logExcludes.toString());
             checkNotNull(root);
             checkNotNull(os);
-            ImmutableList<File> fileList = nullOrEmpty(includes) && nullOrEmpty(excludes) ? filterEmpty(root)
-                                                                                          : filterNotEmpty(root,
-                                                                                                           includes,
-                                                                                                           excludes);
+            List<File> fileList = selectFiles(root, includes, excludes);
             logger.trace("Zipping files :" + fileList);
             zipFiles(fileList, root.getAbsolutePath(), os);
         }
 
+        /**
+         * @return the files below {@code root} selected by the include and exclude patterns, as zipped by
+         * {@link #zip(File, List, List, OutputStream)}
+         */
+        public static List<File> selectFiles(File root, List<String> includes, List<String> excludes) {
+            checkNotNull(root);
+            return nullOrEmpty(includes) && nullOrEmpty(excludes) ? filterEmpty(root)
+                                                                  : filterNotEmpty(root, includes, excludes);
+        }
+
+        /**
+         * Zips the given files, named by their path relative to {@code root}.
+         */
+        public static void zip(File root, List<File> files, OutputStream os) throws IOException {
+            checkNotNull(root);
+            checkNotNull(files);
+            checkNotNull(os);
+            logger.trace("Zipping files :" + files);
+            zipFiles(files, root.getAbsolutePath(), os);
+        }
+
         private static boolean nullOrEmpty(List<String> strings) {
             return strings == null || strings.size() == 0;
         }
@@ -112,7 +112,8 @@ public class ListJobCommand extends AbstractCommand implements Command {
                                                                                             0,
                                                                                             0,
                                                                                             0,
-                                                                                            0);
+                                                                                            0,
+                                                                                            -1L);
         Map<Long, ArrayList<UserJobData>> stateMap = page.getMap();
         List<UserJobData> jobs = stateMap.values().iterator().next();
         currentContext.getDevice().writeLine("%s", StringUtility.jobsAsString(jobs));
@@ -116,7 +116,8 @@ public class ListJobCommandTest {
                                                                     0,
                                                                     0,
                                                                     0,
-                                                                    0))
+                                                                    0,
+                                                                    -1L))
                .thenReturn(page);
 
         new ListJobCommand("limit=" + offset, "from=" + index).execute(currentContextMock);
@@ -145,7 +146,8 @@ public class ListJobCommandTest {
                                     0,
                                     0,
                                     0,
-                                    0);
+                                    0,
+                                    -1L);
     }
 
     @Test
@@ -185,7 +187,8 @@ public class ListJobCommandTest {
                                                                     0,
                                                                     0,
                                                                     0,
-                                                                    0))
+                                                                    0,
+                                                                    -1L))
                .thenReturn(page);
 
         new ListJobCommand("limit=" + offset, "from=" + index).execute(currentContextMock);
@@ -214,7 +217,8 @@ public class ListJobCommandTest {
                                     0,
                                     0,
                                     0,
-                                    0);
+                                    0,
+                                    -1L);
 
     }
 
@@ -255,7 +259,8 @@ public class ListJobCommandTest {
                                                                     0,
                                                                     0,
                                                                     0,
-                                                                    0))
+                                                                    0,
+                                                                    -1L))
                .thenReturn(page);
 
         new ListJobCommand("limit=" + offset, "from=" + index).execute(currentContextMock);
@@ -284,7 +289,8 @@ public class ListJobCommandTest {
                                     0,
                                     0,
                                     0,
-                                    0);
+                                    0,
+                                    -1L);
     }
 
     @Test
@@ -324,7 +330,8 @@ public class ListJobCommandTest {
                                                                     0,
                                                                     0,
                                                                     0,
-                                                                    0))
+                                                                    0,
+                                                                    -1L))
                .thenReturn(page);
 
         new ListJobCommand("limit=" + offset, "from=" + index).execute(currentContextMock);
@@ -353,7 +360,8 @@ public class ListJobCommandTest {
                                     0,
                                     0,
                                     0,
-                                    0);
+                                    0,
+                                    -1L);
 
     }
 
@@ -394,7 +402,8 @@ public class ListJobCommandTest {
                                                                     0,
                                                                     0,
                                                                     0,
-                                                                    0))
+                                                                    0,
+                                                                    -1L))
                .thenReturn(page);
 
         new ListJobCommand().execute(currentContextMock);
@@ -423,7 +432,8 @@ public class ListJobCommandTest {
                                     0,
                                     0,
                                     0,
-                                    0);
+                                    0,
+                                    -1L);
     }
 
     @Test(expected = IllegalArgumentException.class)
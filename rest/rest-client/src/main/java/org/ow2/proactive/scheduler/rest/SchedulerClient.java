@@ -67,6 +67,7 @@ import java.util.stream.Collectors;
 
 import javax.security.auth.Subject;
 import javax.security.auth.login.LoginException;
+import javax.ws.rs.core.Response;
 
 import org.apache.http.client.HttpClient;
 import org.apache.http.conn.ssl.SSLConnectionSocketFactory;
@@ -349,7 +350,8 @@ public class SchedulerClient extends ClientBase implements ISchedulerClient {
                                                                                                            criteria.getSubmittedTimeLessThan(),
                                                                                                            criteria.getSubmittedTimeGreater(),
                                                                                                            criteria.getStartAtTimeGreater(),
-                                                                                                           criteria.getStartAtTimeLessThan());
+                                                                                                           criteria.getStartAtTimeLessThan(),
+                                                                                                           criteria.getAfterJobId());
             List<UserJobData> userJobs = userJobsAllRevisions.getMap().values().iterator().next();
             jobInfos = new Page<JobInfo>(toJobInfos(userJobs), userJobs.size());
 
@@ -374,9 +376,15 @@ public class SchedulerClient extends ClientBase implements ISchedulerClient {
     @Override
     public String getJobServerLogs(String jobId)
             throws UnknownJobException, NotConnectedException, PermissionException {
+        return getJobServerLogs(jobId, 0, -1);
+    }
+
+    @Override
+    public String getJobServerLogs(String jobId, long offset, long limit)
+            throws UnknownJobException, NotConnectedException, PermissionException {
         String jobServerLog = "";
         try {
-            jobServerLog = restApi().jobServerLog(sid, jobId);
+            jobServerLog = readServerLogs(restApi().jobServerLog(sid, jobId, offset, limit));
         } catch (Exception e) {
             throwUJEOrNCEOrPE(e);
         }
@@ -458,6 +466,26 @@ public class SchedulerClient extends ClientBase implements ISchedulerClient {
         return taskLogs;
     }
 
+    @Override
+    public String getTaskServerLogs(String jobId, String taskName, long offset, long limit)
+            throws UnknownJobException, UnknownTaskException, NotConnectedException, PermissionException {
+        String taskLogs = "";
+        try {
+            taskLogs = readServerLogs(restApi().taskServerLog(sid, jobId, taskName, offset, limit));
+        } catch (Exception e) {
+            throwUJEOrNCEOrPEOrUTE(e);
+        }
+        return taskLogs;
+    }
+
+    private static String readServerLogs(Response response) {
+        try {
+            return response.readEntity(String.class);
+        } finally {
+            response.close();
+        }
+    }
+
     @Override
     public String getTaskServerLogsByTag(String jobId, String tag)
             throws UnknownJobException, NotConnectedException, PermissionException {
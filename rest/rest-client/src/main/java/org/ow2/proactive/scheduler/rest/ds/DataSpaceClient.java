@@ -25,6 +25,8 @@
  */
 package org.ow2.proactive.scheduler.rest.ds;
 
+import static com.google.common.base.Preconditions.checkArgument;
+
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
@@ -32,13 +34,22 @@ import java.io.OutputStream;
 import java.net.HttpURLConnection;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
+import javax.ws.rs.ProcessingException;
 import javax.ws.rs.WebApplicationException;
 import javax.ws.rs.client.Entity;
 import javax.ws.rs.client.Invocation;
@@ -51,6 +62,7 @@ import org.jboss.resteasy.client.jaxrs.ResteasyClientBuilder;
 import org.jboss.resteasy.client.jaxrs.ResteasyWebTarget;
 import org.jboss.resteasy.client.jaxrs.engines.ApacheHttpClient4Engine;
 import org.jboss.resteasy.spi.ResteasyProviderFactory;
+import org.objectweb.proactive.utils.NamedThreadFactory;
 import org.ow2.proactive.authentication.ConnectionInfo;
 import org.ow2.proactive.http.HttpClientBuilder;
 import org.ow2.proactive.scheduler.common.exception.NotConnectedException;
@@ -62,15 +74,33 @@ import org.ow2.proactive.scheduler.rest.SchedulerClient;
 import org.ow2.proactive_grid_cloud_portal.dataspace.dto.ListFile;
 import org.ow2.proactive_grid_cloud_portal.dataspace.dto.ListFileMetadata;
 import org.ow2.proactive_grid_cloud_portal.scheduler.client.SchedulerRestClient;
+import org.ow2.proactive_grid_cloud_portal.scheduler.client.utils.Zipper;
 
 import com.google.common.base.Throwables;
 import com.google.common.collect.Maps;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import com.google.common.io.ByteSource;
 
 
 public class DataSpaceClient implements IDataSpaceClient {
 
     private static final Logger log = Logger.getLogger(DataSpaceClient.class);
 
+    private static final int DEFAULT_CHUNK_SIZE = 8 * 1024 * 1024;
+
+    private static final int DEFAULT_UPLOAD_CONCURRENCY = 4;
+
+    /** Minimum number of connections of the pool created by init, the HttpClient default with system properties */
+    private static final int MIN_CONNECTION_POOL_SIZE = 5;
+
+    /** Number of attempts of an upload request failing because of a connection error */
+    private static final int UPLOAD_ATTEMPTS = 3;
+
+    private int chunkSize = DEFAULT_CHUNK_SIZE;
+
+    private int uploadConcurrency = DEFAULT_UPLOAD_CONCURRENCY;
+
     private String restDataspaceUrl;
 
     private String sessionId;
@@ -90,9 +120,12 @@ public class DataSpaceClient implements IDataSpaceClient {
     }
 
     public void init(String restServerUrl, ISchedulerClient client) {
+        // concurrent uploads each hold a connection of the pool
+        int connectionPoolSize = Math.max(uploadConcurrency, MIN_CONNECTION_POOL_SIZE);
         this.httpEngine = new ApacheHttpClient4Engine(new HttpClientBuilder().disableContentCompression()
                                                                              .insecure(client.getConnectionInfo()
                                                                                              .isInsecure())
+                                                                             .maxConnections(connectionPoolSize)
                                                                              .useSystemProperties()
                                                                              .build());
         this.providerFactory = ResteasyProviderFactory.getInstance();
@@ -111,6 +144,24 @@ public class DataSpaceClient implements IDataSpaceClient {
         init(connectionInfo.getUrl(), client);
     }
 
+    /**
+     * Sets the size in bytes of the chunks of the files uploaded with {@link #uploadInChunks(File, IRemoteDestination)}
+     */
+    public void setChunkSize(int chunkSize) {
+        checkArgument(chunkSize > 0, "Chunk size must be positive");
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Sets the maximum number of files transferred concurrently by {@link #uploadFiles(Map)}. The uploads are also
+     * limited by the connection pool of the HTTP client: the pool created by <code>init</code> is sized from this
+     * value, which must then be set before. With the engine given to the constructor, its own pool applies.
+     */
+    public void setUploadConcurrency(int uploadConcurrency) {
+        checkArgument(uploadConcurrency > 0, "Upload concurrency must be positive");
+        this.uploadConcurrency = uploadConcurrency;
+    }
+
     @Override
     public boolean upload(final ILocalSource source, final IRemoteDestination destination)
             throws NotConnectedException, PermissionException {
@@ -133,13 +184,7 @@ public class DataSpaceClient implements IDataSpaceClient {
                 }
             }, new Variant(MediaType.APPLICATION_OCTET_STREAM_TYPE, (Locale) null, source.getEncoding())));
 
-            if (response.getStatus() != HttpURLConnection.HTTP_CREATED) {
-                if (response.getStatus() == HttpURLConnection.HTTP_UNAUTHORIZED) {
-                    throw new NotConnectedException("User not authenticated or session timeout.");
-                } else {
-                    throw new RuntimeException("File upload failed. Status code:" + response.getStatus());
-                }
-            }
+            checkUploadStatus(response, HttpURLConnection.HTTP_CREATED, "File upload failed.");
 
             if (log.isDebugEnabled()) {
                 log.debug("Upload from " + source + " to " + destination + " performed with success");
@@ -155,6 +200,218 @@ public class DataSpaceClient implements IDataSpaceClient {
         }
     }
 
+    @Override
+    public boolean uploadInChunks(final File localFile, final IRemoteDestination destination)
+            throws NotConnectedException, PermissionException {
+        checkArgument(localFile.isFile(), "%s is not a file", localFile);
+        if (log.isDebugEnabled()) {
+            log.debug("Uploading in chunks from " + localFile + " to " + destination);
+        }
+
+        try {
+            ByteSource content = com.google.common.io.Files.asByteSource(localFile);
+            List<String> chunks = new ArrayList<>();
+            Hasher fileHasher = Hashing.sha256().newHasher();
+            long size = localFile.length();
+            for (long offset = 0; offset < size; offset += chunkSize) {
+                chunks.add(checksum(content.slice(offset, chunkSize), fileHasher));
+            }
+            String fileChecksum = fileHasher.hash().toString();
+
+            List<String> missingChunks = findMissingChunks(destination.getDataspace(), chunks);
+            for (int attempt = 1; !missingChunks.isEmpty() || attempt == 1; attempt++) {
+                // a chunk repeated in the file is only sent once
+                Set<String> toStore = new HashSet<>(missingChunks);
+                for (int i = 0; i < chunks.size() && !toStore.isEmpty(); i++) {
+                    if (toStore.remove(chunks.get(i))) {
+                        storeChunk(destination.getDataspace(),
+                                   chunks.get(i),
+                                   content.slice((long) i * chunkSize, chunkSize));
+                    }
+                }
+                // chunks removed from the server in between are reported as missing again
+                missingChunks = assemble(destination, chunks, fileChecksum);
+                if (!missingChunks.isEmpty() && attempt >= UPLOAD_ATTEMPTS) {
+                    throw new RuntimeException("File upload failed. Chunks still missing: " + missingChunks);
+                }
+            }
+
+            if (log.isDebugEnabled()) {
+                log.debug("Upload in " + chunks.size() + " chunks from " + localFile + " to " + destination +
+                          " performed with success");
+            }
+
+            return true;
+        } catch (IOException ioe) {
+            throw Throwables.propagate(ioe);
+        }
+    }
+
+    @Override
+    public boolean uploadFiles(Map<File, IRemoteDestination> files) throws NotConnectedException, PermissionException {
+        if (files.isEmpty()) {
+            return true;
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(Math.min(uploadConcurrency, files.size()),
+                                                                new NamedThreadFactory("DataSpaceClient upload",
+                                                                                       true));
+        try {
+            List<Future<Boolean>> uploads = new ArrayList<>(files.size());
+            for (final Map.Entry<File, IRemoteDestination> file : files.entrySet()) {
+                uploads.add(executor.submit(() -> uploadInChunks(file.getKey(), file.getValue())));
+            }
+            for (Future<Boolean> upload : uploads) {
+                try {
+                    upload.get();
+                } catch (ExecutionException e) {
+                    Throwable cause = e.getCause();
+                    if (cause instanceof NotConnectedException) {
+                        throw (NotConnectedException) cause;
+                    } else if (cause instanceof PermissionException) {
+                        throw (PermissionException) cause;
+                    }
+                    throw Throwables.propagate(cause);
+                }
+            }
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while uploading files", e);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static String checksum(ByteSource chunk, Hasher fileHasher) throws IOException {
+        Hasher chunkHasher = Hashing.sha256().newHasher();
+        byte[] buffer = new byte[64 * 1024];
+        try (InputStream is = chunk.openStream()) {
+            int read;
+            while ((read = is.read(buffer)) != -1) {
+                chunkHasher.putBytes(buffer, 0, read);
+                fileHasher.putBytes(buffer, 0, read);
+            }
+        }
+        return chunkHasher.hash().toString();
+    }
+
+    private List<String> findMissingChunks(final Dataspace dataspace, final List<String> chunks)
+            throws NotConnectedException, PermissionException {
+        return retrying(() -> {
+            Form form = new Form();
+            for (String chunk : chunks) {
+                form.param("checksum", chunk);
+            }
+            Response response = null;
+            try {
+                ResteasyWebTarget target = dataspaceTarget("chunks/" + dataspace.value());
+                response = target.request().header("sessionid", sessionId).post(Entity.form(form));
+                checkUploadStatus(response, HttpURLConnection.HTTP_OK, "Cannot find missing chunks.");
+                return response.readEntity(new GenericType<List<String>>() {
+                });
+            } finally {
+                if (response != null) {
+                    response.close();
+                }
+            }
+        });
+    }
+
+    private void storeChunk(final Dataspace dataspace, final String checksum, final ByteSource chunk)
+            throws NotConnectedException, PermissionException {
+        retrying(() -> {
+            Response response = null;
+            try {
+                ResteasyWebTarget target = dataspaceTarget("chunks/" + dataspace.value()).path(checksum);
+                response = target.request().header("sessionid", sessionId).put(Entity.entity(new StreamingOutput() {
+                    @Override
+                    public void write(OutputStream outputStream) throws IOException, WebApplicationException {
+                        chunk.copyTo(outputStream);
+                    }
+                }, MediaType.APPLICATION_OCTET_STREAM_TYPE));
+                checkUploadStatus(response, HttpURLConnection.HTTP_CREATED, "Chunk upload failed.");
+                return null;
+            } finally {
+                if (response != null) {
+                    response.close();
+                }
+            }
+        });
+    }
+
+    /**
+     * @return the checksums of the chunks which must be uploaded again before the file can be assembled
+     */
+    private List<String> assemble(final IRemoteDestination destination, final List<String> chunks,
+            final String fileChecksum) throws NotConnectedException, PermissionException {
+        return retrying(() -> {
+            Form form = new Form();
+            for (String chunk : chunks) {
+                form.param("chunk", chunk);
+            }
+            form.param("checksum", fileChecksum);
+            Response response = null;
+            try {
+                ResteasyWebTarget target = dataspaceTarget("assemble/" + destination.getDataspace().value());
+                response = target.path(destination.getPath())
+                                 .request()
+                                 .header("sessionid", sessionId)
+                                 .post(Entity.form(form));
+                if (response.getStatus() == HttpURLConnection.HTTP_CONFLICT) {
+                    return response.readEntity(new GenericType<List<String>>() {
+                    });
+                }
+                checkUploadStatus(response, HttpURLConnection.HTTP_CREATED, "File assembly failed.");
+                return Collections.<String> emptyList();
+            } finally {
+                if (response != null) {
+                    response.close();
+                }
+            }
+        });
+    }
+
+    private ResteasyWebTarget dataspaceTarget(String path) {
+        ResteasyClient client = new ResteasyClientBuilder().providerFactory(providerFactory)
+                                                           .httpEngine(httpEngine)
+                                                           .build();
+        return client.target(restDataspaceUrl + path);
+    }
+
+    private static void checkUploadStatus(Response response, int expectedStatus, String message)
+            throws NotConnectedException, PermissionException {
+        if (response.getStatus() != expectedStatus) {
+            if (response.getStatus() == HttpURLConnection.HTTP_UNAUTHORIZED) {
+                throw new NotConnectedException("User not authenticated or session timeout.");
+            } else if (response.getStatus() == HttpURLConnection.HTTP_FORBIDDEN) {
+                throw new PermissionException(message + " Permission denied.");
+            } else {
+                throw new RuntimeException(message + " Status code:" + response.getStatus());
+            }
+        }
+    }
+
+    /**
+     * Sends an upload request again when it failed because of a connection error, chunks already
+     * stored on the server are kept, the upload resumes where it stopped.
+     */
+    private <T> T retrying(UploadRequest<T> request) throws NotConnectedException, PermissionException {
+        for (int attempt = 1;; attempt++) {
+            try {
+                return request.send();
+            } catch (ProcessingException e) {
+                if (attempt >= UPLOAD_ATTEMPTS) {
+                    throw e;
+                }
+                log.warn("Upload request failed, retrying (attempt " + attempt + "/" + UPLOAD_ATTEMPTS + ")", e);
+            }
+        }
+    }
+
+    private interface UploadRequest<T> {
+        T send() throws NotConnectedException, PermissionException;
+    }
+
     @Override
     public boolean create(IRemoteSource source) throws NotConnectedException, PermissionException {
         if (log.isDebugEnabled()) {
@@ -458,15 +715,13 @@ public class DataSpaceClient implements IDataSpaceClient {
             if (!localPath.exists()) {
                 throw new FileSystemException("" + localPath + " does not exist");
             }
-            ILocalSource source;
-            if (localPath.isDirectory()) {
-                source = new LocalDirSource(localPath);
-            } else {
-                source = new LocalFileSource(localPath);
-            }
-
             try {
-                DataSpaceClient.this.upload(source, new RemoteDestination(space, remotePath));
+                if (localPath.isDirectory()) {
+                    DataSpaceClient.this.upload(new LocalDirSource(localPath),
+                                                new RemoteDestination(space, remotePath));
+                } else {
+                    DataSpaceClient.this.uploadInChunks(localPath, new RemoteDestination(space, remotePath));
+                }
             } catch (Exception e) {
                 throw new FileSystemException(e);
             }
@@ -480,16 +735,42 @@ public class DataSpaceClient implements IDataSpaceClient {
             if (!localDirectory.isDirectory()) {
                 throw new FileSystemException("" + localDirectory + " is not a directory");
             }
-            LocalDirSource source = new LocalDirSource(localDirectory);
-            source.setIncludes(pattern);
+            Path root = localDirectory.getAbsoluteFile().toPath();
+            // files smaller than a chunk are zipped together in a single request, larger ones are uploaded in chunks
+            List<File> smallFiles = new ArrayList<>();
+            Map<File, IRemoteDestination> largeFiles = new LinkedHashMap<>();
+            for (File file : Zipper.ZIP.selectFiles(localDirectory, Collections.singletonList(pattern), null)) {
+                if (!file.isFile()) {
+                    continue;
+                }
+                if (file.length() < chunkSize) {
+                    smallFiles.add(file);
+                } else {
+                    String relativePath = root.relativize(file.getAbsoluteFile().toPath())
+                                              .toString()
+                                              .replace(File.separatorChar, '/');
+                    largeFiles.put(file, new RemoteDestination(space, remoteChildPath(remotePath, relativePath)));
+                }
+            }
 
             try {
-                DataSpaceClient.this.upload(source, new RemoteDestination(space, remotePath));
+                if (!smallFiles.isEmpty()) {
+                    DataSpaceClient.this.upload(new LocalFilesSource(localDirectory, smallFiles),
+                                                new RemoteDestination(space, remotePath));
+                }
+                DataSpaceClient.this.uploadFiles(largeFiles);
             } catch (Exception e) {
                 throw new FileSystemException(e);
             }
         }
 
+        private String remoteChildPath(String remotePath, String relativePath) {
+            if (remotePath == null || remotePath.isEmpty()) {
+                return relativePath;
+            }
+            return remotePath.endsWith("/") ? remotePath + relativePath : remotePath + "/" + relativePath;
+        }
+
         @Override
         public File pullFile(String remotePath, File localPath) throws FileSystemException {
             RemoteSource source = new RemoteSource(space, remotePath);
@@ -25,6 +25,7 @@
  */
 package org.ow2.proactive.scheduler.rest.ds;
 
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
@@ -74,6 +75,36 @@ public interface IDataSpaceClient {
     boolean upload(ILocalSource source, IRemoteDestination destination)
             throws NotConnectedException, PermissionException;
 
+    /**
+     * Uploads a local file in chunks, which are stored on the server and assembled into the destination file
+     * once they have all been transferred. The content of each chunk and of the whole file is verified by the
+     * server. Chunks already present on the server, uploaded by an interrupted upload or as part of another
+     * file, are not transferred again.
+     *
+     * @param localFile the file to upload
+     * @param destination the location of the file in the server
+     * @return {@code true} if the upload has succeeded
+     *
+     * @throws NotConnectedException if the client is not logged in or the session has expired
+     * @throws PermissionException   if the user does not have permission to upload the file to
+     *                               the specified location in the server
+     */
+    boolean uploadInChunks(File localFile, IRemoteDestination destination)
+            throws NotConnectedException, PermissionException;
+
+    /**
+     * Uploads several local files in chunks, as {@link #uploadInChunks(File, IRemoteDestination)} does,
+     * transferring a limited number of files concurrently.
+     *
+     * @param files the files to upload, associated with their location in the server
+     * @return {@code true} if all the uploads have succeeded
+     *
+     * @throws NotConnectedException if the client is not logged in or the session has expired
+     * @throws PermissionException   if the user does not have permission to upload the files to
+     *                               the specified locations in the server
+     */
+    boolean uploadFiles(Map<File, IRemoteDestination> files) throws NotConnectedException, PermissionException;
+
     /**
      * Returns a {@link ListFile} type object which contains the names of files
      * and directories in the specified location of the <i>dataspace</i>.
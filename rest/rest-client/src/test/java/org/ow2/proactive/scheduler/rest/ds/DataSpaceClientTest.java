@@ -0,0 +1,324 @@
+/*
+ * ProActive Parallel Suite(TM):
+ * The Open Source library for parallel and distributed
+ * Workflows & Scheduling, Orchestration, Cloud Automation
+ * and Big Data Analysis on Enterprise Grids & Clouds.
+ *
+ * Copyright (c) 2007 - 2017 ActiveEon
+ * Contact: contact@activeeon.com
+ *
+ * This library is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation: version 3 of
+ * the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ */
+package org.ow2.proactive.scheduler.rest.ds;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.mockito.Mockito.doCallRealMethod;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.spy;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+import javax.ws.rs.ProcessingException;
+import javax.ws.rs.WebApplicationException;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Response;
+
+import org.jboss.resteasy.client.jaxrs.engines.ApacheHttpClient4Engine;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.mockito.Matchers;
+import org.ow2.proactive.http.HttpClientBuilder;
+import org.ow2.proactive.scheduler.common.exception.PermissionException;
+import org.ow2.proactive.scheduler.rest.ds.IDataSpaceClient.Dataspace;
+import org.ow2.proactive_grid_cloud_portal.RestTestServer;
+import org.ow2.proactive_grid_cloud_portal.dataspace.RestDataspace;
+
+import com.google.common.hash.Hashing;
+import com.google.common.io.ByteStreams;
+import com.google.common.io.Files;
+
+
+public class DataSpaceClientTest extends RestTestServer {
+
+    private static final FakeDataspace dataspace = new FakeDataspace();
+
+    @Rule
+    public TemporaryFolder tempFolder = new TemporaryFolder();
+
+    private ApacheHttpClient4Engine httpEngine;
+
+    private DataSpaceClient client;
+
+    @BeforeClass
+    public static void setUpDataspace() {
+        addResource(dataspace);
+    }
+
+    @Before
+    public void setUp() {
+        dataspace.reset();
+        httpEngine = spy(new ApacheHttpClient4Engine(new HttpClientBuilder().maxConnections(10).build()));
+        client = new DataSpaceClient("http://localhost:" + port + "/", httpEngine);
+        client.setChunkSize(4);
+    }
+
+    @Test
+    public void testUploadInChunksOnlySendsTheMissingChunks() throws Exception {
+        File file = newFile("file.txt", "0123456789");
+        dataspace.chunks.put(checksum("4567".getBytes(StandardCharsets.UTF_8)),
+                             "4567".getBytes(StandardCharsets.UTF_8));
+
+        client.uploadInChunks(file, new RemoteDestination(Dataspace.USER, "dir/file.txt"));
+
+        assertThat(dataspace.file("dir/file.txt")).isEqualTo("0123456789");
+        assertThat(dataspace.storedChunks.get()).isEqualTo(2);
+    }
+
+    @Test
+    public void testUploadInChunksResendsChunksLostBeforeAssembly() throws Exception {
+        File file = newFile("file.txt", "0123456789");
+        dataspace.chunkLostOnce = checksum("0123".getBytes(StandardCharsets.UTF_8));
+
+        client.uploadInChunks(file, new RemoteDestination(Dataspace.USER, "file.txt"));
+
+        assertThat(dataspace.file("file.txt")).isEqualTo("0123456789");
+        assertThat(dataspace.storedChunks.get()).isEqualTo(4);
+    }
+
+    @Test
+    public void testUploadInChunksRetriesAfterAConnectionError() throws Exception {
+        File file = newFile("file.txt", "0123456789");
+        doThrow(new ProcessingException("Connection reset")).doCallRealMethod()
+                                                              .when(httpEngine)
+                                                              .invoke(Matchers.any());
+
+        client.uploadInChunks(file, new RemoteDestination(Dataspace.USER, "file.txt"));
+
+        assertThat(dataspace.file("file.txt")).isEqualTo("0123456789");
+    }
+
+    @Test(expected = PermissionException.class)
+    public void testForbiddenUploadThrowsPermissionException() throws Exception {
+        File file = newFile("file.txt", "0123456789");
+        dataspace.forbidden = true;
+
+        client.uploadInChunks(file, new RemoteDestination(Dataspace.USER, "file.txt"));
+    }
+
+    @Test
+    public void testUploadFilesIsBoundedByTheUploadConcurrency() throws Exception {
+        client.setUploadConcurrency(2);
+        Map<File, IRemoteDestination> files = new HashMap<>();
+        for (int i = 0; i < 6; i++) {
+            files.put(newFile("file" + i + ".txt", "content of file " + i),
+                      new RemoteDestination(Dataspace.USER, "file" + i + ".txt"));
+        }
+
+        client.uploadFiles(files);
+
+        for (int i = 0; i < 6; i++) {
+            assertThat(dataspace.file("file" + i + ".txt")).isEqualTo("content of file " + i);
+        }
+        assertThat(dataspace.maxConcurrentChunks.get()).isAtMost(2);
+    }
+
+    @Test
+    public void testPushFilesZipsTheFilesSmallerThanAChunkInOneRequest() throws Exception {
+        newFile("a.txt", "a");
+        newFile("b.txt", "bb");
+        newFile("large.txt", "0123456789");
+
+        client.getUserSpace().pushFiles(tempFolder.getRoot(), "*.txt", "dest");
+
+        assertThat(dataspace.storeRequests).containsExactly("dest");
+        assertThat(dataspace.file("dest/a.txt")).isEqualTo("a");
+        assertThat(dataspace.file("dest/b.txt")).isEqualTo("bb");
+        assertThat(dataspace.file("dest/large.txt")).isEqualTo("0123456789");
+    }
+
+    private File newFile(String name, String content) throws IOException {
+        File file = tempFolder.newFile(name);
+        Files.write(content.getBytes(StandardCharsets.UTF_8), file);
+        return file;
+    }
+
+    private static String checksum(byte[] content) {
+        return Hashing.sha256().hashBytes(content).toString();
+    }
+
+    /**
+     * Keeps the chunks and the files in memory, each chunk upload takes a while to observe concurrent uploads.
+     */
+    public static class FakeDataspace implements RestDataspace {
+
+        private final Map<String, byte[]> chunks = new ConcurrentHashMap<>();
+
+        private final Map<String, byte[]> files = new ConcurrentHashMap<>();
+
+        private final List<String> storeRequests = Collections.synchronizedList(new ArrayList<>());
+
+        private final AtomicInteger storedChunks = new AtomicInteger();
+
+        private final AtomicInteger concurrentChunks = new AtomicInteger();
+
+        private final AtomicInteger maxConcurrentChunks = new AtomicInteger();
+
+        private volatile String chunkLostOnce;
+
+        private volatile boolean forbidden;
+
+        void reset() {
+            chunks.clear();
+            files.clear();
+            storeRequests.clear();
+            storedChunks.set(0);
+            maxConcurrentChunks.set(0);
+            chunkLostOnce = null;
+            forbidden = false;
+        }
+
+        String file(String path) {
+            byte[] content = files.get(path);
+            return content == null ? null : new String(content, StandardCharsets.UTF_8);
+        }
+
+        private void checkAllowed() {
+            if (forbidden) {
+                throw new WebApplicationException(Response.Status.FORBIDDEN);
+            }
+        }
+
+        @Override
+        public Response store(String sessionId, String encoding, String dataspace, String pathname, InputStream is) {
+            checkAllowed();
+            storeRequests.add(pathname);
+            try {
+                if ("zip".equals(encoding)) {
+                    ZipInputStream zis = new ZipInputStream(is);
+                    for (ZipEntry entry = zis.getNextEntry(); entry != null; entry = zis.getNextEntry()) {
+                        files.put(pathname + "/" + entry.getName(), ByteStreams.toByteArray(zis));
+                    }
+                } else {
+                    files.put(pathname, ByteStreams.toByteArray(is));
+                }
+            } catch (IOException e) {
+                throw new WebApplicationException(e);
+            }
+            return Response.status(Response.Status.CREATED).build();
+        }
+
+        @Override
+        public Response retrieve(String sessionId, String headerAcceptEncoding, String dataspace, String pathname,
+                String component, List<String> includes, List<String> excludes, String encoding, String token,
+                String range, String ifRange) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Response delete(String sessionId, String dataspace, String pathname, List<String> includes,
+                List<String> excludes) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Response metadata(String sessionId, String dataspacePath, String pathname) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Response create(String sessionId, String dataspacePath, String pathname, String mimeType) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public List<String> findMissingChunks(String sessionId, String dataspace, List<String> checksums) {
+            checkAllowed();
+            List<String> missing = new ArrayList<>();
+            for (String checksum : checksums) {
+                if (!chunks.containsKey(checksum) && !missing.contains(checksum)) {
+                    missing.add(checksum);
+                }
+            }
+            return missing;
+        }
+
+        @Override
+        public Response storeChunk(String sessionId, String dataspace, String checksum, InputStream is) {
+            checkAllowed();
+            maxConcurrentChunks.accumulateAndGet(concurrentChunks.incrementAndGet(), Math::max);
+            try {
+                Thread.sleep(20);
+                byte[] content = ByteStreams.toByteArray(is);
+                if (!checksum.equals(checksum(content))) {
+                    return Response.status(Response.Status.BAD_REQUEST).build();
+                }
+                chunks.put(checksum, content);
+                storedChunks.incrementAndGet();
+                return Response.status(Response.Status.CREATED).build();
+            } catch (IOException | InterruptedException e) {
+                throw new WebApplicationException(e);
+            } finally {
+                concurrentChunks.decrementAndGet();
+            }
+        }
+
+        @Override
+        public Response assemble(String sessionId, String dataspace, String pathname, List<String> chunkChecksums,
+                String checksum) {
+            checkAllowed();
+            if (chunkLostOnce != null) {
+                chunks.remove(chunkLostOnce);
+                chunkLostOnce = null;
+            }
+            List<String> missing = findMissingChunks(sessionId, dataspace, chunkChecksums);
+            if (!missing.isEmpty()) {
+                return Response.status(Response.Status.CONFLICT)
+                               .entity(missing)
+                               .type(MediaType.APPLICATION_JSON_TYPE)
+                               .build();
+            }
+            byte[] content = new byte[0];
+            for (String chunk : chunkChecksums) {
+                byte[] chunkContent = chunks.get(chunk);
+                byte[] assembled = new byte[content.length + chunkContent.length];
+                System.arraycopy(content, 0, assembled, 0, content.length);
+                System.arraycopy(chunkContent, 0, assembled, content.length, chunkContent.length);
+                content = assembled;
+            }
+            if (!checksum.equals(checksum(content))) {
+                return Response.status(Response.Status.BAD_REQUEST).build();
+            }
+            files.put(pathname, content);
+            return Response.status(Response.Status.CREATED).build();
+        }
+    }
+}
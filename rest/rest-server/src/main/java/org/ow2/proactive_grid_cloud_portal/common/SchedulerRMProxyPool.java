@@ -0,0 +1,334 @@
+/*
+ * ProActive Parallel Suite(TM):
+ * The Open Source library for parallel and distributed
+ * Workflows & Scheduling, Orchestration, Cloud Automation
+ * and Big Data Analysis on Enterprise Grids & Clouds.
+ *
+ * Copyright (c) 2007 - 2017 ActiveEon
+ * Contact: contact@activeeon.com
+ *
+ * This library is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation: version 3 of
+ * the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ */
+package org.ow2.proactive_grid_cloud_portal.common;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.security.KeyException;
+import java.security.SecureRandom;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+
+import javax.security.auth.login.LoginException;
+
+import org.apache.log4j.Logger;
+import org.objectweb.proactive.ActiveObjectCreationException;
+import org.objectweb.proactive.api.PAActiveObject;
+import org.objectweb.proactive.core.node.NodeException;
+import org.objectweb.proactive.core.util.log.ProActiveLogger;
+import org.ow2.proactive.authentication.crypto.CredData;
+import org.ow2.proactive.authentication.crypto.Credentials;
+import org.ow2.proactive.resourcemanager.common.util.RMProxyUserInterface;
+import org.ow2.proactive.resourcemanager.exception.RMException;
+import org.ow2.proactive.scheduler.common.exception.SchedulerException;
+import org.ow2.proactive.scheduler.common.util.SchedulerProxyUserInterface;
+import org.ow2.proactive_grid_cloud_portal.webapp.PortalConfiguration;
+
+import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+
+
+/**
+ * Shares the scheduler proxies between the sessions opened with the same credentials.
+ * <p>
+ * Each proxy is an active object with its own thread and its own connection, which the scheduler or the
+ * resource manager keeps for its whole life. Clients such as CI systems open many sessions with the same account:
+ * these sessions now reuse a single scheduler proxy, which is disconnected when the last session using it is
+ * terminated. Sessions only share a proxy when they present identical credentials, so that each session keeps the
+ * identity it logged in with.
+ * <p>
+ * Resource manager proxies are not shared: most of their methods are served by the single thread of the active
+ * object, so a shared proxy would serialize the requests of all its sessions. They are still created and released
+ * through the pool, so that sessions handle both kinds of proxies the same way.
+ * <p>
+ * The liveness of a pooled scheduler proxy is not checked when it is handed out. A session which finds its proxy
+ * disconnected reports it with {@link #discardScheduler(SchedulerProxyUserInterface)}, so that the next sessions
+ * get a new connection.
+ */
+public class SchedulerRMProxyPool {
+
+    private static final Logger logger = ProActiveLogger.getLogger(SchedulerRMProxyPool.class);
+
+    private final SchedulerRMProxyFactory schedulerRMProxyFactory;
+
+    private final boolean shared;
+
+    /**
+     * Keyed with a random secret, so that the pool keys cannot be used to check guessed passwords
+     */
+    private final HashFunction keyHashFunction = Hashing.hmacSha256(newSecret());
+
+    private final Map<String, PooledProxy<SchedulerProxyUserInterface>> schedulers = new HashMap<>();
+
+    private final Map<String, PooledProxy<RMProxyUserInterface>> rms = new HashMap<>();
+
+    public SchedulerRMProxyPool(SchedulerRMProxyFactory schedulerRMProxyFactory) {
+        this(schedulerRMProxyFactory, PortalConfiguration.SESSION_SHARED_CONNECTIONS.getValueAsBoolean());
+    }
+
+    public SchedulerRMProxyPool(SchedulerRMProxyFactory schedulerRMProxyFactory, boolean shared) {
+        this.schedulerRMProxyFactory = schedulerRMProxyFactory;
+        this.shared = shared;
+    }
+
+    public SchedulerProxyUserInterface connectToScheduler(Credentials credentials)
+            throws LoginException, SchedulerException, ActiveObjectCreationException, NodeException, KeyException {
+        String key = getKey(credentials);
+        PooledProxy<SchedulerProxyUserInterface> pooledProxy = acquire(schedulers, key);
+        boolean connected = false;
+        try {
+            synchronized (pooledProxy) {
+                if (pooledProxy.proxy == null) {
+                    pooledProxy.proxy = schedulerRMProxyFactory.connectToScheduler(credentials);
+                }
+                connected = true;
+                return pooledProxy.proxy;
+            }
+        } finally {
+            if (!connected) {
+                release(schedulers, key);
+            }
+        }
+    }
+
+    public SchedulerProxyUserInterface connectToScheduler(CredData credData)
+            throws LoginException, SchedulerException, ActiveObjectCreationException, NodeException {
+        String key = getKey(credData);
+        PooledProxy<SchedulerProxyUserInterface> pooledProxy = acquire(schedulers, key);
+        boolean connected = false;
+        try {
+            synchronized (pooledProxy) {
+                if (pooledProxy.proxy == null) {
+                    pooledProxy.proxy = schedulerRMProxyFactory.connectToScheduler(credData);
+                }
+                connected = true;
+                return pooledProxy.proxy;
+            }
+        } finally {
+            if (!connected) {
+                release(schedulers, key);
+            }
+        }
+    }
+
+    public RMProxyUserInterface connectToRM(Credentials credentials)
+            throws ActiveObjectCreationException, NodeException, RMException, KeyException, LoginException {
+        String key = newSessionKey();
+        PooledProxy<RMProxyUserInterface> pooledProxy = acquire(rms, key);
+        boolean connected = false;
+        try {
+            synchronized (pooledProxy) {
+                if (pooledProxy.proxy == null) {
+                    pooledProxy.proxy = schedulerRMProxyFactory.connectToRM(credentials);
+                }
+                connected = true;
+                return pooledProxy.proxy;
+            }
+        } finally {
+            if (!connected) {
+                release(rms, key);
+            }
+        }
+    }
+
+    public RMProxyUserInterface connectToRM(CredData credData)
+            throws ActiveObjectCreationException, NodeException, RMException, KeyException, LoginException {
+        String key = newSessionKey();
+        PooledProxy<RMProxyUserInterface> pooledProxy = acquire(rms, key);
+        boolean connected = false;
+        try {
+            synchronized (pooledProxy) {
+                if (pooledProxy.proxy == null) {
+                    pooledProxy.proxy = schedulerRMProxyFactory.connectToRM(credData);
+                }
+                connected = true;
+                return pooledProxy.proxy;
+            }
+        } finally {
+            if (!connected) {
+                release(rms, key);
+            }
+        }
+    }
+
+    /**
+     * Releases a scheduler proxy obtained from this pool, disconnecting it if no other session uses it
+     */
+    public void releaseScheduler(SchedulerProxyUserInterface scheduler) {
+        if (scheduler == null) {
+            return;
+        }
+        String key = findKey(schedulers, scheduler);
+        if (key == null || release(schedulers, key) == 0) {
+            try {
+                if (scheduler.isConnected()) {
+                    scheduler.disconnect();
+                }
+            } catch (Exception ignored) {
+            }
+            terminateActiveObject(scheduler);
+        }
+    }
+
+    /**
+     * Removes a scheduler proxy which lost its connection from the pool, so that the next sessions logging in with
+     * the same credentials create a new connection. The sessions still using the discarded proxy terminate it when
+     * they release it.
+     */
+    public void discardScheduler(SchedulerProxyUserInterface scheduler) {
+        synchronized (schedulers) {
+            schedulers.values().removeIf(pooledProxy -> pooledProxy.proxy == scheduler);
+        }
+        logger.info("Connection " + scheduler + " is lost, a new connection will be created");
+    }
+
+    /**
+     * Releases a resource manager proxy obtained from this pool and disconnects it
+     */
+    public void releaseRM(RMProxyUserInterface rm) {
+        if (rm == null) {
+            return;
+        }
+        String key = findKey(rms, rm);
+        if (key == null || release(rms, key) == 0) {
+            try {
+                if (rm.isActive().getBooleanValue()) {
+                    rm.disconnect();
+                }
+            } catch (Exception ignored) {
+            }
+            terminateActiveObject(rm);
+        }
+    }
+
+    /**
+     * @return the number of distinct scheduler proxies currently in use
+     */
+    public int getSchedulerConnectionCount() {
+        synchronized (schedulers) {
+            return schedulers.size();
+        }
+    }
+
+    /**
+     * @return the number of distinct resource manager proxies currently in use
+     */
+    public int getRMConnectionCount() {
+        synchronized (rms) {
+            return rms.size();
+        }
+    }
+
+    private static <T> PooledProxy<T> acquire(Map<String, PooledProxy<T>> pool, String key) {
+        synchronized (pool) {
+            PooledProxy<T> pooledProxy = pool.computeIfAbsent(key, k -> new PooledProxy<>());
+            pooledProxy.references++;
+            return pooledProxy;
+        }
+    }
+
+    /**
+     * @return the number of sessions still using the proxy
+     */
+    private static <T> int release(Map<String, PooledProxy<T>> pool, String key) {
+        synchronized (pool) {
+            PooledProxy<T> pooledProxy = pool.get(key);
+            if (pooledProxy == null) {
+                return 0;
+            }
+            pooledProxy.references--;
+            if (pooledProxy.references <= 0) {
+                pool.remove(key);
+            }
+            return pooledProxy.references;
+        }
+    }
+
+    private static <T> String findKey(Map<String, PooledProxy<T>> pool, T proxy) {
+        synchronized (pool) {
+            for (Map.Entry<String, PooledProxy<T>> entry : pool.entrySet()) {
+                if (entry.getValue().proxy == proxy) {
+                    return entry.getKey();
+                }
+            }
+            return null;
+        }
+    }
+
+    private String getKey(Credentials credentials) throws KeyException {
+        if (!shared) {
+            return newSessionKey();
+        }
+        // encrypted credentials are only identical when the same credentials file is reused
+        return "credentials:" + keyHashFunction.hashBytes(credentials.getBase64());
+    }
+
+    private String getKey(CredData credData) {
+        if (!shared) {
+            return newSessionKey();
+        }
+        Hasher hasher = keyHashFunction.newHasher();
+        hasher.putString(String.valueOf(credData.getLogin()), UTF_8).putByte((byte) 0);
+        hasher.putString(String.valueOf(credData.getDomain()), UTF_8).putByte((byte) 0);
+        hasher.putString(String.valueOf(credData.getPassword()), UTF_8).putByte((byte) 0);
+        if (credData.getKey() != null) {
+            hasher.putBytes(credData.getKey());
+        }
+        hasher.putByte((byte) 0);
+        if (credData.getThirdPartyCredentials() != null) {
+            hasher.putString(new TreeMap<>(credData.getThirdPartyCredentials()).toString(), UTF_8);
+        }
+        return "credData:" + hasher.hash();
+    }
+
+    private static String newSessionKey() {
+        return UUID.randomUUID().toString();
+    }
+
+    private static byte[] newSecret() {
+        byte[] secret = new byte[32];
+        new SecureRandom().nextBytes(secret);
+        return secret;
+    }
+
+    private void terminateActiveObject(Object activeObject) {
+        try {
+            PAActiveObject.terminateActiveObject(activeObject, true);
+        } catch (Throwable e) {
+            logger.warn("Error occurred while terminating active object " + activeObject, e);
+        }
+    }
+
+    private static class PooledProxy<T> {
+
+        private T proxy;
+
+        private int references;
+    }
+}
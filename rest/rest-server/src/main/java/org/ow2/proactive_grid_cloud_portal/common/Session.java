@@ -34,7 +34,6 @@ import javax.security.auth.login.LoginException;
 
 import org.apache.log4j.Logger;
 import org.objectweb.proactive.ActiveObjectCreationException;
-import org.objectweb.proactive.api.PAActiveObject;
 import org.objectweb.proactive.core.node.NodeException;
 import org.objectweb.proactive.core.util.log.ProActiveLogger;
 import org.ow2.proactive.authentication.crypto.CredData;
@@ -62,7 +61,7 @@ public class Session {
 
     private String sessionId;
 
-    private SchedulerRMProxyFactory schedulerRMProxyFactory;
+    private SchedulerRMProxyPool schedulerRMProxyPool;
 
     private Clock clock;
 
@@ -85,8 +84,16 @@ public class Session {
     private static PublicKey corePublicKey;
 
     public Session(String sessionId, SchedulerRMProxyFactory schedulerRMProxyFactory, Clock clock) {
+        this(sessionId, new SchedulerRMProxyPool(schedulerRMProxyFactory), clock);
+    }
+
+    /**
+     * Creates a session which shares its scheduler and resource manager connections with the other sessions
+     * of the pool logged in with the same credentials
+     */
+    public Session(String sessionId, SchedulerRMProxyPool schedulerRMProxyPool, Clock clock) {
         this.sessionId = sessionId;
-        this.schedulerRMProxyFactory = schedulerRMProxyFactory;
+        this.schedulerRMProxyPool = schedulerRMProxyPool;
         this.clock = clock;
         initPrivateKey();
         updateLastAccessedTime();
@@ -174,23 +181,58 @@ public class Session {
     public void connectToScheduler(Credentials credentials)
             throws LoginException, ActiveObjectCreationException, SchedulerException, NodeException, KeyException {
 
-        scheduler = schedulerRMProxyFactory.connectToScheduler(credentials);
+        SchedulerProxyUserInterface previousScheduler = scheduler;
+        scheduler = schedulerRMProxyPool.connectToScheduler(credentials);
+        Subject subject = getSubjectOrDiscard(scheduler);
+        if (subject == null) {
+            scheduler = schedulerRMProxyPool.connectToScheduler(credentials);
+            subject = scheduler.getSubject();
+        }
+        // each connection counts one reference, even when the pool returns the same proxy
+        schedulerRMProxyPool.releaseScheduler(previousScheduler);
 
-        updateCredentials(credentials, scheduler.getSubject());
+        updateCredentials(credentials, subject);
         setUserName(scheduler.getCurrentUser());
     }
 
     public void connectToScheduler(CredData credData)
             throws LoginException, ActiveObjectCreationException, SchedulerException, NodeException {
-        scheduler = schedulerRMProxyFactory.connectToScheduler(credData);
+        SchedulerProxyUserInterface previousScheduler = scheduler;
+        scheduler = schedulerRMProxyPool.connectToScheduler(credData);
+        Subject subject = getSubjectOrDiscard(scheduler);
+        if (subject == null) {
+            scheduler = schedulerRMProxyPool.connectToScheduler(credData);
+            subject = scheduler.getSubject();
+        }
+        // each connection counts one reference, even when the pool returns the same proxy
+        schedulerRMProxyPool.releaseScheduler(previousScheduler);
 
-        updateCredentials(credData, scheduler.getSubject());
+        updateCredentials(credData, subject);
         setUserName(credData.getLogin());
     }
 
+    /**
+     * Reads the subject of a pooled scheduler proxy. This call is made by every login, so it also detects a shared
+     * connection lost since it was pooled, without an additional round trip to the scheduler.
+     *
+     * @return the subject of the connection, or null if the connection is lost and was released
+     */
+    private Subject getSubjectOrDiscard(SchedulerProxyUserInterface pooledScheduler) {
+        try {
+            return pooledScheduler.getSubject();
+        } catch (Exception e) {
+            logger.debug("Could not get the subject of connection " + pooledScheduler, e);
+            schedulerRMProxyPool.discardScheduler(pooledScheduler);
+            schedulerRMProxyPool.releaseScheduler(pooledScheduler);
+            return null;
+        }
+    }
+
     public void connectToRM(Credentials credentials)
             throws LoginException, ActiveObjectCreationException, KeyException, NodeException, RMException {
-        rm = schedulerRMProxyFactory.connectToRM(credentials);
+        RMProxyUserInterface previousRM = rm;
+        rm = schedulerRMProxyPool.connectToRM(credentials);
+        schedulerRMProxyPool.releaseRM(previousRM);
 
         updateCredentials(credentials, rm.getCurrentUserSubject());
         setUserName(rm.getCurrentUser().getStringValue());
@@ -198,7 +240,9 @@ public class Session {
 
     public void connectToRM(CredData credData)
             throws LoginException, ActiveObjectCreationException, KeyException, NodeException, RMException {
-        rm = schedulerRMProxyFactory.connectToRM(credData);
+        RMProxyUserInterface previousRM = rm;
+        rm = schedulerRMProxyPool.connectToRM(credData);
+        schedulerRMProxyPool.releaseRM(previousRM);
 
         updateCredentials(credData, rm.getCurrentUserSubject());
         setUserName(credData.getLogin());
@@ -252,34 +296,13 @@ public class Session {
     }
 
     public void terminate() {
-        try {
-            if (scheduler.isConnected()) {
-                scheduler.disconnect();
-            }
-        } catch (Exception ignored) {
-        }
-        try {
-            if (rm.isActive().getBooleanValue()) {
-                rm.disconnect();
-            }
-        } catch (Exception ignored) {
-        }
-        terminateActiveObject(rm);
-        terminateActiveObject(scheduler);
+        // the connections are only closed when no other session shares them
+        schedulerRMProxyPool.releaseRM(rm);
+        schedulerRMProxyPool.releaseScheduler(scheduler);
         jobsOutputController.terminate();
         logger.debug("Session " + sessionId + " of user " + userName + " terminated");
     }
 
-    private void terminateActiveObject(Object activeObject) {
-        if (activeObject != null) {
-            try {
-                PAActiveObject.terminateActiveObject(activeObject, true);
-            } catch (Throwable e) {
-                logger.warn("Error occurred while terminating active object tied to session " + sessionId, e);
-            }
-        }
-    }
-
     public boolean isExpired(long expirationDelay) {
         return clock.now() - lastAccessTimestamp >= expirationDelay;
     }
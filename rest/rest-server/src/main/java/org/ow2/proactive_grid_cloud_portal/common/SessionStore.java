@@ -44,13 +44,13 @@ public class SessionStore {
 
     private final Map<String, Session> sessions = new ConcurrentHashMap<>();
 
-    private SchedulerRMProxyFactory schedulerRMProxyFactory = new SchedulerRMProxyFactory();
+    private SchedulerRMProxyPool schedulerRMProxyPool = new SchedulerRMProxyPool(new SchedulerRMProxyFactory());
 
     private Clock clock = new Clock();
 
     public Session createUnnamedSession() {
         String sessionId = SessionIdGenerator.newSessionId();
-        Session session = new Session(sessionId, schedulerRMProxyFactory, clock);
+        Session session = new Session(sessionId, schedulerRMProxyPool, clock);
         sessions.put(sessionId, session);
         return session;
     }
@@ -85,7 +85,12 @@ public class SessionStore {
 
     /** For testing only */
     public void setSchedulerRMProxyFactory(SchedulerRMProxyFactory schedulerRMProxyFactory) {
-        this.schedulerRMProxyFactory = schedulerRMProxyFactory;
+        this.schedulerRMProxyPool = new SchedulerRMProxyPool(schedulerRMProxyFactory);
+    }
+
+    /** For testing only */
+    public SchedulerRMProxyPool getSchedulerRMProxyPool() {
+        return schedulerRMProxyPool;
     }
 
     public void terminate(String sessionId) {
@@ -27,8 +27,15 @@ package org.ow2.proactive_grid_cloud_portal.common;
 
 import java.io.IOException;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
-import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 import javax.management.InstanceNotFoundException;
 import javax.management.IntrospectionException;
@@ -36,8 +43,10 @@ import javax.management.MalformedObjectNameException;
 import javax.management.ReflectionException;
 
 import org.apache.log4j.Logger;
+import org.objectweb.proactive.utils.NamedThreadFactory;
 import org.ow2.proactive.resourcemanager.core.properties.PAResourceManagerProperties;
 import org.ow2.proactive.scheduler.common.exception.NotConnectedException;
+import org.ow2.proactive_grid_cloud_portal.webapp.PortalConfiguration;
 
 
 /**
@@ -48,6 +57,15 @@ import org.ow2.proactive.scheduler.common.exception.NotConnectedException;
  * <p>
  * This class will store the result of the requests along with the parameter,
  * so that future request matching the same parameter are directly retrieved from the cache.
+ * <p>
+ * Entries are computed at most once at a time per key: concurrent requests for a missing or expired key
+ * share the same computation, and requests for different keys never wait for each other. An expired entry
+ * is still returned during {@link PortalConfiguration#RM_STATHISTORY_CACHE_STALE_DURATION} while it is
+ * refreshed in the background, by a small pool of threads shared by all the caches. The refresh uses the value
+ * creator of the latest request of the key, so that it does not depend on the session which first requested it.
+ * <p>
+ * The cache keeps at most {@link PortalConfiguration#RM_STATHISTORY_CACHE_MAX_SIZE} keys and evicts the least
+ * recently accessed ones.
  * 
  * @author mschnoor
  *
@@ -61,6 +79,26 @@ public class StatHistoryCaching {
     // invalidate entry after MAX_DURATION millis
     private static final long MAX_DURATION = 5000;
 
+    private static final NamedThreadFactory REFRESH_THREAD_FACTORY = new NamedThreadFactory("Stat history refresh");
+
+    private static final int REFRESH_THREADS = 2;
+
+    private static final int REFRESH_QUEUE_SIZE = 256;
+
+    // background refreshes of expired entries, at most one per key
+    private static final ThreadPoolExecutor refreshExecutor = newRefreshExecutor();
+
+    private static ThreadPoolExecutor newRefreshExecutor() {
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(REFRESH_THREADS,
+                                                             REFRESH_THREADS,
+                                                             60,
+                                                             TimeUnit.SECONDS,
+                                                             new LinkedBlockingQueue<>(REFRESH_QUEUE_SIZE),
+                                                             REFRESH_THREAD_FACTORY);
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
     public class StatHistoryCacheEntry {
         private long timeStamp;
 
@@ -88,7 +126,31 @@ public class StatHistoryCaching {
         }
     }
 
-    private HashMap<String, StatHistoryCacheEntry> statHistoryCache = null;
+    /**
+     * Cache slot of a key, holding the last computed entry and the computation in progress, if any
+     */
+    private static class CacheSlot {
+        private volatile StatHistoryCacheEntry entry;
+
+        // value creator of the latest request, used by background refreshes
+        private volatile RestCallable<String> valueCreator;
+
+        // guarded by this
+        private CompletableFuture<StatHistoryCacheEntry> computation;
+    }
+
+    // access ordered, guarded by itself
+    private final LinkedHashMap<String, CacheSlot> statHistoryCache;
+
+    private final long maxDuration;
+
+    private final long staleDuration;
+
+    private final AtomicLong hits = new AtomicLong();
+
+    private final AtomicLong staleHits = new AtomicLong();
+
+    private final AtomicLong misses = new AtomicLong();
 
     private static StatHistoryCaching instance = null;
 
@@ -105,7 +167,20 @@ public class StatHistoryCaching {
     }
 
     private StatHistoryCaching() {
-        this.statHistoryCache = new HashMap<>();
+        this(MAX_DURATION,
+             PortalConfiguration.RM_STATHISTORY_CACHE_STALE_DURATION.getValueAsLong(),
+             PortalConfiguration.RM_STATHISTORY_CACHE_MAX_SIZE.getValueAsInt());
+    }
+
+    StatHistoryCaching(long maxDuration, long staleDuration, int maxSize) {
+        this.maxDuration = maxDuration;
+        this.staleDuration = staleDuration;
+        this.statHistoryCache = new LinkedHashMap<String, CacheSlot>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CacheSlot> eldest) {
+                return size() > maxSize;
+            }
+        };
     }
 
     public static synchronized StatHistoryCaching getInstance() {
@@ -122,33 +197,140 @@ public class StatHistoryCaching {
      * @param key key of the cache element to retrieve
      * @return the cache entry if it exists and has not expired, or null
      */
-    public synchronized StatHistoryCacheEntry getEntry(String key) {
-        StatHistoryCacheEntry entry = this.statHistoryCache.get(key);
-        if (entry == null)
+    public StatHistoryCacheEntry getEntry(String key) {
+        CacheSlot slot;
+        synchronized (statHistoryCache) {
+            slot = statHistoryCache.get(key);
+        }
+        if (slot == null)
             return null;
 
-        if (System.currentTimeMillis() - entry.timeStamp > MAX_DURATION) {
-            this.statHistoryCache.remove(key);
+        StatHistoryCacheEntry entry = slot.entry;
+        if (entry == null || System.currentTimeMillis() - entry.timeStamp > maxDuration) {
             return null;
         }
 
         return entry;
     }
 
-    public synchronized StatHistoryCacheEntry getEntryOrCompute(String key, RestCallable<String> valueCreator)
+    /**
+     * Returns the entry of the given key, computing it with the given value creator if it is missing or expired.
+     * <p>
+     * Only one computation runs at a time for a given key, other callers wait for its result. If the expired
+     * entry is recent enough, it is returned immediately and refreshed in the background.
+     *
+     * @param key key of the cache element to retrieve
+     * @param valueCreator computes the value of the key
+     * @return the cache entry
+     */
+    public StatHistoryCacheEntry getEntryOrCompute(String key, RestCallable<String> valueCreator)
             throws ReflectionException, InterruptedException, NotConnectedException, IntrospectionException,
             IOException, InstanceNotFoundException, MalformedObjectNameException {
-        StatHistoryCacheEntry entry = statHistoryCache.get(key);
+        CacheSlot slot = getOrCreateSlot(key);
+        slot.valueCreator = valueCreator;
+        long now = System.currentTimeMillis();
 
-        if (entry == null || (System.currentTimeMillis() - entry.timeStamp) > MAX_DURATION) {
-            statHistoryCache.remove(key);
+        StatHistoryCacheEntry entry = slot.entry;
+        if (entry != null && now - entry.timeStamp <= maxDuration) {
+            hits.incrementAndGet();
+            return entry;
+        }
+
+        CompletableFuture<StatHistoryCacheEntry> computation;
+        boolean computing = false;
+        synchronized (slot) {
+            if (slot.computation == null) {
+                slot.computation = new CompletableFuture<>();
+                computing = true;
+            }
+            computation = slot.computation;
+        }
+
+        boolean stale = entry != null && now - entry.timeStamp <= maxDuration + staleDuration;
+        if (stale) {
+            staleHits.incrementAndGet();
+            if (computing) {
+                refresh(key, slot, computation, entry);
+            }
+            return entry;
+        }
+
+        misses.incrementAndGet();
+        if (computing) {
+            compute(key, slot, computation, valueCreator);
+        }
+        try {
+            return computation.get();
+        } catch (ExecutionException e) {
+            throw rethrow(e.getCause());
+        }
+    }
+
+    private CacheSlot getOrCreateSlot(String key) {
+        synchronized (statHistoryCache) {
+            return statHistoryCache.computeIfAbsent(key, k -> new CacheSlot());
+        }
+    }
+
+    /**
+     * Refreshes the slot in the background with the latest value creator of the key. When the refresh threads are
+     * saturated, the expired entry is kept and the next request of the key tries again.
+     */
+    private void refresh(String key, CacheSlot slot, CompletableFuture<StatHistoryCacheEntry> computation,
+            StatHistoryCacheEntry expiredEntry) {
+        try {
+            refreshExecutor.execute(() -> compute(key, slot, computation, slot.valueCreator));
+        } catch (RejectedExecutionException e) {
+            LOGGER.debug("Refresh of statistic history " + key + " is postponed, refresh threads are busy");
+            clearComputation(slot);
+            computation.complete(expiredEntry);
+        }
+    }
+
+    private void compute(String key, CacheSlot slot, CompletableFuture<StatHistoryCacheEntry> computation,
+            RestCallable<String> valueCreator) {
+        try {
             long timeStamp = System.currentTimeMillis();
             String value = valueCreator.call();
-            entry = new StatHistoryCacheEntry(value, timeStamp);
-            statHistoryCache.put(key, entry);
+            StatHistoryCacheEntry entry = new StatHistoryCacheEntry(value, timeStamp);
+            slot.entry = entry;
+            clearComputation(slot);
+            computation.complete(entry);
+        } catch (Throwable t) {
+            LOGGER.warn("Could not compute statistic history for " + key, t);
+            clearComputation(slot);
+            computation.completeExceptionally(t);
         }
+    }
 
-        return entry;
+    private static void clearComputation(CacheSlot slot) {
+        synchronized (slot) {
+            slot.computation = null;
+        }
+    }
+
+    private static RuntimeException rethrow(Throwable cause) throws ReflectionException, InterruptedException,
+            NotConnectedException, IntrospectionException, IOException, InstanceNotFoundException,
+            MalformedObjectNameException {
+        if (cause instanceof ReflectionException)
+            throw (ReflectionException) cause;
+        if (cause instanceof InterruptedException)
+            throw (InterruptedException) cause;
+        if (cause instanceof NotConnectedException)
+            throw (NotConnectedException) cause;
+        if (cause instanceof IntrospectionException)
+            throw (IntrospectionException) cause;
+        if (cause instanceof IOException)
+            throw (IOException) cause;
+        if (cause instanceof InstanceNotFoundException)
+            throw (InstanceNotFoundException) cause;
+        if (cause instanceof MalformedObjectNameException)
+            throw (MalformedObjectNameException) cause;
+        if (cause instanceof RuntimeException)
+            throw (RuntimeException) cause;
+        if (cause instanceof Error)
+            throw (Error) cause;
+        return new IllegalStateException(cause);
     }
 
     @FunctionalInterface
@@ -157,9 +339,38 @@ public class StatHistoryCaching {
                 MalformedObjectNameException, NullPointerException, InterruptedException, NotConnectedException;
     }
 
-    public synchronized void addEntry(String key, long timeStamp, String value) {
-        StatHistoryCacheEntry entry = new StatHistoryCacheEntry(value, timeStamp);
-        this.statHistoryCache.put(key, entry);
+    public void addEntry(String key, long timeStamp, String value) {
+        getOrCreateSlot(key).entry = new StatHistoryCacheEntry(value, timeStamp);
+    }
+
+    /**
+     * @return number of requests served with an up-to-date entry
+     */
+    public long getHitCount() {
+        return hits.get();
+    }
+
+    /**
+     * @return number of requests served with an expired entry while it was refreshed
+     */
+    public long getStaleHitCount() {
+        return staleHits.get();
+    }
+
+    /**
+     * @return number of requests which had to wait for a computation
+     */
+    public long getMissCount() {
+        return misses.get();
+    }
+
+    /**
+     * @return number of keys currently held by the cache
+     */
+    public int size() {
+        synchronized (statHistoryCache) {
+            return statHistoryCache.size();
+        }
     }
 
 }
@@ -0,0 +1,240 @@
+/*
+ * ProActive Parallel Suite(TM):
+ * The Open Source library for parallel and distributed
+ * Workflows & Scheduling, Orchestration, Cloud Automation
+ * and Big Data Analysis on Enterprise Grids & Clouds.
+ *
+ * Copyright (c) 2007 - 2017 ActiveEon
+ * Contact: contact@activeeon.com
+ *
+ * This library is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation: version 3 of
+ * the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ */
+package org.ow2.proactive_grid_cloud_portal.dataspace;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+
+import org.apache.log4j.Logger;
+
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import com.google.common.hash.HashingInputStream;
+import com.google.common.io.ByteStreams;
+
+
+/**
+ * Stores the chunks of the files uploaded in several requests, until they are assembled into their
+ * destination file.
+ * <p>
+ * Chunks are addressed by the SHA-256 checksum of their content, so a chunk already uploaded by a user is
+ * never transferred again, whether the upload was interrupted or the same content is part of another file.
+ * Chunks are kept per user, a user cannot learn which content was uploaded by another one. Chunks which
+ * have not been used during the retention period are removed. A chunk cannot exceed a maximum size, and the chunks
+ * kept for a user cannot exceed a quota.
+ */
+public class ChunkStore {
+
+    private static final Logger logger = Logger.getLogger(ChunkStore.class);
+
+    private static final Pattern CHECKSUM_PATTERN = Pattern.compile("[0-9a-f]{64}");
+
+    private final File root;
+
+    private final long retentionMillis;
+
+    private final long maxChunkSize;
+
+    private final long userQuota;
+
+    private final AtomicLong lastCleanup = new AtomicLong(System.currentTimeMillis());
+
+    /**
+     * Bytes used by the chunks of each user, keyed by user directory name, computed when first needed
+     */
+    private final ConcurrentMap<String, AtomicLong> usedBytes = new ConcurrentHashMap<>();
+
+    public enum StoreResult {
+        STORED,
+        CHECKSUM_MISMATCH,
+        CHUNK_TOO_LARGE,
+        QUOTA_EXCEEDED
+    }
+
+    public ChunkStore(File root, long retentionMillis, long maxChunkSize, long userQuota) {
+        this.root = root;
+        this.retentionMillis = retentionMillis;
+        this.maxChunkSize = maxChunkSize;
+        this.userQuota = userQuota;
+    }
+
+    public static boolean isValidChecksum(String checksum) {
+        return checksum != null && CHECKSUM_PATTERN.matcher(checksum).matches();
+    }
+
+    /**
+     * @return the checksums, among the given ones, of the chunks not stored for this user
+     */
+    public List<String> findMissing(String user, List<String> checksums) {
+        List<String> missing = new ArrayList<>();
+        for (String checksum : checksums) {
+            File chunk = chunkFile(user, checksum);
+            if (chunk.isFile()) {
+                // keep the chunk until the upload is over
+                chunk.setLastModified(System.currentTimeMillis());
+            } else if (!missing.contains(checksum)) {
+                missing.add(checksum);
+            }
+        }
+        return missing;
+    }
+
+    /**
+     * Stores a chunk, after verifying its content matches the checksum, its size and the quota of the user.
+     *
+     * @return whether the chunk was stored, or why it was rejected
+     */
+    public StoreResult store(String user, String checksum, InputStream is) throws IOException {
+        removeExpiredChunksPeriodically();
+        File chunk = chunkFile(user, checksum);
+        File userDirectory = chunk.getParentFile();
+        if (!userDirectory.isDirectory() && !userDirectory.mkdirs() && !userDirectory.isDirectory()) {
+            throw new IOException("Cannot create chunk directory " + userDirectory);
+        }
+        File partFile = File.createTempFile(checksum, ".part", userDirectory);
+        try {
+            HashingInputStream hashingInputStream = new HashingInputStream(Hashing.sha256(), is);
+            // one byte more than the maximum is read, to detect a larger chunk without reading all of it
+            long size = Files.copy(ByteStreams.limit(hashingInputStream, maxChunkSize + 1),
+                                   partFile.toPath(),
+                                   StandardCopyOption.REPLACE_EXISTING);
+            if (size > maxChunkSize) {
+                return StoreResult.CHUNK_TOO_LARGE;
+            }
+            if (!checksum.equals(hashingInputStream.hash().toString())) {
+                return StoreResult.CHECKSUM_MISMATCH;
+            }
+            AtomicLong userBytes = usedBytes(userDirectory);
+            synchronized (userBytes) {
+                long addedBytes = size - chunk.length();
+                if (addedBytes > 0 && userBytes.get() + addedBytes > userQuota) {
+                    return StoreResult.QUOTA_EXCEEDED;
+                }
+                Files.move(partFile.toPath(), chunk.toPath(), StandardCopyOption.REPLACE_EXISTING);
+                userBytes.addAndGet(addedBytes);
+            }
+            return StoreResult.STORED;
+        } finally {
+            Files.deleteIfExists(partFile.toPath());
+        }
+    }
+
+    /**
+     * Writes the content of the given chunks, in order.
+     *
+     * @return the SHA-256 checksum of the written content
+     */
+    public String assemble(String user, List<String> checksums, OutputStream os) throws IOException {
+        Hasher hasher = Hashing.sha256().newHasher();
+        byte[] buffer = new byte[64 * 1024];
+        for (String checksum : checksums) {
+            try (InputStream chunk = Files.newInputStream(chunkFile(user, checksum).toPath())) {
+                int read;
+                while ((read = chunk.read(buffer)) != -1) {
+                    hasher.putBytes(buffer, 0, read);
+                    os.write(buffer, 0, read);
+                }
+            }
+        }
+        return hasher.hash().toString();
+    }
+
+    /**
+     * Removes the chunks not used during the retention period.
+     *
+     * @return the number of chunks removed
+     */
+    public int removeExpiredChunks() {
+        long expiration = System.currentTimeMillis() - retentionMillis;
+        int removed = 0;
+        File[] userDirectories = root.listFiles();
+        if (userDirectories == null) {
+            return 0;
+        }
+        for (File userDirectory : userDirectories) {
+            File[] chunks = userDirectory.listFiles();
+            if (chunks == null) {
+                continue;
+            }
+            AtomicLong userBytes = usedBytes(userDirectory);
+            synchronized (userBytes) {
+                for (File chunk : chunks) {
+                    long chunkSize = chunk.length();
+                    if (chunk.lastModified() < expiration && chunk.delete()) {
+                        if (isValidChecksum(chunk.getName())) {
+                            userBytes.addAndGet(-chunkSize);
+                        }
+                        removed++;
+                    }
+                }
+            }
+        }
+        if (removed > 0) {
+            logger.debug("Removed " + removed + " expired upload chunks");
+        }
+        return removed;
+    }
+
+    private void removeExpiredChunksPeriodically() {
+        long now = System.currentTimeMillis();
+        long last = lastCleanup.get();
+        if (now - last > retentionMillis / 10 && lastCleanup.compareAndSet(last, now)) {
+            removeExpiredChunks();
+        }
+    }
+
+    private AtomicLong usedBytes(File userDirectory) {
+        return usedBytes.computeIfAbsent(userDirectory.getName(), name -> {
+            long bytes = 0;
+            File[] chunks = userDirectory.listFiles((dir, chunkName) -> isValidChecksum(chunkName));
+            if (chunks != null) {
+                for (File chunk : chunks) {
+                    bytes += chunk.length();
+                }
+            }
+            return new AtomicLong(bytes);
+        });
+    }
+
+    private File chunkFile(String user, String checksum) {
+        if (!isValidChecksum(checksum)) {
+            throw new IllegalArgumentException("Invalid chunk checksum: " + checksum);
+        }
+        String userDirectory = Hashing.sha256().hashString(user, StandardCharsets.UTF_8).toString();
+        return new File(new File(root, userDirectory), checksum);
+    }
+}
@@ -29,6 +29,10 @@ import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.net.URISyntaxException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
 import java.text.Collator;
 import java.util.Collections;
 import java.util.Comparator;
@@ -259,13 +263,29 @@ public class FileSystem {
     }
 
     public static void copy(FileObject fo, OutputStream os) throws IOException {
+        copy(fo, os, 0, Long.MAX_VALUE);
+    }
+
+    /**
+     * Copies {@code length} bytes of the file content starting at {@code offset}. Files of the local file system
+     * are positioned at {@code offset} through their {@link FileChannel} instead of reading the skipped bytes.
+     */
+    public static void copy(FileObject fo, OutputStream os, long offset, long length) throws IOException {
         fo.refresh();
         Closer closer = Closer.create();
         closer.register(os);
         try {
-            InputStream is = fo.getContent().getInputStream();
-            closer.register(is);
-            ByteStreams.copy(is, os);
+            File localFile = localFile(fo);
+            if (localFile != null) {
+                FileChannel channel = closer.register(FileChannel.open(localFile.toPath(), StandardOpenOption.READ));
+                channel.position(offset);
+                ByteStreams.copy(ByteStreams.limit(Channels.newInputStream(channel), length), os);
+            } else {
+                InputStream is = fo.getContent().getInputStream();
+                closer.register(is);
+                ByteStreams.skipFully(is, offset);
+                ByteStreams.copy(ByteStreams.limit(is, length), os);
+            }
         } catch (IOException ioe) {
             throw closer.rethrow(ioe);
         } finally {
@@ -273,6 +293,21 @@ public class FileSystem {
         }
     }
 
+    /**
+     * @return the file backing the given file object when it belongs to the local file system, null otherwise
+     */
+    private static File localFile(FileObject fo) {
+        if (!"file".equals(fo.getName().getScheme())) {
+            return null;
+        }
+        try {
+            File file = new File(fo.getURL().toURI());
+            return file.isFile() ? file : null;
+        } catch (FileSystemException | URISyntaxException | IllegalArgumentException e) {
+            return null;
+        }
+    }
+
     public static boolean isEmpty(FileObject fo) throws FileSystemException {
         fo.refresh();
         FileObject[] children = fo.getChildren();
@@ -30,17 +30,27 @@ import static org.apache.commons.vfs2.Selectors.SELECT_ALL;
 import static org.apache.commons.vfs2.Selectors.SELECT_SELF;
 import static org.ow2.proactive.permissions.RoleUtils.findRole;
 
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.lang.reflect.Method;
 import java.security.Permission;
 import java.security.PrivilegedAction;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Collections;
+import java.util.Date;
 import java.util.List;
 import java.util.Locale;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import javax.security.auth.Subject;
 import javax.ws.rs.*;
+import javax.ws.rs.core.EntityTag;
 import javax.ws.rs.core.HttpHeaders;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.MultivaluedHashMap;
@@ -52,6 +62,7 @@ import org.apache.commons.vfs2.FileObject;
 import org.apache.commons.vfs2.FileSystemException;
 import org.apache.commons.vfs2.FileType;
 import org.apache.log4j.Logger;
+import org.objectweb.proactive.utils.NamedThreadFactory;
 import org.ow2.proactive.permissions.*;
 import org.ow2.proactive.scheduler.common.SchedulerConstants;
 import org.ow2.proactive.scheduler.common.exception.NotConnectedException;
@@ -60,9 +71,11 @@ import org.ow2.proactive_grid_cloud_portal.common.Session;
 import org.ow2.proactive_grid_cloud_portal.common.SessionStore;
 import org.ow2.proactive_grid_cloud_portal.common.SharedSessionStore;
 import org.ow2.proactive_grid_cloud_portal.common.TokenStore;
+import org.ow2.proactive_grid_cloud_portal.dataspace.util.ByteRange;
 import org.ow2.proactive_grid_cloud_portal.dataspace.util.VFSZipper;
 import org.ow2.proactive_grid_cloud_portal.scheduler.exception.NotConnectedRestException;
 import org.ow2.proactive_grid_cloud_portal.scheduler.exception.PermissionRestException;
+import org.ow2.proactive_grid_cloud_portal.webapp.PortalConfiguration;
 
 import com.google.common.base.Strings;
 import com.google.common.base.Throwables;
@@ -79,6 +92,29 @@ public class RestDataspaceImpl implements RestDataspace {
 
     public static final String LIST_METADATA = "list-metadata";
 
+    private static final String ACCEPT_RANGES = "Accept-Ranges";
+
+    private static final String CONTENT_RANGE = "Content-Range";
+
+    private static final int GZIP_BLOCK_SIZE = 1024 * 1024;
+
+    private static final int GZIP_THREADS = PortalConfiguration.DATASPACE_GZIP_PARALLEL_THREADS.getValueAsInt();
+
+    private static final NamedThreadFactory GZIP_THREAD_FACTORY = new NamedThreadFactory("Dataspace gzip", true);
+
+    private static final ExecutorService gzipExecutor = Executors.newFixedThreadPool(GZIP_THREADS, GZIP_THREAD_FACTORY);
+
+    private static final long CHUNKS_RETENTION = PortalConfiguration.DATASPACE_CHUNKS_RETENTION.getValueAsInt() * 1000L;
+
+    private static final long CHUNKS_MAX_SIZE = PortalConfiguration.DATASPACE_CHUNKS_MAX_SIZE.getValueAsLong();
+
+    private static final long CHUNKS_USER_QUOTA = PortalConfiguration.DATASPACE_CHUNKS_USER_QUOTA.getValueAsLong();
+
+    private static final ChunkStore chunkStore = new ChunkStore(chunksDirectory(),
+                                                                CHUNKS_RETENTION,
+                                                                CHUNKS_MAX_SIZE,
+                                                                CHUNKS_USER_QUOTA);
+
     private static SessionStore sessions = SharedSessionStore.getInstance();
 
     @Override
@@ -110,14 +146,134 @@ public class RestDataspaceImpl implements RestDataspace {
         return Response.status(Response.Status.CREATED).build();
     }
 
+    @Override
+    @RoleWrite
+    public List<String> findMissingChunks(@HeaderParam("sessionid") String sessionId,
+            @PathParam("dataspace") String dataspace, @FormParam("checksum") List<String> checksums)
+            throws NotConnectedRestException, PermissionRestException {
+        Method currentMethod = new Object() {
+        }.getClass().getEnclosingMethod();
+        Session session = checkAuthorization(sessionId,
+                                             dataspace,
+                                             currentMethod,
+                                             "You are not authorized to write to files in dataspace " + dataspace);
+        try {
+            checkDataspaceParam(dataspace);
+            List<String> chunks = checksums == null ? Collections.<String> emptyList() : checksums;
+            checkChecksumParams(chunks);
+            return chunkStore.findMissing(session.getUserName(), chunks);
+        } catch (Throwable error) {
+            logger.error(String.format("Cannot look for missing chunks in %s.", dataspace.toUpperCase()), error);
+            throw rethrow(error);
+        }
+    }
+
+    @Override
+    @RoleWrite
+    public Response storeChunk(@HeaderParam("sessionid") String sessionId, @PathParam("dataspace") String dataspace,
+            @PathParam("checksum") String checksum, InputStream is)
+            throws NotConnectedRestException, PermissionRestException {
+        Method currentMethod = new Object() {
+        }.getClass().getEnclosingMethod();
+        Session session = checkAuthorization(sessionId,
+                                             dataspace,
+                                             currentMethod,
+                                             "You are not authorized to write to files in dataspace " + dataspace);
+        try {
+            checkDataspaceParam(dataspace);
+            checkChecksumParams(Collections.singletonList(checksum));
+            logger.debug(String.format("Storing chunk %s for %s", checksum, dataspace.toUpperCase()));
+            switch (chunkStore.store(session.getUserName(), checksum, is)) {
+                case CHECKSUM_MISMATCH:
+                    return badRequestRes("Chunk content does not match its checksum " + checksum);
+                case CHUNK_TOO_LARGE:
+                    return entityTooLargeRes("Chunk " + checksum + " exceeds the maximum chunk size");
+                case QUOTA_EXCEEDED:
+                    return entityTooLargeRes("Chunk " + checksum + " exceeds the quota of stored chunks");
+                default:
+                    break;
+            }
+        } catch (Throwable error) {
+            logger.error(String.format("Cannot store chunk %s for %s.", checksum, dataspace.toUpperCase()), error);
+            throw rethrow(error);
+        }
+        return Response.status(Response.Status.CREATED).build();
+    }
+
+    @Override
+    @RoleWrite
+    public Response assemble(@HeaderParam("sessionid") String sessionId, @PathParam("dataspace") String dataspace,
+            @PathParam("path-name") String pathname, @FormParam("chunk") List<String> chunks,
+            @FormParam("checksum") String checksum) throws NotConnectedRestException, PermissionRestException {
+        Method currentMethod = new Object() {
+        }.getClass().getEnclosingMethod();
+        Session session = checkAuthorization(sessionId,
+                                             dataspace,
+                                             currentMethod,
+                                             "You are not authorized to write to files in dataspace " + dataspace);
+        try {
+            checkPathParams(dataspace, pathname);
+            List<String> checksums = chunks == null ? Collections.<String> emptyList() : chunks;
+            checkChecksumParams(checksums);
+            FileObject fileObject = resolveFile(session, dataspace, pathname);
+            if (!fileObject.isWriteable()) {
+                return unauthorizedWriteRes(pathname);
+            }
+            List<String> missingChunks = chunkStore.findMissing(session.getUserName(), checksums);
+            if (!missingChunks.isEmpty()) {
+                return Response.status(Response.Status.CONFLICT)
+                               .entity(missingChunks)
+                               .type(MediaType.APPLICATION_JSON)
+                               .build();
+            }
+            logger.debug(String.format("Assembling %d chunks into %s/%s",
+                                       checksums.size(),
+                                       dataspace.toUpperCase(),
+                                       pathname));
+            if (FileType.FOLDER.equals(fileObject.getType())) {
+                return badRequestRes(pathname + " is a folder");
+            }
+            // the file is assembled next to its destination, which is only replaced by a complete file
+            FileObject partFile = fileObject.getParent()
+                                            .resolveFile(fileObject.getName().getBaseName() + "." +
+                                                         UUID.randomUUID() + ".part");
+            try {
+                partFile.createFile();
+                String fileChecksum;
+                try (OutputStream os = partFile.getContent().getOutputStream()) {
+                    fileChecksum = chunkStore.assemble(session.getUserName(), checksums, os);
+                }
+                if (!Strings.isNullOrEmpty(checksum) && !checksum.equals(fileChecksum)) {
+                    return badRequestRes("Assembled file does not match its checksum " + checksum);
+                }
+                if (fileObject.exists()) {
+                    fileObject.delete(SELECT_SELF);
+                }
+                partFile.moveTo(fileObject);
+            } finally {
+                if (partFile.exists()) {
+                    partFile.delete();
+                }
+            }
+        } catch (Throwable error) {
+            logger.error(String.format("Cannot assemble the file %s in %s.", pathname, dataspace.toUpperCase()),
+                         error);
+            throw rethrow(error);
+        }
+        return Response.status(Response.Status.CREATED).build();
+    }
+
     @Override
     @RoleRead
     public Response retrieve(@HeaderParam("sessionid") String sessionId,
             @HeaderParam("Accept-Encoding") String headerAcceptEncoding, @PathParam("dataspace") String dataspace,
             @PathParam("path-name") String pathname, @QueryParam("comp") String component,
             @QueryParam("includes") List<String> includes, @QueryParam("excludes") List<String> excludes,
-            @QueryParam("encoding") String encoding, @QueryParam("token") String token)
+            @QueryParam("encoding") String encoding, @QueryParam("token") String token,
+            @HeaderParam("Range") String range, @HeaderParam("If-Range") String ifRange)
             throws NotConnectedRestException, PermissionRestException {
+        // an encoding asked explicitly is honored even if compressing the file is not worth it
+        final boolean isEncodingRequested = !Strings.isNullOrEmpty(encoding);
         if (encoding == null) {
             encoding = headerAcceptEncoding;
         }
@@ -152,7 +308,20 @@ public class RestDataspaceImpl implements RestDataspace {
             }
 
             if (fo.getType() == FileType.FILE) {
-                if (VFSZipper.isZipFile(fo)) {
+                EntityTag entityTag = entityTag(fo);
+                ByteRange byteRange = null;
+                if (isIfRangeMatching(ifRange, fo, entityTag)) {
+                    byteRange = ByteRange.parse(range, fo.getContent().getSize());
+                }
+                if (byteRange != null) {
+                    logger.debug(String.format("Retrieving %s of file %s in %s",
+                                               byteRange,
+                                               pathname,
+                                               dataspace.toUpperCase()));
+                    return byteRange.isSatisfiable() ? partialFileResponse(fo, byteRange, entityTag)
+                                                     : rangeNotSatisfiableRes(byteRange);
+                }
+                if ((!isEncodingRequested && VFSZipper.isCompressedFile(fo)) || VFSZipper.isZipFile(fo)) {
                     logger.debug(String.format("Retrieving file %s in %s", pathname, dataspace.toUpperCase()));
                     return fileComponentResponse(fo);
                 } else if (Strings.isNullOrEmpty(encoding) || encoding.contains("*") || encoding.contains("gzip")) {
@@ -316,7 +485,12 @@ public class RestDataspaceImpl implements RestDataspace {
             @Override
             public void write(OutputStream os) throws IOException, WebApplicationException {
                 try {
-                    VFSZipper.GZIP.zip(fo, os);
+                    if (fo.getContent().getSize() >=
+                        PortalConfiguration.DATASPACE_GZIP_PARALLEL_THRESHOLD.getValueAsInt()) {
+                        VFSZipper.GZIP.zip(fo, os, gzipExecutor, GZIP_BLOCK_SIZE, 2 * GZIP_THREADS);
+                    } else {
+                        VFSZipper.GZIP.zip(fo, os);
+                    }
                 } catch (IOException ioe) {
                     throw new WebApplicationException(ioe, Response.Status.INTERNAL_SERVER_ERROR);
                 }
@@ -338,7 +512,69 @@ public class RestDataspaceImpl implements RestDataspace {
                     throw new WebApplicationException(ioe, Response.Status.INTERNAL_SERVER_ERROR);
                 }
             }
-        }).header(HttpHeaders.CONTENT_TYPE, mediaType(fo)).header(HttpHeaders.CONTENT_ENCODING, "identity").build();
+        })
+                       .header(HttpHeaders.CONTENT_TYPE, mediaType(fo))
+                       .header(HttpHeaders.CONTENT_ENCODING, "identity")
+                       .header(ACCEPT_RANGES, "bytes")
+                       .tag(entityTag(fo))
+                       .lastModified(new Date(fo.getContent().getLastModifiedTime()))
+                       .build();
+    }
+
+    private Response partialFileResponse(final FileObject fo, final ByteRange byteRange, EntityTag entityTag)
+            throws FileSystemException {
+        return Response.status(Response.Status.PARTIAL_CONTENT).entity(new StreamingOutput() {
+            @Override
+            public void write(OutputStream outputStream) throws IOException, WebApplicationException {
+                try {
+                    FileSystem.copy(fo, outputStream, byteRange.getFirst(), byteRange.getLength());
+                } catch (IOException ioe) {
+                    throw new WebApplicationException(ioe, Response.Status.INTERNAL_SERVER_ERROR);
+                }
+            }
+        })
+                       .header(HttpHeaders.CONTENT_TYPE, mediaType(fo))
+                       .header(HttpHeaders.CONTENT_ENCODING, "identity")
+                       .header(HttpHeaders.CONTENT_LENGTH, byteRange.getLength())
+                       .header(CONTENT_RANGE, byteRange.toContentRange())
+                       .header(ACCEPT_RANGES, "bytes")
+                       .tag(entityTag)
+                       .lastModified(new Date(fo.getContent().getLastModifiedTime()))
+                       .build();
+    }
+
+    /**
+     * Strong validator of the file content, derived from its size and modification date.
+     */
+    private EntityTag entityTag(FileObject fo) throws FileSystemException {
+        return new EntityTag(Long.toHexString(fo.getContent().getLastModifiedTime()) + "-" +
+                             Long.toHexString(fo.getContent().getSize()));
+    }
+
+    /**
+     * A range request is only honored when the {@code If-Range} precondition, if any, matches the current
+     * version of the file. Otherwise the whole file is sent again.
+     */
+    private boolean isIfRangeMatching(String ifRange, FileObject fo, EntityTag entityTag)
+            throws FileSystemException {
+        if (Strings.isNullOrEmpty(ifRange)) {
+            return true;
+        }
+        String validator = ifRange.trim();
+        if (validator.startsWith("W/")) {
+            // weak entity tags cannot be used in If-Range
+            return false;
+        }
+        if (validator.startsWith("\"")) {
+            return validator.equals("\"" + entityTag.getValue() + "\"");
+        }
+        try {
+            long ifRangeSeconds = ZonedDateTime.parse(validator, DateTimeFormatter.RFC_1123_DATE_TIME)
+                                               .toEpochSecond();
+            return ifRangeSeconds == fo.getContent().getLastModifiedTime() / 1000;
+        } catch (DateTimeParseException e) {
+            return false;
+        }
     }
 
     private Response deleteDir(FileObject fo, List<String> includes, List<String> excludes) throws FileSystemException {
@@ -371,10 +607,20 @@ public class RestDataspaceImpl implements RestDataspace {
         return Response.status(Response.Status.NOT_FOUND).build();
     }
 
+    private Response rangeNotSatisfiableRes(ByteRange byteRange) {
+        return Response.status(Response.Status.REQUESTED_RANGE_NOT_SATISFIABLE)
+                       .header(CONTENT_RANGE, byteRange.toContentRange())
+                       .build();
+    }
+
     private Response badRequestRes(String message) {
         return Response.status(Response.Status.BAD_REQUEST).entity(message).build();
     }
 
+    private Response entityTooLargeRes(String message) {
+        return Response.status(Response.Status.REQUEST_ENTITY_TOO_LARGE).entity(message).build();
+    }
+
     private Response unauthorizedReadRes(String pathname) {
         return Response.status(Response.Status.FORBIDDEN).entity("Unauthorized read access to " + pathname).build();
     }
@@ -404,13 +650,30 @@ public class RestDataspaceImpl implements RestDataspace {
     }
 
     private void checkPathParams(String dataspace, String pathname) {
+        checkDataspaceParam(dataspace);
+        checkArgument(!Strings.isNullOrEmpty(pathname), "Pathname cannot be null or empty.");
+    }
+
+    private void checkDataspaceParam(String dataspace) {
         checkArgument(!Strings.isNullOrEmpty(dataspace), "Dataspace name cannot be null or empty.");
         checkArgument(USER.equalsIgnoreCase(dataspace) || GLOBAL.equalsIgnoreCase(dataspace) ||
                       SchedulerConstants.USERSPACE_NAME.toString().equalsIgnoreCase(dataspace) ||
                       SchedulerConstants.GLOBALSPACE_NAME.toString().equalsIgnoreCase(dataspace),
                       "Invalid dataspace name: '%s'.",
                       dataspace);
-        checkArgument(!Strings.isNullOrEmpty(pathname), "Pathname cannot be null or empty.");
+    }
+
+    private void checkChecksumParams(List<String> checksums) {
+        for (String checksum : checksums) {
+            checkArgument(ChunkStore.isValidChecksum(checksum), "Invalid chunk checksum: '%s'.", checksum);
+        }
+    }
+
+    private static File chunksDirectory() {
+        String chunksDirectory = PortalConfiguration.DATASPACE_CHUNKS_DIR.getValueAsStringOrNull();
+        return Strings.isNullOrEmpty(chunksDirectory) ? new File(System.getProperty("java.io.tmpdir"),
+                                                                 "dataspace-chunks")
+                                                      : new File(chunksDirectory);
     }
 
     public void writeFile(InputStream inputStream, FileObject outputFile, String encoding)
@@ -0,0 +1,127 @@
+/*
+ * ProActive Parallel Suite(TM):
+ * The Open Source library for parallel and distributed
+ * Workflows & Scheduling, Orchestration, Cloud Automation
+ * and Big Data Analysis on Enterprise Grids & Clouds.
+ *
+ * Copyright (c) 2007 - 2017 ActiveEon
+ * Contact: contact@activeeon.com
+ *
+ * This library is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation: version 3 of
+ * the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ */
+package org.ow2.proactive_grid_cloud_portal.dataspace.util;
+
+/**
+ * A single byte range requested through the HTTP {@code Range} header.
+ * <p>
+ * Only one range per request is supported, multipart byte ranges are
+ * ignored and the full content is served instead, as allowed by RFC 7233.
+ */
+public class ByteRange {
+
+    private static final String BYTES_UNIT = "bytes=";
+
+    private final long first;
+
+    private final long last;
+
+    private final long contentLength;
+
+    private ByteRange(long first, long last, long contentLength) {
+        this.first = first;
+        this.last = last;
+        this.contentLength = contentLength;
+    }
+
+    /**
+     * Parses the given {@code Range} header value against a content of the given length.
+     *
+     * @param header the value of the {@code Range} header
+     * @param contentLength the length of the content in bytes
+     * @return the requested range or null when the header is absent, malformed or asks for several ranges
+     */
+    public static ByteRange parse(String header, long contentLength) {
+        if (header == null || !header.trim().startsWith(BYTES_UNIT)) {
+            return null;
+        }
+        String spec = header.trim().substring(BYTES_UNIT.length()).trim();
+        int dash = spec.indexOf('-');
+        if (dash < 0 || spec.indexOf(',') >= 0) {
+            return null;
+        }
+        try {
+            String start = spec.substring(0, dash).trim();
+            String end = spec.substring(dash + 1).trim();
+            if (start.isEmpty()) {
+                // suffix range: the last N bytes
+                if (end.isEmpty()) {
+                    return null;
+                }
+                long suffixLength = Long.parseLong(end);
+                if (suffixLength <= 0) {
+                    return new ByteRange(contentLength, contentLength - 1, contentLength);
+                }
+                return new ByteRange(Math.max(0, contentLength - suffixLength), contentLength - 1, contentLength);
+            }
+            long first = Long.parseLong(start);
+            long last = end.isEmpty() ? contentLength - 1 : Math.min(Long.parseLong(end), contentLength - 1);
+            if (first < 0 || (!end.isEmpty() && Long.parseLong(end) < first)) {
+                return null;
+            }
+            return new ByteRange(first, last, contentLength);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    /**
+     * @return false when the range does not overlap the content, the request must then be answered with
+     * status 416 (REQUESTED_RANGE_NOT_SATISFIABLE)
+     */
+    public boolean isSatisfiable() {
+        return first < contentLength && first <= last;
+    }
+
+    public long getFirst() {
+        return first;
+    }
+
+    public long getLast() {
+        return last;
+    }
+
+    public long getLength() {
+        return last - first + 1;
+    }
+
+    /**
+     * @return the value of the {@code Content-Range} header answering this range
+     */
+    public String toContentRange() {
+        return isSatisfiable() ? String.format("bytes %d-%d/%d", first, last, contentLength)
+                               : unsatisfiedContentRange(contentLength);
+    }
+
+    private static String unsatisfiedContentRange(long contentLength) {
+        return "bytes */" + contentLength;
+    }
+
+    @Override
+    public String toString() {
+        return toContentRange();
+    }
+}
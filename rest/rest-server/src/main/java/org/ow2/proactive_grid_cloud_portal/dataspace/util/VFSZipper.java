@@ -27,13 +27,23 @@ package org.ow2.proactive_grid_cloud_portal.dataspace.util;
 
 import static com.google.common.base.Preconditions.checkNotNull;
 
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
 import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.zip.GZIPOutputStream;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipInputStream;
 import java.util.zip.ZipOutputStream;
@@ -43,6 +53,7 @@ import org.apache.commons.vfs2.FileSystemException;
 import org.apache.log4j.Logger;
 import org.ow2.proactive_grid_cloud_portal.scheduler.client.utils.Zipper;
 
+import com.google.common.collect.ImmutableSet;
 import com.google.common.io.ByteStreams;
 import com.google.common.io.Closer;
 
@@ -51,6 +62,38 @@ public class VFSZipper {
 
     private static final Logger logger = Logger.getLogger(VFSZipper.class);
 
+    /** Extensions of the file formats which are already compressed and barely shrink when compressed again */
+    private static final Set<String> COMPRESSED_EXTENSIONS = ImmutableSet.of("7z",
+                                                                             "bz2",
+                                                                             "gz",
+                                                                             "tgz",
+                                                                             "xz",
+                                                                             "lz",
+                                                                             "lzma",
+                                                                             "zst",
+                                                                             "rar",
+                                                                             "jar",
+                                                                             "war",
+                                                                             "ear",
+                                                                             "zip",
+                                                                             "jpg",
+                                                                             "jpeg",
+                                                                             "png",
+                                                                             "gif",
+                                                                             "webp",
+                                                                             "mp3",
+                                                                             "mp4",
+                                                                             "mkv",
+                                                                             "avi",
+                                                                             "mov",
+                                                                             "ogg",
+                                                                             "webm",
+                                                                             "pdf",
+                                                                             "docx",
+                                                                             "xlsx",
+                                                                             "pptx",
+                                                                             "parquet");
+
     private VFSZipper() {
     }
 
@@ -60,6 +103,75 @@ public class VFSZipper {
             Zipper.GZIP.zip(fo.getContent().getInputStream(), os);
         }
 
+        /**
+         * Compresses the file in blocks of {@code blockSize} bytes deflated concurrently on the given
+         * executor. Each block is written as a separate gzip member, the concatenation of gzip members
+         * being itself a valid gzip stream (RFC 1952). At most {@code parallelism} blocks are held in
+         * memory at the same time.
+         */
+        public static void zip(FileObject fo, OutputStream os, ExecutorService executor, int blockSize,
+                int parallelism) throws IOException {
+            checkNotNull(executor);
+            Deque<Future<byte[]>> pendingBlocks = new ArrayDeque<>();
+            Closer closer = Closer.create();
+            closer.register(os);
+            try {
+                InputStream is = fo.getContent().getInputStream();
+                closer.register(is);
+                boolean empty = true;
+                byte[] block;
+                while ((block = readBlock(is, blockSize)) != null) {
+                    empty = false;
+                    final byte[] data = block;
+                    pendingBlocks.add(executor.submit(() -> compress(data)));
+                    if (pendingBlocks.size() >= parallelism) {
+                        os.write(waitFor(pendingBlocks.poll()));
+                    }
+                }
+                while (!pendingBlocks.isEmpty()) {
+                    os.write(waitFor(pendingBlocks.poll()));
+                }
+                if (empty) {
+                    os.write(compress(new byte[0]));
+                }
+            } catch (IOException ioe) {
+                for (Future<byte[]> pendingBlock : pendingBlocks) {
+                    pendingBlock.cancel(true);
+                }
+                throw closer.rethrow(ioe);
+            } finally {
+                closer.close();
+            }
+        }
+
+        private static byte[] readBlock(InputStream is, int blockSize) throws IOException {
+            byte[] block = new byte[blockSize];
+            int read = ByteStreams.read(is, block, 0, blockSize);
+            if (read == 0) {
+                return null;
+            }
+            return read < blockSize ? Arrays.copyOf(block, read) : block;
+        }
+
+        private static byte[] compress(byte[] data) throws IOException {
+            ByteArrayOutputStream compressed = new ByteArrayOutputStream(data.length / 2 + 64);
+            try (GZIPOutputStream gzip = new GZIPOutputStream(compressed)) {
+                gzip.write(data);
+            }
+            return compressed.toByteArray();
+        }
+
+        private static byte[] waitFor(Future<byte[]> block) throws IOException {
+            try {
+                return block.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted while compressing", e);
+            } catch (ExecutionException e) {
+                throw new IOException("Cannot compress block", e.getCause());
+            }
+        }
+
         public static void unzip(InputStream is, FileObject outputFile) throws IOException {
             Zipper.GZIP.unzip(is, outputFile.getContent().getOutputStream());
         }
@@ -184,6 +296,14 @@ public class VFSZipper {
         return Zipper.isZipFile(fo.getContent().getInputStream());
     }
 
+    /**
+     * @return true if the file extension denotes an already compressed format, not worth compressing again
+     */
+    public static boolean isCompressedFile(FileObject fo) {
+        String extension = fo.getName().getExtension();
+        return extension != null && COMPRESSED_EXTENSIONS.contains(extension.toLowerCase(Locale.ROOT));
+    }
+
     private static ZipEntry zipEntry(String basePath, FileObject fo) {
         String entryPath = fo.getName().getPath().substring(basePath.length() + 1);
         return new ZipEntry(entryPath);
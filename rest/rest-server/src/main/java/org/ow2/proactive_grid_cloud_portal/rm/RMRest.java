@@ -84,7 +84,6 @@ import org.ow2.proactive.resourcemanager.common.event.RMNodeHistory;
 import org.ow2.proactive.resourcemanager.common.event.RMNodeSourceEvent;
 import org.ow2.proactive.resourcemanager.common.event.dto.RMStateDelta;
 import org.ow2.proactive.resourcemanager.common.event.dto.RMStateFull;
-import org.ow2.proactive.resourcemanager.common.util.RMListenerProxy;
 import org.ow2.proactive.resourcemanager.common.util.RMProxyUserInterface;
 import org.ow2.proactive.resourcemanager.core.jmx.RMJMXBeans;
 import org.ow2.proactive.resourcemanager.core.properties.PAResourceManagerProperties;
@@ -103,6 +102,7 @@ import org.ow2.proactive.scheduler.common.exception.NotConnectedException;
 import org.ow2.proactive.scripting.ScriptException;
 import org.ow2.proactive.scripting.ScriptResult;
 import org.ow2.proactive.utils.console.MBeanInfoViewer;
+import org.ow2.proactive.utils.console.RrdSeriesCache;
 import org.ow2.proactive_grid_cloud_portal.common.*;
 import org.ow2.proactive_grid_cloud_portal.common.StatHistoryCaching.StatHistoryCacheEntry;
 import org.ow2.proactive_grid_cloud_portal.common.dto.LoginForm;
@@ -191,8 +191,9 @@ public class RMRest implements RMRestInterface {
 
     @Override
     public void rmDisconnect(String sessionId) throws NotConnectedException {
-        RMProxyUserInterface rm = checkAccess(sessionId);
-        PAFuture.getFutureValue(rm.disconnect(), RMListenerProxy.MONITORING_INTERFACE_TIMEOUT);
+        checkAccess(sessionId);
+        // the RM connection may be shared with other sessions, terminating the session releases it and only
+        // disconnects it once no other session uses it
         sessionStore.terminate(sessionId);
     }
 
@@ -1071,16 +1072,20 @@ public class RMRest implements RMRestInterface {
             beanName = RMJMXBeans.RUNTIMEDATA_MBEAN_NAME;
         }
 
-        StatHistoryCacheEntry entry = caching.getEntryOrCompute(newRange, () -> {
+        // the consolidation function changes the response as much as the range
+        String cacheKey = (function != null ? function : "") + ":" + newRange;
+        StatHistoryCacheEntry entry = caching.getEntryOrCompute(cacheKey, () -> {
 
-            AttributeList attrs = rm.getMBeanAttributes(new ObjectName(beanName), new String[] { "StatisticHistory" });
+            // may run in the background after this request, the session proxy is resolved when it runs
+            AttributeList attrs = checkAccess(sessionId).getMBeanAttributes(new ObjectName(beanName),
+                                                                            new String[] { "StatisticHistory" });
 
             Attribute attr = (Attribute) attrs.get(0);
 
             // content of the RRD4J database backing file
             byte[] rrd4j = (byte[]) attr.getValue();
 
-            return MBeanInfoViewer.rrdContent(rrd4j, newRange, dataSources, function);
+            return RrdSeriesCache.getInstance().rrdContent(beanName, rrd4j, newRange, dataSources, function);
         });
 
         return entry.getValue();
@@ -25,49 +25,105 @@
  */
 package org.ow2.proactive_grid_cloud_portal.scheduler;
 
+import java.util.concurrent.atomic.AtomicLong;
+
 import org.objectweb.proactive.core.util.CircularArrayList;
 
 
+/**
+ * Bounded buffer of the live logs of a job, shared by all the sessions listening to this job.
+ *
+ * Each log line gets a sequence number. Readers keep the sequence number of the next line they
+ * want to read, so that each of them consumes the buffer independently without copying it.
+ * When the buffer grows over its maximum size, the oldest lines are evicted.
+ */
 public class JobOutput {
 
-    private CircularArrayList<String> currentLogs;
+    private final CircularArrayList<String> logs = new CircularArrayList<>(50);
+
+    private final long maxSize;
 
-    private CircularArrayList<String> allLogs;
+    private final AtomicLong totalSize;
+
+    /** sequence number of the oldest line kept in the buffer */
+    private long firstSequence = 0;
+
+    /** number of characters kept in the buffer */
+    private long size = 0;
 
     public JobOutput() {
-        currentLogs = new CircularArrayList<>(50);
-        allLogs = new CircularArrayList<>(50);
+        this(Long.MAX_VALUE, new AtomicLong());
+    }
+
+    /**
+     * @param maxSize maximum number of characters kept in the buffer
+     * @param totalSize counter of the characters kept by all the buffers sharing the same memory budget
+     */
+    public JobOutput(long maxSize, AtomicLong totalSize) {
+        this.maxSize = maxSize;
+        this.totalSize = totalSize;
     }
 
     public synchronized void log(String message) {
-        currentLogs.add(message);
-        allLogs.add(message);
+        logs.add(message);
+        size += message.length();
+        totalSize.addAndGet(message.length());
+        trimTo(maxSize);
     }
 
     /**
-     * @return the logs appended since last call, i.e logs are removed when fetched
+     * Evicts the oldest lines until the buffer does not hold more than the given number of characters
      */
-    public synchronized String fetchNewLogs() {
-        int size = currentLogs.size();
-        StringBuilder mes = new StringBuilder();
-        for (int i = 0; i < size; i++) {
-            mes.append(currentLogs.remove(0));
+    public synchronized void trimTo(long targetSize) {
+        while (size > targetSize && !logs.isEmpty()) {
+            String evicted = logs.remove(0);
+            firstSequence++;
+            size -= evicted.length();
+            totalSize.addAndGet(-evicted.length());
         }
-        return mes.toString();
     }
 
     /**
-     * @return all the logs since creation, i.e logs are not removed
+     * Appends to the given builder the lines starting at the given sequence number,
+     * lines which were already evicted are skipped.
+     *
+     * @return the sequence number of the next line to read
      */
-    public synchronized String fetchAllLogs() {
-        StringBuilder mes = new StringBuilder();
-        for (String aSavedOutput : allLogs) {
-            mes.append(aSavedOutput);
+    public synchronized long fetchLogs(long fromSequence, StringBuilder into) {
+        for (int i = (int) Math.max(0, fromSequence - firstSequence); i < logs.size(); i++) {
+            into.append(logs.get(i));
         }
+        return nextSequence();
+    }
+
+    /**
+     * @return all the logs kept in the buffer, i.e logs are not removed
+     */
+    public synchronized String fetchAllLogs() {
+        StringBuilder mes = new StringBuilder((int) size);
+        fetchLogs(firstSequence, mes);
         return mes.toString();
     }
 
-    public synchronized int size() {
-        return currentLogs.size();
+    /**
+     * @return the number of lines available starting at the given sequence number
+     */
+    public synchronized int availableLinesCount(long fromSequence) {
+        return (int) Math.max(0, nextSequence() - Math.max(fromSequence, firstSequence));
+    }
+
+    public synchronized long firstSequence() {
+        return firstSequence;
+    }
+
+    public synchronized long nextSequence() {
+        return firstSequence + logs.size();
+    }
+
+    /**
+     * @return the number of characters kept in the buffer
+     */
+    public synchronized long size() {
+        return size;
     }
 }
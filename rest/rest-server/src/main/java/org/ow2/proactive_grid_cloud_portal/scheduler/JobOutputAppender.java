@@ -35,10 +35,23 @@ import org.ow2.proactive.scheduler.common.task.Log4JTaskLogs;
 
 public class JobOutputAppender extends AppenderSkeleton {
 
-    private JobOutput jobOutput = new JobOutput();
+    private final JobOutput jobOutput;
+
+    private final Runnable afterAppend;
 
     public JobOutputAppender() throws NotConnectedException, UnknownJobException, PermissionException {
+        this(new JobOutput(), () -> {
+        });
+    }
+
+    /**
+     * @param jobOutput buffer receiving the logs
+     * @param afterAppend action run after each log line is buffered
+     */
+    public JobOutputAppender(JobOutput jobOutput, Runnable afterAppend) {
         this.name = "Appender for job output";
+        this.jobOutput = jobOutput;
+        this.afterAppend = afterAppend;
 
         this.setLayout(Log4JTaskLogs.getTaskLogLayout());
     }
@@ -47,6 +60,7 @@ public class JobOutputAppender extends AppenderSkeleton {
     protected void append(LoggingEvent event) {
         if (!super.closed) {
             jobOutput.log(this.layout.format(event));
+            afterAppend.run();
         }
     }
 
@@ -60,15 +74,28 @@ public class JobOutputAppender extends AppenderSkeleton {
         return false;
     }
 
-    public String fetchNewLogs() {
-        return jobOutput.fetchNewLogs();
+    /**
+     * Appends to the given builder the logs starting at the given sequence number
+     *
+     * @return the sequence number of the next line to read
+     */
+    public long fetchNewLogs(long fromSequence, StringBuilder into) {
+        return jobOutput.fetchLogs(fromSequence, into);
     }
 
     public String fetchAllLogs() {
         return jobOutput.fetchAllLogs();
     }
 
-    public int size() {
-        return jobOutput.size();
+    public int availableLinesCount(long fromSequence) {
+        return jobOutput.availableLinesCount(fromSequence);
+    }
+
+    public long firstSequence() {
+        return jobOutput.firstSequence();
+    }
+
+    JobOutput getJobOutput() {
+        return jobOutput;
     }
 }
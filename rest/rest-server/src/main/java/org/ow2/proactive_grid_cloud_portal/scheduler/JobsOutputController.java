@@ -26,37 +26,32 @@
 package org.ow2.proactive_grid_cloud_portal.scheduler;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.HashMap;
-import java.util.HashSet;
 import java.util.Map;
-import java.util.Set;
 
-import org.apache.log4j.Logger;
-import org.objectweb.proactive.core.util.log.ProActiveLogger;
 import org.ow2.proactive.scheduler.common.exception.NotConnectedException;
 import org.ow2.proactive.scheduler.common.exception.PermissionException;
 import org.ow2.proactive.scheduler.common.exception.UnknownJobException;
-import org.ow2.proactive.scheduler.common.task.Log4JTaskLogs;
 import org.ow2.proactive.scheduler.common.util.logforwarder.LogForwardingException;
-import org.ow2.proactive.scheduler.common.util.logforwarder.LogForwardingService;
 import org.ow2.proactive_grid_cloud_portal.common.Session;
-import org.ow2.proactive_grid_cloud_portal.webapp.PortalConfiguration;
 
 
 /**
  * Create, show and remove jobs output
  *
+ * Job outputs are shared between sessions through {@link SharedJobsOutput}, this controller only
+ * keeps, for each job listened by the session, the position of the next log line to return.
+ *
  * @author The ProActive Team
  * @since ProActive Scheduling 0.9
  */
 public class JobsOutputController {
-    private static final Logger LOGGER = ProActiveLogger.getLogger(JobsOutputController.class);
-
-    private LogForwardingService logForwardingService;
 
-    private Map<String, JobOutputAppender> appenders = new HashMap<>();
+    private final Map<String, JobOutputAppender> appenders = new HashMap<>();
 
-    private Set<String> listeningTo = new HashSet<>();
+    /** sequence number of the next log line to return for each job */
+    private final Map<String, Long> cursors = new HashMap<>();
 
     private final Session session;
 
@@ -66,7 +61,10 @@ public class JobsOutputController {
 
     public synchronized String getNewLogs(String jobId) throws LogForwardingException, NotConnectedException,
             UnknownJobException, PermissionException, IOException {
-        return getJobOutputAppender(jobId).fetchNewLogs();
+        JobOutputAppender appender = getJobOutputAppender(jobId);
+        StringBuilder logs = new StringBuilder();
+        cursors.put(jobId, appender.fetchNewLogs(cursors.get(jobId), logs));
+        return logs.toString();
     }
 
     public synchronized String getAllLogs(String jobId) throws LogForwardingException, NotConnectedException,
@@ -77,39 +75,23 @@ public class JobsOutputController {
     public synchronized int availableLinesCount(String jobId) {
         JobOutputAppender appender = appenders.get(jobId);
         if (appender != null) {
-            return appender.size();
+            return appender.availableLinesCount(cursors.get(jobId));
         }
         return -1;
     }
 
     public synchronized void removeAppender(String jobId) {
         if (appenders.containsKey(jobId)) {
-            JobOutputAppender appender = appenders.remove(jobId);
-            getLogForwardingService().removeAllAppenders(Log4JTaskLogs.getLoggerName(jobId));
-            appender.close();
+            appenders.remove(jobId);
+            cursors.remove(jobId);
+            SharedJobsOutput.getInstance().unsubscribe(jobId, session.getSessionId());
         }
     }
 
     public synchronized void terminate() {
-        try {
-            if (logForwardingService != null) {
-                logForwardingService.terminate();
-            }
-        } catch (LogForwardingException e) {
-            LOGGER.warn("Could not terminate log forwarding service", e);
-        }
-    }
-
-    private LogForwardingService getLogForwardingService() {
-        if (logForwardingService == null) {
-            logForwardingService = new LogForwardingService(PortalConfiguration.SCHEDULER_LOGINFORWARDINGSERVICE_PROVIDER.getValueAsString());
-            try {
-                logForwardingService.initialize();
-            } catch (LogForwardingException e) {
-                LOGGER.warn("Could not initialize log forwarding service", e);
-            }
+        for (String jobId : new ArrayList<>(appenders.keySet())) {
+            removeAppender(jobId);
         }
-        return logForwardingService;
     }
 
     private JobOutputAppender getJobOutputAppender(String jobId) throws UnknownJobException, LogForwardingException,
@@ -117,28 +99,22 @@ public class JobsOutputController {
 
         JobOutputAppender jobOutputAppender = appenders.get(jobId);
         if (jobOutputAppender == null) {
-            jobOutputAppender = createJobOutputAppender(jobId);
+            jobOutputAppender = SharedJobsOutput.getInstance().subscribe(jobId, session);
+            addSubscribedAppender(jobId, jobOutputAppender);
         }
         return jobOutputAppender;
     }
 
-    private JobOutputAppender createJobOutputAppender(String jobId) throws NotConnectedException, UnknownJobException,
-            PermissionException, LogForwardingException, IOException {
-
-        JobOutputAppender jobOutputAppender = new JobOutputAppender();
-        addJobOutputAppender(jobId, jobOutputAppender);
-        return jobOutputAppender;
-    }
-
     // public for tests
     public synchronized void addJobOutputAppender(String jobId, JobOutputAppender jobOutputAppender)
             throws NotConnectedException, UnknownJobException, PermissionException, LogForwardingException {
-        getLogForwardingService().addAppender(Log4JTaskLogs.getLoggerName(jobId), jobOutputAppender);
-        if (!listeningTo.contains(jobId)) {
-            session.getScheduler().listenJobLogs(jobId, getLogForwardingService().getAppenderProvider());
-            listeningTo.add(jobId);
-        }
+        SharedJobsOutput.getInstance().subscribe(jobId, jobOutputAppender, session);
+        addSubscribedAppender(jobId, jobOutputAppender);
+    }
+
+    private void addSubscribedAppender(String jobId, JobOutputAppender jobOutputAppender) {
         appenders.put(jobId, jobOutputAppender);
+        cursors.put(jobId, jobOutputAppender.firstSequence());
     }
 
 }
@@ -25,21 +25,25 @@
  */
 package org.ow2.proactive_grid_cloud_portal.scheduler;
 
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
 import javax.servlet.ServletContext;
 
 import org.apache.log4j.Logger;
 import org.atmosphere.cpr.BroadcasterFactory;
 import org.atmosphere.util.ServletContextFactory;
-import org.dozer.DozerBeanMapperSingletonWrapper;
-import org.dozer.Mapper;
 import org.ow2.proactive.scheduler.common.NotificationData;
 import org.ow2.proactive.scheduler.common.SchedulerEvent;
 import org.ow2.proactive.scheduler.common.SchedulerEventListener;
 import org.ow2.proactive.scheduler.common.job.JobInfo;
 import org.ow2.proactive.scheduler.common.job.JobState;
 import org.ow2.proactive.scheduler.common.job.UserIdentification;
+import org.ow2.proactive.scheduler.common.task.TaskId;
 import org.ow2.proactive.scheduler.common.task.TaskInfo;
-import org.ow2.proactive_grid_cloud_portal.scheduler.dto.TaskInfoData;
+import org.ow2.proactive_grid_cloud_portal.scheduler.dto.SchedulerDtoMapper;
 import org.ow2.proactive_grid_cloud_portal.scheduler.dto.eventing.EventNotification;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
@@ -47,17 +51,21 @@ import com.fasterxml.jackson.databind.SerializationConfig;
 import com.fasterxml.jackson.databind.SerializationFeature;
 import com.fasterxml.jackson.module.jaxb.JaxbAnnotationIntrospector;
 import com.google.common.base.Throwables;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 
 
 /**
  * Broadcasts the scheduler events which it receives to the target REST client.
+ * <p>
+ * Each REST client has its own broadcaster, receiving its own copy of the events. The notifications of
+ * the most frequent events are mapped and serialized once and shared by all the broadcasters, using a key
+ * made of the whole event content.
  */
 public class SchedulerEventBroadcaster implements SchedulerEventListener {
 
     private static final Logger log = Logger.getLogger(SchedulerEventBroadcaster.class);
 
-    private static final Mapper dozerMapper = DozerBeanMapperSingletonWrapper.getInstance();
-
     private static final ObjectMapper mapper;
 
     static {
@@ -66,6 +74,17 @@ public class SchedulerEventBroadcaster implements SchedulerEventListener {
         mapper.configure(SerializationFeature.FAIL_ON_EMPTY_BEANS, false);
     }
 
+    private static final int SERIALIZED_NOTIFICATIONS_CACHE_SIZE = 1000;
+
+    private static final int SERIALIZED_NOTIFICATIONS_CACHE_EXPIRATION = 60;
+
+    // serialized notifications by content key, an event reaches all the broadcasters within a short time
+    private static final Cache<Object, String> serializedNotifications = CacheBuilder.newBuilder()
+                                                                                           .maximumSize(SERIALIZED_NOTIFICATIONS_CACHE_SIZE)
+                                                                                           .expireAfterWrite(SERIALIZED_NOTIFICATIONS_CACHE_EXPIRATION,
+                                                                                                             TimeUnit.SECONDS)
+                                                                                           .build();
+
     private String broadcasterUUID;
 
     public SchedulerEventBroadcaster() {
@@ -110,17 +129,20 @@ public class SchedulerEventBroadcaster implements SchedulerEventListener {
     @Override
     public void schedulerStateUpdatedEvent(SchedulerEvent schedulerEvent) {
         logEvent(schedulerEvent);
-        broadcast(new EventNotification(EventNotification.Action.SCHEDULER_STATE_UPDATED, schedulerEvent.name(), null));
+        broadcast(() -> new EventNotification(EventNotification.Action.SCHEDULER_STATE_UPDATED,
+                                              schedulerEvent.name(),
+                                              null),
+                  Arrays.asList(EventNotification.Action.SCHEDULER_STATE_UPDATED, schedulerEvent));
     }
 
     @Override
     public void taskStateUpdatedEvent(NotificationData<TaskInfo> notification) {
         logEvent(notification);
-        TaskInfoData taskInfoData = dozerMapper.map(notification.getData(), TaskInfoData.class);
-
-        broadcast(new EventNotification(EventNotification.Action.TASK_STATE_UPDATED,
-                                        eventTypeName(notification),
-                                        taskInfoData));
+        // the notification is only mapped by the first broadcaster receiving this event
+        broadcast(() -> new EventNotification(EventNotification.Action.TASK_STATE_UPDATED,
+                                              eventTypeName(notification),
+                                              SchedulerDtoMapper.toTaskInfoData(notification.getData())),
+                  new TaskStateUpdatedKey(notification.getEventType(), notification.getData()));
     }
 
     @Override
@@ -132,11 +154,27 @@ public class SchedulerEventBroadcaster implements SchedulerEventListener {
     }
 
     private void broadcast(EventNotification eventNotification) {
+        broadcast(() -> eventNotification, null);
+    }
+
+    /**
+     * @param eventNotification creates the notification to send
+     * @param contentKey the key identifying the whole content of the notification, or null if the notification
+     *                   must be serialized for this client only
+     */
+    private void broadcast(Supplier<EventNotification> eventNotification, Object contentKey) {
         try {
             ServletContext servletContext = ServletContextFactory.getDefault().getServletContext();
 
+            String message;
+            if (contentKey != null) {
+                message = serializedNotifications.get(contentKey,
+                                                      () -> mapper.writeValueAsString(eventNotification.get()));
+            } else {
+                message = mapper.writeValueAsString(eventNotification.get());
+            }
             ((BroadcasterFactory) servletContext.getAttribute(BroadcasterFactory.class.getName())).lookup(broadcasterUUID)
-                                                                                                  .broadcast(mapper.writeValueAsString(eventNotification));
+                                                                                                  .broadcast(message);
         } catch (Exception e) {
             log.error("Cannot broadcast event notification.", e);
             Throwables.propagate(e);
@@ -147,4 +185,68 @@ public class SchedulerEventBroadcaster implements SchedulerEventListener {
         return notification.getEventType().name();
     }
 
+    /**
+     * Identifies the content of a task event without mapping it. The variables are only compared when the
+     * other fields are equal, they do not take part in the hash code.
+     */
+    static final class TaskStateUpdatedKey {
+
+        private final SchedulerEvent eventType;
+
+        private final TaskInfo taskInfo;
+
+        private final int hashCode;
+
+        TaskStateUpdatedKey(SchedulerEvent eventType, TaskInfo taskInfo) {
+            this.eventType = eventType;
+            this.taskInfo = taskInfo;
+            this.hashCode = Objects.hash(eventType,
+                                         taskInfo.getJobId(),
+                                         taskInfo.getTaskId(),
+                                         taskInfo.getStatus(),
+                                         taskInfo.getStartTime(),
+                                         taskInfo.getFinishedTime(),
+                                         taskInfo.getProgress());
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof TaskStateUpdatedKey)) {
+                return false;
+            }
+            TaskStateUpdatedKey other = (TaskStateUpdatedKey) o;
+            TaskInfo otherInfo = other.taskInfo;
+            return hashCode == other.hashCode && eventType == other.eventType &&
+                   Objects.equals(taskInfo.getJobId(), otherInfo.getJobId()) &&
+                   Objects.equals(taskInfo.getTaskId(), otherInfo.getTaskId()) &&
+                   Objects.equals(readableName(taskInfo.getTaskId()), readableName(otherInfo.getTaskId())) &&
+                   taskInfo.getStatus() == otherInfo.getStatus() &&
+                   taskInfo.getStartTime() == otherInfo.getStartTime() &&
+                   taskInfo.getInErrorTime() == otherInfo.getInErrorTime() &&
+                   taskInfo.getFinishedTime() == otherInfo.getFinishedTime() &&
+                   taskInfo.getScheduledTime() == otherInfo.getScheduledTime() &&
+                   taskInfo.getExecutionDuration() == otherInfo.getExecutionDuration() &&
+                   taskInfo.getProgress() == otherInfo.getProgress() &&
+                   taskInfo.getNumberOfExecutionLeft() == otherInfo.getNumberOfExecutionLeft() &&
+                   taskInfo.getNumberOfExecutionOnFailureLeft() == otherInfo.getNumberOfExecutionOnFailureLeft() &&
+                   Objects.equals(taskInfo.getExecutionHostName(), otherInfo.getExecutionHostName()) &&
+                   taskInfo.isVisualizationActivated() == otherInfo.isVisualizationActivated() &&
+                   Objects.equals(taskInfo.getVisualizationConnectionString(),
+                                  otherInfo.getVisualizationConnectionString()) &&
+                   Objects.equals(taskInfo.getVariables(), otherInfo.getVariables());
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+
+        private static String readableName(TaskId taskId) {
+            return taskId != null ? taskId.getReadableName() : null;
+        }
+    }
+
 }
@@ -40,6 +40,7 @@ import java.net.URI;
 import java.net.URISyntaxException;
 import java.net.URL;
 import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
 import java.security.KeyException;
 import java.security.PublicKey;
 import java.util.*;
@@ -170,6 +171,9 @@ public class SchedulerStateRest implements SchedulerRestInterface {
 
     private static final String PATH_JOBS = "jobs/";
 
+    /** Number of bytes of server logs retrieved from the scheduler at once when streaming them */
+    private static final long SERVER_LOGS_PAGE_SIZE = 1024 * 1024;
+
     private static final String PATH_TASKS = "/tasks/";
 
     private static final String PATH_SERVICES = "/services";
@@ -356,7 +360,7 @@ public class SchedulerStateRest implements SchedulerRestInterface {
                                            DEFAULT_JOB_SORT_PARAMS);
             List<UserJobData> userJobInfoList = new ArrayList<>(page.getList().size());
             for (JobInfo jobInfo : page.getList()) {
-                userJobInfoList.add(new UserJobData(mapper.map(jobInfo, JobInfoData.class)));
+                userJobInfoList.add(SchedulerDtoMapper.toUserJobData(jobInfo));
             }
 
             return new RestPage<>(userJobInfoList, page.getSize());
@@ -371,7 +375,7 @@ public class SchedulerStateRest implements SchedulerRestInterface {
             Scheduler s = checkAccess(sessionId, "/scheduler/jobsinfolist");
             List<JobInfo> jobInfoList = s.getJobsInfoList(jobsId);
             return jobInfoList.stream()
-                              .map(jobInfo -> new UserJobData(mapper.map(jobInfo, JobInfoData.class)))
+                              .map(SchedulerDtoMapper::toUserJobData)
                               .collect(Collectors.toList());
         } catch (SchedulerException e) {
             throw RestException.wrapExceptionToRest(e);
@@ -388,8 +392,8 @@ public class SchedulerStateRest implements SchedulerRestInterface {
             int limit, boolean myJobs, boolean pending, boolean running, boolean finished, boolean withIssuesOnly,
             boolean childJobs, String jobName, String projectName, String bucketName, String submissionMode,
             String label, String userName, String tenant, Long parentId, String sortParams, String status,
-            long submittedTimeGreater, long submittedTimeLessThan, long startAtTimeGreater, long startAtTimeLessThan)
-            throws RestException {
+            long submittedTimeGreater, long submittedTimeLessThan, long startAtTimeGreater, long startAtTimeLessThan,
+            Long afterJobId) throws RestException {
         try {
             Scheduler s = checkAccess(sessionId, "revisionjobsinfo?index=" + index + "&limit=" + limit);
             String user = sessionStore.get(sessionId).getUserName();
@@ -430,12 +434,13 @@ public class SchedulerStateRest implements SchedulerRestInterface {
                                                                          .submittedTimeLessThan(submittedTimeLessThan)
                                                                          .startAtTimeGreater(startAtTimeGreater)
                                                                          .startAtTimeLessThan(startAtTimeLessThan)
+                                                                         .afterJobId(afterJobId)
                                                                          .build(),
                                            sortParameterList);
             List<JobInfo> jobsInfo = page.getList();
             ArrayList<UserJobData> jobs = new ArrayList<>(jobsInfo.size());
             for (JobInfo jobInfo : jobsInfo) {
-                jobs.add(new UserJobData(mapper.map(jobInfo, JobInfoData.class)));
+                jobs.add(SchedulerDtoMapper.toUserJobData(jobInfo));
             }
 
             HashMap<Long, ArrayList<UserJobData>> map = new HashMap<>(1);
@@ -637,7 +642,7 @@ public class SchedulerStateRest implements SchedulerRestInterface {
     public JobInfoData jobInfo(String sessionId, String jobId) throws RestException {
         Scheduler s = checkAccess(sessionId, PATH_JOBS + jobId + "/info");
         try {
-            return mapper.map(s.getJobInfo(jobId), JobInfoData.class);
+            return SchedulerDtoMapper.toJobInfoData(s.getJobInfo(jobId));
         } catch (SchedulerException e) {
             throw RestException.wrapExceptionToRest(e);
         }
@@ -692,15 +697,52 @@ public class SchedulerStateRest implements SchedulerRestInterface {
     }
 
     @Override
-    public String jobServerLog(String sessionId, String jobId) throws RestException {
+    public Response jobServerLog(String sessionId, String jobId, long offset, long limit) throws RestException {
         try {
             Scheduler s = checkAccess(sessionId, PATH_JOBS + jobId + "/log/server");
-            return s.getJobServerLogs(jobId);
+            return serverLogsResponse(offset,
+                                      limit,
+                                      (pageOffset, pageLimit) -> s.getJobServerLogs(jobId, pageOffset, pageLimit));
         } catch (SchedulerException e) {
             throw RestException.wrapExceptionToRest(e);
         }
     }
 
+    /**
+     * Streams the requested window of server logs, retrieved from the scheduler page by page. The first
+     * page is retrieved before the response is sent, so that an unknown job or task or a missing permission
+     * is reported as an error response.
+     */
+    private Response serverLogsResponse(long offset, long limit, ServerLogsPage logsPage) throws SchedulerException {
+        long end = limit < 0 ? Long.MAX_VALUE : offset + limit;
+        long firstPageLimit = Math.min(SERVER_LOGS_PAGE_SIZE, end - offset);
+        String firstPage = logsPage.read(offset, firstPageLimit);
+        StreamingOutput output = outputStream -> {
+            String page = firstPage;
+            long pageOffset = offset;
+            long pageLimit = firstPageLimit;
+            // consecutive windows of the logs can be concatenated, an empty one is past the end of the logs
+            while (!page.isEmpty()) {
+                outputStream.write(page.getBytes(StandardCharsets.UTF_8));
+                pageOffset += pageLimit;
+                pageLimit = Math.min(SERVER_LOGS_PAGE_SIZE, end - pageOffset);
+                if (pageLimit <= 0) {
+                    break;
+                }
+                try {
+                    page = logsPage.read(pageOffset, pageLimit);
+                } catch (SchedulerException e) {
+                    throw new IOException("Cannot read server logs", e);
+                }
+            }
+        };
+        return Response.ok(output, MediaType.TEXT_PLAIN_TYPE.withCharset(StandardCharsets.UTF_8.name())).build();
+    }
+
+    private interface ServerLogsPage {
+        String read(long offset, long limit) throws SchedulerException;
+    }
+
     @Override
     public boolean killJob(String sessionId, String jobId) throws RestException {
         try {
@@ -982,7 +1024,7 @@ public class SchedulerStateRest implements SchedulerRestInterface {
             JobState jobState = scheduler.getJobState(jobId);
             for (TaskState task : jobState.getTasks()) {
                 if (task.getTaskInfo().isVisualizationActivated()) {
-                    answer.add(mapper.map(task, TaskStateData.class));
+                    answer.add(SchedulerDtoMapper.toTaskStateData(task));
                 }
             }
             return answer;
@@ -999,7 +1041,7 @@ public class SchedulerStateRest implements SchedulerRestInterface {
         try {
             Scheduler scheduler = checkAccess(sessionId, PATH_JOBS + jobId + "/taskstates/paginated");
             TaskStatesPage page = scheduler.getTaskPaginated(jobId, offset, limit);
-            List<TaskStateData> tasks = map(page.getTaskStates(), TaskStateData.class);
+            List<TaskStateData> tasks = SchedulerDtoMapper.toTaskStateDataList(page.getTaskStates());
             return new RestPage<>(tasks, page.getSize());
         } catch (SchedulerException e) {
             throw RestException.wrapExceptionToRest(e);
@@ -1014,7 +1056,7 @@ public class SchedulerStateRest implements SchedulerRestInterface {
         try {
             Scheduler scheduler = checkAccess(sessionId, PATH_JOBS + jobId + "/taskstates/paginated");
             TaskStatesPage page = scheduler.getTaskPaginated(jobId, statusFilter, offset, limit);
-            List<TaskStateData> tasks = map(page.getTaskStates(), TaskStateData.class);
+            List<TaskStateData> tasks = SchedulerDtoMapper.toTaskStateDataList(page.getTaskStates());
             return new RestPage<>(tasks, page.getSize());
         } catch (SchedulerException e) {
             throw RestException.wrapExceptionToRest(e);
@@ -1028,7 +1070,7 @@ public class SchedulerStateRest implements SchedulerRestInterface {
             Scheduler s = checkAccess(sessionId, PATH_JOBS + jobId + "/taskstates/" + taskTag);
             JobState jobState = s.getJobState(jobId);
             TaskStatesPage page = jobState.getTaskByTagPaginated(taskTag, 0, TASKS_PAGE_SIZE);
-            List<TaskStateData> tasks = map(page.getTaskStates(), TaskStateData.class);
+            List<TaskStateData> tasks = SchedulerDtoMapper.toTaskStateDataList(page.getTaskStates());
             return new RestPage<>(tasks, page.getSize());
         } catch (SchedulerException e) {
             throw RestException.wrapExceptionToRest(e);
@@ -1047,7 +1089,7 @@ public class SchedulerStateRest implements SchedulerRestInterface {
             Scheduler s = checkAccess(sessionId, PATH_JOBS + jobId + "/taskstates/" + taskTag + "/paginated");
             JobState jobState = s.getJobState(jobId);
             TaskStatesPage page = jobState.getTaskByTagPaginated(taskTag, offset, limit);
-            List<TaskStateData> tasks = map(page.getTaskStates(), TaskStateData.class);
+            List<TaskStateData> tasks = SchedulerDtoMapper.toTaskStateDataList(page.getTaskStates());
             return new RestPage<>(tasks, page.getSize());
         } catch (SchedulerException e) {
             throw RestException.wrapExceptionToRest(e);
@@ -1067,7 +1109,7 @@ public class SchedulerStateRest implements SchedulerRestInterface {
                                                                          taskTag,
                                                                          UriComponent.decode(statusFilter.getPath(),
                                                                                              UriComponent.Type.PATH_SEGMENT));
-            List<TaskStateData> tasks = map(page.getTaskStates(), TaskStateData.class);
+            List<TaskStateData> tasks = SchedulerDtoMapper.toTaskStateDataList(page.getTaskStates());
             return new RestPage<>(tasks, page.getSize());
         } catch (SchedulerException e) {
             throw RestException.wrapExceptionToRest(e);
@@ -1160,7 +1202,7 @@ public class SchedulerStateRest implements SchedulerRestInterface {
 
             for (TaskState ts : jobState.getTasks()) {
                 if (ts.getId().getReadableName().equals(taskname)) {
-                    return mapper.map(ts, TaskStateData.class);
+                    return SchedulerDtoMapper.toTaskStateData(ts);
                 }
             }
 
@@ -1585,10 +1627,16 @@ public class SchedulerStateRest implements SchedulerRestInterface {
     }
 
     @Override
-    public String taskServerLog(String sessionId, String jobId, String taskname) throws RestException {
+    public Response taskServerLog(String sessionId, String jobId, String taskname, long offset, long limit)
+            throws RestException {
         try {
             Scheduler s = checkAccess(sessionId, PATH_JOBS + jobId + PATH_TASKS + taskname + "/log/server");
-            return s.getTaskServerLogs(jobId, taskname);
+            return serverLogsResponse(offset,
+                                      limit,
+                                      (pageOffset, pageLimit) -> s.getTaskServerLogs(jobId,
+                                                                                     taskname,
+                                                                                     pageOffset,
+                                                                                     pageLimit));
         } catch (SchedulerException e) {
             throw RestException.wrapExceptionToRest(e);
         }
@@ -1723,7 +1771,7 @@ public class SchedulerStateRest implements SchedulerRestInterface {
                 selection.delete();
             }
 
-            return mapper.map(id, JobIdData.class);
+            return SchedulerDtoMapper.toJobIdData(id);
         } catch (IOException e) {
             throw new IOException("I/O Error: " + e.getMessage(), e);
         } catch (SchedulerException e) {
@@ -1777,7 +1825,7 @@ public class SchedulerStateRest implements SchedulerRestInterface {
             jobId = workflowSubmitter.submit(tmpWorkflowStream, jobVariables, genericInfos);
         }
 
-        return mapper.map(jobId, JobIdData.class);
+        return SchedulerDtoMapper.toJobIdData(jobId);
     }
 
     @Override
@@ -1815,7 +1863,7 @@ public class SchedulerStateRest implements SchedulerRestInterface {
             jobId = workflowSubmitter.submit(tmpWorkflowStream, jobVariables, genericInfos);
         }
 
-        return mapper.map(jobId, JobIdData.class);
+        return SchedulerDtoMapper.toJobIdData(jobId);
     }
 
     @Override
@@ -1850,7 +1898,7 @@ public class SchedulerStateRest implements SchedulerRestInterface {
             jobId = workflowSubmitter.submit(tmpWorkflowStream, jobVariables, genericInfos);
         }
 
-        return mapper.map(jobId, JobIdData.class);
+        return SchedulerDtoMapper.toJobIdData(jobId);
     }
 
     @Override
@@ -2034,7 +2082,7 @@ public class SchedulerStateRest implements SchedulerRestInterface {
                 jobId = workflowSubmitter.submit(tmpWorkflowStream, jobVariables, genericInfos);
             }
 
-            return mapper.map(jobId, JobIdData.class);
+            return SchedulerDtoMapper.toJobIdData(jobId);
 
         } finally {
             if (multipart != null) {
@@ -2126,7 +2174,7 @@ public class SchedulerStateRest implements SchedulerRestInterface {
             WorkflowSubmitter workflowSubmitter = new WorkflowSubmitter(scheduler, space, sessionId);
             newJobId = workflowSubmitter.submit(tmpWorkflowStream, jobVariables, genericInfos);
         }
-        return mapper.map(newJobId, JobIdData.class);
+        return SchedulerDtoMapper.toJobIdData(newJobId);
     }
 
     @Override
@@ -2162,7 +2210,7 @@ public class SchedulerStateRest implements SchedulerRestInterface {
             WorkflowSubmitter workflowSubmitter = new WorkflowSubmitter(scheduler, space, sessionId);
             newJobId = workflowSubmitter.submit(tmpWorkflowStream, jobVariables, genericInfos);
         }
-        return mapper.map(newJobId, JobIdData.class);
+        return SchedulerDtoMapper.toJobIdData(newJobId);
     }
 
     @Override
@@ -2269,7 +2317,7 @@ public class SchedulerStateRest implements SchedulerRestInterface {
                 JobId newJobId = workflowSubmitter.submit(tmpWorkflowStream,
                                                           Collections.emptyMap(),
                                                           Collections.emptyMap());
-                newJobIds.add(mapper.map(newJobId, JobIdData.class));
+                newJobIds.add(SchedulerDtoMapper.toJobIdData(newJobId));
             } catch (Exception e) {
                 logger.error("Error occurred when resubmitting job " + jobId, e);
             }
@@ -2443,12 +2491,11 @@ public class SchedulerStateRest implements SchedulerRestInterface {
     @Override
     public void disconnect(String sessionId) throws RestException {
         try {
-            final Scheduler s = checkAccess(sessionId, "disconnect");
+            checkAccess(sessionId, "disconnect");
             logger.info("disconnection user " + sessionStore.get(sessionId) + " to session " + sessionId);
-            s.disconnect();
-        } catch (SchedulerException e) {
-            throw RestException.wrapExceptionToRest(e);
         } finally {
+            // the scheduler connection may be shared with other sessions, terminating the session releases it
+            // and only disconnects it once no other session uses it
             sessionStore.terminate(sessionId);
             logger.debug("sessionid " + sessionId + " terminated");
         }
@@ -3502,7 +3549,7 @@ public class SchedulerStateRest implements SchedulerRestInterface {
                                    boundaries.getOffset(),
                                    boundaries.getLimit(),
                                    sortParams);
-            List<TaskStateData> tasks = map(page.getList(), TaskStateData.class);
+            List<TaskStateData> tasks = SchedulerDtoMapper.toTaskStateDataList(page.getList());
             return new RestPage<>(tasks, page.getSize());
         } catch (SchedulerException e) {
             throw RestException.wrapExceptionToRest(e);
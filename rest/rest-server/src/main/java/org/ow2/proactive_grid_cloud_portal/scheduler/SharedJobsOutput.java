@@ -0,0 +1,276 @@
+/*
+ * ProActive Parallel Suite(TM):
+ * The Open Source library for parallel and distributed
+ * Workflows & Scheduling, Orchestration, Cloud Automation
+ * and Big Data Analysis on Enterprise Grids & Clouds.
+ *
+ * Copyright (c) 2007 - 2017 ActiveEon
+ * Contact: contact@activeeon.com
+ *
+ * This library is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation: version 3 of
+ * the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ */
+package org.ow2.proactive_grid_cloud_portal.scheduler;
+
+import static org.ow2.proactive_grid_cloud_portal.webapp.PortalConfiguration.SCHEDULER_LIVELOGS_JOB_MAX_SIZE;
+import static org.ow2.proactive_grid_cloud_portal.webapp.PortalConfiguration.SCHEDULER_LIVELOGS_TOTAL_MAX_SIZE;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.log4j.Logger;
+import org.objectweb.proactive.core.util.log.ProActiveLogger;
+import org.ow2.proactive.scheduler.common.exception.NotConnectedException;
+import org.ow2.proactive.scheduler.common.exception.PermissionException;
+import org.ow2.proactive.scheduler.common.exception.SchedulerException;
+import org.ow2.proactive.scheduler.common.exception.UnknownJobException;
+import org.ow2.proactive.scheduler.common.task.Log4JTaskLogs;
+import org.ow2.proactive.scheduler.common.util.logforwarder.LogForwardingException;
+import org.ow2.proactive.scheduler.common.util.logforwarder.LogForwardingService;
+import org.ow2.proactive_grid_cloud_portal.common.Session;
+import org.ow2.proactive_grid_cloud_portal.webapp.PortalConfiguration;
+
+
+/**
+ * Live logs of the jobs, shared by all the sessions of the REST server.
+ *
+ * The logs of a job are forwarded once from the scheduler and buffered in a single {@link JobOutput},
+ * whatever the number of sessions listening to this job. Sessions read the buffer through their own cursor
+ * (see {@link JobsOutputController}). The buffer of a job is released when the last session stops listening.
+ *
+ * The memory used by all the buffers is bounded, when the limit is reached the largest buffers are trimmed first,
+ * down to a fraction of the limit so that the next lines do not trigger another trimming.
+ * The log forwarding service is started with the first listened job and terminated when no job is listened anymore.
+ */
+public class SharedJobsOutput {
+
+    private static final Logger LOGGER = ProActiveLogger.getLogger(SharedJobsOutput.class);
+
+    /** Fraction of the memory limit the buffers are trimmed to when the limit is exceeded */
+    private static final double TRIM_TARGET_RATIO = 0.75;
+
+    private static final SharedJobsOutput INSTANCE = new SharedJobsOutput(SCHEDULER_LIVELOGS_JOB_MAX_SIZE.getValueAsInt(),
+                                                                          SCHEDULER_LIVELOGS_TOTAL_MAX_SIZE.getValueAsInt());
+
+    private final Map<String, SharedOutput> outputs = new ConcurrentHashMap<>();
+
+    private final AtomicLong totalSize = new AtomicLong();
+
+    // a single thread trims the buffers, the others keep appending
+    private final AtomicBoolean trimming = new AtomicBoolean();
+
+    private final long jobMaxSize;
+
+    private final long totalMaxSize;
+
+    private LogForwardingService logForwardingService;
+
+    SharedJobsOutput(long jobMaxSize, long totalMaxSize) {
+        this.jobMaxSize = jobMaxSize;
+        this.totalMaxSize = totalMaxSize;
+    }
+
+    public static SharedJobsOutput getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Registers the given session as a listener of the job logs, and starts forwarding the logs
+     * of the job if no other session was listening to it.
+     *
+     * @return the appender buffering the logs of the job
+     */
+    public JobOutputAppender subscribe(String jobId, Session session) throws NotConnectedException,
+            UnknownJobException, PermissionException, LogForwardingException {
+        SharedOutput output;
+        synchronized (this) {
+            output = outputs.get(jobId);
+            if (output == null) {
+                JobOutput jobOutput = new JobOutput(jobMaxSize, totalSize);
+                output = new SharedOutput(new JobOutputAppender(jobOutput, this::enforceMemoryLimit), jobOutput);
+                outputs.put(jobId, output);
+            }
+            output.sessions.add(session.getSessionId());
+        }
+        listen(jobId, output, session);
+        return output.appender;
+    }
+
+    /**
+     * Registers the given session as a listener of the job logs, buffered in the given appender instead of a buffer
+     * of this class. The buffer of the appender is trimmed with the others when the memory limit is reached.
+     * Used by tests only.
+     */
+    void subscribe(String jobId, JobOutputAppender appender, Session session) throws NotConnectedException,
+            UnknownJobException, PermissionException, LogForwardingException {
+        SharedOutput output = new SharedOutput(appender, appender.getJobOutput());
+        synchronized (this) {
+            SharedOutput previous = outputs.put(jobId, output);
+            if (previous != null) {
+                output.sessions.addAll(previous.sessions);
+                release(jobId, previous);
+            }
+            output.sessions.add(session.getSessionId());
+        }
+        listen(jobId, output, session);
+    }
+
+    /**
+     * Unregisters the given session, the buffer of the job is released if no other session listens to it
+     */
+    public void unsubscribe(String jobId, String sessionId) {
+        synchronized (this) {
+            SharedOutput output = outputs.get(jobId);
+            if (output != null) {
+                output.sessions.remove(sessionId);
+                if (output.sessions.isEmpty()) {
+                    outputs.remove(jobId);
+                    release(jobId, output);
+                }
+            }
+        }
+    }
+
+    public synchronized void terminate() {
+        try {
+            if (logForwardingService != null) {
+                logForwardingService.terminate();
+            }
+        } catch (LogForwardingException e) {
+            LOGGER.warn("Could not terminate log forwarding service", e);
+        } finally {
+            logForwardingService = null;
+        }
+    }
+
+    /**
+     * @return the number of characters of live logs kept in memory
+     */
+    public long getTotalSize() {
+        return totalSize.get();
+    }
+
+    private void listen(String jobId, SharedOutput output, Session session) throws NotConnectedException,
+            UnknownJobException, PermissionException, LogForwardingException {
+        // the scheduler flushes the existing logs while listenJobLogs is in progress, the forwarded
+        // logs must be able to reach the buffer, so only the job output is locked here
+        synchronized (output) {
+            try {
+                if (!output.listening) {
+                    LogForwardingService service = getLogForwardingService();
+                    service.addAppender(Log4JTaskLogs.getLoggerName(jobId), output.appender);
+                    session.getScheduler().listenJobLogs(jobId, service.getAppenderProvider());
+                    output.listening = true;
+                } else {
+                    checkListenPermission(jobId, session);
+                }
+            } catch (Exception e) {
+                unsubscribe(jobId, session.getSessionId());
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * Logs of the job are already forwarded for another session, check that this session may read them too
+     */
+    private void checkListenPermission(String jobId, Session session)
+            throws NotConnectedException, PermissionException {
+        boolean allowed;
+        try {
+            allowed = session.getScheduler().checkJobPermissionMethod(jobId, "listenJobLogs");
+        } catch (NotConnectedException | PermissionException e) {
+            throw e;
+        } catch (SchedulerException e) {
+            throw new PermissionException(e.getMessage());
+        }
+        if (!allowed) {
+            throw new PermissionException("You do not have permission to listen the log of job " + jobId);
+        }
+    }
+
+    private void release(String jobId, SharedOutput output) {
+        if (logForwardingService != null) {
+            logForwardingService.removeAllAppenders(Log4JTaskLogs.getLoggerName(jobId));
+        }
+        output.appender.close();
+        output.jobOutput.trimTo(0);
+        if (outputs.isEmpty()) {
+            terminate();
+        }
+    }
+
+    /**
+     * Trims the largest buffers first when the memory limit is exceeded. The buffers are trimmed below the limit, by
+     * {@link #TRIM_TARGET_RATIO}, so that the buffers are only sorted again after many more lines are received.
+     */
+    private void enforceMemoryLimit() {
+        if (totalSize.get() <= totalMaxSize || !trimming.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            long targetSize = (long) (totalMaxSize * TRIM_TARGET_RATIO);
+            List<JobOutput> bySize = new ArrayList<>(outputs.size());
+            for (SharedOutput output : outputs.values()) {
+                bySize.add(output.jobOutput);
+            }
+            bySize.sort(Comparator.comparingLong(JobOutput::size).reversed());
+            for (JobOutput jobOutput : bySize) {
+                jobOutput.trimTo(jobOutput.size() / 2);
+                if (totalSize.get() <= targetSize) {
+                    return;
+                }
+            }
+        } finally {
+            trimming.set(false);
+        }
+    }
+
+    private synchronized LogForwardingService getLogForwardingService() {
+        if (logForwardingService == null) {
+            logForwardingService = new LogForwardingService(PortalConfiguration.SCHEDULER_LOGINFORWARDINGSERVICE_PROVIDER.getValueAsString());
+            try {
+                logForwardingService.initialize();
+            } catch (LogForwardingException e) {
+                LOGGER.warn("Could not initialize log forwarding service", e);
+            }
+        }
+        return logForwardingService;
+    }
+
+    private static class SharedOutput {
+
+        private final JobOutputAppender appender;
+
+        private final JobOutput jobOutput;
+
+        private final Set<String> sessions = new HashSet<>();
+
+        private boolean listening = false;
+
+        private SharedOutput(JobOutputAppender appender, JobOutput jobOutput) {
+            this.appender = appender;
+            this.jobOutput = jobOutput;
+        }
+    }
+}
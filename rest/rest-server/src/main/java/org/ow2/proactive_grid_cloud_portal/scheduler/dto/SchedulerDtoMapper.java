@@ -0,0 +1,201 @@
+/*
+ * ProActive Parallel Suite(TM):
+ * The Open Source library for parallel and distributed
+ * Workflows & Scheduling, Orchestration, Cloud Automation
+ * and Big Data Analysis on Enterprise Grids & Clouds.
+ *
+ * Copyright (c) 2007 - 2017 ActiveEon
+ * Contact: contact@activeeon.com
+ *
+ * This library is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation: version 3 of
+ * the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ */
+package org.ow2.proactive_grid_cloud_portal.scheduler.dto;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.ow2.proactive.scheduler.common.job.JobId;
+import org.ow2.proactive.scheduler.common.job.JobInfo;
+import org.ow2.proactive.scheduler.common.task.ParallelEnvironment;
+import org.ow2.proactive.scheduler.common.task.TaskId;
+import org.ow2.proactive.scheduler.common.task.TaskInfo;
+import org.ow2.proactive.scheduler.common.task.TaskState;
+
+
+/**
+ * Maps the scheduler objects returned the most often by the REST API (job infos, task states, ids)
+ * to their DTO without reflection.
+ * <p>
+ * The produced DTO are the same as the ones produced by the Dozer mapping defined in dozer-mappings.xml,
+ * which is still used for the other DTO.
+ */
+public final class SchedulerDtoMapper {
+
+    private SchedulerDtoMapper() {
+    }
+
+    public static JobIdData toJobIdData(JobId jobId) {
+        if (jobId == null) {
+            return null;
+        }
+        JobIdData jobIdData = new JobIdData();
+        jobIdData.setId(jobId.longValue());
+        jobIdData.setReadableName(jobId.getReadableName());
+        return jobIdData;
+    }
+
+    public static TaskIdData toTaskIdData(TaskId taskId) {
+        if (taskId == null) {
+            return null;
+        }
+        TaskIdData taskIdData = new TaskIdData();
+        taskIdData.setId(taskId.longValue());
+        taskIdData.setReadableName(taskId.getReadableName());
+        return taskIdData;
+    }
+
+    public static JobInfoData toJobInfoData(JobInfo jobInfo) {
+        if (jobInfo == null) {
+            return null;
+        }
+        JobInfoData jobInfoData = new JobInfoData();
+        jobInfoData.setStartTime(jobInfo.getStartTime());
+        jobInfoData.setInErrorTime(jobInfo.getInErrorTime());
+        jobInfoData.setFinishedTime(jobInfo.getFinishedTime());
+        jobInfoData.setSubmittedTime(jobInfo.getSubmittedTime());
+        jobInfoData.setRemovedTime(jobInfo.getRemovedTime());
+        jobInfoData.setStatus(jobInfo.getStatus() != null ? JobStatusData.valueOf(jobInfo.getStatus().name())
+                                                          : null);
+        jobInfoData.setJobId(toJobIdData(jobInfo.getJobId()));
+        jobInfoData.setTotalNumberOfTasks(jobInfo.getTotalNumberOfTasks());
+        jobInfoData.setNumberOfPendingTasks(jobInfo.getNumberOfPendingTasks());
+        jobInfoData.setNumberOfRunningTasks(jobInfo.getNumberOfRunningTasks());
+        jobInfoData.setNumberOfFinishedTasks(jobInfo.getNumberOfFinishedTasks());
+        jobInfoData.setNumberOfFailedTasks(jobInfo.getNumberOfFailedTasks());
+        jobInfoData.setNumberOfFaultyTasks(jobInfo.getNumberOfFaultyTasks());
+        jobInfoData.setNumberOfInErrorTasks(jobInfo.getNumberOfInErrorTasks());
+        jobInfoData.setPriority(jobInfo.getPriority() != null ? JobPriorityData.valueOf(jobInfo.getPriority().name())
+                                                              : null);
+        jobInfoData.setJobOwner(jobInfo.getJobOwner());
+        jobInfoData.setTenant(jobInfo.getTenant());
+        jobInfoData.setDomain(jobInfo.getDomain());
+        jobInfoData.setProjectName(jobInfo.getProjectName());
+        jobInfoData.setDescription(jobInfo.getDescription());
+        jobInfoData.setBucketName(jobInfo.getBucketName());
+        jobInfoData.setLabel(jobInfo.getLabel());
+        // toBeRemoved has no single argument setter and is not mapped by Dozer either
+        jobInfoData.setGenericInformation(copy(jobInfo.getGenericInformation()));
+        jobInfoData.setVariables(copy(jobInfo.getVariables()));
+        jobInfoData.setDetailedVariables(copy(jobInfo.getDetailedVariables()));
+        jobInfoData.setSignals(copy(jobInfo.getSignals()));
+        jobInfoData.setDetailedSignals(copy(jobInfo.getDetailedSignals()));
+        jobInfoData.setVisualizationConnectionStrings(copy(jobInfo.getVisualizationConnectionStrings()));
+        jobInfoData.setVisualizationIcons(copy(jobInfo.getVisualizationIcons()));
+        jobInfoData.setAttachedServices(copy(jobInfo.getAttachedServices()));
+        jobInfoData.setExternalEndpointUrls(copy(jobInfo.getExternalEndpointUrls()));
+        jobInfoData.setResultMapPresent(jobInfo.isResultMapPresent());
+        jobInfoData.setPreciousTasks(copy(jobInfo.getPreciousTasks()));
+        jobInfoData.setParentId(jobInfo.getParentId());
+        jobInfoData.setChildrenCount(jobInfo.getChildrenCount());
+        jobInfoData.setCumulatedCoreTime(jobInfo.getCumulatedCoreTime());
+        jobInfoData.setNumberOfNodes(jobInfo.getNumberOfNodes());
+        jobInfoData.setNumberOfNodesInParallel(jobInfo.getNumberOfNodesInParallel());
+        jobInfoData.setSubmissionMode(jobInfo.getSubmissionMode());
+        jobInfoData.setStartAt(jobInfo.getStartAt());
+        return jobInfoData;
+    }
+
+    public static UserJobData toUserJobData(JobInfo jobInfo) {
+        return new UserJobData(toJobInfoData(jobInfo));
+    }
+
+    public static TaskInfoData toTaskInfoData(TaskInfo taskInfo) {
+        if (taskInfo == null) {
+            return null;
+        }
+        TaskInfoData taskInfoData = new TaskInfoData();
+        taskInfoData.setJobId(toJobIdData(taskInfo.getJobId()));
+        taskInfoData.setTaskId(toTaskIdData(taskInfo.getTaskId()));
+        taskInfoData.setStartTime(taskInfo.getStartTime());
+        taskInfoData.setFinishedTime(taskInfo.getFinishedTime());
+        taskInfoData.setInErrorTime(taskInfo.getInErrorTime());
+        taskInfoData.setScheduledTime(taskInfo.getScheduledTime());
+        taskInfoData.setExecutionDuration(taskInfo.getExecutionDuration());
+        taskInfoData.setTaskStatus(taskInfo.getStatus() != null ? TaskStatusData.valueOf(taskInfo.getStatus().name())
+                                                                : null);
+        taskInfoData.setExecutionHostName(taskInfo.getExecutionHostName());
+        taskInfoData.setNumberOfExecutionLeft(taskInfo.getNumberOfExecutionLeft());
+        taskInfoData.setNumberOfExecutionOnFailureLeft(taskInfo.getNumberOfExecutionOnFailureLeft());
+        taskInfoData.setVisualizationActivated(taskInfo.isVisualizationActivated());
+        taskInfoData.setVisualizationConnectionString(taskInfo.getVisualizationConnectionString());
+        taskInfoData.setVariables(copy(taskInfo.getVariables()));
+        taskInfoData.setProgress(taskInfo.getProgress());
+        return taskInfoData;
+    }
+
+    public static TaskStateData toTaskStateData(TaskState taskState) {
+        if (taskState == null) {
+            return null;
+        }
+        TaskStateData taskStateData = new TaskStateData();
+        taskStateData.setName(taskState.getName());
+        taskStateData.setDescription(taskState.getDescription());
+        taskStateData.setTag(taskState.getTag());
+        taskStateData.setIterationIndex(taskState.getIterationIndex());
+        taskStateData.setReplicationIndex(taskState.getReplicationIndex());
+        taskStateData.setMaxNumberOfExecution(taskState.getMaxNumberOfExecution());
+        taskStateData.setMaxNumberOfExecutionOnFailure(taskState.getMaxNumberOfExecutionOnFailure());
+        taskStateData.setTaskInfo(toTaskInfoData(taskState.getTaskInfo()));
+        taskStateData.setParallelEnvironment(toParallelEnvironmentData(taskState.getParallelEnvironment()));
+        taskStateData.setGenericInformation(copy(taskState.getGenericInformation()));
+        return taskStateData;
+    }
+
+    public static List<TaskStateData> toTaskStateDataList(List<? extends TaskState> taskStates) {
+        List<TaskStateData> taskStatesData = new ArrayList<>(taskStates.size());
+        for (TaskState taskState : taskStates) {
+            taskStatesData.add(toTaskStateData(taskState));
+        }
+        return taskStatesData;
+    }
+
+    public static ParallelEnvironmentData toParallelEnvironmentData(ParallelEnvironment parallelEnvironment) {
+        if (parallelEnvironment == null) {
+            return null;
+        }
+        ParallelEnvironmentData parallelEnvironmentData = new ParallelEnvironmentData();
+        parallelEnvironmentData.setNodesNumber(parallelEnvironment.getNodesNumber());
+        return parallelEnvironmentData;
+    }
+
+    private static <K, V> Map<K, V> copy(Map<K, V> map) {
+        return map != null ? new LinkedHashMap<>(map) : null;
+    }
+
+    private static <T> Set<T> copy(Set<T> set) {
+        return set != null ? new LinkedHashSet<>(set) : null;
+    }
+
+    private static <T> List<T> copy(List<T> list) {
+        return list != null ? new ArrayList<>(list) : null;
+    }
+
+}
@@ -29,14 +29,11 @@ import java.util.HashMap;
 import java.util.Map;
 
 import org.dozer.DozerConverter;
-import org.dozer.Mapper;
-import org.dozer.MapperAware;
 import org.ow2.proactive.scheduler.common.task.TaskId;
 import org.ow2.proactive.scheduler.common.task.TaskState;
 
 
-public class TaskStateDataCustomConverter extends DozerConverter<Map, Map> implements MapperAware {
-    private Mapper mapper;
+public class TaskStateDataCustomConverter extends DozerConverter<Map, Map> {
 
     public TaskStateDataCustomConverter() {
         super(Map.class, Map.class);
@@ -56,13 +53,8 @@ public class TaskStateDataCustomConverter extends DozerConverter<Map, Map> imple
 
         Map<String, TaskStateData> converted = new HashMap<>();
         for (Map.Entry<TaskId, TaskState> entry : ((Map<TaskId, TaskState>) source).entrySet()) {
-            converted.put(entry.getKey().value(), mapper.map(entry.getValue(), TaskStateData.class));
+            converted.put(entry.getKey().value(), SchedulerDtoMapper.toTaskStateData(entry.getValue()));
         }
         return converted;
     }
-
-    @Override
-    public void setMapper(Mapper mapper) {
-        this.mapper = mapper;
-    }
 }
@@ -54,6 +54,12 @@ public enum PortalConfiguration implements PACommonProperties {
             PropertyType.STRING,
             "org.ow2.proactive.scheduler.common.util.logforwarder.providers.SocketBasedForwardingProvider"),
 
+    /** Maximum number of characters of live logs kept in memory for a single job */
+    SCHEDULER_LIVELOGS_JOB_MAX_SIZE("scheduler.livelogs.job.max.size", PropertyType.INTEGER, "4194304"),
+
+    /** Maximum number of characters of live logs kept in memory for all jobs */
+    SCHEDULER_LIVELOGS_TOTAL_MAX_SIZE("scheduler.livelogs.total.max.size", PropertyType.INTEGER, "134217728"),
+
     RM_URL("rm.url", PropertyType.STRING),
 
     RM_CACHE_LOGIN("rm.cache.login", PropertyType.STRING, "watcher"),
@@ -64,6 +70,33 @@ public enum PortalConfiguration implements PACommonProperties {
 
     RM_CACHE_REFRESHRATE("rm.cache.refreshrate", PropertyType.INTEGER, "3500"),
 
+    /** Maximum number of statistic history ranges kept in cache */
+    RM_STATHISTORY_CACHE_MAX_SIZE("rm.stathistory.cache.max.size", PropertyType.INTEGER, "200"),
+
+    /** Duration in milliseconds during which an expired statistic history is served while it is refreshed */
+    RM_STATHISTORY_CACHE_STALE_DURATION("rm.stathistory.cache.stale.duration", PropertyType.INTEGER, "60000"),
+
+    /** Share the scheduler connections between the sessions logged in with the same credentials */
+    SESSION_SHARED_CONNECTIONS("session.shared.connections", PropertyType.BOOLEAN, "true"),
+
+    /** Size in bytes above which files retrieved from the dataspaces with gzip encoding are compressed in parallel */
+    DATASPACE_GZIP_PARALLEL_THRESHOLD("dataspace.gzip.parallel.threshold", PropertyType.INTEGER, "16777216"),
+
+    /** Number of threads compressing in parallel the files retrieved from the dataspaces */
+    DATASPACE_GZIP_PARALLEL_THREADS("dataspace.gzip.parallel.threads", PropertyType.INTEGER, "4"),
+
+    /** Directory where the chunks of the files uploaded in several requests are kept, a temporary one by default */
+    DATASPACE_CHUNKS_DIR("dataspace.chunks.dir", PropertyType.STRING),
+
+    /** Duration in seconds during which an unused upload chunk is kept */
+    DATASPACE_CHUNKS_RETENTION("dataspace.chunks.retention", PropertyType.INTEGER, "86400"),
+
+    /** Maximum size in bytes of an upload chunk */
+    DATASPACE_CHUNKS_MAX_SIZE("dataspace.chunks.max.size", PropertyType.INTEGER, "67108864"),
+
+    /** Maximum size in bytes of the upload chunks kept for a user */
+    DATASPACE_CHUNKS_USER_QUOTA("dataspace.chunks.user.quota", PropertyType.INTEGER, "10737418240"),
+
     NOVNC_ENABLED("novnc.enabled", PropertyType.BOOLEAN, "false"),
 
     NOVNC_PORT("novnc.port", PropertyType.INTEGER, "5900"),
@@ -46,6 +46,7 @@ import org.ow2.proactive_grid_cloud_portal.rm.RMStateCaching;
 import org.ow2.proactive_grid_cloud_portal.scheduler.IntWrapperConverter;
 import org.ow2.proactive_grid_cloud_portal.scheduler.RestartModeConverter;
 import org.ow2.proactive_grid_cloud_portal.scheduler.SchedulerStateListener;
+import org.ow2.proactive_grid_cloud_portal.scheduler.SharedJobsOutput;
 
 
 public class RestRuntime {
@@ -147,6 +148,8 @@ public class RestRuntime {
 
         SchedulerStateListener.getInstance().kill();
 
+        SharedJobsOutput.getInstance().terminate();
+
         if (needToKillProActiveRuntime) {
             // force the shutdown of the runtime
             ProActiveRuntimeImpl.getProActiveRuntime().cleanJvmFromPA();
@@ -0,0 +1,184 @@
+/*
+ * ProActive Parallel Suite(TM):
+ * The Open Source library for parallel and distributed
+ * Workflows & Scheduling, Orchestration, Cloud Automation
+ * and Big Data Analysis on Enterprise Grids & Clouds.
+ *
+ * Copyright (c) 2007 - 2017 ActiveEon
+ * Contact: contact@activeeon.com
+ *
+ * This library is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation: version 3 of
+ * the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ */
+package org.ow2.proactive_grid_cloud_portal.common;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Matchers;
+import org.objectweb.proactive.core.util.wrapper.BooleanWrapper;
+import org.ow2.proactive.authentication.crypto.CredData;
+import org.ow2.proactive.resourcemanager.common.util.RMProxyUserInterface;
+import org.ow2.proactive.scheduler.common.exception.NotConnectedException;
+import org.ow2.proactive.scheduler.common.util.SchedulerProxyUserInterface;
+
+
+public class SchedulerRMProxyPoolTest {
+
+    private SchedulerRMProxyFactory schedulerProxyFactory;
+
+    @Before
+    public void setUp() throws Exception {
+        schedulerProxyFactory = mock(SchedulerRMProxyFactory.class);
+        when(schedulerProxyFactory.connectToScheduler(Matchers.<CredData> any())).thenAnswer(invocation -> {
+            SchedulerProxyUserInterface scheduler = mock(SchedulerProxyUserInterface.class);
+            when(scheduler.isConnected()).thenReturn(true);
+            return scheduler;
+        });
+        when(schedulerProxyFactory.connectToRM(Matchers.<CredData> any())).thenAnswer(invocation -> {
+            RMProxyUserInterface rm = mock(RMProxyUserInterface.class);
+            when(rm.isActive()).thenReturn(new BooleanWrapper(true));
+            return rm;
+        });
+    }
+
+    @Test
+    public void testSessionsWithSameCredentialsShareConnection() throws Exception {
+        SchedulerRMProxyPool pool = new SchedulerRMProxyPool(schedulerProxyFactory, true);
+
+        SchedulerProxyUserInterface scheduler1 = pool.connectToScheduler(new CredData("user", "password"));
+        SchedulerProxyUserInterface scheduler2 = pool.connectToScheduler(new CredData("user", "password"));
+        SchedulerProxyUserInterface otherPassword = pool.connectToScheduler(new CredData("user", "other"));
+        SchedulerProxyUserInterface otherUser = pool.connectToScheduler(new CredData("admin", "password"));
+
+        assertSame(scheduler1, scheduler2);
+        assertNotSame(scheduler1, otherPassword);
+        assertNotSame(scheduler1, otherUser);
+        assertEquals(3, pool.getSchedulerConnectionCount());
+        verify(schedulerProxyFactory, times(3)).connectToScheduler(Matchers.<CredData> any());
+
+        pool.releaseScheduler(scheduler1);
+        verify(scheduler1, never()).disconnect();
+        assertEquals(3, pool.getSchedulerConnectionCount());
+
+        pool.releaseScheduler(scheduler2);
+        verify(scheduler1).disconnect();
+        assertEquals(2, pool.getSchedulerConnectionCount());
+
+        // a new session reconnects once the shared connection is closed
+        assertNotSame(scheduler1, pool.connectToScheduler(new CredData("user", "password")));
+    }
+
+    @Test
+    public void testLostConnectionIsReplaced() throws Exception {
+        SchedulerRMProxyPool pool = new SchedulerRMProxyPool(schedulerProxyFactory, true);
+
+        SchedulerProxyUserInterface lostScheduler = pool.connectToScheduler(new CredData("user", "password"));
+        // the liveness of a pooled connection is not checked when it is handed out
+        assertSame(lostScheduler, pool.connectToScheduler(new CredData("user", "password")));
+        verify(lostScheduler, never()).isConnected();
+
+        pool.discardScheduler(lostScheduler);
+        SchedulerProxyUserInterface scheduler = pool.connectToScheduler(new CredData("user", "password"));
+
+        assertNotSame(lostScheduler, scheduler);
+        assertEquals(1, pool.getSchedulerConnectionCount());
+
+        // the sessions of the lost connection do not release the new one
+        pool.releaseScheduler(lostScheduler);
+        verify(scheduler, never()).disconnect();
+        assertSame(scheduler, pool.connectToScheduler(new CredData("user", "password")));
+    }
+
+    @Test
+    public void testLostConnectionIsReplacedOnLogin() throws Exception {
+        SessionStore sessionStore = new SessionStore();
+        sessionStore.setSchedulerRMProxyFactory(schedulerProxyFactory);
+        SchedulerRMProxyPool pool = sessionStore.getSchedulerRMProxyPool();
+
+        Session session1 = sessionStore.createUnnamedSession();
+        session1.connectToScheduler(new CredData("user", "password"));
+        SchedulerProxyUserInterface lostScheduler = session1.getScheduler();
+        when(lostScheduler.getSubject()).thenThrow(new NotConnectedException("connection lost"));
+
+        Session session2 = sessionStore.createUnnamedSession();
+        session2.connectToScheduler(new CredData("user", "password"));
+
+        assertNotSame(lostScheduler, session2.getScheduler());
+        assertEquals(1, pool.getSchedulerConnectionCount());
+        verify(schedulerProxyFactory, times(2)).connectToScheduler(Matchers.<CredData> any());
+    }
+
+    @Test
+    public void testRMConnectionsAreNotShared() throws Exception {
+        SchedulerRMProxyPool pool = new SchedulerRMProxyPool(schedulerProxyFactory, true);
+
+        RMProxyUserInterface rm1 = pool.connectToRM(new CredData("user", "password"));
+        RMProxyUserInterface rm2 = pool.connectToRM(new CredData("user", "password"));
+
+        // requests to a resource manager proxy are served by a single thread
+        assertNotSame(rm1, rm2);
+        assertEquals(2, pool.getRMConnectionCount());
+        pool.releaseRM(rm1);
+        verify(rm1).disconnect();
+        verify(rm2, never()).disconnect();
+        assertEquals(1, pool.getRMConnectionCount());
+    }
+
+    @Test
+    public void testConnectionsNotSharedWhenDisabled() throws Exception {
+        SchedulerRMProxyPool pool = new SchedulerRMProxyPool(schedulerProxyFactory, false);
+
+        RMProxyUserInterface rm1 = pool.connectToRM(new CredData("user", "password"));
+        RMProxyUserInterface rm2 = pool.connectToRM(new CredData("user", "password"));
+
+        assertNotSame(rm1, rm2);
+        assertEquals(2, pool.getRMConnectionCount());
+        pool.releaseRM(rm1);
+        pool.releaseRM(rm2);
+        assertEquals(0, pool.getRMConnectionCount());
+    }
+
+    @Test
+    public void testSessionsShareConnection() throws Exception {
+        SessionStore sessionStore = new SessionStore();
+        sessionStore.setSchedulerRMProxyFactory(schedulerProxyFactory);
+        SchedulerRMProxyPool pool = sessionStore.getSchedulerRMProxyPool();
+
+        Session session1 = sessionStore.createUnnamedSession();
+        session1.connectToScheduler(new CredData("user", "password"));
+        Session session2 = sessionStore.createUnnamedSession();
+        session2.connectToScheduler(new CredData("user", "password"));
+
+        assertSame(session1.getScheduler(), session2.getScheduler());
+        assertEquals(1, pool.getSchedulerConnectionCount());
+
+        SchedulerProxyUserInterface scheduler = session1.getScheduler();
+        sessionStore.terminate(session1.getSessionId());
+        verify(scheduler, never()).disconnect();
+        sessionStore.terminate(session2.getSessionId());
+        verify(scheduler).disconnect();
+        assertEquals(0, pool.getSchedulerConnectionCount());
+    }
+}
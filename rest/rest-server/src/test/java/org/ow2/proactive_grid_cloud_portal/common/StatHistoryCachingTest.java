@@ -0,0 +1,142 @@
+/*
+ * ProActive Parallel Suite(TM):
+ * The Open Source library for parallel and distributed
+ * Workflows & Scheduling, Orchestration, Cloud Automation
+ * and Big Data Analysis on Enterprise Grids & Clouds.
+ *
+ * Copyright (c) 2007 - 2017 ActiveEon
+ * Contact: contact@activeeon.com
+ *
+ * This library is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation: version 3 of
+ * the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ */
+package org.ow2.proactive_grid_cloud_portal.common;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+
+public class StatHistoryCachingTest {
+
+    private ExecutorService executor;
+
+    @Before
+    public void setUp() {
+        executor = Executors.newFixedThreadPool(4);
+    }
+
+    @After
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void testConcurrentMissesShareOneComputation() throws Exception {
+        StatHistoryCaching caching = new StatHistoryCaching(60000, 0, 10);
+        AtomicInteger computations = new AtomicInteger();
+        CountDownLatch computing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        Future<String> first = executor.submit(() -> caching.getEntryOrCompute("a", () -> {
+            computations.incrementAndGet();
+            computing.countDown();
+            release.await();
+            return "value";
+        }).getValue());
+        assertTrue(computing.await(10, TimeUnit.SECONDS));
+
+        Future<String> second = executor.submit(() -> caching.getEntryOrCompute("a", () -> {
+            computations.incrementAndGet();
+            return "other";
+        }).getValue());
+
+        // another key is not blocked by the running computation
+        assertEquals("b", caching.getEntryOrCompute("b", () -> "b").getValue());
+
+        release.countDown();
+        assertEquals("value", first.get(10, TimeUnit.SECONDS));
+        assertEquals("value", second.get(10, TimeUnit.SECONDS));
+        assertEquals(1, computations.get());
+
+        assertEquals("value", caching.getEntryOrCompute("a", () -> "other").getValue());
+        assertTrue(caching.getHitCount() >= 1);
+    }
+
+    @Test
+    public void testExpiredEntryServedWhileRefreshed() throws Exception {
+        StatHistoryCaching caching = new StatHistoryCaching(0, 60000, 10);
+        caching.addEntry("a", System.currentTimeMillis() - 1000, "old");
+
+        CountDownLatch refreshed = new CountDownLatch(1);
+        assertEquals("old", caching.getEntryOrCompute("a", () -> {
+            refreshed.countDown();
+            return "new";
+        }).getValue());
+        assertTrue(refreshed.await(10, TimeUnit.SECONDS));
+        assertEquals(1, caching.getStaleHitCount());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testComputationFailureIsPropagated() throws Exception {
+        StatHistoryCaching caching = new StatHistoryCaching(60000, 0, 10);
+        try {
+            caching.getEntryOrCompute("a", () -> {
+                throw new IllegalStateException();
+            });
+        } finally {
+            // a failed computation is not cached
+            assertEquals("value", caching.getEntryOrCompute("a", () -> "value").getValue());
+        }
+    }
+
+    @Test
+    public void testSizeIsBounded() throws Exception {
+        StatHistoryCaching caching = new StatHistoryCaching(60000, 0, 2);
+        caching.getEntryOrCompute("a", () -> "a");
+        Thread.sleep(5);
+        caching.getEntryOrCompute("b", () -> "b");
+        Thread.sleep(5);
+        caching.getEntryOrCompute("c", () -> "c");
+
+        assertEquals(2, caching.size());
+        assertEquals(null, caching.getEntry("a"));
+        assertEquals("c", caching.getEntry("c").getValue());
+    }
+
+    @Test
+    public void testLeastRecentlyAccessedKeyIsEvicted() throws Exception {
+        StatHistoryCaching caching = new StatHistoryCaching(60000, 0, 2);
+        caching.getEntryOrCompute("a", () -> "a");
+        caching.getEntryOrCompute("b", () -> "b");
+        caching.getEntryOrCompute("a", () -> "other");
+        caching.getEntryOrCompute("c", () -> "c");
+
+        assertEquals(2, caching.size());
+        assertEquals("a", caching.getEntry("a").getValue());
+        assertEquals(null, caching.getEntry("b"));
+    }
+}
@@ -0,0 +1,162 @@
+/*
+ * ProActive Parallel Suite(TM):
+ * The Open Source library for parallel and distributed
+ * Workflows & Scheduling, Orchestration, Cloud Automation
+ * and Big Data Analysis on Enterprise Grids & Clouds.
+ *
+ * Copyright (c) 2007 - 2017 ActiveEon
+ * Contact: contact@activeeon.com
+ *
+ * This library is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation: version 3 of
+ * the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ */
+package org.ow2.proactive_grid_cloud_portal.dataspace;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.ow2.proactive_grid_cloud_portal.dataspace.ChunkStore.StoreResult;
+
+import com.google.common.hash.Hashing;
+
+
+/**
+ * Unit tests related to {@link ChunkStore}.
+ */
+public class ChunkStoreTest {
+
+    private static final byte[] FIRST_CHUNK = "first chunk".getBytes(StandardCharsets.UTF_8);
+
+    private static final byte[] SECOND_CHUNK = "second chunk".getBytes(StandardCharsets.UTF_8);
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private ChunkStore chunkStore;
+
+    @Before
+    public void setUp() throws IOException {
+        chunkStore = new ChunkStore(temporaryFolder.newFolder(), 60000, 1024, 1024);
+    }
+
+    @Test
+    public void testStoredChunksAreNotMissing() throws IOException {
+        assertThat(chunkStore.store("alice",
+                                    checksum(FIRST_CHUNK),
+                                    new ByteArrayInputStream(FIRST_CHUNK))).isEqualTo(StoreResult.STORED);
+
+        List<String> missingChunks = chunkStore.findMissing("alice",
+                                                            Arrays.asList(checksum(FIRST_CHUNK),
+                                                                          checksum(SECOND_CHUNK)));
+
+        assertThat(missingChunks).containsExactly(checksum(SECOND_CHUNK));
+    }
+
+    @Test
+    public void testChunksAreNotSharedBetweenUsers() throws IOException {
+        chunkStore.store("alice", checksum(FIRST_CHUNK), new ByteArrayInputStream(FIRST_CHUNK));
+
+        assertThat(chunkStore.findMissing("bob", Collections.singletonList(checksum(FIRST_CHUNK)))).hasSize(1);
+    }
+
+    @Test
+    public void testChunkNotMatchingItsChecksumIsRejected() throws IOException {
+        assertThat(chunkStore.store("alice",
+                                    checksum(FIRST_CHUNK),
+                                    new ByteArrayInputStream(SECOND_CHUNK))).isEqualTo(StoreResult.CHECKSUM_MISMATCH);
+
+        assertThat(chunkStore.findMissing("alice", Collections.singletonList(checksum(FIRST_CHUNK)))).hasSize(1);
+    }
+
+    @Test
+    public void testAssemble() throws IOException {
+        chunkStore.store("alice", checksum(FIRST_CHUNK), new ByteArrayInputStream(FIRST_CHUNK));
+        chunkStore.store("alice", checksum(SECOND_CHUNK), new ByteArrayInputStream(SECOND_CHUNK));
+        ByteArrayOutputStream file = new ByteArrayOutputStream();
+
+        String fileChecksum = chunkStore.assemble("alice",
+                                                  Arrays.asList(checksum(SECOND_CHUNK),
+                                                                checksum(FIRST_CHUNK),
+                                                                checksum(SECOND_CHUNK)),
+                                                  file);
+
+        assertThat(file.toString("UTF-8")).isEqualTo("second chunkfirst chunksecond chunk");
+        assertThat(fileChecksum).isEqualTo(checksum(file.toByteArray()));
+    }
+
+    @Test
+    public void testExpiredChunksAreRemoved() throws IOException {
+        ChunkStore expiringChunkStore = new ChunkStore(temporaryFolder.newFolder(), -1, 1024, FIRST_CHUNK.length);
+        expiringChunkStore.store("alice", checksum(FIRST_CHUNK), new ByteArrayInputStream(FIRST_CHUNK));
+
+        assertThat(expiringChunkStore.removeExpiredChunks()).isEqualTo(1);
+        // the space of the removed chunks is given back to the user
+        assertThat(expiringChunkStore.store("alice",
+                                            checksum(FIRST_CHUNK),
+                                            new ByteArrayInputStream(FIRST_CHUNK))).isEqualTo(StoreResult.STORED);
+    }
+
+    @Test
+    public void testChunkLargerThanMaximumSizeIsRejected() throws IOException {
+        ChunkStore smallChunkStore = new ChunkStore(temporaryFolder.newFolder(), 60000, FIRST_CHUNK.length - 1, 1024);
+
+        assertThat(smallChunkStore.store("alice",
+                                         checksum(FIRST_CHUNK),
+                                         new ByteArrayInputStream(FIRST_CHUNK))).isEqualTo(StoreResult.CHUNK_TOO_LARGE);
+        assertThat(smallChunkStore.findMissing("alice", Collections.singletonList(checksum(FIRST_CHUNK)))).hasSize(1);
+    }
+
+    @Test
+    public void testChunksBeyondUserQuotaAreRejected() throws IOException {
+        ChunkStore quotaChunkStore = new ChunkStore(temporaryFolder.newFolder(),
+                                                    60000,
+                                                    1024,
+                                                    FIRST_CHUNK.length + SECOND_CHUNK.length - 1);
+        quotaChunkStore.store("alice", checksum(FIRST_CHUNK), new ByteArrayInputStream(FIRST_CHUNK));
+
+        assertThat(quotaChunkStore.store("alice",
+                                         checksum(SECOND_CHUNK),
+                                         new ByteArrayInputStream(SECOND_CHUNK))).isEqualTo(StoreResult.QUOTA_EXCEEDED);
+        // storing again a chunk already kept does not use more space
+        assertThat(quotaChunkStore.store("alice",
+                                         checksum(FIRST_CHUNK),
+                                         new ByteArrayInputStream(FIRST_CHUNK))).isEqualTo(StoreResult.STORED);
+        // the quota applies to each user
+        assertThat(quotaChunkStore.store("bob",
+                                         checksum(SECOND_CHUNK),
+                                         new ByteArrayInputStream(SECOND_CHUNK))).isEqualTo(StoreResult.STORED);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidChecksumIsRejected() throws IOException {
+        chunkStore.store("alice", "../../etc/passwd", new ByteArrayInputStream(FIRST_CHUNK));
+    }
+
+    private static String checksum(byte[] content) {
+        return Hashing.sha256().hashBytes(content).toString();
+    }
+}
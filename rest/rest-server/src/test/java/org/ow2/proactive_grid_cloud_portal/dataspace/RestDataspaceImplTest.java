@@ -0,0 +1,156 @@
+/*
+ * ProActive Parallel Suite(TM):
+ * The Open Source library for parallel and distributed
+ * Workflows & Scheduling, Orchestration, Cloud Automation
+ * and Big Data Analysis on Enterprise Grids & Clouds.
+ *
+ * Copyright (c) 2007 - 2017 ActiveEon
+ * Contact: contact@activeeon.com
+ *
+ * This library is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation: version 3 of
+ * the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ */
+package org.ow2.proactive_grid_cloud_portal.dataspace;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.spy;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import javax.ws.rs.core.EntityTag;
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.Response;
+import javax.ws.rs.core.StreamingOutput;
+
+import org.apache.commons.vfs2.FileObject;
+import org.apache.commons.vfs2.VFS;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.ow2.proactive_grid_cloud_portal.common.Session;
+
+
+/**
+ * Unit tests related to the retrieval of files by {@link RestDataspaceImpl}.
+ */
+public class RestDataspaceImplTest {
+
+    private static final String CONTENT = "0123456789abcdefghij";
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private RestDataspaceImpl restDataspace;
+
+    @Before
+    public void setUp() throws Exception {
+        restDataspace = spy(new RestDataspaceImpl());
+        doReturn(null).when(restDataspace).checkAuthorization(anyString(), anyString(), any(Method.class), anyString());
+        resolveTo("file.txt");
+    }
+
+    @Test
+    public void testRangeIsSentWhenIfRangeMatches() throws Exception {
+        EntityTag entityTag = retrieve("identity", null, null).getEntityTag();
+
+        Response response = retrieve("identity", "bytes=2-5", "\"" + entityTag.getValue() + "\"");
+
+        assertThat(response.getStatus()).isEqualTo(Response.Status.PARTIAL_CONTENT.getStatusCode());
+        assertThat(response.getHeaderString("Content-Range")).isEqualTo("bytes 2-5/20");
+        assertThat(content(response)).isEqualTo("2345");
+    }
+
+    @Test
+    public void testWholeFileIsSentWhenIfRangeDoesNotMatch() throws Exception {
+        Response response = retrieve("identity", "bytes=2-5", "\"modified\"");
+
+        assertThat(response.getStatus()).isEqualTo(Response.Status.OK.getStatusCode());
+        assertThat(response.getHeaderString("Content-Range")).isNull();
+        assertThat(content(response)).isEqualTo(CONTENT);
+    }
+
+    @Test
+    public void testUnsatisfiableRange() throws Exception {
+        Response response = retrieve("identity", "bytes=20-", null);
+
+        assertThat(response.getStatus()).isEqualTo(Response.Status.REQUESTED_RANGE_NOT_SATISFIABLE.getStatusCode());
+        assertThat(response.getHeaderString("Content-Range")).isEqualTo("bytes */20");
+    }
+
+    @Test
+    public void testCompressedFileIsNotEncodedByDefault() throws Exception {
+        resolveTo("image.png");
+
+        Response response = restDataspace.retrieve("sessionid",
+                                                   "gzip",
+                                                   "user",
+                                                   "image.png",
+                                                   null,
+                                                   null,
+                                                   null,
+                                                   null,
+                                                   null,
+                                                   null,
+                                                   null);
+
+        assertThat(response.getHeaderString(HttpHeaders.CONTENT_ENCODING)).isEqualTo("identity");
+    }
+
+    @Test
+    public void testCompressedFileIsEncodedWhenRequested() throws Exception {
+        resolveTo("image.png");
+
+        Response response = retrieve("zip", null, null);
+
+        assertThat(response.getHeaderString(HttpHeaders.CONTENT_ENCODING)).isEqualTo("zip");
+    }
+
+    private void resolveTo(String fileName) throws Exception {
+        File file = new File(temporaryFolder.getRoot(), fileName);
+        Files.write(file.toPath(), CONTENT.getBytes(StandardCharsets.US_ASCII));
+        FileObject fileObject = VFS.getManager().resolveFile(file.toURI());
+        doReturn(fileObject).when(restDataspace).resolveFile(any(Session.class), anyString(), anyString());
+    }
+
+    private Response retrieve(String encoding, String range, String ifRange) throws Exception {
+        return restDataspace.retrieve("sessionid",
+                                      null,
+                                      "user",
+                                      "file",
+                                      null,
+                                      null,
+                                      null,
+                                      encoding,
+                                      null,
+                                      range,
+                                      ifRange);
+    }
+
+    private static String content(Response response) throws IOException {
+        ByteArrayOutputStream os = new ByteArrayOutputStream();
+        ((StreamingOutput) response.getEntity()).write(os);
+        return new String(os.toByteArray(), StandardCharsets.US_ASCII);
+    }
+}
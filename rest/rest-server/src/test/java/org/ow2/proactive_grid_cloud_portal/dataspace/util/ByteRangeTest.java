@@ -0,0 +1,89 @@
+/*
+ * ProActive Parallel Suite(TM):
+ * The Open Source library for parallel and distributed
+ * Workflows & Scheduling, Orchestration, Cloud Automation
+ * and Big Data Analysis on Enterprise Grids & Clouds.
+ *
+ * Copyright (c) 2007 - 2017 ActiveEon
+ * Contact: contact@activeeon.com
+ *
+ * This library is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation: version 3 of
+ * the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ */
+package org.ow2.proactive_grid_cloud_portal.dataspace.util;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import org.junit.Test;
+
+
+/**
+ * Unit tests related to {@link ByteRange}.
+ */
+public class ByteRangeTest {
+
+    private static final long CONTENT_LENGTH = 1000;
+
+    @Test
+    public void testClosedRange() {
+        ByteRange range = ByteRange.parse("bytes=100-199", CONTENT_LENGTH);
+
+        assertThat(range.isSatisfiable()).isTrue();
+        assertThat(range.getFirst()).isEqualTo(100L);
+        assertThat(range.getLength()).isEqualTo(100L);
+        assertThat(range.toContentRange()).isEqualTo("bytes 100-199/1000");
+    }
+
+    @Test
+    public void testOpenRangeResumesUntilTheEnd() {
+        ByteRange range = ByteRange.parse("bytes=400-", CONTENT_LENGTH);
+
+        assertThat(range.getFirst()).isEqualTo(400L);
+        assertThat(range.getLast()).isEqualTo(999L);
+    }
+
+    @Test
+    public void testLastPositionIsTruncatedToTheContentLength() {
+        ByteRange range = ByteRange.parse("bytes=900-5000", CONTENT_LENGTH);
+
+        assertThat(range.getLength()).isEqualTo(100L);
+    }
+
+    @Test
+    public void testSuffixRange() {
+        ByteRange range = ByteRange.parse("bytes=-300", CONTENT_LENGTH);
+
+        assertThat(range.toContentRange()).isEqualTo("bytes 700-999/1000");
+        assertThat(ByteRange.parse("bytes=-3000", CONTENT_LENGTH).getFirst()).isEqualTo(0L);
+    }
+
+    @Test
+    public void testRangeAfterTheEndIsNotSatisfiable() {
+        ByteRange range = ByteRange.parse("bytes=1000-", CONTENT_LENGTH);
+
+        assertThat(range.isSatisfiable()).isFalse();
+        assertThat(range.toContentRange()).isEqualTo("bytes */1000");
+    }
+
+    @Test
+    public void testInvalidOrMultipleRangesAreIgnored() {
+        assertThat(ByteRange.parse(null, CONTENT_LENGTH)).isNull();
+        assertThat(ByteRange.parse("items=0-10", CONTENT_LENGTH)).isNull();
+        assertThat(ByteRange.parse("bytes=10-5", CONTENT_LENGTH)).isNull();
+        assertThat(ByteRange.parse("bytes=a-b", CONTENT_LENGTH)).isNull();
+        assertThat(ByteRange.parse("bytes=0-10,20-30", CONTENT_LENGTH)).isNull();
+    }
+}
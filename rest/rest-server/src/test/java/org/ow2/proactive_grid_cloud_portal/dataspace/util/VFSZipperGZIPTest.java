@@ -0,0 +1,162 @@
+/*
+ * ProActive Parallel Suite(TM):
+ * The Open Source library for parallel and distributed
+ * Workflows & Scheduling, Orchestration, Cloud Automation
+ * and Big Data Analysis on Enterprise Grids & Clouds.
+ *
+ * Copyright (c) 2007 - 2017 ActiveEon
+ * Contact: contact@activeeon.com
+ *
+ * This library is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation: version 3 of
+ * the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ */
+package org.ow2.proactive_grid_cloud_portal.dataspace.util;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.zip.DataFormatException;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.Inflater;
+
+import org.apache.commons.vfs2.FileObject;
+import org.apache.commons.vfs2.VFS;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.google.common.io.ByteStreams;
+
+
+/**
+ * Unit tests related to {@link org.ow2.proactive_grid_cloud_portal.dataspace.util.VFSZipper.GZIP}.
+ */
+public class VFSZipperGZIPTest {
+
+    private static final int BLOCK_SIZE = 1024;
+
+    private static final int GZIP_HEADER_SIZE = 10;
+
+    /** CRC-32 and size of the uncompressed data */
+    private static final int GZIP_TRAILER_SIZE = 8;
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private ExecutorService executor;
+
+    @Before
+    public void setUp() {
+        executor = Executors.newFixedThreadPool(2);
+    }
+
+    @After
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void testParallelZipIsReadAsOneGzipStream() throws Exception {
+        // a partial last block, and text which compresses differently in each block
+        byte[] content = new byte[10 * BLOCK_SIZE + 123];
+        Random random = new Random(42);
+        for (int i = 0; i < content.length; i++) {
+            content[i] = (byte) ('a' + random.nextInt(4));
+        }
+
+        byte[] compressed = parallelZip(content);
+
+        assertThat(countGzipMembers(compressed)).isEqualTo(11);
+        assertThat(unzip(compressed)).isEqualTo(content);
+    }
+
+    @Test
+    public void testParallelZipOfEmptyFile() throws Exception {
+        byte[] compressed = parallelZip(new byte[0]);
+
+        assertThat(countGzipMembers(compressed)).isEqualTo(1);
+        assertThat(unzip(compressed)).isEqualTo(new byte[0]);
+    }
+
+    @Test
+    public void testParallelZipIsSameAsSequentialZipOnceDecompressed() throws IOException {
+        byte[] content = new byte[3 * BLOCK_SIZE];
+        new Random(42).nextBytes(content);
+        FileObject fo = write(content);
+
+        ByteArrayOutputStream sequential = new ByteArrayOutputStream();
+        VFSZipper.GZIP.zip(fo, sequential);
+
+        assertThat(unzip(parallelZip(content))).isEqualTo(unzip(sequential.toByteArray()));
+    }
+
+    private byte[] parallelZip(byte[] content) throws IOException {
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        VFSZipper.GZIP.zip(write(content), compressed, executor, BLOCK_SIZE, 2);
+        return compressed.toByteArray();
+    }
+
+    private FileObject write(byte[] content) throws IOException {
+        Path file = temporaryFolder.newFile().toPath();
+        Files.write(file, content);
+        return VFS.getManager().resolveFile(file.toUri());
+    }
+
+    private static byte[] unzip(byte[] compressed) throws IOException {
+        try (InputStream is = new GZIPInputStream(new ByteArrayInputStream(compressed))) {
+            return ByteStreams.toByteArray(is);
+        }
+    }
+
+    /**
+     * Counts the members of a gzip stream written by {@link java.util.zip.GZIPOutputStream}, whose header has
+     * no optional field
+     */
+    private static int countGzipMembers(byte[] compressed) throws IOException, DataFormatException {
+        int members = 0;
+        int offset = 0;
+        byte[] buffer = new byte[BLOCK_SIZE];
+        while (offset < compressed.length) {
+            assertThat(compressed[offset]).isEqualTo((byte) 0x1f);
+            assertThat(compressed[offset + 1]).isEqualTo((byte) 0x8b);
+            Inflater inflater = new Inflater(true);
+            try {
+                inflater.setInput(compressed, offset + GZIP_HEADER_SIZE, compressed.length - offset - GZIP_HEADER_SIZE);
+                while (!inflater.finished()) {
+                    if (inflater.inflate(buffer) == 0 && inflater.needsInput()) {
+                        throw new EOFException("Truncated gzip member");
+                    }
+                }
+                offset = compressed.length - inflater.getRemaining() + GZIP_TRAILER_SIZE;
+            } finally {
+                inflater.end();
+            }
+            members++;
+        }
+        return members;
+    }
+}
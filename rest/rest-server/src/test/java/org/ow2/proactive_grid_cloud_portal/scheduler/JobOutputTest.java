@@ -0,0 +1,80 @@
+/*
+ * ProActive Parallel Suite(TM):
+ * The Open Source library for parallel and distributed
+ * Workflows & Scheduling, Orchestration, Cloud Automation
+ * and Big Data Analysis on Enterprise Grids & Clouds.
+ *
+ * Copyright (c) 2007 - 2017 ActiveEon
+ * Contact: contact@activeeon.com
+ *
+ * This library is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation: version 3 of
+ * the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ */
+package org.ow2.proactive_grid_cloud_portal.scheduler;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.Test;
+
+
+public class JobOutputTest {
+
+    @Test
+    public void readersHaveIndependentCursors() {
+        JobOutput output = new JobOutput();
+        output.log("a\n");
+        output.log("b\n");
+
+        StringBuilder first = new StringBuilder();
+        long firstCursor = output.fetchLogs(output.firstSequence(), first);
+        assertEquals("a\nb\n", first.toString());
+
+        output.log("c\n");
+
+        StringBuilder second = new StringBuilder();
+        output.fetchLogs(output.firstSequence(), second);
+        assertEquals("a\nb\nc\n", second.toString());
+
+        StringBuilder firstAgain = new StringBuilder();
+        output.fetchLogs(firstCursor, firstAgain);
+        assertEquals("c\n", firstAgain.toString());
+        assertEquals(1, output.availableLinesCount(firstCursor));
+    }
+
+    @Test
+    public void oldestLinesAreEvicted() {
+        AtomicLong totalSize = new AtomicLong();
+        JobOutput output = new JobOutput(4, totalSize);
+        output.log("a\n");
+        output.log("b\n");
+        output.log("c\n");
+
+        assertEquals("b\nc\n", output.fetchAllLogs());
+        assertEquals(4, totalSize.get());
+
+        // a reader which did not read the evicted line only gets the remaining ones
+        StringBuilder logs = new StringBuilder();
+        assertEquals(3, output.fetchLogs(0, logs));
+        assertEquals("b\nc\n", logs.toString());
+        assertEquals(2, output.availableLinesCount(0));
+
+        output.trimTo(0);
+        assertEquals("", output.fetchAllLogs());
+        assertEquals(0, totalSize.get());
+    }
+}
@@ -27,19 +27,29 @@ package org.ow2.proactive_grid_cloud_portal.scheduler;
 
 import static org.hamcrest.CoreMatchers.is;
 import static org.junit.Assert.assertThat;
+import static org.mockito.Matchers.anyLong;
 import static org.mockito.Matchers.eq;
 import static org.mockito.Matchers.notNull;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.List;
 
+import javax.ws.rs.core.Response;
+import javax.ws.rs.core.StreamingOutput;
+
 import org.junit.Before;
 import org.junit.Test;
 import org.ow2.proactive.scheduler.common.JobFilterCriteria;
 import org.ow2.proactive.scheduler.common.Page;
 import org.ow2.proactive.scheduler.common.job.JobInfo;
+import org.ow2.proactive.scheduler.common.exception.UnknownJobException;
 import org.ow2.proactive.scheduler.common.job.JobState;
 import org.ow2.proactive.scheduler.common.util.SchedulerProxyUserInterface;
 import org.ow2.proactive.scheduler.job.JobIdImpl;
@@ -49,6 +59,7 @@ import org.ow2.proactive_grid_cloud_portal.common.SharedSessionStoreTestUtils;
 import org.ow2.proactive_grid_cloud_portal.scheduler.dto.JobInfoData;
 import org.ow2.proactive_grid_cloud_portal.scheduler.dto.RestPage;
 import org.ow2.proactive_grid_cloud_portal.scheduler.dto.UserJobData;
+import org.ow2.proactive_grid_cloud_portal.scheduler.exception.UnknownJobRestException;
 
 
 /**
@@ -86,6 +97,43 @@ public class SchedulerStateRestJobTest extends RestTestServer {
 
     }
 
+    @Test
+    public void testJobServerLogsAreStreamedPageByPage() throws Throwable {
+        long pageSize = 1024 * 1024;
+        when(mockOfScheduler.getJobServerLogs("3", 0, pageSize)).thenReturn("first page\n");
+        when(mockOfScheduler.getJobServerLogs("3", pageSize, pageSize)).thenReturn("second page\n");
+        when(mockOfScheduler.getJobServerLogs("3", 2 * pageSize, pageSize)).thenReturn("");
+
+        Response response = restInterface.jobServerLog(sessionId, "3", 0, -1);
+
+        assertThat(streamedEntity(response), is("first page\nsecond page\n"));
+        verify(mockOfScheduler, never()).getJobServerLogs(eq("3"), eq(3 * pageSize), anyLong());
+    }
+
+    @Test
+    public void testTaskServerLogsWindowIsStreamedUntilItsLimit() throws Throwable {
+        long pageSize = 1024 * 1024;
+        when(mockOfScheduler.getTaskServerLogs("3", "task", 10, pageSize)).thenReturn("first page\n");
+        when(mockOfScheduler.getTaskServerLogs("3", "task", 10 + pageSize, 5)).thenReturn("end\n");
+
+        Response response = restInterface.taskServerLog(sessionId, "3", "task", 10, pageSize + 5);
+
+        assertThat(streamedEntity(response), is("first page\nend\n"));
+    }
+
+    @Test(expected = UnknownJobRestException.class)
+    public void testServerLogsOfAnUnknownJobFailBeforeStreaming() throws Throwable {
+        when(mockOfScheduler.getJobServerLogs(eq("3"), anyLong(), anyLong())).thenThrow(new UnknownJobException("3"));
+
+        restInterface.jobServerLog(sessionId, "3", 0, -1);
+    }
+
+    private static String streamedEntity(Response response) throws IOException {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        ((StreamingOutput) response.getEntity()).write(outputStream);
+        return new String(outputStream.toByteArray(), StandardCharsets.UTF_8);
+    }
+
     @Test
     public void testJobs() throws Throwable {
 
@@ -30,9 +30,14 @@ import static org.hamcrest.core.StringContains.containsString;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertThat;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyString;
 import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 
 import java.net.URI;
 
@@ -42,6 +47,7 @@ import org.apache.log4j.Level;
 import org.apache.log4j.Logger;
 import org.apache.log4j.spi.LoggingEvent;
 import org.jboss.resteasy.client.ProxyFactory;
+import org.junit.After;
 import org.junit.Before;
 import org.junit.BeforeClass;
 import org.junit.Test;
@@ -57,7 +63,9 @@ import org.ow2.proactive.scheduler.common.util.logforwarder.LogForwardingProvide
 import org.ow2.proactive.scheduler.common.util.logforwarder.LoggingEventProcessor;
 import org.ow2.proactive_grid_cloud_portal.RestTestServer;
 import org.ow2.proactive_grid_cloud_portal.common.SchedulerRestInterface;
+import org.ow2.proactive_grid_cloud_portal.common.SharedSessionStore;
 import org.ow2.proactive_grid_cloud_portal.common.SharedSessionStoreTestUtils;
+import org.ow2.proactive_grid_cloud_portal.scheduler.exception.PermissionRestException;
 import org.ow2.proactive_grid_cloud_portal.webapp.PortalConfiguration;
 
 
@@ -83,6 +91,12 @@ public class SchedulerStateRestLiveLogsTest extends RestTestServer {
         sessionId = SharedSessionStoreTestUtils.createValidSession(scheduler);
     }
 
+    @After
+    public void tearDown() {
+        // release the job outputs shared between sessions
+        SharedSessionStore.getInstance().terminateAll();
+    }
+
     @Test
     public void testLiveLogs_OutputRemovedAtEachCall() throws Exception {
 
@@ -190,6 +204,60 @@ public class SchedulerStateRestLiveLogsTest extends RestTestServer {
         assertTrue(logs.isEmpty());
     }
 
+    @Test
+    public void testLiveLogs_SharedBetweenSessions() throws Exception {
+
+        String jobId = "42";
+
+        SchedulerProxyUserInterface otherScheduler = mock(SchedulerProxyUserInterface.class);
+        when(otherScheduler.checkJobPermissionMethod(jobId, "listenJobLogs")).thenReturn(true);
+        String otherSessionId = SharedSessionStoreTestUtils.createValidSession(otherScheduler);
+
+        assertTrue(client.getLiveLogJob(sessionId, jobId, false).isEmpty());
+        Appender appender = verifyListenAndGetAppender(jobId);
+
+        appender.doAppend(createLoggingEvent(jobId, "first log"));
+
+        // the second session reads the same buffer with its own cursor, logs are forwarded only once
+        assertThat(client.getLiveLogJob(otherSessionId, jobId, false), containsString("first log"));
+        verify(otherScheduler, never()).listenJobLogs(anyString(), any(AppenderProvider.class));
+
+        appender.doAppend(createLoggingEvent(jobId, "other log"));
+
+        assertEquals(2, client.getLiveLogJobAvailable(sessionId, jobId));
+        assertEquals(1, client.getLiveLogJobAvailable(otherSessionId, jobId));
+        assertThat(client.getLiveLogJob(otherSessionId, jobId, true), containsString("first log"));
+
+        String logs = client.getLiveLogJob(sessionId, jobId, false);
+        assertThat(logs, containsString("first log"));
+        assertThat(logs, containsString("other log"));
+
+        // removing the output of one session does not affect the other one
+        assertTrue(client.deleteLiveLogJob(otherSessionId, jobId));
+        appender.doAppend(createLoggingEvent(jobId, "more log"));
+        assertThat(client.getLiveLogJob(sessionId, jobId, false), containsString("more log"));
+    }
+
+    @Test
+    public void testLiveLogs_SharedOutputRequiresPermission() throws Exception {
+
+        String jobId = "42";
+
+        SchedulerProxyUserInterface otherScheduler = mock(SchedulerProxyUserInterface.class);
+        when(otherScheduler.checkJobPermissionMethod(jobId, "listenJobLogs")).thenReturn(false);
+        String otherSessionId = SharedSessionStoreTestUtils.createValidSession(otherScheduler);
+
+        client.getLiveLogJob(sessionId, jobId, false);
+        verifyListenAndGetAppender(jobId);
+
+        try {
+            new SchedulerStateRest().getLiveLogJob(otherSessionId, jobId, false);
+            fail("Session without permission should not read the shared job output");
+        } catch (PermissionRestException expected) {
+        }
+        assertEquals(-1, client.getLiveLogJobAvailable(otherSessionId, jobId));
+    }
+
     public static class SynchronousLocalLogForwardingProvider implements LogForwardingProvider {
 
         private LoggingEventProcessor eventProcessor;
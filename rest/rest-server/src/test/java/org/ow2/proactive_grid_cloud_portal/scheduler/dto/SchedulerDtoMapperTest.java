@@ -0,0 +1,225 @@
+/*
+ * ProActive Parallel Suite(TM):
+ * The Open Source library for parallel and distributed
+ * Workflows & Scheduling, Orchestration, Cloud Automation
+ * and Big Data Analysis on Enterprise Grids & Clouds.
+ *
+ * Copyright (c) 2007 - 2017 ActiveEon
+ * Contact: contact@activeeon.com
+ *
+ * This library is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation: version 3 of
+ * the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ */
+package org.ow2.proactive_grid_cloud_portal.scheduler.dto;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.dozer.DozerBeanMapper;
+import org.dozer.Mapper;
+import org.junit.Test;
+import org.ow2.proactive.scheduler.common.job.JobId;
+import org.ow2.proactive.scheduler.common.job.JobPriority;
+import org.ow2.proactive.scheduler.common.job.JobStatus;
+import org.ow2.proactive.scheduler.common.job.JobVariable;
+import org.ow2.proactive.scheduler.common.task.ParallelEnvironment;
+import org.ow2.proactive.scheduler.common.task.TaskInfo;
+import org.ow2.proactive.scheduler.common.task.TaskState;
+import org.ow2.proactive.scheduler.common.task.TaskStatus;
+import org.ow2.proactive.scheduler.job.JobIdImpl;
+import org.ow2.proactive.scheduler.job.JobInfoImpl;
+import org.ow2.proactive.scheduler.task.ClientTaskState;
+import org.ow2.proactive.scheduler.task.TaskIdImpl;
+import org.ow2.proactive.scheduler.task.TaskInfoImpl;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+
+
+/**
+ * Checks that {@link SchedulerDtoMapper} produces the same JSON as the Dozer mapping
+ */
+public class SchedulerDtoMapperTest {
+
+    private static final String DOZER_MAPPINGS = "org/ow2/proactive_grid_cloud_portal/scheduler/dozer-mappings.xml";
+
+    private final Mapper dozerMapper = new DozerBeanMapper(Collections.singletonList(DOZER_MAPPINGS));
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    public void jobIdIsMappedAsDozer() throws Exception {
+        JobId jobId = new JobIdImpl(42, "job");
+
+        assertSameJson(dozerMapper.map(jobId, JobIdData.class), SchedulerDtoMapper.toJobIdData(jobId));
+    }
+
+    @Test
+    public void jobInfoIsMappedAsDozer() throws Exception {
+        JobInfoImpl jobInfo = createJobInfo();
+
+        assertSameJson(dozerMapper.map(jobInfo, JobInfoData.class), SchedulerDtoMapper.toJobInfoData(jobInfo));
+        assertSameJson(new UserJobData(dozerMapper.map(jobInfo, JobInfoData.class)),
+                       SchedulerDtoMapper.toUserJobData(jobInfo));
+    }
+
+    @Test
+    public void emptyJobInfoIsMappedAsDozer() throws Exception {
+        JobInfoImpl jobInfo = new JobInfoImpl();
+        jobInfo.setJobId(new JobIdImpl(1, "empty"));
+
+        assertSameJson(dozerMapper.map(jobInfo, JobInfoData.class), SchedulerDtoMapper.toJobInfoData(jobInfo));
+    }
+
+    @Test
+    public void taskInfoIsMappedAsDozer() throws Exception {
+        TaskInfo taskInfo = createTaskInfo(createJobInfo());
+
+        assertSameJson(dozerMapper.map(taskInfo, TaskInfoData.class), SchedulerDtoMapper.toTaskInfoData(taskInfo));
+    }
+
+    @Test
+    public void taskStateIsMappedAsDozer() throws Exception {
+        TaskState taskState = createTaskState(createTaskInfo(createJobInfo()));
+
+        assertSameJson(dozerMapper.map(taskState, TaskStateData.class), SchedulerDtoMapper.toTaskStateData(taskState));
+
+        List<TaskStateData> taskStatesData = SchedulerDtoMapper.toTaskStateDataList(ImmutableList.of(taskState));
+        assertSameJson(dozerMapper.map(taskState, TaskStateData.class), taskStatesData.get(0));
+    }
+
+    private void assertSameJson(Object expected, Object actual) throws Exception {
+        assertEquals(objectMapper.readTree(objectMapper.writeValueAsString(expected)),
+                     objectMapper.readTree(objectMapper.writeValueAsString(actual)));
+    }
+
+    private JobInfoImpl createJobInfo() {
+        JobInfoImpl jobInfo = new JobInfoImpl();
+        jobInfo.setJobId(new JobIdImpl(42, "job"));
+        jobInfo.setJobOwner("owner");
+        jobInfo.setTenant("tenant");
+        jobInfo.setDomain("domain");
+        jobInfo.setProjectName("project");
+        jobInfo.setDescription("description");
+        jobInfo.setBucketName("bucket");
+        jobInfo.setLabel("label");
+        jobInfo.setSubmissionMode("mode");
+        jobInfo.setStatus(JobStatus.RUNNING);
+        jobInfo.setPriority(JobPriority.HIGH);
+        jobInfo.setSubmittedTime(1);
+        jobInfo.setStartTime(2);
+        jobInfo.setInErrorTime(3);
+        jobInfo.setFinishedTime(4);
+        jobInfo.setRemovedTime(5);
+        jobInfo.setCumulatedCoreTime(6);
+        jobInfo.setNumberOfNodes(7);
+        jobInfo.setNumberOfNodesInParallel(8);
+        jobInfo.setTotalNumberOfTasks(9);
+        jobInfo.setNumberOfPendingTasks(1);
+        jobInfo.setNumberOfRunningTasks(2);
+        jobInfo.setNumberOfFinishedTasks(3);
+        jobInfo.setNumberOfFailedTasks(1);
+        jobInfo.setNumberOfFaultyTasks(1);
+        jobInfo.setNumberOfInErrorTasks(1);
+        jobInfo.setToBeRemoved();
+        jobInfo.setGenericInformation(ImmutableMap.of("gi", "value"));
+        jobInfo.setVariables(ImmutableMap.of("var", "value"));
+        Map<String, JobVariable> detailedVariables = new LinkedHashMap<>();
+        detailedVariables.put("var", new JobVariable("var", "value", "PA:INTEGER"));
+        jobInfo.setDetailedVariables(detailedVariables);
+        jobInfo.setSignals(ImmutableSet.of("signal"));
+        jobInfo.setDetailedSignals(ImmutableMap.of("signal", detailedVariables));
+        jobInfo.setVisualizationConnectionStrings(ImmutableMap.of("task", "vnc"));
+        jobInfo.setVisualizationIcons(ImmutableMap.of("task", "icon"));
+        jobInfo.setAttachedServices(ImmutableMap.of(1, true));
+        jobInfo.setResultMapPresent(true);
+        jobInfo.setPreciousTasks(ImmutableList.of("task"));
+        jobInfo.setParentId(41L);
+        jobInfo.setChildrenCount(2);
+        jobInfo.setStartAt(10L);
+        return jobInfo;
+    }
+
+    private TaskInfoImpl createTaskInfo(JobInfoImpl jobInfo) {
+        TaskInfoImpl taskInfo = new TaskInfoImpl();
+        taskInfo.setJobInfo(jobInfo);
+        taskInfo.setTaskId(TaskIdImpl.createTaskId(jobInfo.getJobId(), "task", 3));
+        taskInfo.setStatus(TaskStatus.RUNNING);
+        taskInfo.setStartTime(11);
+        taskInfo.setInErrorTime(12);
+        taskInfo.setFinishedTime(13);
+        taskInfo.setScheduledTime(14);
+        taskInfo.setExecutionDuration(15);
+        taskInfo.setExecutionHostName("host");
+        taskInfo.setNumberOfExecutionLeft(2);
+        taskInfo.setNumberOfExecutionOnFailureLeft(1);
+        taskInfo.setProgress(50);
+        taskInfo.setVisualizationActivated(true);
+        taskInfo.setVisualizationConnectionString("vnc");
+        taskInfo.setVariables(ImmutableMap.of("var", "value"));
+        return taskInfo;
+    }
+
+    private TaskState createTaskState(TaskInfo taskInfo) {
+        TaskState taskState = new ClientTaskState(new TaskState() {
+            @Override
+            public void update(TaskInfo taskInfo) {
+
+            }
+
+            @Override
+            public List<TaskState> getDependences() {
+                return null;
+            }
+
+            @Override
+            public TaskInfo getTaskInfo() {
+                return taskInfo;
+            }
+
+            @Override
+            public int getMaxNumberOfExecutionOnFailure() {
+                return 2;
+            }
+
+            @Override
+            public TaskState replicate() throws Exception {
+                return null;
+            }
+
+            @Override
+            public int getIterationIndex() {
+                return 1;
+            }
+
+            @Override
+            public int getReplicationIndex() {
+                return 2;
+            }
+        });
+        taskState.setDescription("description");
+        taskState.setTag("tag");
+        taskState.setParallelEnvironment(new ParallelEnvironment(4));
+        taskState.setGenericInformation(ImmutableMap.of("gi", "value"));
+        return taskState;
+    }
+}
@@ -33,6 +33,7 @@ import static org.mockito.Mockito.when;
 import java.net.InetSocketAddress;
 import java.util.Collections;
 
+import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 import org.ow2.proactive.scheduler.common.exception.NotConnectedException;
@@ -63,6 +64,12 @@ public class NoVncSecuredTargetResolverTest {
         PortalConfiguration.SCHEDULER_LOGINFORWARDINGSERVICE_PROVIDER.updateProperty(SocketBasedForwardingProvider.class.getName());
     }
 
+    @After
+    public void terminateSessions() {
+        // release the job outputs shared between sessions
+        SharedSessionStore.getInstance().terminateAll();
+    }
+
     @Before
     public void mockSchedulerState()
             throws NotConnectedException, UnknownJobException, PermissionException, UnknownTaskException {
@@ -65,9 +65,58 @@ public class RestJobTrackerImpl extends JobTracker {
         }
 
         logger.debug("Removing knowledge of job " + id);
+        if (!deleteJobData(aj)) {
+            return;
+        }
+        jobDatabase.removeAwaitedJob(id);
+        commitJobRemoval(id);
+    }
 
-        String pullUrl = aj.getPullURL();
-        String pushUrl = aj.getPushURL();
+    @Override
+    public void removeAwaitedTask(String id, String taskName) {
+        AwaitedJob awaitedJob = jobDatabase.getAwaitedJob(id, taskName);
+        if (awaitedJob == null) {
+            logger.warn("Job " + id + " not in the awaited list");
+            return;
+        }
+        AwaitedTask awaitedTask = awaitedJob.getAwaitedTask(taskName);
+        if (awaitedTask == null) {
+            logger.warn("Task " + taskName + " from Job " + id + " not in the awaited list");
+            return;
+        }
+        logger.debug("Removing knowledge of task " + taskName + " from job " + id);
+        if (awaitedJob.isIsolateTaskOutputs() && awaitedTask.getTaskId() != null) {
+            // If the output data as been isolated in a dedicated folder we can delete it.
+
+            String pullUrl = awaitedJob.getPullURL();
+            pullUrl = pullUrl.replace(SchedulerConstants.TASKID_DIR_DEFAULT_NAME,
+                                      SchedulerConstants.TASKID_DIR_DEFAULT_NAME + "/" + awaitedTask.getTaskId());
+
+            try {
+                RemoteSource remoteSource = new RemoteSource(IDataSpaceClient.Dataspace.USER, pullUrl + "/");
+                remoteSource.setType(FileType.FOLDER);
+                restDataSpaceClient.delete(remoteSource);
+            } catch (Throwable t) {
+                logger.warn("Could not remove data for task " + taskName + " of job " + id, t);
+            }
+        }
+
+        // the task row is deleted on its own and committed with the next batch of changes
+        if (jobDatabase.removeAwaitedTask(id, taskName)) {
+            logger.debug("Removing knowledge of job " + id);
+            deleteJobData(awaitedJob);
+            commitJobRemoval(id);
+        }
+    }
+
+    /**
+     * Deletes the folders created by the given job in the shared input and output spaces
+     *
+     * @return false if the folders of the job could not be resolved
+     */
+    private boolean deleteJobData(AwaitedJob awaitedJob) {
+        String pullUrl = awaitedJob.getPullURL();
+        String pushUrl = awaitedJob.getPushURL();
 
         Path remotePullFolder = null;
         Path remotePushFolder = null;
@@ -76,11 +125,11 @@ public class RestJobTrackerImpl extends JobTracker {
             remotePullFolder = Paths.get(new URI(pullUrl));
             remotePushFolder = Paths.get(new URI(pushUrl));
         } catch (Exception e) {
-            logger.error("Could not remove data for job " + id, e);
-            return;
+            logger.error("Could not remove data for job " + awaitedJob.getJobId(), e);
+            return false;
         }
 
-        if (aj.isIsolateTaskOutputs()) {
+        if (awaitedJob.isIsolateTaskOutputs()) {
             Path tmp = remotePullFolder.getParent();
             if (tmp != null) {
                 remotePullFolder = tmp;
@@ -109,58 +158,14 @@ public class RestJobTrackerImpl extends JobTracker {
                 logger.warn("Could not delete temporary files at location " + location + " .", e);
             }
         }
-
-        jobDatabase.removeAwaitedJob(id);
-
-        try {
-            jobDatabase.commit();
-        } catch (IOException e) {
-            logger.error("Could not save status file after removing job " + id, e);
-        }
+        return true;
     }
 
-    @Override
-    public void removeAwaitedTask(String id, String taskName) {
-        AwaitedJob awaitedJob = jobDatabase.getAwaitedJob(id);
-        if (awaitedJob == null) {
-            logger.warn("Job " + id + " not in the awaited list");
-            return;
-        }
-        AwaitedTask awaitedTask = awaitedJob.getAwaitedTask(taskName);
-        if (awaitedTask == null) {
-            logger.warn("Task " + taskName + " from Job " + id + " not in the awaited list");
-            return;
-        }
-        logger.debug("Removing knowledge of task " + taskName + " from job " + id);
-        if (awaitedJob.isIsolateTaskOutputs() && awaitedTask.getTaskId() != null) {
-            // If the output data as been isolated in a dedicated folder we can delete it.
-
-            String pullUrl = awaitedJob.getPullURL();
-            pullUrl = pullUrl.replace(SchedulerConstants.TASKID_DIR_DEFAULT_NAME,
-                                      SchedulerConstants.TASKID_DIR_DEFAULT_NAME + "/" + awaitedTask.getTaskId());
-
-            try {
-                RemoteSource remoteSource = new RemoteSource(IDataSpaceClient.Dataspace.USER, pullUrl + "/");
-                remoteSource.setType(FileType.FOLDER);
-                restDataSpaceClient.delete(remoteSource);
-            } catch (Throwable t) {
-                logger.warn("Could not remove data for task " + taskName + " of job " + id, t);
-            }
-        }
-
-        awaitedJob.removeAwaitedTask(taskName);
-
-        if (awaitedJob.getAwaitedTasks().isEmpty()) {
-            removeAwaitedJob(id);
-            return;
-        } else {
-            jobDatabase.putAwaitedJob(id, awaitedJob); // this is done to ensure persistence of the operation
-        }
-
+    private void commitJobRemoval(String id) {
         try {
             jobDatabase.commit();
         } catch (IOException e) {
-            logger.error("Could not save status file after removing task Task " + taskName + " from Job" + id, e);
+            logger.error("Could not save status file after removing job " + id, e);
         }
     }
 
@@ -67,6 +67,12 @@ public enum PAResourceManagerProperties implements PACommonProperties {
     /** Timeout in ms for selection script execution */
     RM_SELECT_SCRIPT_TIMEOUT("pa.rm.select.script.timeout", PropertyType.INTEGER, "60000"),
 
+    /**
+     * Maximum time in ms a node selection waits for the selection scripts of one node.
+     * Nodes answering later are considered as not matching for this selection.
+     */
+    RM_SELECT_NODE_TIMEOUT("pa.rm.select.node.timeout", PropertyType.INTEGER, "60000"),
+
     /** The number of selection script digests stored in the cache to predict the execution results */
     RM_SELECT_SCRIPT_CACHE_SIZE("pa.rm.select.script.cache", PropertyType.INTEGER, "10000"),
 
@@ -341,6 +347,16 @@ public enum PAResourceManagerProperties implements PACommonProperties {
      */
     LOG4J_ASYNC_APPENDER_FLUSH_TIMOUT("pa.log4j.async.appender.flush.timeout", PropertyType.INTEGER, "50"),
 
+    /**
+     * Maximum number of log files kept open by asynchronous appenders, least recently used files are closed first
+     */
+    LOG4J_ASYNC_APPENDER_MAX_OPEN_FILES("pa.log4j.async.appender.max.open.files", PropertyType.INTEGER, "1000"),
+
+    /**
+     * When the buffer of an asynchronous appender is full, drop new events instead of blocking the logging thread
+     */
+    LOG4J_ASYNC_APPENDER_DROP_WHEN_FULL("pa.log4j.async.appender.drop.when.full", PropertyType.BOOLEAN, "false"),
+
     /**
      * Defines the log4j pattern used for all file appenders (used by the scheduler for job/task log files
      */
@@ -174,7 +174,7 @@ public class AutoUpdateInfrastructure extends HostsFileBasedInfrastructureManage
             }
 
             try {
-                Thread.sleep(1000);
+                super.waitForNodeRegistration(nodeName, 1000);
             } catch (Exception e) {
                 circuitBreakerThreshold--;
                 logger.trace("An exception occurred while monitoring a child process", e);
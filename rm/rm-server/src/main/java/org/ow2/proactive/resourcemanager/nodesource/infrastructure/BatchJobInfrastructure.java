@@ -38,6 +38,9 @@ import java.security.KeyException;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
 
 import org.objectweb.proactive.core.config.CentralPAPropertyRepository;
 import org.objectweb.proactive.core.node.Node;
@@ -74,9 +77,6 @@ import org.ow2.proactive.resourcemanager.utils.CommandLineBuilder;
  */
 public abstract class BatchJobInfrastructure extends InfrastructureManager {
 
-    /** The frequency in ms for the refresh of the node acquisition */
-    private static final int NODE_ACQUISITION_CHECK_RATE = 1000;
-
     /**
      * Path to the Java executable on the remote hosts
      */
@@ -171,11 +171,6 @@ public abstract class BatchJobInfrastructure extends InfrastructureManager {
      */
     private static final String DEPLOYING_NODES_KEY = "deployingNodes";
 
-    /**
-     * Key to retrieve the map that is used to notify the control loop of the pending node timeout
-     */
-    private static final String PN_TIMEOUT_KEY = "pnTimeout";
-
     /**
      * Acquires as much nodes as possible, making one distinct reservation per
      * node
@@ -212,38 +207,55 @@ public abstract class BatchJobInfrastructure extends InfrastructureManager {
             writeLock.unlock();
         }
 
-        // new thread: call will block until registration of the node to the RM
+        // new thread: call will block until the job is submitted, the node
+        // registration is then awaited without holding any thread
         nodeSource.executeInParallel(new Runnable() {
             public void run() {
+                CompletableFuture<Void> nodeRegistration;
                 try {
-                    // currentNodes & deployingNodes are updated in startNode
-                    startNode();
-                    logger.debug("new " + bjs + " Node acquired. # of current nodes: " + getCurrentNodesSize() +
-                                 " - # of deploying nodes: " + getNbDeployingNodes());
-                    return;
+                    // currentNodes & deployingNodes are updated once the node registers
+                    nodeRegistration = startNode();
                 } catch (Exception e) {
-                    logger.error("Could not acquire node ", e);
+                    nodeAcquisitionFailed(e);
+                    return;
                 }
-                // deployment failed, one "deployingNodes" (volatile) not
-                // expected anymore...
-                decrementDeployingNodes();
-                logger.debug("# of deploying nodes arranged given the last checked exception. # of current nodes: " +
-                             getCurrentNodesSize() + " - # of deploying nodes: " + getNbDeployingNodes());
+                nodeRegistration.whenComplete((result, exception) -> {
+                    if (exception == null) {
+                        logger.debug("new " + bjs + " Node acquired. # of current nodes: " + getCurrentNodesSize() +
+                                     " - # of deploying nodes: " + getNbDeployingNodes());
+                    } else {
+                        nodeAcquisitionFailed(exception instanceof CompletionException ? exception.getCause()
+                                                                                       : exception);
+                    }
+                });
             }
         });
     }
 
+    private void nodeAcquisitionFailed(Throwable e) {
+        logger.error("Could not acquire node ", e);
+        // deployment failed, one "deployingNodes" (volatile) not
+        // expected anymore...
+        decrementDeployingNodes();
+        logger.debug("# of deploying nodes arranged given the last checked exception. # of current nodes: " +
+                     getCurrentNodesSize() + " - # of deploying nodes: " + getNbDeployingNodes());
+    }
+
     /**
-     * Builds the command line to execute on the PBS frontend and wait for every
-     * launched nodes to register. If the node doesn't register (ie. runs
-     * {@link #internalRegisterAcquiredNode(Node)} isn't called) before the
-     * timeout (configurable) value, an exception is raised. If the qSub command
-     * submitted to the PBS frontend fails, the node supposed to be launched is
-     * not expected anymore and will be discarded at registration time.
+     * Builds the command line to execute on the PBS frontend and submits the
+     * job starting the node. The node registration is then awaited without
+     * blocking the calling thread: the returned future completes when the node
+     * registers (ie. {@link #internalRegisterAcquiredNode(Node)} is called),
+     * or exceptionally if the node doesn't register before the timeout
+     * (configurable) value. If the qSub command submitted to the PBS frontend
+     * fails, the node supposed to be launched is not expected anymore and will
+     * be discarded at registration time.
      * 
+     * @return the registration of the node
      * @throws RMException
+     *             if the job submission failed
      */
-    private void startNode() throws RMException {
+    private CompletableFuture<Void> startNode() throws RMException {
         CommandLineBuilder clb = new CommandLineBuilder();
         // generate the node name
         // current rmcore shortID should be added to ensure uniqueness
@@ -285,7 +297,6 @@ public abstract class BatchJobInfrastructure extends InfrastructureManager {
                                                     obfuscatedCmd,
                                                     "Deploying node on " + getBatchinJobSystemName() + " scheduler",
                                                     this.nodeTimeOut);
-        putPnTimeout(dnURL, Boolean.FALSE);
 
         // executing the command
         Process p;
@@ -311,75 +322,54 @@ public abstract class BatchJobInfrastructure extends InfrastructureManager {
         // only handle the job submission, not the execution... furthermore
         // the "id" is defined
         String lf = System.lineSeparator();
-        final long timeout = nodeTimeOut;
-        long t1 = System.currentTimeMillis();
-        boolean isJobIDValid = false;// Hack. SSHClient fails but qSub succeeds.
-                                     // Tries to wait for this node
-                                     // registration...
-        int circuitBreakerThreshold = 5;
-        while (!getPnTimeout(dnURL) && circuitBreakerThreshold > 0) {
-            try {
+        try {
+            if (p.waitFor(nodeTimeOut, TimeUnit.MILLISECONDS) && p.exitValue() != 0) {
                 int exitCode = p.exitValue();
-                if (exitCode != 0 && !isJobIDValid) {
-                    logger.warn("SSH subprocess at " + host.getHostName() +
-                                " exit code != 0 but IM tries to recover from this error...Current submit command's output: " +
-                                id + " and associated node's name: " + nodeName);
-                    String extractedID = this.extractSubmitOutput(id);
-                    String errput = this.extractProcessErrput(p);
-                    final String description = "SSH command failed to launch node on " + getBatchinJobSystemName() +
-                                               " scheduler" + lf + "   >Error code: " + exitCode + lf + "   >Errput: " +
-                                               errput + "   >Output: " + id;
-                    // the job id may be valid, trying to wait for the node
-                    // registration...
-                    if (extractedID != null && !extractedID.equals("")) {
-                        isJobIDValid = true;
-                    }
-                    // defines how to recover from this state
-                    // throws a RMException if we can't
-                    handleWrongJobTermination(isJobIDValid,
-                                              nodeName,
-                                              dnURL,
-                                              host,
-                                              id,
-                                              description,
-                                              exitCode,
-                                              submitCmd,
-                                              deleteCmd);
-                }
-            } catch (IllegalThreadStateException e) {
-                // process has not returned yet
-                logger.trace("Waiting for ssh process to exit in BatchJobInfrastructure");
-            }
+                logger.warn("SSH subprocess at " + host.getHostName() +
+                            " exit code != 0 but IM tries to recover from this error...Current submit command's output: " +
+                            id + " and associated node's name: " + nodeName);
+                String extractedID = this.extractSubmitOutput(id);
+                String errput = this.extractProcessErrput(p);
+                final String description = "SSH command failed to launch node on " + getBatchinJobSystemName() +
+                                           " scheduler" + lf + "   >Error code: " + exitCode + lf + "   >Errput: " +
+                                           errput + "   >Output: " + id;
+                // Hack. SSHClient fails but qSub succeeds. the job id may be
+                // valid, trying to wait for the node registration...
+                boolean isJobIDValid = extractedID != null && !extractedID.equals("");
+                // defines how to recover from this state
+                // throws a RMException if we can't
+                handleWrongJobTermination(isJobIDValid,
+                                          nodeName,
+                                          dnURL,
+                                          host,
+                                          id,
+                                          description,
+                                          exitCode,
+                                          submitCmd,
+                                          deleteCmd);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            super.declareDeployingNodeLost(dnURL, "Interrupted while monitoring ssh subprocess.");
+            removeJob(nodeName, p, id);
+            throw new RMException("Interrupted while monitoring ssh subprocess.", e);
+        }
 
-            if (super.checkNodeIsAcquiredAndDo(nodeName, null, null)) {
+        // the registration is notified by the RM core, or by the deploying
+        // node timeout, actions are then run in a node source thread
+        final String submitOutput = id;
+        return super.getNodeRegistration(nodeName).thenAcceptAsync(registered -> {
+            if (registered) {
                 // registration is ok
                 p.destroy();
-                addNodeAndDecrementDeployingNode(nodeName, this.extractSubmitOutput(id));
-                return;
-            }
-
-            try {
-
-                logger.debug("Waiting for node " + nodeName + " registration... time to timeout: " +
-                             (timeout - (System.currentTimeMillis() - t1)));
-                Thread.sleep(BatchJobInfrastructure.NODE_ACQUISITION_CHECK_RATE);
-            } catch (Exception e) {
-                circuitBreakerThreshold--;
-                logger.error("While monitoring ssh subprocess.", e);
+                addNodeAndDecrementDeployingNode(nodeName, this.extractSubmitOutput(submitOutput));
+            } else {
+                // the node is not expected anymore
+                removeJob(nodeName, p, submitOutput);
+                throw new CompletionException(new RMException("Deploying Node " + nodeName +
+                                                              " not expected any more"));
             }
-        } // end of while loop, either deploying node timeout/removed of
-          // threshold reached
-
-        // the node is not expected anymore
-        atomicRemovePnTimeoutAndJob(nodeName, dnURL, p, id);
-
-        if (circuitBreakerThreshold <= 0) {
-            logger.error("Circuit breaker threshold reached while monitoring ssh subprocess.");
-            throw new RMException("Several exceptions occurred while monitoring ssh subprocess.");
-        }
-
-        // if we are here we reached an invalid state
-        throw new RMException("Invalid state, exit from a control loop with threshold > 0 and expected deploying node");
+        }, this.nodeSource::executeInParallel);
     }
 
     /**
@@ -554,16 +544,6 @@ public abstract class BatchJobInfrastructure extends InfrastructureManager {
         logger.debug("New expected node registered: " + nodeName);
     }
 
-    /**
-     * This method is called by Infrastructure Manager in case of a pending node
-     * removal. We take advantage of it to specify to the remote process control
-     * loop of the removal. This one will then exit.
-     */
-    @Override
-    protected void notifyDeployingNodeLost(String pnURL) {
-        putPnTimeout(pnURL, true);
-    }
-
     @Override
     public void notifyDownNode(String nodeName, String nodeUrl, Node node) throws RMException {
         removeNode(node);
@@ -804,13 +784,12 @@ public abstract class BatchJobInfrastructure extends InfrastructureManager {
         persistedInfraVariables.put(CREDENTIALS_KEY, null);
         persistedInfraVariables.put(CURRENT_NODES_KEY, new HashMap<String, String>());
         persistedInfraVariables.put(DEPLOYING_NODES_KEY, 0);
-        persistedInfraVariables.put(PN_TIMEOUT_KEY, new HashMap<String, Boolean>());
     }
 
     // Below are wrapper methods around the runtime variables map
 
     private void setShutdown(final boolean isShutdown) {
-        setPersistedInfraVariable(new PersistedInfraVariablesHandler<Void>() {
+        setPersistedInfraVariable(SHUTDOWN_FLAG_KEY, new PersistedInfraVariablesHandler<Void>() {
             @Override
             public Void handle() {
                 persistedInfraVariables.put(SHUTDOWN_FLAG_KEY, isShutdown);
@@ -827,7 +806,7 @@ public abstract class BatchJobInfrastructure extends InfrastructureManager {
     }
 
     private void incrementDeployingNodes() {
-        setPersistedInfraVariable(new PersistedInfraVariablesHandler<Void>() {
+        setPersistedInfraVariable(DEPLOYING_NODES_KEY, new PersistedInfraVariablesHandler<Void>() {
             @Override
             public Void handle() {
                 int updated = (int) persistedInfraVariables.get(DEPLOYING_NODES_KEY) + 1;
@@ -838,7 +817,7 @@ public abstract class BatchJobInfrastructure extends InfrastructureManager {
     }
 
     private void decrementDeployingNodes() {
-        setPersistedInfraVariable(new PersistedInfraVariablesHandler<Void>() {
+        setPersistedInfraVariable(DEPLOYING_NODES_KEY, new PersistedInfraVariablesHandler<Void>() {
             @Override
             public Void handle() {
                 int updated = (int) persistedInfraVariables.get(DEPLOYING_NODES_KEY) - 1;
@@ -880,7 +859,7 @@ public abstract class BatchJobInfrastructure extends InfrastructureManager {
     }
 
     private void putCurrentNode(final String key, final String value) {
-        setPersistedInfraVariable(new PersistedInfraVariablesHandler<Void>() {
+        setPersistedInfraVariable(CURRENT_NODES_KEY, new PersistedInfraVariablesHandler<Void>() {
             @Override
             public Void handle() {
                 getCurrentNodes().put(key, value);
@@ -890,7 +869,7 @@ public abstract class BatchJobInfrastructure extends InfrastructureManager {
     }
 
     private void removeCurrentNode(final String key) {
-        setPersistedInfraVariable(new PersistedInfraVariablesHandler<Void>() {
+        setPersistedInfraVariable(CURRENT_NODES_KEY, new PersistedInfraVariablesHandler<Void>() {
             @Override
             public Void handle() {
                 getCurrentNodes().remove(key);
@@ -899,51 +878,21 @@ public abstract class BatchJobInfrastructure extends InfrastructureManager {
         });
     }
 
-    private Map<String, Boolean> getPnTimeoutMap() {
-        return (Map<String, Boolean>) persistedInfraVariables.get(PN_TIMEOUT_KEY);
-    }
-
-    private Boolean getPnTimeout(final String key) {
-        return getPersistedInfraVariable(new PersistedInfraVariablesHandler<Boolean>() {
-            @Override
-            public Boolean handle() {
-                return getPnTimeoutMap().get(key);
-            }
-        });
-    }
-
-    private void putPnTimeout(final String key, final Boolean value) {
-        setPersistedInfraVariable(new PersistedInfraVariablesHandler<Void>() {
-            @Override
-            public Void handle() {
-                getPnTimeoutMap().put(key, value);
-                return null;
-            }
-        });
-    }
-
-    private void atomicRemovePnTimeoutAndJob(final String nodeName, final String dnURL, final Process p,
-            final String id) throws RMException {
-        setPersistedInfraVariable(new PersistedInfraVariablesHandler<Void>() {
-            @Override
-            public Void handle() {
-                if (getPnTimeout(dnURL)) {
-                    // we remove the pn timeout
-                    getPnTimeoutMap().remove(dnURL);
-                    try {
-                        // we remove the job
-                        deleteJob(extractSubmitOutput(id));
-                        // we destroy the process
-                        p.destroy();
-                    } catch (RMException e) {
-                        logger.error(e);
-                    } finally {
-                        logger.error("Deploying Node " + nodeName + " not expected any more");
-                    }
-                }
-                return null;
-            }
-        });
+    /**
+     * Deletes the job of a node which is not expected anymore and destroys
+     * the ssh process which submitted it.
+     */
+    private void removeJob(String nodeName, Process p, String id) {
+        try {
+            // we remove the job
+            deleteJob(extractSubmitOutput(id));
+        } catch (RMException e) {
+            logger.error(e);
+        } finally {
+            // we destroy the process
+            p.destroy();
+            logger.error("Deploying Node " + nodeName + " not expected any more");
+        }
     }
 
     @Override
@@ -190,7 +190,7 @@ public class CLIInfrastructure extends HostsFileBasedInfrastructureManager {
             }
 
             try {
-                Thread.sleep(1000);
+                super.waitForNodeRegistration(nodeName, 1000);
             } catch (Exception e) {
                 circuitBreakerThreshold--;
                 logger.trace("An exception occurred while monitoring a child process", e);
@@ -295,7 +295,7 @@ public class CLIInfrastructure extends HostsFileBasedInfrastructureManager {
     }
 
     private void incrementNbRemovalThread() {
-        setPersistedInfraVariable(new PersistedInfraVariablesHandler<Void>() {
+        setPersistedInfraVariable(NB_REMOVAL_THREAD_KEY, new PersistedInfraVariablesHandler<Void>() {
             @Override
             public Void handle() {
                 int updated = (int) persistedInfraVariables.get(NB_REMOVAL_THREAD_KEY) + 1;
@@ -306,7 +306,7 @@ public class CLIInfrastructure extends HostsFileBasedInfrastructureManager {
     }
 
     private void decrementNbRemovalThread() {
-        setPersistedInfraVariable(new PersistedInfraVariablesHandler<Void>() {
+        setPersistedInfraVariable(NB_REMOVAL_THREAD_KEY, new PersistedInfraVariablesHandler<Void>() {
             @Override
             public Void handle() {
                 int updated = (int) persistedInfraVariables.get(NB_REMOVAL_THREAD_KEY) - 1;
@@ -194,7 +194,7 @@ public class DefaultInfrastructureManager extends InfrastructureManager {
     // Below are wrapper methods around the runtime variables map
 
     private void incrementNodesCount() {
-        setPersistedInfraVariable(() -> {
+        setPersistedInfraVariable(NODES_COUNT_KEY, () -> {
             int updated = (int) this.persistedInfraVariables.get(NODES_COUNT_KEY) + 1;
             this.persistedInfraVariables.put(NODES_COUNT_KEY, updated);
             return null;
@@ -202,7 +202,7 @@ public class DefaultInfrastructureManager extends InfrastructureManager {
     }
 
     private void decrementNodesCount() {
-        setPersistedInfraVariable(() -> {
+        setPersistedInfraVariable(NODES_COUNT_KEY, () -> {
             int updated = (int) this.persistedInfraVariables.get(NODES_COUNT_KEY) - 1;
             this.persistedInfraVariables.put(NODES_COUNT_KEY, updated);
             return null;
@@ -210,7 +210,7 @@ public class DefaultInfrastructureManager extends InfrastructureManager {
     }
 
     private void addDownNodeUrl(String downNodeUrl) {
-        setPersistedInfraVariable(() -> {
+        setPersistedInfraVariable(DOWN_NODES_URL_KEY, () -> {
             ((Set<String>) this.persistedInfraVariables.get(DOWN_NODES_URL_KEY)).add(downNodeUrl);
             return null;
         });
@@ -221,7 +221,7 @@ public class DefaultInfrastructureManager extends InfrastructureManager {
     }
 
     private void removeDownNodeUrl(String notDownNodeUrl) {
-        setPersistedInfraVariable(() -> {
+        setPersistedInfraVariable(DOWN_NODES_URL_KEY, () -> {
             ((Set<String>) this.persistedInfraVariables.get(DOWN_NODES_URL_KEY)).remove(notDownNodeUrl);
             return null;
         });
@@ -0,0 +1,117 @@
+/*
+ * ProActive Parallel Suite(TM):
+ * The Open Source library for parallel and distributed
+ * Workflows & Scheduling, Orchestration, Cloud Automation
+ * and Big Data Analysis on Enterprise Grids & Clouds.
+ *
+ * Copyright (c) 2007 - 2017 ActiveEon
+ * Contact: contact@activeeon.com
+ *
+ * This library is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation: version 3 of
+ * the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ */
+package org.ow2.proactive.resourcemanager.nodesource.infrastructure;
+
+import java.io.Serializable;
+
+
+/**
+ * State of the node deployment on one host of a {@link HostsFileBasedInfrastructureManager}.
+ * Contrary to {@link HostTracker}, this state is not persisted: it describes the
+ * deployment attempts made since the resource manager started.
+ */
+public class HostDeployment implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    public enum Status {
+        DEPLOYING,
+        WAITING_FOR_RETRY,
+        DEPLOYED,
+        FAILED
+    }
+
+    private final String host;
+
+    private volatile Status status = Status.DEPLOYING;
+
+    private volatile int failedAttempts;
+
+    private volatile long nextAttemptTime;
+
+    private volatile String lastError;
+
+    HostDeployment(String host) {
+        this.host = host;
+    }
+
+    synchronized void deploying() {
+        status = Status.DEPLOYING;
+        nextAttemptTime = 0;
+    }
+
+    synchronized void waitingForRetry(long delay, Throwable error) {
+        failedAttempts++;
+        lastError = String.valueOf(error.getMessage());
+        nextAttemptTime = System.currentTimeMillis() + delay;
+        status = Status.WAITING_FOR_RETRY;
+    }
+
+    synchronized void deployed() {
+        status = Status.DEPLOYED;
+        nextAttemptTime = 0;
+    }
+
+    synchronized void failed(Throwable error) {
+        failedAttempts++;
+        lastError = String.valueOf(error.getMessage());
+        nextAttemptTime = 0;
+        status = Status.FAILED;
+    }
+
+    public String getHost() {
+        return host;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    /**
+     * @return the number of failed attempts of the current deployment
+     */
+    public int getFailedAttempts() {
+        return failedAttempts;
+    }
+
+    /**
+     * @return the time of the next attempt when waiting for a retry, 0 otherwise
+     */
+    public long getNextAttemptTime() {
+        return nextAttemptTime;
+    }
+
+    public String getLastError() {
+        return lastError;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "Host " + host + " deployment: " + status + " (failed attempts: " + failedAttempts +
+               (lastError != null ? ", last error: " + lastError : "") + ")";
+    }
+
+}
@@ -29,12 +29,22 @@ import java.io.*;
 import java.net.InetAddress;
 import java.net.UnknownHostException;
 import java.util.*;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 import org.apache.log4j.Logger;
 import org.objectweb.proactive.core.node.Node;
 import org.objectweb.proactive.core.util.ProActiveCounter;
+import org.objectweb.proactive.utils.NamedThreadFactory;
 import org.ow2.proactive.resourcemanager.exception.RMException;
 import org.ow2.proactive.resourcemanager.nodesource.common.Configurable;
 import org.ow2.proactive.utils.FileToBytesConverter;
@@ -53,6 +63,23 @@ public abstract class HostsFileBasedInfrastructureManager extends Infrastructure
 
     protected static final long DEFAULT_WAIT_TIME_BETWEEN_NODE_DEPLOYMENT_FAILURES = 5000;
 
+    /**
+     * The wait time between deployment failures doubles after each failure on a host, up to this
+     * limit (unless the configured wait time is already higher)
+     */
+    protected static final long MAX_WAIT_TIME_BETWEEN_NODE_DEPLOYMENT_FAILURES = 5 * 60 * 1000;
+
+    /**
+     * Delays the deployment retries: instead of holding a deployment thread while waiting, a retry
+     * is scheduled here and handed back to the deployment thread pool when its delay expires
+     */
+    private static class RetrySchedulerLazyHolder {
+
+        private static final ScheduledExecutorService INSTANCE = Executors.newSingleThreadScheduledExecutor(new NamedThreadFactory("HostDeploymentRetryScheduler",
+                                                                                                                                   true));
+
+    }
+
     @Configurable(fileBrowser = true, description = "Absolute path of the file containing\nthe list of remote hosts", sectionSelector = 1, important = true)
     protected File hostsList;
 
@@ -87,6 +114,11 @@ public abstract class HostsFileBasedInfrastructureManager extends Infrastructure
 
     protected NodeNameBuilder nodeNameBuilder = new NodeNameBuilder();
 
+    /**
+     * State of the current or last deployment of each host
+     */
+    private transient volatile Map<String, HostDeployment> hostDeployments = new ConcurrentHashMap<>();
+
     @Override
     protected void initializePersistedInfraVariables() {
         persistedInfraVariables.put(HOST_TRACKER_PER_HOST_KEY, new HashMap<String, HostTracker>());
@@ -215,12 +247,13 @@ public abstract class HostsFileBasedInfrastructureManager extends Infrastructure
                 final int neededNodeNumber = getNeededNodesNumberWithLock(host);
                 logger.info("Acquiring " + neededNodeNumber + " nodes on host " + hostTracker);
 
-                this.nodeSource.executeInParallel(() -> {
-                    try {
-                        startNodeImplWithRetries(hostTracker, neededNodeNumber, maxDeploymentFailure);
-                    } catch (Exception e) {
-                        logger.error("Could not acquire nodes on host " + hostTracker, e);
-                    }
+                CompletableFuture<Void> deployment = deployNodes(hostTracker,
+                                                                 neededNodeNumber,
+                                                                 maxDeploymentFailure,
+                                                                 this.nodeSource::executeInParallel);
+                deployment.exceptionally(e -> {
+                    logger.error("Could not acquire nodes on host " + hostTracker, e);
+                    return null;
                 });
 
                 setNeedsNodesWithLockAndPersist(host, false);
@@ -313,29 +346,126 @@ public abstract class HostsFileBasedInfrastructureManager extends Infrastructure
         logger.info("Reconnected node " + nodeUrl + " on host " + nodeHost);
     }
 
+    /**
+     * Deploys nodes on a host, retrying on failure, and waits for the end of the deployment.
+     * The deployment attempts are executed by the calling thread.
+     */
     protected void startNodeImplWithRetries(final HostTracker hostTracker, final int nbNodes, int retries)
             throws RMException {
-        while (!isShutDown()) {
-            final List<String> depNodeURLs = new ArrayList<>(nbNodes);
-            try {
-                startNodeImpl(hostTracker, nbNodes, depNodeURLs);
-                return;
-            } catch (Exception e) {
-                logger.warn("Failed nodes deployment in host : " + hostTracker.getResolvedAddress() +
-                            ", retries left : " + retries);
-                if (isInfiniteRetries(retries) || retries > 0) {
-                    removeNodes(depNodeURLs);
-                    waitPeriodBeforeRetry();
-                    retries = getRetriesLeft(retries);
-                } else {
-                    logger.error("Tries threshold reached for host " + hostTracker.getResolvedAddress() +
-                                 ". This host is not part of the deployment process anymore.");
-
-                    throw e;
+        BlockingQueue<Runnable> attempts = new LinkedBlockingQueue<>();
+        CompletableFuture<Void> deployment = deployNodes(hostTracker, nbNodes, retries, attempts::add);
+        try {
+            while (!deployment.isDone()) {
+                Runnable attempt = attempts.poll(100, TimeUnit.MILLISECONDS);
+                if (attempt != null) {
+                    attempt.run();
+                }
+            }
+            deployment.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RMException) {
+                throw (RMException) e.getCause();
+            }
+            throw new RMException(e.getCause());
+        }
+    }
+
+    /**
+     * Deploys nodes on a host, retrying on failure with an exponential backoff.
+     * Deployment attempts are submitted to the given executor, the waits between
+     * attempts do not hold any of its threads.
+     *
+     * @param hostTracker the host on which the nodes are deployed
+     * @param nbNodes number of nodes to deploy
+     * @param retries number of retries after a failure, -1 for infinite retries
+     * @param executor executor of the deployment attempts
+     * @return a future completed when the nodes are deployed, or completed exceptionally when
+     * the retries are exhausted
+     */
+    protected CompletableFuture<Void> deployNodes(final HostTracker hostTracker, final int nbNodes, int retries,
+            Executor executor) {
+        HostDeployment hostDeployment = new HostDeployment(hostTracker.getConfiguredAddress());
+        getHostDeploymentMap().put(hostTracker.getConfiguredAddress(), hostDeployment);
+        CompletableFuture<Void> result = new CompletableFuture<>();
+        executor.execute(() -> attemptDeployment(hostTracker, nbNodes, retries, hostDeployment, result, executor));
+        return result;
+    }
+
+    private void attemptDeployment(HostTracker hostTracker, int nbNodes, int retries, HostDeployment hostDeployment,
+            CompletableFuture<Void> result, Executor executor) {
+        if (isShutDown()) {
+            result.complete(null);
+            return;
+        }
+        final List<String> depNodeURLs = new ArrayList<>(nbNodes);
+        hostDeployment.deploying();
+        try {
+            startNodeImpl(hostTracker, nbNodes, depNodeURLs);
+            hostDeployment.deployed();
+            result.complete(null);
+        } catch (Exception e) {
+            logger.warn("Failed nodes deployment in host : " + hostTracker.getResolvedAddress() +
+                        ", retries left : " + retries);
+            if (isInfiniteRetries(retries) || retries > 0) {
+                removeNodes(depNodeURLs);
+                long delay = getWaitTimeBeforeRetry(hostDeployment.getFailedAttempts());
+                hostDeployment.waitingForRetry(delay, e);
+                int retriesLeft = getRetriesLeft(retries);
+                Runnable retry = () -> attemptDeployment(hostTracker,
+                                                         nbNodes,
+                                                         retriesLeft,
+                                                         hostDeployment,
+                                                         result,
+                                                         executor);
+                try {
+                    RetrySchedulerLazyHolder.INSTANCE.schedule(() -> executor.execute(retry),
+                                                               delay,
+                                                               TimeUnit.MILLISECONDS);
+                } catch (RuntimeException schedulingError) {
+                    hostDeployment.failed(schedulingError);
+                    result.completeExceptionally(schedulingError);
                 }
+            } else {
+                logger.error("Tries threshold reached for host " + hostTracker.getResolvedAddress() +
+                             ". This host is not part of the deployment process anymore.");
+                hostDeployment.failed(e);
+                result.completeExceptionally(e);
             }
         }
+    }
 
+    /**
+     * @return the wait time before the next deployment attempt on a host which already failed the given
+     * number of times
+     */
+    protected long getWaitTimeBeforeRetry(int failedAttempts) {
+        long maxWaitTime = Math.max(waitBetweenDeploymentFailures, MAX_WAIT_TIME_BETWEEN_NODE_DEPLOYMENT_FAILURES);
+        long waitTime = waitBetweenDeploymentFailures;
+        for (int i = 0; i < failedAttempts && waitTime < maxWaitTime; i++) {
+            waitTime *= 2;
+        }
+        return Math.min(waitTime, maxWaitTime);
+    }
+
+    /**
+     * @return the state of the current or last deployment of each host, by configured host address
+     */
+    public Map<String, HostDeployment> getHostDeployments() {
+        return Collections.unmodifiableMap(new HashMap<>(getHostDeploymentMap()));
+    }
+
+    private Map<String, HostDeployment> getHostDeploymentMap() {
+        if (hostDeployments == null) {
+            // the infrastructure was deserialized
+            synchronized (this) {
+                if (hostDeployments == null) {
+                    hostDeployments = new ConcurrentHashMap<>();
+                }
+            }
+        }
+        return hostDeployments;
     }
 
     protected boolean anyTimedOut(List<String> nodesUrl) {
@@ -384,15 +514,6 @@ public abstract class HostsFileBasedInfrastructureManager extends Infrastructure
         return retries == -1;
     }
 
-    private void waitPeriodBeforeRetry() {
-        try {
-
-            Thread.sleep(waitBetweenDeploymentFailures);
-        } catch (InterruptedException e1) {
-            Thread.currentThread().interrupt();
-        }
-    }
-
     private int getRetriesLeft(int retries) {
         int retriesLeft = (retries > 0) ? --retries : retries;
         return retriesLeft;
@@ -456,7 +577,7 @@ public abstract class HostsFileBasedInfrastructureManager extends Infrastructure
     }
 
     private void setNeedsNodesWithLockAndPersist(final String configuredHostAddress, final boolean needsNodes) {
-        setPersistedInfraVariable(() -> {
+        setPersistedInfraVariable(HOST_TRACKER_PER_HOST_KEY, () -> {
             HostTracker hostTracker = getHostTrackerPerHost().get(configuredHostAddress);
             hostTracker.setNeedsNodes(needsNodes);
             getHostTrackerPerHost().put(configuredHostAddress, hostTracker);
@@ -465,7 +586,7 @@ public abstract class HostsFileBasedInfrastructureManager extends Infrastructure
     }
 
     private void putAliveNodeUrlWithLockAndPersist(final String configuredHostAddress, final String aliveNodeUrl) {
-        setPersistedInfraVariable(() -> {
+        setPersistedInfraVariable(HOST_TRACKER_PER_HOST_KEY, () -> {
             HostTracker hostTracker = getHostTrackerPerHost().get(configuredHostAddress);
             hostTracker.putAliveNodeUrl(aliveNodeUrl);
             getHostTrackerPerHost().put(configuredHostAddress, hostTracker);
@@ -478,7 +599,7 @@ public abstract class HostsFileBasedInfrastructureManager extends Infrastructure
     }
 
     private void putRemovedNodeUrlWithLockAndPersist(final String configuredHostAddress, final String removedNodeUrl) {
-        setPersistedInfraVariable(() -> {
+        setPersistedInfraVariable(HOST_TRACKER_PER_HOST_KEY, () -> {
             HostTracker hostTracker = getHostTrackerPerHost().get(configuredHostAddress);
             hostTracker.putRemovedNodeUrl(removedNodeUrl);
             getHostTrackerPerHost().put(configuredHostAddress, hostTracker);
@@ -487,7 +608,7 @@ public abstract class HostsFileBasedInfrastructureManager extends Infrastructure
     }
 
     private void putDownNodeUrlWithLockAndPersist(final String configuredHostAddress, final String downNodeUrl) {
-        setPersistedInfraVariable(() -> {
+        setPersistedInfraVariable(HOST_TRACKER_PER_HOST_KEY, () -> {
             HostTracker hostTracker = getHostTrackerPerHost().get(configuredHostAddress);
             hostTracker.putDownNodeUrl(downNodeUrl);
             getHostTrackerPerHost().put(configuredHostAddress, hostTracker);
@@ -496,7 +617,7 @@ public abstract class HostsFileBasedInfrastructureManager extends Infrastructure
     }
 
     private int addAndGetLostNodeNotificationWithLockAndPersist(final String configuredHostAddress) {
-        return setPersistedInfraVariable(() -> {
+        return setPersistedInfraVariable(HOST_TRACKER_PER_HOST_KEY, () -> {
             HostTracker hostTracker = getHostTrackerPerHost().get(configuredHostAddress);
             int lostNodeNotificationsNumber = hostTracker.addAndGetLostNodeNotification();
             getHostTrackerPerHost().put(configuredHostAddress, hostTracker);
@@ -505,7 +626,7 @@ public abstract class HostsFileBasedInfrastructureManager extends Infrastructure
     }
 
     private void resetLostNodeNotificationsWithLockAndPersist(final String configuredHostAddress) {
-        setPersistedInfraVariable(() -> {
+        setPersistedInfraVariable(HOST_TRACKER_PER_HOST_KEY, () -> {
             HostTracker hostTracker = getHostTrackerPerHost().get(configuredHostAddress);
             hostTracker.resetLostNodeNotifications();
             getHostTrackerPerHost().put(configuredHostAddress, hostTracker);
@@ -527,11 +648,11 @@ public abstract class HostsFileBasedInfrastructureManager extends Infrastructure
     }
 
     private void putPnTimeoutWithLockAndPersist(final String key, final Boolean value) {
-        setPersistedInfraVariable(() -> getPnTimeoutMap().put(key, value));
+        setPersistedInfraVariable(PN_TIMEOUT_KEY, () -> getPnTimeoutMap().put(key, value));
     }
 
     private void removePnTimeoutWithLockAndPersist(final String key) {
-        setPersistedInfraVariable(() -> getPnTimeoutMap().remove(key));
+        setPersistedInfraVariable(PN_TIMEOUT_KEY, () -> getPnTimeoutMap().remove(key));
     }
 
     /**
@@ -25,20 +25,29 @@
  */
 package org.ow2.proactive.resourcemanager.nodesource.infrastructure;
 
+import static org.ow2.proactive.resourcemanager.core.properties.PAResourceManagerProperties.RM_NODES_DB_OPERATIONS_DELAY;
 import static org.ow2.proactive.resourcemanager.core.properties.PAResourceManagerProperties.RM_NODES_LOCK_RESTORATION;
 
 import java.io.File;
 import java.io.IOException;
 import java.io.Serializable;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReadWriteLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 
+import org.apache.commons.lang3.SerializationUtils;
 import org.apache.log4j.Logger;
 import org.objectweb.proactive.core.config.CentralPAPropertyRepository;
 import org.objectweb.proactive.core.node.Node;
+import org.objectweb.proactive.utils.NamedThreadFactory;
 import org.ow2.proactive.resourcemanager.authentication.Client;
 import org.ow2.proactive.resourcemanager.common.NodeState;
 import org.ow2.proactive.resourcemanager.common.RMConstants;
@@ -84,6 +93,17 @@ public abstract class InfrastructureManager implements NodeSourcePlugin {
     /** class' logger */
     protected static final Logger logger = Logger.getLogger(InfrastructureManager.class);
 
+    /**
+     * Delays the persistence of the runtime variables of all the infrastructures, so that successive
+     * modifications are persisted together
+     */
+    private static class InfraVariablesPersistenceSchedulerLazyHolder {
+
+        private static final ScheduledExecutorService INSTANCE = Executors.newSingleThreadScheduledExecutor(new NamedThreadFactory("InfrastructureVariablesPersistence",
+                                                                                                                                   true));
+
+    }
+
     /** manager's node source */
     protected NodeSource nodeSource;
 
@@ -114,6 +134,12 @@ public abstract class InfrastructureManager implements NodeSourcePlugin {
     // used to timeout the nodes
     private transient Timer timeouter = null;
 
+    /**
+     * Registrations awaited by the implementation, by node name. A registration is completed with true when the node
+     * registers and with false when its deploying node is lost or removed. Accessed under the write lock.
+     */
+    private transient Map<String, CompletableFuture<Boolean>> nodeRegistrations = null;
+
     /**
      * Store information about the running infrastructure. The map holds the name of monitored information and its
      * value. The variables stored in this map should allow the full recovery of an infrastructure state.
@@ -121,6 +147,33 @@ public abstract class InfrastructureManager implements NodeSourcePlugin {
      */
     protected Map<String, Serializable> persistedInfraVariables = new HashMap<>();
 
+    /**
+     * Copies of the runtime variables as they were last persisted. Only the
+     * variables modified since then are copied again, and the database work
+     * is done on this snapshot, outside of the runtime variables locks.
+     */
+    private transient final Map<String, Serializable> persistedInfraVariablesSnapshot = new HashMap<>();
+
+    /**
+     * Keys of the runtime variables modified since they were last persisted.
+     * Updated under the write lock.
+     */
+    private transient final Set<String> modifiedInfraVariableKeys = new HashSet<>();
+
+    /**
+     * Whether all the runtime variables must be copied again, because some
+     * were modified without telling which one. Updated under the write lock.
+     */
+    private transient boolean allInfraVariablesModified = true;
+
+    private transient final AtomicBoolean infraVariablesPersistenceScheduled = new AtomicBoolean(false);
+
+    private transient long persistedInfraVariablesSnapshotVersion = 0;
+
+    private transient long lastPersistedInfraVariablesSnapshotVersion = 0;
+
+    private transient final Object infraVariablesPersistenceLock = new Object();
+
     private transient ReadWriteLock reentrantLock = new ReentrantReadWriteLock();
 
     /** Use this lock to wrap a read access to runtime variables */
@@ -174,15 +227,34 @@ public abstract class InfrastructureManager implements NodeSourcePlugin {
     /**
      * Acquire the write lock, and then:
      * 1) call the handle method of the handler given in parameter
-     * 2) call the method that persist in database the runtime variables.
+     * 2) schedule the persistence in database of the runtime variables.
+     * As the modified variable is not known, all the runtime variables will be
+     * copied when persisted, use
+     * {@link #setPersistedInfraVariable(String, PersistedInfraVariablesHandler)}
+     * whenever the modified variable is known.
      * @return the return value of the handle method
      */
     protected <T> T setPersistedInfraVariable(PersistedInfraVariablesHandler<T> t) {
+        return setPersistedInfraVariable(null, t);
+    }
+
+    /**
+     * Acquire the write lock, and then:
+     * 1) call the handle method of the handler given in parameter, which
+     * should only modify the runtime variable with the given key
+     * 2) schedule the persistence in database of the runtime variables.
+     * Modifications made within {@link RMDBManager} operations delay are
+     * persisted together.
+     * @param key the key of the modified runtime variable, null if unknown
+     * @return the return value of the handle method
+     */
+    protected <T> T setPersistedInfraVariable(String key, PersistedInfraVariablesHandler<T> t) {
         T variable = null;
         writeLock.lock();
         try {
             variable = t.handle();
-            persistInfrastructureVariables();
+            markInfraVariableModified(key);
+            schedulePersistInfrastructureVariables();
         } catch (IllegalArgumentException e) {
             logger.warn("Infrastructure variables not persisted", e);
         } catch (RuntimeException e) {
@@ -208,6 +280,7 @@ public abstract class InfrastructureManager implements NodeSourcePlugin {
         writeLock.lock();
         try {
             persistedInfraVariables.put(RM_URL_KEY, nodeSource.getRegistrationURL());
+            markInfraVariableModified(RM_URL_KEY);
         } catch (RuntimeException e) {
             logger.error("Exception while putting RM URL in runtime variables: " + e.getMessage(), e);
             throw e;
@@ -231,7 +304,15 @@ public abstract class InfrastructureManager implements NodeSourcePlugin {
                     logger.debug("[" + entry.getKey() + " ; " + entry.getValue() + "]");
                 }
             }
-            persistedInfraVariables.putAll(persistedInfrastructureVariables);
+            for (Map.Entry<String, Serializable> entry : persistedInfrastructureVariables.entrySet()) {
+                Serializable variable = entry.getValue();
+                if (variable instanceof SerializedInfraVariable) {
+                    // a snapshot which did not go through the database
+                    variable = ((SerializedInfraVariable) variable).deserialize();
+                }
+                persistedInfraVariables.put(entry.getKey(), variable);
+            }
+            markInfraVariableModified(null);
         } catch (RuntimeException e) {
             logger.error("Exception while recovering infrastructure variables", e);
             throw e;
@@ -285,6 +366,7 @@ public abstract class InfrastructureManager implements NodeSourcePlugin {
     public final boolean internalRemoveDeployingNode(String pnUrl) {
         RMDeployingNode pn = null;
         boolean isLost = false;
+        CompletableFuture<Boolean> registration = null;
 
         writeLock.lock();
         try {
@@ -292,6 +374,8 @@ public abstract class InfrastructureManager implements NodeSourcePlugin {
             if (pn == null) {
                 pn = removeLostNodeWithLockAndPersist(pnUrl);
                 isLost = true;
+            } else {
+                registration = removeNodeRegistrationWithLock(pn.getNodeName());
             }
         } catch (RuntimeException e) {
             logger.error("Exception while removing deploying node: " + e.getMessage(), e);
@@ -299,6 +383,7 @@ public abstract class InfrastructureManager implements NodeSourcePlugin {
         } finally {
             writeLock.unlock();
         }
+        completeNodeRegistration(registration, false);
 
         // if such a deploying or lost node exists
         if (pn != null) {
@@ -409,12 +494,15 @@ public abstract class InfrastructureManager implements NodeSourcePlugin {
         // we build the url of the associated deploying node
         String deployingNodeURL = this.buildDeployingNodeURL(node.getNodeInformation().getName());
 
+        CompletableFuture<Boolean> registration = null;
+        boolean registered = false;
         writeLock.lock();
         try {
             pn = removeDeployingNodeWithLockAndPersist(deployingNodeURL);
             // if a deploying node with this name exists, one runs the
             // implementation callback
             if (pn != null) {
+                registration = removeNodeRegistrationWithLock(node.getNodeInformation().getName());
                 RMNodeEvent event = pn.createNodeEvent(RMEventType.NODE_REMOVED,
                                                        pn.getState(),
                                                        pn.getProvider().getName());
@@ -422,6 +510,7 @@ public abstract class InfrastructureManager implements NodeSourcePlugin {
                 this.notifyAcquiredNode(node);
                 // if everything went well with the new node, caching it
                 addAcquiredNodeNameWithLockAndPersist(node.getNodeInformation().getName());
+                registered = true;
             } else {
                 String url = node.getNodeInformation().getURL();
                 logger.warn("Not expected node registered, discarding it: " + url);
@@ -432,6 +521,7 @@ public abstract class InfrastructureManager implements NodeSourcePlugin {
             throw e;
         } finally {
             writeLock.unlock();
+            completeNodeRegistration(registration, registered);
         }
 
         return pn;
@@ -513,6 +603,7 @@ public abstract class InfrastructureManager implements NodeSourcePlugin {
         // no need to remove lost nodes, implementation is notified
         // at the timeout of the deploying node
         clearDeployingNodesWithLockAndPersist();
+        cancelNodeRegistrations();
         // delegating the call to the implementation
         this.shutDown();
 
@@ -658,28 +749,143 @@ public abstract class InfrastructureManager implements NodeSourcePlugin {
      * the {@link RMConstants#DEFAULT_LOCAL_NODES_NODE_SOURCE_NAME}.
      */
     public void persistInfrastructureVariables() {
-        if (nodeSource == null) {
-            throw new IllegalArgumentException("Invalid invocation to persist infrastructure variables: the node source is not yet set for this infrastructure");
-        }
+        checkNodeSourceIsSet();
         if (recoveryActivated()) {
-            String nodeSourceName = nodeSource.getName();
-            readLock.lock();
+            writeLock.lock();
             try {
-                getAndPersistNodeSourceData(nodeSourceName);
-            } catch (RuntimeException e) {
-                logger.error("Exception while persisting infrastructure variables", e);
-                throw e;
+                markInfraVariableModified(null);
             } finally {
-                readLock.unlock();
+                writeLock.unlock();
+            }
+            persistModifiedInfrastructureVariables();
+        }
+    }
+
+    private void checkNodeSourceIsSet() {
+        if (nodeSource == null) {
+            throw new IllegalArgumentException("Invalid invocation to persist infrastructure variables: the node source is not yet set for this infrastructure");
+        }
+    }
+
+    private void markInfraVariableModified(String key) {
+        if (key == null) {
+            allInfraVariablesModified = true;
+        } else {
+            modifiedInfraVariableKeys.add(key);
+        }
+    }
+
+    /**
+     * Persists the runtime variables once the database operations delay
+     * expires, so that the modifications made meanwhile are persisted
+     * together. With no delay, they are persisted right away.
+     */
+    private void schedulePersistInfrastructureVariables() {
+        checkNodeSourceIsSet();
+        if (!recoveryActivated()) {
+            return;
+        }
+        int delay = RM_NODES_DB_OPERATIONS_DELAY.getValueAsInt();
+        if (delay <= 0) {
+            persistModifiedInfrastructureVariables();
+        } else if (infraVariablesPersistenceScheduled.compareAndSet(false, true)) {
+            InfraVariablesPersistenceSchedulerLazyHolder.INSTANCE.schedule(() -> {
+                infraVariablesPersistenceScheduled.set(false);
+                try {
+                    persistModifiedInfrastructureVariables();
+                } catch (RuntimeException e) {
+                    logger.error("Exception while persisting infrastructure variables", e);
+                }
+            }, delay, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Copies the runtime variables modified since the last persistence into
+     * the snapshot, under the read lock, and persists the snapshot. A snapshot
+     * is never persisted after a more recent one.
+     */
+    private void persistModifiedInfrastructureVariables() {
+        Map<String, Serializable> snapshot;
+        long snapshotVersion;
+        readLock.lock();
+        try {
+            synchronized (persistedInfraVariablesSnapshot) {
+                if (allInfraVariablesModified) {
+                    persistedInfraVariablesSnapshot.clear();
+                    for (Map.Entry<String, Serializable> entry : persistedInfraVariables.entrySet()) {
+                        persistedInfraVariablesSnapshot.put(entry.getKey(), copyInfraVariable(entry.getValue()));
+                    }
+                    allInfraVariablesModified = false;
+                } else {
+                    for (String key : modifiedInfraVariableKeys) {
+                        Serializable variable = persistedInfraVariables.get(key);
+                        if (variable != null || persistedInfraVariables.containsKey(key)) {
+                            persistedInfraVariablesSnapshot.put(key, copyInfraVariable(variable));
+                        } else {
+                            persistedInfraVariablesSnapshot.remove(key);
+                        }
+                    }
+                }
+                modifiedInfraVariableKeys.clear();
+                snapshot = new HashMap<>(persistedInfraVariablesSnapshot);
+                snapshotVersion = ++persistedInfraVariablesSnapshotVersion;
+            }
+        } catch (RuntimeException e) {
+            logger.error("Exception while copying infrastructure variables", e);
+            throw e;
+        } finally {
+            readLock.unlock();
+        }
+
+        synchronized (infraVariablesPersistenceLock) {
+            if (snapshotVersion > lastPersistedInfraVariablesSnapshotVersion) {
+                getAndPersistNodeSourceData(nodeSource.getName(), snapshot);
+                lastPersistedInfraVariablesSnapshotVersion = snapshotVersion;
             }
         }
     }
 
+    /**
+     * The runtime variables are modified in place, so the persisted snapshot
+     * holds its own copy of each variable. Mutable variables are copied in
+     * their serialized form, which is written as is when the snapshot is
+     * persisted, instead of being serialized again.
+     */
+    private static Serializable copyInfraVariable(Serializable variable) {
+        if (variable == null || variable instanceof String || variable instanceof Number ||
+            variable instanceof Boolean) {
+            return variable;
+        }
+        return new SerializedInfraVariable(variable);
+    }
+
+    /**
+     * A runtime variable serialized when the snapshot was taken. It is read
+     * back from the database as the original variable.
+     */
+    private static final class SerializedInfraVariable implements Serializable {
+
+        private final byte[] bytes;
+
+        private SerializedInfraVariable(Serializable variable) {
+            this.bytes = SerializationUtils.serialize(variable);
+        }
+
+        private Serializable deserialize() {
+            return SerializationUtils.deserialize(bytes);
+        }
+
+        private Object readResolve() {
+            return deserialize();
+        }
+    }
+
     private boolean recoveryActivated() {
         return PAResourceManagerProperties.RM_NODES_RECOVERY.getValueAsBoolean() && nodeSource.nodesRecoverable();
     }
 
-    private void getAndPersistNodeSourceData(String nodeSourceName) {
+    private void getAndPersistNodeSourceData(String nodeSourceName, Map<String, Serializable> infraVariables) {
         if (dbManager == null) {
             setRmDbManager(RMDBManager.getInstance());
         }
@@ -688,7 +894,7 @@ public abstract class InfrastructureManager implements NodeSourcePlugin {
             nodeSourceData = dbManager.getNodeSource(nodeSourceName);
         }
         if (nodeSourceData != null) {
-            nodeSourceData.setInfrastructureVariables(persistedInfraVariables);
+            nodeSourceData.setInfrastructureVariables(infraVariables);
             dbManager.updateNodeSource(nodeSourceData);
         } else {
             logger.warn("Node source " + nodeSourceName + " is unknown. Cannot persist infrastructure variables");
@@ -861,6 +1067,7 @@ public abstract class InfrastructureManager implements NodeSourcePlugin {
      */
     protected final boolean declareDeployingNodeLost(String toUpdateURL, String description) {
         RMDeployingNode deployingNode;
+        CompletableFuture<Boolean> registration = null;
         // we need to atomically move the node from the deploying collection to
         // the lost one.
         writeLock.lock();
@@ -868,6 +1075,7 @@ public abstract class InfrastructureManager implements NodeSourcePlugin {
             deployingNode = removeDeployingNodeWithLockAndPersist(toUpdateURL);
             if (deployingNode != null) {
                 addLostNodeWithLockAndPersist(toUpdateURL, deployingNode);
+                registration = removeNodeRegistrationWithLock(deployingNode.getNodeName());
             }
         } catch (RuntimeException e) {
             logger.error("Exception while moving a node from deploying to lost: " + e.getMessage(), e);
@@ -875,6 +1083,7 @@ public abstract class InfrastructureManager implements NodeSourcePlugin {
         } finally {
             writeLock.unlock();
         }
+        completeNodeRegistration(registration, false);
 
         if (deployingNode != null) {
             logger.warn("Declaring node as lost: " + toUpdateURL + ", " + description);
@@ -945,6 +1154,98 @@ public abstract class InfrastructureManager implements NodeSourcePlugin {
         }
     }
 
+    /**
+     * Gives the registration of the node with the given name. The returned
+     * future is completed with true as soon as the node registers (see
+     * {@link #internalRegisterAcquiredNode(Node)}), and with false as soon as
+     * its deploying node is lost or removed, for instance when the deploying
+     * node times out. This allows implementations to react to the node
+     * registration without a thread polling
+     * {@link #checkNodeIsAcquiredAndDo(String, Runnable, Runnable)}.
+     * Registration callbacks should not block: the future is completed by the
+     * thread registering the node or by the deploying nodes timer, so long
+     * actions must be chained with an asynchronous method and an executor.
+     *
+     * @param nodeName
+     *            the node's name
+     * @return the registration of the node, already completed if the node is
+     *         already acquired or if no such deploying node exists.
+     */
+    protected final CompletableFuture<Boolean> getNodeRegistration(String nodeName) {
+        writeLock.lock();
+        try {
+            if (containsAcquiredNodeNameWithLock(nodeName)) {
+                return CompletableFuture.completedFuture(true);
+            }
+            if (getDeployingNodeWithLock(buildDeployingNodeURL(nodeName)) == null) {
+                return CompletableFuture.completedFuture(false);
+            }
+            if (nodeRegistrations == null) {
+                nodeRegistrations = new HashMap<>();
+            }
+            return nodeRegistrations.computeIfAbsent(nodeName, name -> new CompletableFuture<>());
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Waits for the registration of the node with the given name, at most for
+     * the given time. Unlike a sleep between two calls to
+     * {@link #checkNodeIsAcquiredAndDo(String, Runnable, Runnable)}, this
+     * method returns as soon as the node registers.
+     *
+     * @param nodeName
+     *            the node's name
+     * @param maxWaitMillis
+     *            the maximum time to wait, in milliseconds
+     * @return true if the node is acquired, false if it did not register in
+     *         the given time or is not expected anymore.
+     * @throws InterruptedException
+     *             if the current thread is interrupted while waiting
+     */
+    protected final boolean waitForNodeRegistration(String nodeName, long maxWaitMillis) throws InterruptedException {
+        CompletableFuture<Boolean> registration = getNodeRegistration(nodeName);
+        if (registration.isDone() && !registration.join()) {
+            // the node is not expected, the caller control loop must still
+            // run at its usual pace
+            Thread.sleep(maxWaitMillis);
+            return false;
+        }
+        try {
+            return registration.get(maxWaitMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException | ExecutionException e) {
+            return false;
+        }
+    }
+
+    private CompletableFuture<Boolean> removeNodeRegistrationWithLock(String nodeName) {
+        return nodeRegistrations == null ? null : nodeRegistrations.remove(nodeName);
+    }
+
+    private void completeNodeRegistration(CompletableFuture<Boolean> registration, boolean registered) {
+        if (registration != null) {
+            registration.complete(registered);
+        }
+    }
+
+    private void cancelNodeRegistrations() {
+        List<CompletableFuture<Boolean>> pendingRegistrations;
+        writeLock.lock();
+        try {
+            if (nodeRegistrations == null) {
+                return;
+            }
+            pendingRegistrations = new ArrayList<>(nodeRegistrations.values());
+            nodeRegistrations.clear();
+        } finally {
+            writeLock.unlock();
+        }
+        for (CompletableFuture<Boolean> registration : pendingRegistrations) {
+            registration.complete(false);
+        }
+    }
+
     private void checkNodePostAction(Runnable toRunWhenOK, String message) {
         if (toRunWhenOK != null) {
             try {
@@ -1182,7 +1483,7 @@ public abstract class InfrastructureManager implements NodeSourcePlugin {
 
     protected RMDeployingNode addDeployingNodeWithLockAndPersist(final String nodeUrl,
             final RMDeployingNode deployingNode) {
-        return setPersistedInfraVariable(() -> {
+        return setPersistedInfraVariable(DEPLOYING_NODES_URL_KEY, () -> {
             RMDeployingNode previousDeployingNode = this.deployingNodesMap.put(nodeUrl, deployingNode);
             getPersistedDeployingNodesUrl().add(nodeUrl);
             return previousDeployingNode;
@@ -1190,7 +1491,7 @@ public abstract class InfrastructureManager implements NodeSourcePlugin {
     }
 
     private RMDeployingNode removeDeployingNodeWithLockAndPersist(final String nodeUrl) {
-        return setPersistedInfraVariable(() -> {
+        return setPersistedInfraVariable(DEPLOYING_NODES_URL_KEY, () -> {
             RMDeployingNode removedDeployingNode = this.deployingNodesMap.remove(nodeUrl);
             getPersistedDeployingNodesUrl().remove(nodeUrl);
             return removedDeployingNode;
@@ -1202,7 +1503,7 @@ public abstract class InfrastructureManager implements NodeSourcePlugin {
     }
 
     private void clearDeployingNodesWithLockAndPersist() {
-        setPersistedInfraVariable(() -> {
+        setPersistedInfraVariable(DEPLOYING_NODES_URL_KEY, () -> {
             this.deployingNodesMap.clear();
             getPersistedDeployingNodesUrl().clear();
             return null;
@@ -1222,7 +1523,7 @@ public abstract class InfrastructureManager implements NodeSourcePlugin {
     }
 
     protected RMDeployingNode addLostNodeWithLockAndPersist(final String nodeUrl, final RMDeployingNode lostNode) {
-        return setPersistedInfraVariable(() -> {
+        return setPersistedInfraVariable(LOST_NODES_URL_KEY, () -> {
             RMDeployingNode previousLostNode = this.lostNodesMap.put(nodeUrl, lostNode);
             getPersistedLostNodesUrl().add(nodeUrl);
             return previousLostNode;
@@ -1230,7 +1531,7 @@ public abstract class InfrastructureManager implements NodeSourcePlugin {
     }
 
     private RMDeployingNode removeLostNodeWithLockAndPersist(final String nodeUrl) {
-        return setPersistedInfraVariable(() -> {
+        return setPersistedInfraVariable(LOST_NODES_URL_KEY, () -> {
             RMDeployingNode removedLostNode = this.lostNodesMap.remove(nodeUrl);
             getPersistedLostNodesUrl().remove(nodeUrl);
             return removedLostNode;
@@ -1250,7 +1551,7 @@ public abstract class InfrastructureManager implements NodeSourcePlugin {
     }
 
     private void addAcquiredNodeNameWithLockAndPersist(final String nodeName) {
-        setPersistedInfraVariable(() -> getAcquiredNodesName().add(nodeName));
+        setPersistedInfraVariable(ACQUIRED_NODES_NAME_KEY, () -> getAcquiredNodesName().add(nodeName));
     }
 
     private boolean containsAcquiredNodeNameWithLock(final String nodeName) {
@@ -1258,7 +1559,7 @@ public abstract class InfrastructureManager implements NodeSourcePlugin {
     }
 
     private void removeAcquiredNodeNameWithLockAndPersist(final String nodeName) {
-        setPersistedInfraVariable(() -> getAcquiredNodesName().remove(nodeName));
+        setPersistedInfraVariable(ACQUIRED_NODES_NAME_KEY, () -> getAcquiredNodesName().remove(nodeName));
     }
 
     public boolean isUsingDeployingNode() {
@@ -1266,11 +1567,12 @@ public abstract class InfrastructureManager implements NodeSourcePlugin {
     }
 
     private void setUsingDeployingNodesWithLockAndPersist() {
-        setPersistedInfraVariable(() -> this.persistedInfraVariables.put(USING_DEPLOYING_NODES_KEY, true));
+        setPersistedInfraVariable(USING_DEPLOYING_NODES_KEY,
+                                  () -> this.persistedInfraVariables.put(USING_DEPLOYING_NODES_KEY, true));
     }
 
     protected void setRmUrl(final String rmUrl) {
-        setPersistedInfraVariable(() -> this.persistedInfraVariables.put(RM_URL_KEY, rmUrl));
+        setPersistedInfraVariable(RM_URL_KEY, () -> this.persistedInfraVariables.put(RM_URL_KEY, rmUrl));
     }
 
     protected String getRmUrl() {
@@ -467,7 +467,7 @@ public class LocalInfrastructure extends InfrastructureManager {
     }
 
     private void increaseNumberOfHandledNodesWithLockAndPersist(final int additionalNumberOfNodes) {
-        setPersistedInfraVariable(() -> {
+        setPersistedInfraVariable(NB_HANDLED_NODES_KEY, () -> {
             int updated = (int) this.persistedInfraVariables.get(NB_HANDLED_NODES_KEY) + additionalNumberOfNodes;
             this.persistedInfraVariables.put(NB_HANDLED_NODES_KEY, updated);
             return updated;
@@ -475,7 +475,7 @@ public class LocalInfrastructure extends InfrastructureManager {
     }
 
     private void incrementNumberOfAcquiredNodesWithLockAndPersist() {
-        setPersistedInfraVariable(() -> {
+        setPersistedInfraVariable(NB_ACQUIRED_NODES_KEY, () -> {
             int updated = (int) this.persistedInfraVariables.get(NB_ACQUIRED_NODES_KEY) + 1;
             this.persistedInfraVariables.put(NB_ACQUIRED_NODES_KEY, updated);
             return updated;
@@ -483,7 +483,7 @@ public class LocalInfrastructure extends InfrastructureManager {
     }
 
     private void incrementNumberOfLostNodesWithLockAndPersist() {
-        setPersistedInfraVariable(() -> {
+        setPersistedInfraVariable(NB_LOST_NODES_KEY, () -> {
             int updated = (int) this.persistedInfraVariables.get(NB_LOST_NODES_KEY) + 1;
             this.persistedInfraVariables.put(NB_LOST_NODES_KEY, updated);
             return updated;
@@ -491,7 +491,7 @@ public class LocalInfrastructure extends InfrastructureManager {
     }
 
     private void decrementNumberOfHandledNodesWithLockAndPersist() {
-        setPersistedInfraVariable(() -> {
+        setPersistedInfraVariable(NB_HANDLED_NODES_KEY, () -> {
             int updated = (int) this.persistedInfraVariables.get(NB_HANDLED_NODES_KEY) - 1;
             this.persistedInfraVariables.put(NB_HANDLED_NODES_KEY, updated);
             return updated;
@@ -499,7 +499,7 @@ public class LocalInfrastructure extends InfrastructureManager {
     }
 
     private void decrementNumberOfAcquiredNodesWithLockAndPersist() {
-        setPersistedInfraVariable(() -> {
+        setPersistedInfraVariable(NB_ACQUIRED_NODES_KEY, () -> {
             int updated = (int) this.persistedInfraVariables.get(NB_ACQUIRED_NODES_KEY) - 1;
             this.persistedInfraVariables.put(NB_ACQUIRED_NODES_KEY, updated);
             return updated;
@@ -507,7 +507,7 @@ public class LocalInfrastructure extends InfrastructureManager {
     }
 
     private void decrementNumberOfLostNodesWithLockAndPersist() {
-        setPersistedInfraVariable(() -> {
+        setPersistedInfraVariable(NB_LOST_NODES_KEY, () -> {
             int updated = (int) this.persistedInfraVariables.get(NB_LOST_NODES_KEY) - 1;
             this.persistedInfraVariables.put(NB_LOST_NODES_KEY, updated);
             return updated;
@@ -515,7 +515,7 @@ public class LocalInfrastructure extends InfrastructureManager {
     }
 
     private int getIndexAndIncrementWithLockAndPersist() {
-        return setPersistedInfraVariable(() -> {
+        return setPersistedInfraVariable(LAST_NODE_STARTED_INDEXES_KEY, () -> {
             // This method aims at finding the first integer index not already used by a current deployment
             // The algorithm is the following:
             // set deployedNodeIndexes = [all currently used indexes]
@@ -540,7 +540,7 @@ public class LocalInfrastructure extends InfrastructureManager {
     }
 
     private void removeIndexWithLockAndPersist(int indexToRemove) {
-        setPersistedInfraVariable(() -> {
+        setPersistedInfraVariable(LAST_NODE_STARTED_INDEXES_KEY, () -> {
             TreeSet<Integer> deployedNodeIndexes = (TreeSet<Integer>) this.persistedInfraVariables.get(LAST_NODE_STARTED_INDEXES_KEY);
             deployedNodeIndexes.remove(indexToRemove);
             this.persistedInfraVariables.put(LAST_NODE_STARTED_INDEXES_KEY, deployedNodeIndexes);
@@ -405,7 +405,7 @@ public class SSHInfrastructure extends HostsFileBasedInfrastructureManager {
     }
 
     private void setShutdownFlag(final boolean isShutdown) {
-        setPersistedInfraVariable(new PersistedInfraVariablesHandler<Void>() {
+        setPersistedInfraVariable(SHUTDOWN_FLAG_KEY, new PersistedInfraVariablesHandler<Void>() {
             @Override
             public Void handle() {
                 persistedInfraVariables.put(SHUTDOWN_FLAG_KEY, isShutdown);
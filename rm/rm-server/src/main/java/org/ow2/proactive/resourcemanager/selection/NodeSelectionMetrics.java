@@ -0,0 +1,130 @@
+/*
+ * ProActive Parallel Suite(TM):
+ * The Open Source library for parallel and distributed
+ * Workflows & Scheduling, Orchestration, Cloud Automation
+ * and Big Data Analysis on Enterprise Grids & Clouds.
+ *
+ * Copyright (c) 2007 - 2017 ActiveEon
+ * Contact: contact@activeeon.com
+ *
+ * This library is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation: version 3 of
+ * the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ */
+package org.ow2.proactive.resourcemanager.selection;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+
+/**
+ * Timing and outcome counters of the selection script evaluations performed by a {@link SelectionManager}.
+ */
+public class NodeSelectionMetrics {
+
+    private final AtomicLong selections = new AtomicLong();
+
+    private final AtomicLong totalSelectionTime = new AtomicLong();
+
+    private final AtomicLong maxSelectionTime = new AtomicLong();
+
+    private final AtomicLong evaluations = new AtomicLong();
+
+    private final AtomicLong totalEvaluationTime = new AtomicLong();
+
+    private final AtomicLong maxEvaluationTime = new AtomicLong();
+
+    private final AtomicLong matched = new AtomicLong();
+
+    private final AtomicLong timedOut = new AtomicLong();
+
+    private final AtomicLong cancelled = new AtomicLong();
+
+    void recordEvaluation(long duration, boolean nodeMatched) {
+        evaluations.incrementAndGet();
+        totalEvaluationTime.addAndGet(duration);
+        maxEvaluationTime.accumulateAndGet(duration, Math::max);
+        if (nodeMatched) {
+            matched.incrementAndGet();
+        }
+    }
+
+    void recordSelection(long duration, int nbTimedOut, int nbCancelled) {
+        selections.incrementAndGet();
+        totalSelectionTime.addAndGet(duration);
+        maxSelectionTime.accumulateAndGet(duration, Math::max);
+        timedOut.addAndGet(nbTimedOut);
+        cancelled.addAndGet(nbCancelled);
+    }
+
+    /**
+     * @return the number of script executions rounds, one round evaluates the scripts on a set of nodes
+     */
+    public long getSelections() {
+        return selections.get();
+    }
+
+    public long getAverageSelectionTime() {
+        long count = selections.get();
+        return count == 0 ? 0 : totalSelectionTime.get() / count;
+    }
+
+    public long getMaxSelectionTime() {
+        return maxSelectionTime.get();
+    }
+
+    /**
+     * @return the number of nodes on which the selection scripts were evaluated
+     */
+    public long getEvaluations() {
+        return evaluations.get();
+    }
+
+    public long getAverageEvaluationTime() {
+        long count = evaluations.get();
+        return count == 0 ? 0 : totalEvaluationTime.get() / count;
+    }
+
+    public long getMaxEvaluationTime() {
+        return maxEvaluationTime.get();
+    }
+
+    public long getMatched() {
+        return matched.get();
+    }
+
+    /**
+     * @return the number of nodes which did not answer before {@code pa.rm.select.node.timeout}
+     */
+    public long getTimedOut() {
+        return timedOut.get();
+    }
+
+    /**
+     * @return the number of evaluations cancelled before starting because enough nodes had been found
+     */
+    public long getCancelled() {
+        return cancelled.get();
+    }
+
+    @Override
+    public String toString() {
+        return "NodeSelectionMetrics[selections=" + getSelections() + ", avgSelectionTime=" +
+               getAverageSelectionTime() + "ms, maxSelectionTime=" + getMaxSelectionTime() + "ms, evaluations=" +
+               getEvaluations() + ", avgEvaluationTime=" + getAverageEvaluationTime() + "ms, maxEvaluationTime=" +
+               getMaxEvaluationTime() + "ms, matched=" + getMatched() + ", timedOut=" + getTimedOut() +
+               ", cancelled=" + getCancelled() + "]";
+    }
+
+}
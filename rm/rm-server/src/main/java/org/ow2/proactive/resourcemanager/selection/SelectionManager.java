@@ -30,6 +30,7 @@ import java.io.Serializable;
 import java.security.Permission;
 import java.util.*;
 import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.stream.Collectors;
 
 import org.apache.log4j.Logger;
@@ -80,8 +81,12 @@ public abstract class SelectionManager {
 
     private ExecutorService scriptExecutorThreadPool;
 
+    // urls of the nodes executing selection scripts, a node is reserved by adding its url
+    // while holding the set monitor, releasing a node does not need the monitor
     private Set<String> inProgress;
 
+    private final NodeSelectionMetrics selectionMetrics = new NodeSelectionMetrics();
+
     protected HashSet<String> authorizedSelectionScripts = null;
 
     // the policy for arranging nodes
@@ -101,7 +106,7 @@ public abstract class SelectionManager {
                                                                                TimeUnit.SECONDS,
                                                                                new NamedThreadFactory("Selection manager threadpool"));
 
-        this.inProgress = Collections.synchronizedSet(new HashSet<String>());
+        this.inProgress = ConcurrentHashMap.newKeySet();
 
         String policyClassName = PAResourceManagerProperties.RM_SELECTION_POLICY.getValueAsString();
         try {
@@ -285,7 +290,7 @@ public abstract class SelectionManager {
                     matchedNodes = new LinkedList<>();
                 } else if (electedToRunOnAllNodes(criteria)) {
                     // run scripts on all available nodes
-                    matchedNodes = runScripts(arrangedFilteredNodes, criteria);
+                    matchedNodes = runScripts(arrangedFilteredNodes, criteria, Integer.MAX_VALUE);
                 } else {
                     // run scripts not on all nodes, but always on missing number of
                     // nodes
@@ -310,7 +315,8 @@ public abstract class SelectionManager {
                         List<RMNode> subset = arrangedFilteredNodes.subList(0,
                                                                             Math.min(numberOfNodesForScriptExecution,
                                                                                      arrangedFilteredNodes.size()));
-                        matchedNodes.addAll(runScripts(subset, criteria));
+                        int needed = getNumberOfNodesToMatch(criteria, matchedNodes);
+                        matchedNodes.addAll(runScripts(subset, criteria, needed));
                         // removing subset of arrangedNodes
                         subset.clear();
 
@@ -419,6 +425,17 @@ public abstract class SelectionManager {
         return selectedNodes;
     }
 
+    /*
+     * Without topology, the first nodes passing the scripts are the selected ones, so the remaining evaluations
+     * can be abandoned once enough nodes are found. Topology handlers need all the matching nodes to choose from.
+     */
+    private static int getNumberOfNodesToMatch(Criteria criteria, List<Node> alreadyMatched) {
+        if (criteria.getTopology().isTopologyBased()) {
+            return Integer.MAX_VALUE;
+        }
+        return criteria.getSize() - alreadyMatched.size();
+    }
+
     private static boolean electedToRunOnAllNodes(Criteria criteria) {
         return criteria.getTopology().isTopologyBased() &&
                !criteria.getTopology().toString().equals(TopologyDescriptor.SINGLE_HOST.toString()) &&
@@ -451,71 +468,215 @@ public abstract class SelectionManager {
     }
 
     /**
-     * Runs scripts on given set of nodes and returns matched nodes. It blocks
-     * until all results are obtained.
+     * Runs scripts on given set of nodes and returns matched nodes. Results are
+     * processed as soon as they arrive and the method returns when all nodes
+     * have answered, when {@code needed} nodes have matched or when the remaining
+     * nodes exceeded {@link PAResourceManagerProperties#RM_SELECT_NODE_TIMEOUT}.
+     * Evaluations which have not started yet are then cancelled, running ones are
+     * left to complete in the background so that their results still update the
+     * knowledge base of the selection manager.
      *
      * @param candidates
      *            nodes to execute scripts on
      * @param criteria
      *            contains a set of scripts to execute on each node
+     * @param needed
+     *            number of matching nodes after which the remaining evaluations are abandoned
      * @return nodes matched to all scripts
      */
-    private List<Node> runScripts(List<RMNode> candidates, Criteria criteria) {
-        List<Node> matched = new LinkedList<>();
-
+    private List<Node> runScripts(List<RMNode> candidates, Criteria criteria, int needed) {
         if (candidates.size() == 0) {
-            return matched;
+            return new LinkedList<>();
         }
 
+        // matched nodes are kept in the order given by the selection policy
+        SortedMap<Integer, Node> matched = new TreeMap<>();
+
+        long selectionStart = System.currentTimeMillis();
+        BlockingQueue<NodeEvaluation> completed = new LinkedBlockingQueue<>();
+
         // creating script executors object to be run in dedicated thread pool
-        List<Callable<Node>> scriptExecutors = new LinkedList<>();
+        Set<NodeEvaluation> pending = new LinkedHashSet<>();
+        // the cleanup must not drop a reservation made by a concurrent selection
+        // between the free nodes snapshot and the reservation of the candidates
         synchronized (inProgress) {
             cleanupInProgressNodeList();
-            if (inProgress.size() > 0) {
+            if (!inProgress.isEmpty()) {
                 logger.info(inProgress.size() + " nodes are in process of script execution");
-                logger.info("Nodes already executing scripts: " + inProgress);
+                if (logger.isDebugEnabled()) {
+                    logger.debug("Nodes already executing scripts: " + inProgress);
+                }
             }
             for (RMNode node : candidates) {
-                if (!inProgress.contains(node.getNodeURL())) {
-                    inProgress.add(node.getNodeURL());
-                    scriptExecutors.add(new ScriptExecutor(node, criteria, this));
+                // nodes already reserved by another selection are skipped
+                if (inProgress.add(node.getNodeURL())) {
+                    pending.add(new NodeEvaluation(pending.size(),
+                                                   node,
+                                                   new ScriptExecutor(node, criteria, this),
+                                                   completed));
                 }
             }
         }
 
-        try {
-            // launching
-            Collection<Future<Node>> matchedNodes = scriptExecutorThreadPool.invokeAll(scriptExecutors);
+        // launching
+        for (NodeEvaluation evaluation : pending) {
+            scriptExecutorThreadPool.execute(evaluation);
+        }
 
+        long nodeTimeout = PAResourceManagerProperties.RM_SELECT_NODE_TIMEOUT.getValueAsLong();
+        int timedOut = 0;
+        try {
             // waiting for the results
-            for (Future<Node> futureNode : matchedNodes) {
-                Node node;
-                try {
-                    node = futureNode.get();
+            while (!pending.isEmpty() && matched.size() < needed) {
+                NodeEvaluation evaluation = completed.poll(timeBeforeNextExpiration(pending, nodeTimeout),
+                                                           TimeUnit.MILLISECONDS);
+                if (evaluation != null && pending.remove(evaluation)) {
+                    Node node = evaluation.getMatchedNode();
                     if (node != null) {
-                        matched.add(node);
+                        matched.put(evaluation.index, node);
                     }
-                } catch (InterruptedException e) {
-                    logger.warn("Interrupting the selection manager");
-                    return matched;
-                } catch (ExecutionException e) {
-                    logger.warn("Ignoring exception in selection script: " + e.getMessage());
                 }
-
+                timedOut += removeExpiredEvaluations(pending, nodeTimeout);
             }
-        } catch (InterruptedException e1) {
+        } catch (InterruptedException e) {
             logger.warn("Interrupting the selection manager");
         }
 
-        return matched;
+        int cancelled = 0;
+        for (NodeEvaluation evaluation : pending) {
+            if (evaluation.cancelIfNotStarted()) {
+                cancelled++;
+            }
+        }
+
+        selectionMetrics.recordSelection(System.currentTimeMillis() - selectionStart, timedOut, cancelled);
+        if (logger.isDebugEnabled()) {
+            logger.debug(matched.size() + " nodes matched out of " + candidates.size() + " candidates, " + timedOut +
+                         " timed out, " + cancelled + " cancelled, " + selectionMetrics);
+        }
+
+        return new LinkedList<>(matched.values());
     }
 
+    private static long timeBeforeNextExpiration(Set<NodeEvaluation> pending, long nodeTimeout) {
+        long now = System.currentTimeMillis();
+        // evaluations waiting for a thread have no deadline yet, check them again regularly
+        long wait = Math.min(nodeTimeout, 1000);
+        for (NodeEvaluation evaluation : pending) {
+            if (evaluation.startTime > 0) {
+                wait = Math.min(wait, evaluation.startTime + nodeTimeout - now);
+            }
+        }
+        return Math.max(wait, 1);
+    }
+
+    private static int removeExpiredEvaluations(Set<NodeEvaluation> pending, long nodeTimeout) {
+        long now = System.currentTimeMillis();
+        int expired = 0;
+        Iterator<NodeEvaluation> iterator = pending.iterator();
+        while (iterator.hasNext()) {
+            NodeEvaluation evaluation = iterator.next();
+            if (evaluation.startTime > 0 && now - evaluation.startTime >= nodeTimeout && !evaluation.isDone()) {
+                logger.warn("Selection scripts on " + evaluation.node.getNodeURL() + " did not answer in " +
+                            nodeTimeout + " ms, the node is not selected");
+                iterator.remove();
+                expired++;
+            }
+        }
+        return expired;
+    }
+
+    /**
+     * @return the timing metrics of selection scripts evaluations
+     */
+    public NodeSelectionMetrics getSelectionMetrics() {
+        return selectionMetrics;
+    }
+
+    /**
+     * Evaluation of the selection scripts on one node, reporting itself to the
+     * completion queue of the selection which submitted it.
+     */
+    private class NodeEvaluation extends FutureTask<Node> {
+
+        private final int index;
+
+        private final RMNode node;
+
+        private final BlockingQueue<NodeEvaluation> completed;
+
+        // set by the first of the executing thread or the cancelling selection
+        private final AtomicBoolean claimed = new AtomicBoolean();
+
+        private volatile long startTime;
+
+        NodeEvaluation(int index, RMNode node, ScriptExecutor executor, BlockingQueue<NodeEvaluation> completed) {
+            super(executor);
+            this.index = index;
+            this.node = node;
+            this.completed = completed;
+        }
+
+        @Override
+        public void run() {
+            if (claimed.compareAndSet(false, true)) {
+                startTime = System.currentTimeMillis();
+                super.run();
+            }
+        }
+
+        @Override
+        protected void done() {
+            if (startTime > 0) {
+                selectionMetrics.recordEvaluation(System.currentTimeMillis() - startTime, isMatched());
+            }
+            completed.add(this);
+        }
+
+        /**
+         * Cancels the evaluation if no thread started it yet.
+         *
+         * @return true if the evaluation was cancelled
+         */
+        boolean cancelIfNotStarted() {
+            if (claimed.compareAndSet(false, true)) {
+                cancel(false);
+                scriptExecutionFinished(node.getNodeURL());
+                return true;
+            }
+            return false;
+        }
+
+        private boolean isMatched() {
+            try {
+                return !isCancelled() && get() != null;
+            } catch (Exception e) {
+                return false;
+            }
+        }
+
+        Node getMatchedNode() {
+            try {
+                return get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (ExecutionException e) {
+                logger.warn("Ignoring exception in selection script: " + e.getMessage());
+            }
+            return null;
+        }
+    }
+
+    // must be called while holding the inProgress monitor
     private void cleanupInProgressNodeList() {
-        List<RMNode> freeNodes = rmcore.getFreeNodes();
-        List<String> freeNodesUrls = freeNodes.stream().map(rmnode -> rmnode.getNodeURL()).collect(Collectors.toList());
-        synchronized (inProgress) {
-            inProgress.removeIf(nodeUrl -> !freeNodesUrls.contains(nodeUrl));
+        if (inProgress.isEmpty()) {
+            return;
         }
+        Set<String> freeNodesUrls = rmcore.getFreeNodes()
+                                          .stream()
+                                          .map(RMNode::getNodeURL)
+                                          .collect(Collectors.toCollection(HashSet::new));
+        inProgress.retainAll(freeNodesUrls);
     }
 
     private boolean isClientNodeUserAllPermission(Client client) {
@@ -699,9 +860,7 @@ public abstract class SelectionManager {
      * url.
      */
     public void scriptExecutionFinished(String nodeUrl) {
-        synchronized (inProgress) {
-            inProgress.remove(nodeUrl);
-        }
+        inProgress.remove(nodeUrl);
     }
 
     /**
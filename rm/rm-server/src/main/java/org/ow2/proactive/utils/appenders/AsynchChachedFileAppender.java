@@ -47,8 +47,8 @@ public class AsynchChachedFileAppender extends AsynchFileAppender {
     public void append(String cacheKey, LoggingEvent event) {
         try {
             isAppending.lock();
-            appenderCache.computeIfAbsent(cacheKey, this::createAppender);
-            queue.put(new ApplicableEvent(cacheKey, event));
+            appenderCache.computeIfAbsent(cacheKey, key -> createAppender(key, false));
+            enqueue(new ApplicableEvent(cacheKey, event));
         } catch (InterruptedException e) {
             LOGGER.warn("Interrupted append on " + cacheKey);
             Thread.currentThread().interrupt();
@@ -81,11 +81,12 @@ public class AsynchChachedFileAppender extends AsynchFileAppender {
         }
 
         @Override
-        protected void apply() {
+        protected RollingFileAppender apply() {
             RollingFileAppender appender = appenderCache.get(key);
             if (appender != null) {
                 appender.append(event);
             }
+            return appender;
         }
 
     }
@@ -26,12 +26,21 @@
 package org.ow2.proactive.utils.appenders;
 
 import static org.ow2.proactive.resourcemanager.core.properties.PAResourceManagerProperties.LOG4J_ASYNC_APPENDER_BUFFER_SIZE;
+import static org.ow2.proactive.resourcemanager.core.properties.PAResourceManagerProperties.LOG4J_ASYNC_APPENDER_DROP_WHEN_FULL;
 import static org.ow2.proactive.resourcemanager.core.properties.PAResourceManagerProperties.LOG4J_ASYNC_APPENDER_FLUSH_TIMOUT;
+import static org.ow2.proactive.resourcemanager.core.properties.PAResourceManagerProperties.LOG4J_ASYNC_APPENDER_MAX_OPEN_FILES;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 
 import org.apache.log4j.*;
@@ -43,10 +52,21 @@ import com.google.common.cache.RemovalListener;
 import com.google.common.cache.RemovalNotification;
 
 
+/**
+ * Asynchronous appender writing events to one file per key (job or task).
+ *
+ * Events are queued by the logging threads and written by a single thread. This thread drains
+ * the queue by batches, buffers the events of a batch per file and flushes each file once per batch.
+ * A bounded number of files is kept open, the least recently used ones are closed first.
+ */
 public class AsynchFileAppender extends FileAppender implements RemovalListener<String, RollingFileAppender> {
 
     private static final Logger LOGGER = Logger.getLogger(AsynchFileAppender.class);
 
+    private static final int MAX_BATCH_SIZE = 1000;
+
+    private static final long POLL_TIMEOUT_MS = 100;
+
     final BlockingQueue<ApplicableEvent> queue = new ArrayBlockingQueue<>(LOG4J_ASYNC_APPENDER_BUFFER_SIZE.getValueAsInt(),
                                                                           true);
 
@@ -58,10 +78,29 @@ public class AsynchFileAppender extends FileAppender implements RemovalListener<
 
     private Cache<String, RollingFileAppender> appenderCache;
 
+    private final boolean dropWhenFull = LOG4J_ASYNC_APPENDER_DROP_WHEN_FULL.getValueAsBoolean();
+
+    /** number of events queued or being written for each key, used to wait until a key is flushed */
+    private final ConcurrentHashMap<String, Integer> pendingEvents = new ConcurrentHashMap<>();
+
+    private final AtomicLong writtenEvents = new AtomicLong();
+
+    private final AtomicLong droppedEvents = new AtomicLong();
+
+    private final AtomicLong blockedAppends = new AtomicLong();
+
+    private final AtomicLong writtenBatches = new AtomicLong();
+
+    private final AtomicLong writeTimeNanos = new AtomicLong();
+
     public AsynchFileAppender() {
         super();
 
-        appenderCache = CacheBuilder.newBuilder().expireAfterAccess(5, TimeUnit.MINUTES).removalListener(this).build();
+        appenderCache = CacheBuilder.newBuilder()
+                                    .maximumSize(LOG4J_ASYNC_APPENDER_MAX_OPEN_FILES.getValueAsInt())
+                                    .expireAfterAccess(5, TimeUnit.MINUTES)
+                                    .removalListener(this)
+                                    .build();
 
         Thread logEventsProcessor = new Thread(this::logEventProcessor, "logEventsProcessor");
         logEventsProcessor.setDaemon(true);
@@ -72,7 +111,7 @@ public class AsynchFileAppender extends FileAppender implements RemovalListener<
     public void append(String cacheKey, LoggingEvent event) {
         try {
             isAppending.lock();
-            queue.put(new ApplicableEvent(cacheKey, event));
+            enqueue(new ApplicableEvent(cacheKey, event));
         } catch (InterruptedException e) {
             LOGGER.warn("Interrupted append on " + cacheKey);
             Thread.currentThread().interrupt();
@@ -81,6 +120,30 @@ public class AsynchFileAppender extends FileAppender implements RemovalListener<
         }
     }
 
+    /**
+     * Adds the event to the queue, blocks if the queue is full unless events must be dropped in this case
+     */
+    protected void enqueue(ApplicableEvent applicableEvent) throws InterruptedException {
+        pendingEvents.merge(applicableEvent.getKey(), 1, Integer::sum);
+        boolean queued = false;
+        try {
+            queued = queue.offer(applicableEvent);
+            if (!queued) {
+                if (dropWhenFull) {
+                    droppedEvents.incrementAndGet();
+                } else {
+                    blockedAppends.incrementAndGet();
+                    queue.put(applicableEvent);
+                    queued = true;
+                }
+            }
+        } finally {
+            if (!queued) {
+                eventDone(applicableEvent.getKey());
+            }
+        }
+    }
+
     @Override
     public void close() {
         try {
@@ -116,32 +179,107 @@ public class AsynchFileAppender extends FileAppender implements RemovalListener<
     }
 
     private boolean queueHasEventByKey(String key) {
-        return queue.stream().anyMatch(event -> event.getKey().equals(key));
+        return pendingEvents.containsKey(key);
+    }
+
+    private void eventDone(String key) {
+        pendingEvents.computeIfPresent(key, (k, pending) -> pending > 1 ? pending - 1 : null);
     }
 
     private void logEventProcessor() {
-        while (Thread.currentThread().isAlive()) {
+        List<ApplicableEvent> batch = new ArrayList<>(MAX_BATCH_SIZE);
+        while (!Thread.currentThread().isInterrupted()) {
             try {
-                ApplicableEvent queuedEvent = queue.peek();
-                if (queuedEvent != null) {
-                    queuedEvent.apply();
-                    queue.take();
-                } else {
-                    // Workaround to avoid CPU overhead
-                    Thread.sleep(10);
+                ApplicableEvent first = queue.poll(POLL_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+                if (first != null) {
+                    batch.add(first);
+                    queue.drainTo(batch, MAX_BATCH_SIZE - 1);
+                    writeBatch(batch);
                 }
             } catch (InterruptedException e) {
                 Thread.currentThread().interrupt();
+            } catch (Exception e) {
+                LOGGER.error("Error while writing log events", e);
+            } finally {
+                for (ApplicableEvent applicableEvent : batch) {
+                    eventDone(applicableEvent.getKey());
+                }
+                batch.clear();
             }
         }
     }
 
+    private void writeBatch(List<ApplicableEvent> batch) {
+        long start = System.nanoTime();
+        Set<RollingFileAppender> toFlush = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (ApplicableEvent applicableEvent : batch) {
+            RollingFileAppender appender = applicableEvent.apply();
+            if (appender != null) {
+                toFlush.add(appender);
+                writtenEvents.incrementAndGet();
+            } else if (applicableEvent.getEvent() != null) {
+                droppedEvents.incrementAndGet();
+            }
+        }
+        for (RollingFileAppender appender : toFlush) {
+            if (appender instanceof BufferedRollingFileAppender) {
+                ((BufferedRollingFileAppender) appender).flushBuffer();
+            }
+        }
+        writtenBatches.incrementAndGet();
+        writeTimeNanos.addAndGet(System.nanoTime() - start);
+    }
+
     @Override
     public void onRemoval(RemovalNotification<String, RollingFileAppender> notification) {
         RollingFileAppender appender = notification.getValue();
         appender.close();
     }
 
+    /**
+     * @return the number of events waiting to be written
+     */
+    public int getQueueSize() {
+        return queue.size();
+    }
+
+    /**
+     * @return the number of events written since the appender creation
+     */
+    public long getWrittenEvents() {
+        return writtenEvents.get();
+    }
+
+    /**
+     * @return the number of events which were not written, because the queue was full or the log file
+     *         could not be opened
+     */
+    public long getDroppedEvents() {
+        return droppedEvents.get();
+    }
+
+    /**
+     * @return the number of appends which had to wait for free space in the queue
+     */
+    public long getBlockedAppends() {
+        return blockedAppends.get();
+    }
+
+    /**
+     * @return the average time spent writing and flushing a batch of events, in microseconds
+     */
+    public long getAverageBatchWriteTimeMicros() {
+        long batches = writtenBatches.get();
+        return batches == 0 ? 0 : TimeUnit.NANOSECONDS.toMicros(writeTimeNanos.get() / batches);
+    }
+
+    /**
+     * @return the number of log files currently open
+     */
+    public long getOpenFilesCount() {
+        return appenderCache.size();
+    }
+
     class ApplicableEvent {
 
         protected String key;
@@ -153,17 +291,24 @@ public class AsynchFileAppender extends FileAppender implements RemovalListener<
             this.event = event;
         }
 
-        protected void apply() {
+        /**
+         * Writes the event to the file of its key, without flushing it
+         *
+         * @return the appender which received the event, or null if the event was not written
+         */
+        protected RollingFileAppender apply() {
             RollingFileAppender appender = appenderCache.getIfPresent(key);
             if (appender == null) {
-                appender = createAppender(key);
+                appender = createAppender(key, false);
                 if (appender != null) {
                     appenderCache.put(key, appender);
                 }
             }
             if (appender != null && event != null) {
                 appender.append(event);
+                return appender;
             }
+            return null;
         }
 
         public String getKey() {
@@ -0,0 +1,52 @@
+/*
+ * ProActive Parallel Suite(TM):
+ * The Open Source library for parallel and distributed
+ * Workflows & Scheduling, Orchestration, Cloud Automation
+ * and Big Data Analysis on Enterprise Grids & Clouds.
+ *
+ * Copyright (c) 2007 - 2017 ActiveEon
+ * Contact: contact@activeeon.com
+ *
+ * This library is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation: version 3 of
+ * the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ */
+package org.ow2.proactive.utils.appenders;
+
+import java.io.IOException;
+
+import org.apache.log4j.Layout;
+import org.apache.log4j.RollingFileAppender;
+
+
+/**
+ * A rolling file appender which can be flushed explicitly, so that several events can be
+ * written with a single flush when immediate flush is disabled.
+ */
+class BufferedRollingFileAppender extends RollingFileAppender {
+
+    BufferedRollingFileAppender(Layout layout, String filename, boolean append) throws IOException {
+        super(layout, filename, append);
+    }
+
+    /**
+     * Writes the buffered events to the file
+     */
+    void flushBuffer() {
+        if (qw != null) {
+            qw.flush();
+        }
+    }
+}
@@ -65,7 +65,15 @@ public abstract class FileAppender extends WriterAppender {
     abstract public void append(String cacheKey, LoggingEvent event);
 
     RollingFileAppender createAppender(String cacheKey) {
-        RollingFileAppender appender;
+        return createAppender(cacheKey, true);
+    }
+
+    /**
+     * @param immediateFlush when false, the events are buffered until
+     *                       {@link BufferedRollingFileAppender#flushBuffer()} is called
+     */
+    BufferedRollingFileAppender createAppender(String cacheKey, boolean immediateFlush) {
+        BufferedRollingFileAppender appender;
         String fileName = cacheKey;
         if (filesLocation != null) {
             fileName = filesLocation + File.separator + fileName;
@@ -74,9 +82,9 @@ public abstract class FileAppender extends WriterAppender {
             File file = new File(fileName);
             FileUtils.forceMkdirParent(file);
 
-            appender = new RollingFileAppender(getLayout(), fileName, true);
+            appender = new BufferedRollingFileAppender(getLayout(), fileName, true);
             appender.setMaxBackupIndex(1);
-            appender.setImmediateFlush(true);
+            appender.setImmediateFlush(immediateFlush);
             if (maxFileSize != null) {
                 appender.setMaxFileSize(maxFileSize);
             }
@@ -27,14 +27,18 @@ package org.ow2.proactive.resourcemanager.nodesource.infrastructure;
 
 import static org.hamcrest.CoreMatchers.is;
 import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
 
 import java.net.InetAddress;
 import java.util.Arrays;
 import java.util.List;
 import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
 
 import org.junit.Before;
 import org.junit.Test;
@@ -83,6 +87,44 @@ public class HostsFileBasedInfrastructureManagerTest {
         assertThat(retryCounter, is(retries + 1));
     }
 
+    @Test
+    public void testWaitTimeBeforeRetryGrowsExponentially() {
+        hostsFileBasedInfrastructureManager.waitBetweenDeploymentFailures = 1000;
+
+        assertThat(hostsFileBasedInfrastructureManager.getWaitTimeBeforeRetry(0), is(1000L));
+        assertThat(hostsFileBasedInfrastructureManager.getWaitTimeBeforeRetry(1), is(2000L));
+        assertThat(hostsFileBasedInfrastructureManager.getWaitTimeBeforeRetry(3), is(8000L));
+        assertThat(hostsFileBasedInfrastructureManager.getWaitTimeBeforeRetry(100),
+                   is(HostsFileBasedInfrastructureManager.MAX_WAIT_TIME_BETWEEN_NODE_DEPLOYMENT_FAILURES));
+    }
+
+    @Test
+    public void testDeployNodesDoesNotHoldThreadsBetweenRetries() throws Exception {
+        hostsFileBasedInfrastructureManager.waitBetweenDeploymentFailures = 0;
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            int retries = 2;
+            HostTracker hostTracker = new HostTracker("localhost", 1, InetAddress.getLocalHost());
+            CompletableFuture<Void> deployment = hostsFileBasedInfrastructureManager.deployNodes(hostTracker,
+                                                                                                 1,
+                                                                                                 retries,
+                                                                                                 executor);
+            try {
+                deployment.get(10, TimeUnit.SECONDS);
+                fail("The deployment should fail");
+            } catch (ExecutionException e) {
+                assertThat(e.getCause() instanceof RMException, is(true));
+            }
+
+            assertThat(retryCounter, is(retries + 1));
+            HostDeployment hostDeployment = hostsFileBasedInfrastructureManager.getHostDeployments().get("localhost");
+            assertThat(hostDeployment.getStatus(), is(HostDeployment.Status.FAILED));
+            assertThat(hostDeployment.getFailedAttempts(), is(retries + 1));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
     private HostsFileBasedInfrastructureManager createTestClass() {
 
         return new HostsFileBasedInfrastructureManager() {
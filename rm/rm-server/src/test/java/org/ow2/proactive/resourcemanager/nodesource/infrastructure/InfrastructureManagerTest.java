@@ -28,6 +28,8 @@ package org.ow2.proactive.resourcemanager.nodesource.infrastructure;
 import static com.google.common.truth.Truth.assertThat;
 import static functionaltests.nodesrecovery.RecoverInfrastructureTestHelper.NODES_RECOVERABLE;
 import static org.mockito.Matchers.*;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.spy;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -35,12 +37,19 @@ import static org.mockito.internal.verification.VerificationModeFactory.times;
 
 import java.io.Serializable;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
+import org.apache.commons.lang3.SerializationUtils;
 import org.junit.Before;
 import org.junit.Test;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 import org.objectweb.proactive.core.node.Node;
+import org.objectweb.proactive.core.node.NodeInformation;
 import org.ow2.proactive.resourcemanager.authentication.Client;
 import org.ow2.proactive.resourcemanager.db.NodeSourceData;
 import org.ow2.proactive.resourcemanager.db.RMDBManager;
@@ -77,6 +86,9 @@ public class InfrastructureManagerTest {
     @Mock
     private InfrastructureManager infrastructureManagerMock;
 
+    @Mock
+    private Client administrator;
+
     @Before
     public void setUp() {
         MockitoAnnotations.initMocks(this);
@@ -85,6 +97,8 @@ public class InfrastructureManagerTest {
         infrastructureManager.setRmDbManager(dbManager);
         infrastructureManager.setNodeSource(nodeSource);
         when(nodeSource.getName()).thenReturn("NodeSource#1");
+        when(nodeSource.getStub()).thenReturn(nodeSource);
+        when(nodeSource.getAdministrator()).thenReturn(administrator);
         when(nodeSource.nodesRecoverable()).thenReturn(NODES_RECOVERABLE);
         when(dbManager.getNodeSource(anyString())).thenReturn(nodeSourceData);
     }
@@ -267,6 +281,28 @@ public class InfrastructureManagerTest {
         verify(dbManager, times(1)).updateNodeSource(eq(nodeSourceData));
     }
 
+    @Test
+    public void testPersistedInfrastructureVariablesAreACopy() {
+        infrastructureManager.setPersistedNodeSourceData(nodeSourceData);
+        RMDeployingNode deployingNode = new RMDeployingNode("deploying", nodeSource, "command", null);
+        infrastructureManager.addDeployingNodeWithLockAndPersist(deployingNode.getNodeURL(), deployingNode);
+        infrastructureManager.persistInfrastructureVariables();
+
+        ArgumentCaptor<Map> persistedVariables = ArgumentCaptor.forClass(Map.class);
+        verify(nodeSourceData, atLeastOnce()).setInfrastructureVariables(persistedVariables.capture());
+        Map<String, Serializable> lastPersistedVariables = persistedVariables.getValue();
+        assertThat(lastPersistedVariables).isNotSameAs(infrastructureManager.persistedInfraVariables);
+
+        // modifying the runtime variables does not modify what is being persisted
+        infrastructureManager.getPersistedDeployingNodesUrl().clear();
+        Map<String, Serializable> storedVariables = SerializationUtils.clone(new HashMap<>(lastPersistedVariables));
+        assertThat(storedVariables.values()).contains(Collections.singleton(deployingNode.getNodeURL()));
+
+        // the stored variables are recovered as they were
+        infrastructureManager.recoverPersistedInfraVariables(lastPersistedVariables);
+        assertThat(infrastructureManager.getPersistedDeployingNodesUrl()).containsExactly(deployingNode.getNodeURL());
+    }
+
     @Test
     public void testDoNotPersistInfrastructureVariablesWhenCannotFindNodeSource() {
         when(dbManager.getNodeSource(anyString())).thenReturn(null);
@@ -301,6 +337,45 @@ public class InfrastructureManagerTest {
         assertThat(infrastructureManager.dynamicNumberTest).isEqualTo(UPDATED_DYNAMIC_PARAMETER_VALUE);
     }
 
+    @Test
+    public void testNodeRegistrationCompletedWhenNodeRegisters() throws RMException {
+        infrastructureManager.addDeployingNode("registering", "command", "description", 60000);
+        CompletableFuture<Boolean> registration = infrastructureManager.getNodeRegistration("registering");
+        assertThat(registration.isDone()).isFalse();
+
+        infrastructureManager.internalRegisterAcquiredNode(createNode("registering"));
+
+        assertThat(registration.getNow(null)).isTrue();
+        assertThat(infrastructureManager.getNodeRegistration("registering").getNow(null)).isTrue();
+    }
+
+    @Test
+    public void testNodeRegistrationCompletedWhenDeployingNodeIsLost() {
+        String deployingNodeUrl = infrastructureManager.addDeployingNode("lost", "command", "description", 60000);
+        CompletableFuture<Boolean> registration = infrastructureManager.getNodeRegistration("lost");
+        assertThat(registration.isDone()).isFalse();
+
+        infrastructureManager.declareDeployingNodeLost(deployingNodeUrl, "timeout");
+
+        assertThat(registration.getNow(null)).isFalse();
+        assertThat(infrastructureManager.getNodeRegistration("lost").getNow(null)).isFalse();
+    }
+
+    @Test
+    public void testNodeRegistrationOfUnknownNodeIsCompleted() throws InterruptedException {
+        assertThat(infrastructureManager.getNodeRegistration("unknown").getNow(null)).isFalse();
+        assertThat(infrastructureManager.waitForNodeRegistration("unknown", 10)).isFalse();
+    }
+
+    private Node createNode(String nodeName) {
+        Node node = mock(Node.class);
+        NodeInformation nodeInformation = mock(NodeInformation.class);
+        when(node.getNodeInformation()).thenReturn(nodeInformation);
+        when(nodeInformation.getName()).thenReturn(nodeName);
+        when(nodeInformation.getURL()).thenReturn("pnp://localhost/" + nodeName);
+        return node;
+    }
+
     public static class TestingInfrastructureManager extends InfrastructureManager {
 
         @Configurable(description = "dynamic field", dynamic = true)
@@ -27,6 +27,8 @@ package org.ow2.proactive.resourcemanager.selection;
 
 import static java.util.Collections.singleton;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
 import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.anyString;
 import static org.mockito.Mockito.mock;
@@ -39,6 +41,11 @@ import java.security.Permission;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 import javax.security.auth.Subject;
 
@@ -162,6 +169,74 @@ public class SelectionManagerTest {
 
     }
 
+    @Test
+    public void testSelectionDoesNotWaitForSlowNodes() throws Exception {
+        RMCore rmCore = newMockedRMCore(3);
+        List<RMNode> nodes = rmCore.getFreeNodes(null);
+        CountDownLatch slowNodeRelease = new CountDownLatch(1);
+        when(nodes.get(0).executeScript(any(), any())).thenAnswer(invocation -> {
+            slowNodeRelease.await(30, TimeUnit.SECONDS);
+            return new ScriptResult<>(true);
+        });
+        when(nodes.get(1).executeScript(any(), any())).thenReturn(new ScriptResult<>(true));
+        when(nodes.get(2).executeScript(any(), any())).thenReturn(new ScriptResult<>(true));
+
+        SelectionManager selectionManager = createSelectionManager(rmCore, true);
+        Criteria crit = new Criteria(2);
+        crit.setTopology(TopologyDescriptor.ARBITRARY);
+        crit.setScripts(Lists.newArrayList(new SelectionScript("true", "js")));
+        crit.setBestEffort(false);
+
+        try {
+            long start = System.currentTimeMillis();
+            NodeSet nodeSet = selectionManager.selectNodes(crit, mock(Client.class));
+
+            // the slow node is not waited for, the nodes answering first are selected
+            assertEquals(2, nodeSet.size());
+            assertFalse(nodeSet.contains(nodes.get(0).getNode()));
+            assertTrue(System.currentTimeMillis() - start < 20000);
+            assertEquals(2, selectionManager.getSelectionMetrics().getMatched());
+        } finally {
+            slowNodeRelease.countDown();
+        }
+    }
+
+    @Test
+    public void testConcurrentSelectionsDoNotShareANode() throws Exception {
+        RMCore rmCore = newMockedRMCore(1);
+        List<RMNode> nodes = rmCore.getFreeNodes(null);
+        when(rmCore.getFreeNodes()).thenReturn(nodes);
+        CountDownLatch firstSelectionStarted = new CountDownLatch(1);
+        CountDownLatch secondSelectionDone = new CountDownLatch(1);
+        when(nodes.get(0).executeScript(any(), any())).thenAnswer(invocation -> {
+            firstSelectionStarted.countDown();
+            secondSelectionDone.await(30, TimeUnit.SECONDS);
+            return new ScriptResult<>(true);
+        });
+
+        SelectionManager selectionManager = createSelectionManager(rmCore, true);
+        Criteria crit = new Criteria(1);
+        crit.setTopology(TopologyDescriptor.ARBITRARY);
+        crit.setScripts(Lists.newArrayList(new SelectionScript("true", "js")));
+        crit.setBestEffort(true);
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<NodeSet> first = executor.submit(() -> selectionManager.selectNodes(crit, mock(Client.class)));
+            assertTrue(firstSelectionStarted.await(30, TimeUnit.SECONDS));
+
+            // the node is reserved by the first selection while its script runs
+            NodeSet second = selectionManager.selectNodes(crit, mock(Client.class));
+            secondSelectionDone.countDown();
+
+            assertEquals(0, second.size());
+            assertEquals(1, first.get(30, TimeUnit.SECONDS).size());
+        } finally {
+            secondSelectionDone.countDown();
+            executor.shutdownNow();
+        }
+    }
+
     private SecurityManager securityManagerRejectingUser() {
         return new SecurityManager() {
 
@@ -189,6 +264,10 @@ public class SelectionManagerTest {
     }
 
     public static SelectionManager createSelectionManager(final RMCore rmCore) {
+        return createSelectionManager(rmCore, false);
+    }
+
+    public static SelectionManager createSelectionManager(final RMCore rmCore, final boolean scriptsPass) {
         return new SelectionManager(rmCore) {
             @Override
             public List<RMNode> arrangeNodesForScriptExecution(List<RMNode> nodes, List<SelectionScript> scripts,
@@ -204,7 +283,7 @@ public class SelectionManagerTest {
             @Override
             public boolean processScriptResult(SelectionScript script, Map<String, Serializable> bindings,
                     ScriptResult<Boolean> scriptResult, RMNode rmnode) {
-                return false;
+                return scriptsPass;
             }
         };
     }
@@ -74,6 +74,8 @@ public class JobFilterCriteria implements Serializable {
 
     private final JobStatus status;
 
+    private final Long afterJobId;
+
     public JobFilterCriteria(JobFilterCriteriaBuilder builder) {
         this.myJobsOnly = builder.isMyJobsOnly();
         this.pending = builder.isPending();
@@ -95,6 +97,7 @@ public class JobFilterCriteria implements Serializable {
         this.startAtTimeLessThan = builder.getStartAtTimeLessThan();
         this.status = builder.getStatus();
         this.jobId = builder.getJobId();
+        this.afterJobId = builder.getAfterJobId();
     }
 
     public boolean isMyJobsOnly() {
@@ -176,4 +179,8 @@ public class JobFilterCriteria implements Serializable {
     public JobStatus getStatus() {
         return status;
     }
+
+    public Long getAfterJobId() {
+        return afterJobId;
+    }
 }
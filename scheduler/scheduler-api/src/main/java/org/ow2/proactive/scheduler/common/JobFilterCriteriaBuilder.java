@@ -70,6 +70,8 @@ public class JobFilterCriteriaBuilder {
 
     private Long jobId;
 
+    private Long afterJobId;
+
     public JobFilterCriteriaBuilder() {
     }
 
@@ -153,6 +155,10 @@ public class JobFilterCriteriaBuilder {
         return status;
     }
 
+    public Long getAfterJobId() {
+        return afterJobId;
+    }
+
     public JobFilterCriteriaBuilder myJobsOnly(boolean myJobsOnly) {
         this.myJobsOnly = myJobsOnly;
         return this;
@@ -253,6 +259,18 @@ public class JobFilterCriteriaBuilder {
         return this;
     }
 
+    /**
+     * Starts the page right after the given job, in the requested sort order. When set, the offset is ignored,
+     * which avoids scanning all the preceding jobs when browsing deep pages. The offset is still used when the
+     * jobs are sorted on their start at time, which can be undefined, so it must be given as well.
+     *
+     * @param afterJobId id of the last job of the previous page
+     */
+    public JobFilterCriteriaBuilder afterJobId(Long afterJobId) {
+        this.afterJobId = afterJobId;
+        return this;
+    }
+
     public JobFilterCriteria build() {
         return new JobFilterCriteria(this);
     }
@@ -1540,6 +1540,36 @@ public interface Scheduler extends SchedulerUsage, ThirdPartyCredentials, Servic
     @RoleRead
     String getJobServerLogs(String id) throws UnknownJobException, NotConnectedException, PermissionException;
 
+    /**
+     * Retrieves a part of the server logs of a job, see {@link #getJobServerLogs(String)}.
+     *
+     * Only the part of the log files overlapping the requested window is read
+     * by the scheduler, which allows large job logs to be retrieved page by page.
+     *
+     * The offset and limit are byte offsets in the log files. A character which
+     * is split by the window belongs to the window containing its first byte, so
+     * the consecutive windows of a log can be concatenated.
+     *
+     * @param id
+     *            of the job for which logs are requested
+     * @param offset
+     *            number of bytes of the logs to skip
+     * @param limit
+     *            maximum number of bytes to retrieve, a negative value retrieves
+     *            the logs until the end
+     *
+     * @return the requested part of the job's logs
+     * @throws UnknownJobException
+     *             if the job does not exist.
+     * @throws NotConnectedException
+     *             if you are not authenticated.
+     * @throws PermissionException
+     *             if you have not enough permission to access this method.
+     */
+    @RoleRead
+    String getJobServerLogs(String id, long offset, long limit)
+            throws UnknownJobException, NotConnectedException, PermissionException;
+
     /**
      * Retrieves server logs for a task with the given id. Only the job owner of
      * admin if the scheduler can request these logs.
@@ -1566,6 +1596,36 @@ public interface Scheduler extends SchedulerUsage, ThirdPartyCredentials, Servic
     String getTaskServerLogs(String id, String taskName)
             throws UnknownJobException, UnknownTaskException, NotConnectedException, PermissionException;
 
+    /**
+     * Retrieves a part of the server logs of a task, see {@link #getTaskServerLogs(String, String)}.
+     *
+     * The offset and limit are byte offsets in the log files, handled as in
+     * {@link #getJobServerLogs(String, long, long)}.
+     *
+     * @param id
+     *            of the job where the task is.
+     * @param taskName
+     *            the name of the task.
+     * @param offset
+     *            number of bytes of the logs to skip
+     * @param limit
+     *            maximum number of bytes to retrieve, a negative value retrieves
+     *            the logs until the end
+     *
+     * @return the requested part of the task's logs
+     * @throws UnknownJobException
+     *             if the job does not exist.
+     * @throws UnknownTaskException
+     *             if this task does not exist in the job.
+     * @throws NotConnectedException
+     *             if you are not authenticated.
+     * @throws PermissionException
+     *             if you have not enough permission to access this method.
+     */
+    @RoleRead
+    String getTaskServerLogs(String id, String taskName, long offset, long limit)
+            throws UnknownJobException, UnknownTaskException, NotConnectedException, PermissionException;
+
     /**
      * Retrieves server logs for a set of tasks filtered by the given tag. Only
      * the job owner of admin if the scheduler can request these logs.
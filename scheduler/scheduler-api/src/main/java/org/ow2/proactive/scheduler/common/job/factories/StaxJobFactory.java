@@ -51,6 +51,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Collectors;
 
 import javax.xml.stream.XMLInputFactory;
@@ -92,6 +93,7 @@ import org.ow2.proactive.scheduler.common.task.flow.FlowActionType;
 import org.ow2.proactive.scheduler.common.task.flow.FlowBlock;
 import org.ow2.proactive.scheduler.common.task.flow.FlowScript;
 import org.ow2.proactive.scheduler.common.util.Object2ByteConverter;
+import org.ow2.proactive.scheduler.common.util.VariableSubstitutor;
 import org.ow2.proactive.scheduler.core.properties.PASchedulerProperties;
 import org.ow2.proactive.scheduler.task.SchedulerVars;
 import org.ow2.proactive.scripting.ForkEnvironmentScript;
@@ -120,12 +122,26 @@ public class StaxJobFactory extends JobFactory {
 
     public static final String MSG_UNABLE_TO_INSTANCIATE_JOB_VALIDATION_FACTORIES = "Unable to instanciate job validation factories";
 
+    // parsed jobs, by workflow content, submitted variables and generic information, and global variables
     private static final Map<String, Job> jobCache = Collections.synchronizedMap(new LRUMap<>(PASchedulerProperties.SCHEDULER_STAX_JOB_CACHE.getValueAsInt()));
 
+    // validation results, by workflow content only as the xml validation does not depend on variables
     private static final Map<String, JobCreationException> validationCache = Collections.synchronizedMap(new LRUMap<>(PASchedulerProperties.SCHEDULER_STAX_JOB_CACHE.getValueAsInt()));
 
     private static final JobCreationException EMPTY_EXCEPTION = new JobCreationException("EMPTY");
 
+    private static final AtomicLong validationCacheHits = new AtomicLong();
+
+    private static final AtomicLong validationCacheMisses = new AtomicLong();
+
+    private static final AtomicLong jobCacheHits = new AtomicLong();
+
+    private static final AtomicLong jobCacheMisses = new AtomicLong();
+
+    private static final AtomicLong validationTime = new AtomicLong();
+
+    private static final AtomicLong parsingTime = new AtomicLong();
+
     private enum ScriptType {
         SELECTION,
         FLOW,
@@ -146,6 +162,15 @@ public class StaxJobFactory extends JobFactory {
 
     private boolean handleGlobalVariables;
 
+    /**
+     * Substitution contexts of the job being created, by variables. The job and each of its tasks replace
+     * the variables of many attributes with the same variables.
+     */
+    private final Map<Map<String, String>, VariableSubstitutor.Context> replacementContexts = new HashMap<>();
+
+    /** System and scheduler variables of the job being created */
+    private Map<String, String> globalReplacements;
+
     // generic info that are (most likely) varying upon each job execution
     private static final String[] VARYING_GENERIC_INFO = { GENERIC_INFO_START_AT_KEY, JOB_DDL, NEXT_EXECUTION,
                                                            PARENT_JOB_ID };
@@ -291,27 +316,32 @@ public class StaxJobFactory extends JobFactory {
         }
         String md5 = md5Job + "_" + md5Variables + "_" + md5GenericInfo + "_" + md5GlobalVariables;
         long t1 = System.currentTimeMillis();
-        if (!validationCache.containsKey(md5)) {
+        JobCreationException validationResult = validationCache.get(md5Job);
+        if (validationResult == null) {
+            validationCacheMisses.incrementAndGet();
             try {
 
                 try (ByteArrayInputStream jobInputStreamForValidation = new ByteArrayInputStream(bytes)) {
                     validate(jobInputStreamForValidation);
                 }
-                validationCache.put(md5, EMPTY_EXCEPTION);
+                validationCache.put(md5Job, EMPTY_EXCEPTION);
             } catch (JobCreationException e) {
-                validationCache.put(md5, e);
+                validationCache.put(md5Job, e);
                 throw e;
+            } finally {
+                validationTime.addAndGet(System.currentTimeMillis() - t1);
             }
         } else {
-            JobCreationException e = validationCache.get(md5);
-            if (e != EMPTY_EXCEPTION) {
-                throw e;
+            validationCacheHits.incrementAndGet();
+            if (validationResult != EMPTY_EXCEPTION) {
+                throw validationResult;
             }
         }
         long t2 = System.currentTimeMillis();
         long t3;
-        Job job;
-        if (!jobCache.containsKey(md5)) {
+        Job job = jobCache.get(md5);
+        if (job == null) {
+            jobCacheMisses.incrementAndGet();
             Map<String, ArrayList<String>> dependencies = new LinkedHashMap<>();
             try (ByteArrayInputStream jobInpoutStreamForParsing = new ByteArrayInputStream(bytes)) {
                 XMLStreamReader xmlsr = xmlInputFactory.createXMLStreamReader(jobInpoutStreamForParsing, FILE_ENCODING);
@@ -323,11 +353,12 @@ public class StaxJobFactory extends JobFactory {
                 xmlsr.close();
             }
             t3 = System.currentTimeMillis();
+            parsingTime.addAndGet(t3 - t2);
 
             makeDependences(job, dependencies);
             jobCache.put(md5, job);
         } else {
-            job = jobCache.get(md5);
+            jobCacheHits.incrementAndGet();
             t3 = System.currentTimeMillis();
         }
         long t4 = System.currentTimeMillis();
@@ -359,6 +390,48 @@ public class StaxJobFactory extends JobFactory {
         return job;
     }
 
+    /**
+     * @return number of submissions which reused the validation of an identical workflow content
+     */
+    public static long getValidationCacheHits() {
+        return validationCacheHits.get();
+    }
+
+    /**
+     * @return number of submissions which validated the workflow content
+     */
+    public static long getValidationCacheMisses() {
+        return validationCacheMisses.get();
+    }
+
+    /**
+     * @return number of submissions which reused an already parsed job
+     */
+    public static long getJobCacheHits() {
+        return jobCacheHits.get();
+    }
+
+    /**
+     * @return number of submissions which parsed the workflow content
+     */
+    public static long getJobCacheMisses() {
+        return jobCacheMisses.get();
+    }
+
+    /**
+     * @return cumulated time in milliseconds spent validating workflow contents
+     */
+    public static long getValidationTime() {
+        return validationTime.get();
+    }
+
+    /**
+     * @return cumulated time in milliseconds spent parsing workflow contents
+     */
+    public static long getParsingTime() {
+        return parsingTime.get();
+    }
+
     private Map<String, String> excludeVaryingGenericInfo(Map<String, String> replacementGenericInfos) {
         if (replacementGenericInfos == null) {
             return new LinkedHashMap<>();
@@ -505,6 +578,8 @@ public class StaxJobFactory extends JobFactory {
             throws JobCreationException {
 
         String current = null;
+        replacementContexts.clear();
+        globalReplacements = null;
         GlobalVariablesData globalVariablesData = getConfiguredGlobalVariablesData(jobContent);
         //start parsing
         try {
@@ -2240,14 +2315,46 @@ public class StaxJobFactory extends JobFactory {
      * Replace the variables inside the given string by its value if needed.<br/>
      * This method looks for ${...} pattern and replace this pattern by the corresponding user variable
      * define in the 'ELEMENT_VARIABLES' tag.
+     * The substitution context is built once for each set of variables of the job being created.
      *
      * @param str the string in which to look for.
      * @param variables a map of variables.
      * @return the string with variables replaced by values.
      * @throws JobCreationException if a Variable has not been found
      */
-    private static String replace(String str, Map<String, String> variables) throws JobCreationException {
+    private String replace(String str, Map<String, String> variables) throws JobCreationException {
+        if (str == null || str.indexOf('$') < 0) {
+            return str;
+        }
+        Map<String, String> key = variables != null ? variables : Collections.<String, String> emptyMap();
+        VariableSubstitutor.Context context = replacementContexts.get(key);
+        if (context == null) {
+            Map<String, String> copiedVariables = new HashMap<>(key);
+            context = VariableSubstitutor.newContext(buildReplacements(copiedVariables));
+            replacementContexts.put(copiedVariables, context);
+        }
+        return context.filterAndUpdate(str);
+    }
+
+    private Map<String, String> buildReplacements(Map<String, String> variables) {
+        if (globalReplacements == null) {
+            globalReplacements = buildGlobalReplacements();
+        }
+        Map<String, String> replacements = new LinkedHashMap<>(globalReplacements);
 
+        // Include given variables if any
+        for (Map.Entry<String, String> variable : variables.entrySet()) {
+            String syspropWithVariableName = System.getProperty(variable.getKey());
+            if (syspropWithVariableName != null) {
+                replacements.put(variable.getKey(), syspropWithVariableName);
+            } else {
+                replacements.put(variable.getKey(), variable.getValue());
+            }
+        }
+        return replacements;
+    }
+
+    private static Map<String, String> buildGlobalReplacements() {
         // Include System Variables
         Map<String, String> replacements = new LinkedHashMap<>();
         for (Map.Entry<Object, Object> o : System.getProperties().entrySet()) {
@@ -2276,19 +2383,7 @@ public class StaxJobFactory extends JobFactory {
                          PASchedulerProperties.JOB_PLANNER_REST_PUBLIC_URL.getValueAsString());
         replacements.put(SchedulerVars.PA_NOTIFICATION_SERVICE_REST_PUBLIC_URL.toString(),
                          PASchedulerProperties.NOTIFICATION_SERVICE_REST_PUBLIC_URL.getValueAsString());
-
-        // Include given variables if any
-        if (variables != null) {
-            for (Map.Entry<String, String> variable : variables.entrySet()) {
-                String syspropWithVariableName = System.getProperty(variable.getKey());
-                if (syspropWithVariableName != null) {
-                    replacements.put(variable.getKey(), syspropWithVariableName);
-                } else {
-                    replacements.put(variable.getKey(), variable.getValue());
-                }
-            }
-        }
-        return filterAndUpdate(str, replacements);
+        return replacements;
     }
 
     /**
@@ -111,16 +111,16 @@ public class DefaultModelJobValidatorServiceProvider implements JobValidatorServ
                 variableReplacement.put(jobVariable.getName(), jobVariable.getValue());
             }
         });
+        VariableSubstitutor.Context substitution = VariableSubstitutor.newContext(variableReplacement);
         variableList.forEach(jobVariable -> {
-            jobVariable.setValue(userValues.containsKey(jobVariable.getName()) ? VariableSubstitutor.filterAndUpdate((String) userValues.get(jobVariable.getName()),
-                                                                                                                     variableReplacement)
-                                                                               : VariableSubstitutor.filterAndUpdate(jobVariable.getValue(),
-                                                                                                                     variableReplacement));
+            String name = jobVariable.getName();
+            String value = userValues.containsKey(name) ? (String) userValues.get(name) : jobVariable.getValue();
+            jobVariable.setValue(substitution.filterAndUpdate(value));
             updatedVariables.put(jobVariable.getName(), jobVariable.getValue());
         });
 
         variableList.forEach(jobVariable -> {
-            jobVariable.setModel(VariableSubstitutor.filterAndUpdate(jobVariable.getModel(), variableReplacement));
+            jobVariable.setModel(substitution.filterAndUpdate(jobVariable.getModel()));
             updatedModels.put(jobVariable.getName(), jobVariable.getModel());
         });
         ModelValidatorContext context = new ModelValidatorContext(updatedVariables,
@@ -60,6 +60,64 @@ public class VariableSubstitutor {
 
     private static final char UND = '_';
 
+    // match the beginning of a variable, can either be $ or ${
+    private static final StrMatcher VARIABLE_PREFIX_MATCHER = new StrMatcher() {
+        @Override
+        public int isMatch(char[] buffer, int pos, int bufferStart, int bufferEnd) {
+            if (pos + 1 >= bufferEnd) {
+                return -1;
+            }
+            char firstChar = buffer[pos];
+            char secondChar = buffer[pos + 1];
+            if (firstChar == DOLLAR) {
+                if (secondChar == LCB) {
+                    // dollar with a {
+                    return 2;
+                }
+                // dollar and the beginning of a NCName
+                if (Character.isLetterOrDigit(secondChar)) {
+                    return 1;
+                }
+                switch (secondChar) {
+                    case DASH:
+                    case DOT:
+                    case UND:
+                        return 1;
+                }
+            }
+            // no match
+            return -1;
+        }
+    };
+
+    // match the end of a variable, can be an explicit }, the end of a NCName or the buffer end
+    private static final StrMatcher VARIABLE_SUFFIX_MATCHER = new StrMatcher() {
+        @Override
+        public int isMatch(char[] buffer, int pos, int bufferStart, int bufferEnd) {
+            // end of the buffer is the end of a variable
+            if (pos == bufferEnd) {
+                return 0;
+            }
+            char aChar = buffer[pos];
+            // any character part of a NCName is not an end
+            if (Character.isLetterOrDigit(aChar)) {
+                return -1;
+            }
+            switch (aChar) {
+                case DASH:
+                case DOT:
+                case UND:
+                    return -1;
+            }
+            // an explicit }
+            if (aChar == RCB) {
+                return 1;
+            }
+            // anything else is the end of a variable
+            return 0;
+        }
+    };
+
     // non-instantiable
     private VariableSubstitutor() {
     }
@@ -73,13 +131,7 @@ public class VariableSubstitutor {
     public static Map<String, String> filterAndUpdate(Map<String, String> input,
             Map<String, ? extends Serializable> variables) {
 
-        Map<String, String> result = new HashMap<>(variables.size());
-
-        for (Map.Entry<String, String> entry : input.entrySet()) {
-            result.put(entry.getKey(), filterAndUpdate(entry.getValue(), variables));
-        }
-
-        return result;
+        return newContext(variables).filterAndUpdate(input);
     }
 
     /**
@@ -99,12 +151,12 @@ public class VariableSubstitutor {
     public static Map<String, Serializable> resolveVariables(Map<String, Serializable> variables,
             Map<String, Serializable> dictionary) {
 
-        StrSubstitutor substitutor = buildSubstitutor(dictionary);
+        Context context = newContext(dictionary);
 
         Map<String, Serializable> resolvedVariables = new HashMap<>();
         for (Map.Entry<String, Serializable> entry : variables.entrySet()) {
             if (entry.getValue() instanceof String) {
-                resolvedVariables.put(entry.getKey(), substitutor.replace((String) entry.getValue()));
+                resolvedVariables.put(entry.getKey(), context.filterAndUpdate((String) entry.getValue()));
             } else {
                 resolvedVariables.put(entry.getKey(), entry.getValue());
             }
@@ -122,26 +174,29 @@ public class VariableSubstitutor {
      * @see VariableSubstitutor#filterAndUpdate(String, Map)
      */
     public static String filterAndUpdate(String input, Map<? extends Serializable, ? extends Serializable> variables) {
-        if (input == null || input.isEmpty()) {
+        if (!containsVariable(input)) {
             return input;
         }
 
-        String output = input;
-        StrSubstitutor substitutor = buildSubstitutor(variables);
-        output = replaceRecursively(output, substitutor);
-
-        return output;
+        return buildSubstitutor(variables).replace(input);
     }
 
     /**
-     * Replace the given string with a list of substitutions recursively. Recursion will be limited to MAXIMUM_DEPTH.
+     * Creates a substitution context for the given variables, to filter several strings or scripts
+     * without building the variable replacements each time.
      *
-     * @param value       string used to apply replacement
-     * @param substitutor substitution handler
-     * @return a new string where all replacements were performed
+     * @param variables a map which contains variable values
+     * @return the substitution context
+     */
+    public static Context newContext(Map<? extends Serializable, ? extends Serializable> variables) {
+        return new Context(variables);
+    }
+
+    /**
+     * A string without any $ cannot reference a variable
      */
-    private static String replaceRecursively(final String value, StrSubstitutor substitutor) {
-        return substitutor.replace(value);
+    private static boolean containsVariable(String input) {
+        return input != null && input.indexOf(DOLLAR) >= 0;
     }
 
     /**
@@ -154,15 +209,7 @@ public class VariableSubstitutor {
      */
     public static void filterAndUpdate(Script<?> script,
             Map<? extends Serializable, ? extends Serializable> variables) {
-        script.setScript(filterAndUpdate(script.getScript(), variables));
-        Serializable[] params = script.getParameters();
-        if (params != null) {
-            for (int i = 0; i < params.length; i++) {
-                if (params[i] != null) {
-                    params[i] = filterAndUpdate(params[i].toString(), variables);
-                }
-            }
-        }
+        newContext(variables).filterAndUpdate(script);
     }
 
     public static StrSubstitutor buildSubstitutor(Map<? extends Serializable, ? extends Serializable> variables) {
@@ -182,67 +229,82 @@ public class VariableSubstitutor {
         }
 
         StrSubstitutor substitutor = new StrSubstitutor(replacements, SUBSITUTE_PREFIX, SUBSTITUTE_SUFFIX, (char) 0);
+        substitutor.setVariablePrefixMatcher(VARIABLE_PREFIX_MATCHER);
+        substitutor.setVariableSuffixMatcher(VARIABLE_SUFFIX_MATCHER);
+        substitutor.setEnableSubstitutionInVariables(true);
 
-        // match the beginning of a variable, can either be $ or ${
-        substitutor.setVariablePrefixMatcher(new StrMatcher() {
-            @Override
-            public int isMatch(char[] buffer, int pos, int bufferStart, int bufferEnd) {
-                if (pos + 1 >= bufferEnd) {
-                    return -1;
-                }
-                char firstChar = buffer[pos];
-                char secondChar = buffer[pos + 1];
-                if (firstChar == DOLLAR) {
-                    if (secondChar == LCB) {
-                        // dollar with a {
-                        return 2;
-                    }
-                    // dollar and the beginning of a NCName
-                    if (Character.isLetterOrDigit(secondChar)) {
-                        return 1;
-                    }
-                    switch (secondChar) {
-                        case DASH:
-                        case DOT:
-                        case UND:
-                            return 1;
-                    }
-                }
-                // no match
-                return -1;
+        return substitutor;
+    }
+
+    /**
+     * Substitution of a fixed set of variables in several strings or scripts.
+     * <p>
+     * The variable replacements are built once, on the first string which may reference a variable, and
+     * the result of each filtered string is kept, so that strings repeated across tasks or scripts are
+     * only substituted once. A context is meant for a single variable scope and is not thread-safe.
+     */
+    public static final class Context {
+
+        private final Map<? extends Serializable, ? extends Serializable> variables;
+
+        private StrSubstitutor substitutor;
+
+        private final Map<String, String> filtered = new HashMap<>();
+
+        private Context(Map<? extends Serializable, ? extends Serializable> variables) {
+            this.variables = variables;
+        }
+
+        /**
+         * @param input the string which need to be filtered
+         * @return the filtered string
+         * @see VariableSubstitutor#filterAndUpdate(String, Map)
+         */
+        public String filterAndUpdate(String input) {
+            if (!containsVariable(input)) {
+                return input;
             }
-        });
-
-        // match the end of a variable, can be an explicit }, the end of a NCName or the buffer end
-        substitutor.setVariableSuffixMatcher(new StrMatcher() {
-            @Override
-            public int isMatch(char[] buffer, int pos, int bufferStart, int bufferEnd) {
-                // end of the buffer is the end of a variable
-                if (pos == bufferEnd) {
-                    return 0;
-                }
-                char aChar = buffer[pos];
-                // any character part of a NCName is not an end
-                if (Character.isLetterOrDigit(aChar)) {
-                    return -1;
+            String output = filtered.get(input);
+            if (output == null) {
+                if (substitutor == null) {
+                    substitutor = buildSubstitutor(variables);
                 }
-                switch (aChar) {
-                    case DASH:
-                    case DOT:
-                    case UND:
-                        return -1;
-                }
-                // an explicit }
-                if (aChar == RCB) {
-                    return 1;
-                }
-                // anything else is the end of a variable
-                return 0;
+                output = substitutor.replace(input);
+                filtered.put(input, output);
             }
-        });
-        substitutor.setEnableSubstitutionInVariables(true);
+            return output;
+        }
 
-        return substitutor;
+        /**
+         * @param input a map that may contain values to replace
+         * @return a new map with the filtered values
+         * @see VariableSubstitutor#filterAndUpdate(Map, Map)
+         */
+        public Map<String, String> filterAndUpdate(Map<String, String> input) {
+            Map<String, String> result = new HashMap<>(input.size());
+
+            for (Map.Entry<String, String> entry : input.entrySet()) {
+                result.put(entry.getKey(), filterAndUpdate(entry.getValue()));
+            }
+
+            return result;
+        }
+
+        /**
+         * @param script the script to filter
+         * @see VariableSubstitutor#filterAndUpdate(Script, Map)
+         */
+        public void filterAndUpdate(Script<?> script) {
+            script.setScript(filterAndUpdate(script.getScript()));
+            Serializable[] params = script.getParameters();
+            if (params != null) {
+                for (int i = 0; i < params.length; i++) {
+                    if (params[i] != null) {
+                        params[i] = filterAndUpdate(params[i].toString());
+                    }
+                }
+            }
+        }
     }
 
 }
@@ -100,6 +100,12 @@ public enum PASchedulerProperties implements PACommonProperties {
     /** Maximum number of threads used to ping tasks */
     SCHEDULER_TASK_PINGER_POOL_NBTHREAD("pa.scheduler.core.taskpingerpoolnbthreads", PropertyType.INTEGER, "50"),
 
+    /** Maximum number of threads used to terminate tasks (kill task launchers and release nodes) */
+    SCHEDULER_TASK_TERMINATION_POOL_NBTHREAD("pa.scheduler.core.taskterminationpoolnbthreads", PropertyType.INTEGER, "50"),
+
+    /** Maximum number of task terminations waiting for a thread, further terminations are executed by the calling thread */
+    SCHEDULER_TASK_TERMINATION_QUEUE_SIZE("pa.scheduler.core.taskterminationqueuesize", PropertyType.INTEGER, "1000"),
+
     /** Number of threads used to handle scheduled operations other than housekeeping operations */
     SCHEDULER_SCHEDULED_POOL_NBTHREAD("pa.scheduler.core.scheduledpoolnbthreads", PropertyType.INTEGER, "20"),
 
@@ -146,6 +152,11 @@ public enum PASchedulerProperties implements PACommonProperties {
      * a thread unlock. */
     SCHEDULER_LISTENERS_THREADNUMBER("pa.scheduler.core.listener.threadnumber", PropertyType.INTEGER, "100"),
 
+    /** Maximum number of events waiting to be sent to a single client. When a client does not consume its events
+     * fast enough, its oldest task progress and scheduler state events are dropped. When no such event is waiting,
+     * the client is disconnected. A value lower or equal to 0 disables the limit. */
+    SCHEDULER_LISTENERS_QUEUE_SIZE("pa.scheduler.core.listener.queue.size", PropertyType.INTEGER, "10000"),
+
     /** List of the scripts paths to execute at scheduler start. Paths are separated by a ';'. */
     SCHEDULER_STARTSCRIPTS_PATHS("pa.scheduler.startscripts.paths", PropertyType.LIST),
 
@@ -476,6 +487,34 @@ public enum PASchedulerProperties implements PACommonProperties {
 
     SCHEDULER_DB_FETCH_TASK_RESULTS_BATCH_SIZE("pa.scheduler.db.fetch.batch_size", PropertyType.INTEGER, "50"),
 
+    /**
+     * Duration in milliseconds during which the total number of jobs or tasks matching a given filter is reused
+     * between paginated requests. The total is refreshed when jobs are submitted or removed, but not when jobs or
+     * tasks change status, it can thus be outdated during this duration. A value of 0 disables the cache and
+     * counts on every request.
+     */
+    SCHEDULER_DB_COUNT_CACHE_DURATION("pa.scheduler.db.count.cache.duration", PropertyType.INTEGER, "0"),
+
+    /**
+     * Duration in milliseconds of the time buckets in which the statistics of terminated jobs and tasks are rolled up.
+     * Statistics requests read the rollups of the buckets fully covered by the requested period and only scan the
+     * jobs at its edges. A value of 0 disables the rollups.
+     */
+    SCHEDULER_DB_STATISTICS_BUCKET_DURATION("pa.scheduler.db.statistics.bucket.duration", PropertyType.INTEGER, "0"),
+
+    /**
+     * Period in milliseconds between two rollups of the newly terminated jobs into the statistics.
+     */
+    SCHEDULER_DB_STATISTICS_ROLLUP_PERIOD("pa.scheduler.db.statistics.rollup.period", PropertyType.INTEGER, "10000"),
+
+    /**
+     * Maximum number of jobs rolled up into the statistics in a single transaction.
+     */
+    SCHEDULER_DB_STATISTICS_ROLLUP_BATCH_SIZE(
+            "pa.scheduler.db.statistics.rollup.batch_size",
+            PropertyType.INTEGER,
+            "1000"),
+
     /* ***************************************************************** */
     /* ************** VARIABLES & GENERIC INFO PROPERTIES ************** */
     /* ***************************************************************** */
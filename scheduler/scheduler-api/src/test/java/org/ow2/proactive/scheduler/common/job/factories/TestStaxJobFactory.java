@@ -338,6 +338,19 @@ public class TestStaxJobFactory {
         assertEquals("submitted_gi_value", testScriptJob.getGenericInformation().get("global_gi"));
     }
 
+    @Test
+    public void testCreateJobWithOtherVariablesShouldReuseValidation() throws Exception {
+        factory.createJob(jobDescriptorUri, ImmutableMap.of("job_name", "first_name"), null);
+        long validationMisses = StaxJobFactory.getValidationCacheMisses();
+        long jobCacheMisses = StaxJobFactory.getJobCacheMisses();
+
+        Job job = factory.createJob(jobDescriptorUri, ImmutableMap.of("job_name", "second_name"), null);
+
+        assertEquals("second_name", job.getName());
+        assertEquals(validationMisses, StaxJobFactory.getValidationCacheMisses());
+        assertEquals(jobCacheMisses + 1, StaxJobFactory.getJobCacheMisses());
+    }
+
     @Test
     public void testCreateJobShouldUseVariableMapToReplaceJobNameVariable() throws Exception {
         Map<String, String> variablesMap = Maps.newHashMap();
@@ -158,4 +158,18 @@ public class VariablesUtilTest {
         Assert.assertTrue("all values should be \"" + finalValue + "\"",
                           bigMap.values().stream().allMatch(v -> v.equals(finalValue)));
     }
+
+    @Test
+    public void testContextFiltersSeveralStrings() {
+        Map<String, String> variables = ImmutableMap.of("foo.bar", "B", "suffix", "bar");
+        VariableSubstitutor.Context context = VariableSubstitutor.newContext(variables);
+
+        assertEquals("ABC", context.filterAndUpdate(testString));
+        assertEquals("A_B_C", context.filterAndUpdate(testStringRecursive));
+        assertEquals("AB C", context.filterAndUpdate(testStringAlias1));
+        assertEquals("ABC", context.filterAndUpdate(testString));
+        assertEquals("no variable", context.filterAndUpdate("no variable"));
+        assertNull(context.filterAndUpdate((String) null));
+        assertEquals(ImmutableMap.of("k", "B/toto"), context.filterAndUpdate(ImmutableMap.of("k", testUnixString)));
+    }
 }
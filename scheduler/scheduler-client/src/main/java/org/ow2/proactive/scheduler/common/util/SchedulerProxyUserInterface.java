@@ -30,6 +30,7 @@ import java.security.KeyException;
 import java.security.PublicKey;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
 
 import javax.security.auth.Subject;
@@ -54,8 +55,6 @@ import org.ow2.proactive.scheduler.common.util.logforwarder.AppenderProvider;
 import org.ow2.proactive.scheduler.job.SchedulerUserInfo;
 import org.ow2.proactive.scheduler.signal.SignalApiException;
 import org.ow2.proactive.utils.console.MBeanInfoViewer;
-import org.thavam.util.concurrent.blockingMap.BlockingHashMap;
-import org.thavam.util.concurrent.blockingMap.BlockingMap;
 
 
 /**
@@ -78,9 +77,10 @@ public class SchedulerProxyUserInterface implements Scheduler, Serializable, Sch
 
     private volatile boolean sessionListenerAdded = false;
 
-    private transient BlockingMap<JobId, Boolean> finishedJobs = new BlockingHashMap<>();
-
-    private transient Set<JobId> waitedJobs = Collections.synchronizedSet(new HashSet<>());
+    /*
+     * the proxy can be shared by several sessions, so several callers can wait for the same job
+     */
+    private transient Map<JobId, JobWaiters> waitedJobs = new ConcurrentHashMap<>();
 
     /**
      * Default constructor demanded by ProActive.
@@ -715,6 +715,13 @@ public class SchedulerProxyUserInterface implements Scheduler, Serializable, Sch
         return uischeduler.getJobServerLogs(id);
     }
 
+    @Override
+    @ImmediateService
+    public String getJobServerLogs(String id, long offset, long limit)
+            throws UnknownJobException, NotConnectedException, PermissionException {
+        return uischeduler.getJobServerLogs(id, offset, limit);
+    }
+
     @Override
     @ImmediateService
     public String getTaskServerLogs(String id, String taskName)
@@ -722,6 +729,13 @@ public class SchedulerProxyUserInterface implements Scheduler, Serializable, Sch
         return uischeduler.getTaskServerLogs(id, taskName);
     }
 
+    @Override
+    @ImmediateService
+    public String getTaskServerLogs(String id, String taskName, long offset, long limit)
+            throws UnknownJobException, UnknownTaskException, NotConnectedException, PermissionException {
+        return uischeduler.getTaskServerLogs(id, taskName, offset, limit);
+    }
+
     @Override
     @ImmediateService
     public String getTaskServerLogsByTag(String id, String taskTag)
@@ -1117,17 +1131,25 @@ public class SchedulerProxyUserInterface implements Scheduler, Serializable, Sch
     public void waitForJobFinished(JobId jobId, Long timeout)
             throws PermissionException, NotConnectedException, InterruptedException {
         addSessionJobEventListener();
-        waitedJobs.add(jobId);
-        // see https://github.com/sarveswaran-m/blockingMap4j/
-        Boolean status;
-        if (timeout != null && timeout > 0) {
-            status = finishedJobs.take(jobId, timeout, TimeUnit.MILLISECONDS);
-        } else {
-            status = finishedJobs.take(jobId);
+        JobWaiters jobWaiters = waitedJobs.compute(jobId, (id, waiters) -> {
+            JobWaiters result = waiters == null ? new JobWaiters() : waiters;
+            result.count++;
+            return result;
+        });
+        boolean finished = true;
+        try {
+            if (timeout != null && timeout > 0) {
+                finished = jobWaiters.jobFinished.await(timeout, TimeUnit.MILLISECONDS);
+            } else {
+                jobWaiters.jobFinished.await();
+            }
+        } finally {
+            // the last waiter giving up removes the latch, unless the job event already did
+            waitedJobs.computeIfPresent(jobId,
+                                        (id, waiters) -> waiters == jobWaiters && --waiters.count == 0 ? null
+                                                                                                       : waiters);
         }
-        waitedJobs.remove(jobId);
-        finishedJobs.remove(jobId);
-        if (status == null) {
+        if (!finished) {
             throw new InterruptedException("Job " + jobId + " is not finished after " + timeout + " milliseconds");
         }
     }
@@ -1144,9 +1166,9 @@ public class SchedulerProxyUserInterface implements Scheduler, Serializable, Sch
 
     @Override
     public void jobStateUpdatedEvent(NotificationData<JobInfo> notification) {
-        JobId finishedJobId = notification.getData().getJobId();
-        if (waitedJobs.contains(notification.getData().getJobId())) {
-            finishedJobs.put(finishedJobId, true);
+        JobWaiters jobWaiters = waitedJobs.remove(notification.getData().getJobId());
+        if (jobWaiters != null) {
+            jobWaiters.jobFinished.countDown();
         }
     }
 
@@ -1164,4 +1186,12 @@ public class SchedulerProxyUserInterface implements Scheduler, Serializable, Sch
     public void usersUpdatedEvent(NotificationData<UserIdentification> notification) {
 
     }
+
+    private static class JobWaiters {
+
+        private final CountDownLatch jobFinished = new CountDownLatch(1);
+
+        // only updated inside the compute functions of waitedJobs
+        private int count;
+    }
 }
@@ -512,8 +512,9 @@ public class TaskLauncherInitializer implements Serializable {
     private Set<String> filteredSelector(Set<String> selectors, Map<String, Serializable> variables) {
         Set<String> filteredIncludes = new HashSet<>();
         if (selectors != null) {
+            VariableSubstitutor.Context substitution = VariableSubstitutor.newContext(variables);
             for (String include : selectors) {
-                filteredIncludes.add(VariableSubstitutor.filterAndUpdate(include, variables));
+                filteredIncludes.add(substitution.filterAndUpdate(include));
             }
         }
         return filteredIncludes;
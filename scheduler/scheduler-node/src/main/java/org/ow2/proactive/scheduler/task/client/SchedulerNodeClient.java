@@ -832,6 +832,13 @@ public class SchedulerNodeClient implements ISchedulerClient, Serializable {
         return client.getJobServerLogs(id);
     }
 
+    @Override
+    public String getJobServerLogs(String id, long offset, long limit)
+            throws UnknownJobException, NotConnectedException, PermissionException {
+        renewSession();
+        return client.getJobServerLogs(id, offset, limit);
+    }
+
     @Override
     public String getTaskServerLogs(String id, String taskName)
             throws UnknownJobException, UnknownTaskException, NotConnectedException, PermissionException {
@@ -839,6 +846,13 @@ public class SchedulerNodeClient implements ISchedulerClient, Serializable {
         return client.getTaskServerLogs(id, taskName);
     }
 
+    @Override
+    public String getTaskServerLogs(String id, String taskName, long offset, long limit)
+            throws UnknownJobException, UnknownTaskException, NotConnectedException, PermissionException {
+        renewSession();
+        return client.getTaskServerLogs(id, taskName, offset, limit);
+    }
+
     @Override
     public String getTaskServerLogsByTag(String id, String taskTag)
             throws UnknownJobException, NotConnectedException, PermissionException {
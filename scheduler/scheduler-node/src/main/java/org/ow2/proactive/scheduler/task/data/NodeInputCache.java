@@ -0,0 +1,370 @@
+/*
+ * ProActive Parallel Suite(TM):
+ * The Open Source library for parallel and distributed
+ * Workflows & Scheduling, Orchestration, Cloud Automation
+ * and Big Data Analysis on Enterprise Grids & Clouds.
+ *
+ * Copyright (c) 2007 - 2017 ActiveEon
+ * Contact: contact@activeeon.com
+ *
+ * This library is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation: version 3 of
+ * the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ */
+package org.ow2.proactive.scheduler.task.data;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.log4j.Logger;
+
+import com.google.common.hash.Hashing;
+import com.google.common.hash.HashingInputStream;
+
+
+/**
+ * Node-local cache of the input files transferred to the task scratch spaces.
+ * <p>
+ * Files are stored once per content, under the SHA-256 checksum computed while they are fetched. They are
+ * looked up by their source URI, size and modification time, so a source file modified since it was cached is
+ * fetched again. A file fetched by several tasks at the same time is only transferred once.
+ * <p>
+ * Scratch files are hard links to the cached files when the scratch and the cache share a file system, and
+ * copies otherwise or when hard links are disabled. A task modifying in place a hard-linked input file also
+ * modifies the cached file, and the scratch files of the other tasks using it: hard links should be disabled when
+ * tasks do so. The modification time of the cached files is recorded, a cached file which does not match it
+ * anymore is discarded.
+ * <p>
+ * The least recently used files are evicted when the cache exceeds its quota.
+ */
+public class NodeInputCache {
+
+    private static final Logger logger = Logger.getLogger(NodeInputCache.class);
+
+    public static final String PA_NODE_DATASPACE_INPUT_CACHE_ENABLED = "pa.node.dataspace.inputcache.enabled";
+
+    public static final String PA_NODE_DATASPACE_INPUT_CACHE_DIR = "pa.node.dataspace.inputcache.dir";
+
+    public static final String PA_NODE_DATASPACE_INPUT_CACHE_QUOTA = "pa.node.dataspace.inputcache.quota";
+
+    public static final String PA_NODE_DATASPACE_INPUT_CACHE_HARD_LINKS = "pa.node.dataspace.inputcache.hardlinks";
+
+    private static final long DEFAULT_QUOTA = 10L * 1024 * 1024 * 1024;
+
+    private static NodeInputCache instance;
+
+    private final Path blobs;
+
+    private final Path keys;
+
+    private final Path downloads;
+
+    private final long quota;
+
+    private final boolean hardLinks;
+
+    /** Size of the cached files, in least recently used order */
+    private final LinkedHashMap<String, Long> blobSizes = new LinkedHashMap<>(16, 0.75f, true);
+
+    private long totalSize;
+
+    private final ConcurrentMap<String, CompletableFuture<Path>> pendingFetches = new ConcurrentHashMap<>();
+
+    private final AtomicLong hits = new AtomicLong();
+
+    private final AtomicLong misses = new AtomicLong();
+
+    private final AtomicLong evictions = new AtomicLong();
+
+    private final AtomicLong bytesFromCache = new AtomicLong();
+
+    NodeInputCache(Path root, long quota, boolean hardLinks) throws IOException {
+        this.blobs = Files.createDirectories(root.resolve("blobs"));
+        this.keys = Files.createDirectories(root.resolve("keys"));
+        this.downloads = Files.createDirectories(root.resolve("downloads"));
+        this.quota = quota;
+        this.hardLinks = hardLinks;
+        loadBlobs();
+    }
+
+    /**
+     * @return the input cache of this node, or null when it is disabled
+     */
+    public static synchronized NodeInputCache getInstance() {
+        if (instance == null && Boolean.getBoolean(PA_NODE_DATASPACE_INPUT_CACHE_ENABLED)) {
+            String directory = System.getProperty(PA_NODE_DATASPACE_INPUT_CACHE_DIR,
+                                                  new File(System.getProperty("java.io.tmpdir"),
+                                                           "proactive-input-cache").getAbsolutePath());
+            long quota = DEFAULT_QUOTA;
+            String quotaAsString = System.getProperty(PA_NODE_DATASPACE_INPUT_CACHE_QUOTA);
+            if (quotaAsString != null) {
+                try {
+                    quota = Long.parseLong(quotaAsString);
+                } catch (NumberFormatException e) {
+                    logger.warn("Invalid value set for property '" + PA_NODE_DATASPACE_INPUT_CACHE_QUOTA + "': " +
+                                quotaAsString);
+                }
+            }
+            try {
+                String hardLinksAsString = System.getProperty(PA_NODE_DATASPACE_INPUT_CACHE_HARD_LINKS);
+                boolean hardLinks = hardLinksAsString == null || "true".equalsIgnoreCase(hardLinksAsString);
+                instance = new NodeInputCache(Paths.get(directory), quota, hardLinks);
+                logger.info("Input files cache enabled in " + directory + " with a quota of " + quota + " bytes");
+            } catch (IOException e) {
+                logger.warn("Input files cache cannot be created in " + directory, e);
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * Populates the target file with the content of the source, fetching it only when it is not cached yet.
+     *
+     * @param sourceUri URI of the source file
+     * @param size size of the source file
+     * @param lastModified modification time of the source file
+     * @param source opens the content of the source file
+     * @param target file to create
+     */
+    public void copy(String sourceUri, long size, long lastModified, Callable<InputStream> source, Path target)
+            throws IOException {
+        String key = Hashing.sha256()
+                            .hashString(sourceUri + '\n' + size + '\n' + lastModified, StandardCharsets.UTF_8)
+                            .toString();
+        Path blob = lookup(key, size);
+        if (blob != null) {
+            hits.incrementAndGet();
+            bytesFromCache.addAndGet(size);
+        } else {
+            blob = fetchOnce(key, size, source);
+        }
+        link(blob, target);
+    }
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+
+    public long getEvictions() {
+        return evictions.get();
+    }
+
+    public double getHitRate() {
+        long total = hits.get() + misses.get();
+        return total == 0 ? 0 : (double) hits.get() / total;
+    }
+
+    public synchronized long getSize() {
+        return totalSize;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("Input files cache: %d hits, %d misses (hit rate %.1f%%), %d bytes served from cache, " +
+                             "%d evictions, %d/%d bytes used",
+                             hits.get(),
+                             misses.get(),
+                             getHitRate() * 100,
+                             bytesFromCache.get(),
+                             evictions.get(),
+                             getSize(),
+                             quota);
+    }
+
+    /**
+     * @return the cached file of the given key, or null if it is not cached or not valid anymore
+     */
+    private Path lookup(String key, long size) throws IOException {
+        Path keyFile = keys.resolve(key);
+        List<String> entry;
+        try {
+            entry = Files.readAllLines(keyFile, StandardCharsets.UTF_8);
+        } catch (NoSuchFileException e) {
+            return null;
+        }
+        if (entry.size() != 2) {
+            Files.deleteIfExists(keyFile);
+            return null;
+        }
+        String checksum = entry.get(0);
+        Path blob = blobs.resolve(checksum);
+        synchronized (this) {
+            if (blobSizes.get(checksum) != null && Files.isRegularFile(blob) && Files.size(blob) == size &&
+                Files.getLastModifiedTime(blob).toMillis() == Long.parseLong(entry.get(1))) {
+                return blob;
+            }
+            // the cached file was evicted or modified through a hard link
+            removeBlob(checksum);
+        }
+        Files.deleteIfExists(keyFile);
+        return null;
+    }
+
+    private Path fetchOnce(String key, long size, Callable<InputStream> source) throws IOException {
+        CompletableFuture<Path> fetch = new CompletableFuture<>();
+        CompletableFuture<Path> pendingFetch = pendingFetches.putIfAbsent(key, fetch);
+        if (pendingFetch != null) {
+            // another task is fetching the same file
+            hits.incrementAndGet();
+            bytesFromCache.addAndGet(size);
+            return waitFor(pendingFetch);
+        }
+        misses.incrementAndGet();
+        try {
+            Path blob = fetch(key, source);
+            fetch.complete(blob);
+            return blob;
+        } catch (IOException | RuntimeException e) {
+            fetch.completeExceptionally(e);
+            throw e;
+        } finally {
+            pendingFetches.remove(key, fetch);
+        }
+    }
+
+    private Path fetch(String key, Callable<InputStream> source) throws IOException {
+        Path download = Files.createTempFile(downloads, "fetch", ".part");
+        try {
+            String checksum;
+            try (InputStream is = source.call()) {
+                HashingInputStream hashingInputStream = new HashingInputStream(Hashing.sha256(), is);
+                Files.copy(hashingInputStream, download, StandardCopyOption.REPLACE_EXISTING);
+                checksum = hashingInputStream.hash().toString();
+            } catch (IOException e) {
+                throw e;
+            } catch (Exception e) {
+                throw new IOException("Cannot read the input file", e);
+            }
+            Path blob = blobs.resolve(checksum);
+            synchronized (this) {
+                if (blobSizes.get(checksum) == null || !Files.isRegularFile(blob)) {
+                    Files.move(download, blob, StandardCopyOption.REPLACE_EXISTING);
+                    addBlob(checksum, Files.size(blob));
+                }
+                String entry = checksum + '\n' + Files.getLastModifiedTime(blob).toMillis();
+                Path keyFile = Files.createTempFile(downloads, "key", ".part");
+                Files.write(keyFile, entry.getBytes(StandardCharsets.UTF_8));
+                Files.move(keyFile, keys.resolve(key), StandardCopyOption.REPLACE_EXISTING);
+                evict(checksum);
+            }
+            return blob;
+        } finally {
+            Files.deleteIfExists(download);
+        }
+    }
+
+    private void link(Path blob, Path target) throws IOException {
+        Files.createDirectories(target.toAbsolutePath().getParent());
+        Files.deleteIfExists(target);
+        if (hardLinks) {
+            try {
+                Files.createLink(target, blob);
+                return;
+            } catch (IOException | UnsupportedOperationException e) {
+                logger.debug("Cannot link " + target + " to the cache, it is copied instead", e);
+            }
+        }
+        Files.copy(blob, target, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    private Path waitFor(CompletableFuture<Path> fetch) throws IOException {
+        try {
+            return fetch.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting for the input file", e);
+        } catch (ExecutionException e) {
+            throw new IOException("Input file fetched by another task could not be cached", e.getCause());
+        }
+    }
+
+    private synchronized void addBlob(String checksum, long size) {
+        Long previousSize = blobSizes.put(checksum, size);
+        totalSize += size - (previousSize == null ? 0 : previousSize);
+    }
+
+    private synchronized void removeBlob(String checksum) throws IOException {
+        Long size = blobSizes.remove(checksum);
+        if (size != null) {
+            totalSize -= size;
+        }
+        Files.deleteIfExists(blobs.resolve(checksum));
+    }
+
+    /**
+     * Removes the least recently used files until the cache fits in its quota, keeping the given one.
+     * Keys referencing removed files are discarded when they are looked up.
+     */
+    private synchronized void evict(String keptChecksum) throws IOException {
+        Iterator<Map.Entry<String, Long>> iterator = blobSizes.entrySet().iterator();
+        while (totalSize > quota && iterator.hasNext()) {
+            Map.Entry<String, Long> entry = iterator.next();
+            if (entry.getKey().equals(keptChecksum)) {
+                continue;
+            }
+            iterator.remove();
+            totalSize -= entry.getValue();
+            Files.deleteIfExists(blobs.resolve(entry.getKey()));
+            evictions.incrementAndGet();
+        }
+    }
+
+    private synchronized void loadBlobs() throws IOException {
+        List<Path> existingBlobs = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(blobs)) {
+            for (Path blob : stream) {
+                existingBlobs.add(blob);
+            }
+        }
+        // the least recently cached files come first
+        existingBlobs.sort((first, second) -> lastModified(first).compareTo(lastModified(second)));
+        for (Path blob : existingBlobs) {
+            addBlob(blob.getFileName().toString(), Files.size(blob));
+        }
+        evict(null);
+    }
+
+    private static FileTime lastModified(Path path) {
+        try {
+            return Files.getLastModifiedTime(path);
+        } catch (IOException e) {
+            return FileTime.fromMillis(0);
+        }
+    }
+}
@@ -28,17 +28,24 @@ package org.ow2.proactive.scheduler.task.data;
 import static com.google.common.base.Throwables.getStackTraceAsString;
 
 import java.io.File;
+import java.io.IOException;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
 import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
 import java.util.concurrent.locks.ReentrantLock;
 
 import org.apache.commons.io.FileUtils;
@@ -105,6 +112,8 @@ public class TaskProActiveDataspaces implements TaskDataspaces {
     private transient ExecutorService executorTransfer = Executors.newFixedThreadPool(getFileTransferThreadPoolSize(),
                                                                                       new NamedThreadFactory("FileTransferThreadPool"));
 
+    private transient NodeInputCache inputCache = NodeInputCache.getInstance();
+
     private transient TaskLogger taskLogger;
 
     private transient Decrypter decrypter;
@@ -512,6 +521,9 @@ public class TaskProActiveDataspaces implements TaskDataspaces {
 
         handleResultsWhileTransferringFile(transferFuturesScratch, "LOCAL", startTime);
 
+        if (inputCache != null) {
+            logger.info(inputCache);
+        }
     }
 
     private Map<String, DataSpacesFileObject> createFolderHierarchySequentially(DataSpacesFileObject space,
@@ -778,15 +790,19 @@ public class TaskProActiveDataspaces implements TaskDataspaces {
         List<Future<Boolean>> transferFutures = new ArrayList<>(filesToCopy.size());
 
         for (Map.Entry<String, DataSpacesFileObject> entry : filesToCopy.entrySet()) {
-            transferFutures.add(parallelFileCopy(entry.getValue(), space, entry.getKey(), true));
+            transferFutures.add(parallelFileCopy(entry.getValue(), space, entry.getKey(), true, null));
         }
 
         return transferFutures;
     }
 
+    /**
+     * @param createdFolders when not null, the folder of the target is created before the copy, unless it is
+     *                       already present in this map of the folder creations started by the previous copies
+     */
     private Future<Boolean> parallelFileCopy(final DataSpacesFileObject source,
             final DataSpacesFileObject destinationBase, final String destinationRelativeToBase,
-            final boolean isInputFile) {
+            final boolean isInputFile, final ConcurrentMap<String, FutureTask<Void>> createdFolders) {
 
         logger.debug("------------ resolving " + destinationRelativeToBase);
 
@@ -796,15 +812,19 @@ public class TaskProActiveDataspaces implements TaskDataspaces {
 
                 DataSpacesFileObject target = destinationBase.resolveFile(destinationRelativeToBase);
 
+                if (createdFolders != null) {
+                    createFolderOnce(source, target, createdFolders);
+                }
+
                 target.refresh();
                 if (!target.exists()) {
                     logger.info("Copying " + source.getRealURI() + " to " + destinationBase.getRealURI() + "/" +
                                 destinationRelativeToBase);
-                    target.copyFrom(source, FileSelector.SELECT_SELF);
+                    copyFile(source, target, isInputFile && destinationBase == SCRATCH);
                 } else if (source.getContent().getLastModifiedTime() > target.getContent().getLastModifiedTime()) {
                     logger.info("Copying " + source.getRealURI() + " to " + destinationBase.getRealURI() + "/" +
                                 destinationRelativeToBase + " (newer version)");
-                    target.copyFrom(source, FileSelector.SELECT_SELF);
+                    copyFile(source, target, isInputFile && destinationBase == SCRATCH);
                 } else {
                     logger.debug("Destination file " + target.getRealURI() + " is already present and newer.");
                 }
@@ -825,6 +845,34 @@ public class TaskProActiveDataspaces implements TaskDataspaces {
         });
     }
 
+    /**
+     * Copies a file, through the node input cache when the file is an input file copied to the scratch space.
+     */
+    private void copyFile(final DataSpacesFileObject source, DataSpacesFileObject target, boolean cacheable)
+            throws FileSystemException {
+        if (cacheable && inputCache != null && FileType.FILE.equals(source.getType())) {
+            try {
+                File targetFile = new File(convertDataSpaceURIToFileIfPossible(target.getRealURI(), true));
+                inputCache.copy(source.getRealURI(),
+                                source.getContent().getSize(),
+                                source.getContent().getLastModifiedTime(),
+                                () -> source.getContent().getInputStream(),
+                                targetFile.toPath());
+                target.refresh();
+                return;
+            } catch (IOException | IllegalStateException e) {
+                logger.warn("Input files cache cannot be used for " + source.getRealURI() + ", copying it directly",
+                            e);
+                // the target may be a link to a cached file, which must not be overwritten
+                target.refresh();
+                if (target.exists()) {
+                    target.delete();
+                }
+            }
+        }
+        target.copyFrom(source, FileSelector.SELECT_SELF);
+    }
+
     private Future<List<DataSpacesFileObject>> findFilesToCopyFromInput(final DataSpacesFileObject space,
             final String spaceName, final InputSelector inputSelector,
             final org.objectweb.proactive.extensions.dataspaces.vfs.selector.FileSelector selector) {
@@ -886,8 +934,12 @@ public class TaskProActiveDataspaces implements TaskDataspaces {
 
         checkOutputSpacesConfigured(outputSelectors);
 
-        ArrayList<DataSpacesFileObject> results = new ArrayList<>();
-        FileSystemException toBeThrown = null;
+        long startTime = System.currentTimeMillis();
+
+        // The selectors are resolved concurrently, and the files found by a selector are copied while the
+        // other selectors are still resolved. Each destination folder is created once, by the first copy to it.
+        OutputTransfer transfer = new OutputTransfer();
+        List<Future<FileSystemException>> selections = new ArrayList<>(outputSelectors.size());
 
         for (OutputSelector os : outputSelectors) {
             org.objectweb.proactive.extensions.dataspaces.vfs.selector.FileSelector selector = new org.objectweb.proactive.extensions.dataspaces.vfs.selector.FileSelector();
@@ -897,24 +949,47 @@ public class TaskProActiveDataspaces implements TaskDataspaces {
             switch (os.getMode()) {
                 case TransferToOutputSpace:
                     if (OUTPUT != null) {
-                        toBeThrown = copyScratchDataToOutput(OUTPUT, "OUTPUT", os, selector, results);
+                        selections.add(copyScratchDataToOutput(OUTPUT, "OUTPUT", os, selector, transfer));
                     }
                     break;
                 case TransferToGlobalSpace:
                     if (GLOBAL != null) {
-                        toBeThrown = copyScratchDataToOutput(GLOBAL, "GLOBAL", os, selector, results);
+                        selections.add(copyScratchDataToOutput(GLOBAL, "GLOBAL", os, selector, transfer));
                     }
                     break;
                 case TransferToUserSpace:
                     if (USER != null) {
-                        toBeThrown = copyScratchDataToOutput(USER, "USER", os, selector, results);
+                        selections.add(copyScratchDataToOutput(USER, "USER", os, selector, transfer));
                     }
                     break;
                 default:
                     // do nothing
             }
+        }
+
+        FileSystemException toBeThrown = null;
+
+        for (Future<FileSystemException> selection : selections) {
+            try {
+                FileSystemException selectionError = selection.get();
+                if (selectionError != null) {
+                    toBeThrown = selectionError;
+                }
+            } catch (InterruptedException | ExecutionException e) {
+                logger.error("Exception while selecting output files to copy ", e);
+                toBeThrown = new FileSystemException(StackTraceUtil.getStackTrace(e));
+            }
+        }
 
-            results.clear();
+        // all the copies are submitted once the selections are over
+        try {
+            handleResultsWhileTransferringFile(new ArrayList<>(transfer.futures), "output spaces", startTime);
+        } catch (FileSystemException fse) {
+            String message = "Error while transferring output files";
+            logDataspacesStatus(message, DataspacesStatusLevel.ERROR);
+            logDataspacesStatus(getStackTraceAsString(fse), DataspacesStatusLevel.ERROR);
+            logger.error(message, fse);
+            toBeThrown = fse;
         }
 
         if (toBeThrown != null) {
@@ -923,6 +998,19 @@ public class TaskProActiveDataspaces implements TaskDataspaces {
 
     }
 
+    /**
+     * State shared by the copies of the files selected by the output selectors of a task
+     */
+    private static class OutputTransfer {
+
+        private final ConcurrentMap<String, FutureTask<Void>> createdFolders = new ConcurrentHashMap<>();
+
+        /** Destinations already copied, a file selected several times is copied once */
+        private final Set<String> destinations = ConcurrentHashMap.newKeySet();
+
+        private final Queue<Future<Boolean>> futures = new ConcurrentLinkedQueue<>();
+    }
+
     private void checkOutputSpacesConfigured(List<OutputSelector> outputSelectors) {
         // Check that output spaces are properly configured, A message is put in the user log output if not
         for (OutputSelector os1 : outputSelectors) {
@@ -984,64 +1072,114 @@ public class TaskProActiveDataspaces implements TaskDataspaces {
         }
     }
 
-    private FileSystemException copyScratchDataToOutput(DataSpacesFileObject dataspace, String spaceName,
-            OutputSelector outputSelector,
-            org.objectweb.proactive.extensions.dataspaces.vfs.selector.FileSelector selector,
-            List<DataSpacesFileObject> results) {
-        try {
-            int sizeBeforeHandlingOutput = results.size();
+    /**
+     * Resolves an output selector in the scratch space, submitting the copy of each selected file.
+     *
+     * @return a future of the error which occurred while resolving the selector, if any
+     */
+    private Future<FileSystemException> copyScratchDataToOutput(final DataSpacesFileObject dataspace,
+            final String spaceName, final OutputSelector outputSelector,
+            final org.objectweb.proactive.extensions.dataspaces.vfs.selector.FileSelector selector,
+            final OutputTransfer transfer) {
 
-            handleOutput(dataspace, spaceName, selector, results);
+        return executorTransfer.submit(new Callable<FileSystemException>() {
+            @Override
+            public FileSystemException call() {
+                try {
+                    List<DataSpacesFileObject> results = new ArrayList<>();
+                    Utils.findFiles(SCRATCH, selector, results);
 
-            if (results.size() == sizeBeforeHandlingOutput) {
-                String message = "No file is transferred to " + spaceName + " space at " + dataspace.getRealURI() +
-                                 " for selector " + outputSelector;
+                    if (results.isEmpty()) {
+                        String message = "No file is transferred to " + spaceName + " space at " +
+                                         dataspace.getRealURI() + " for selector " + outputSelector;
 
-                logDataspacesStatus(message, DataspacesStatusLevel.WARNING);
-                logger.warn(message);
-            }
-        } catch (FileSystemException fse) {
-            String message = "Error while transferring to " + spaceName + " space at " + dataspace.getRealURI() +
-                             " for selector " + outputSelector;
+                        logDataspacesStatus(message, DataspacesStatusLevel.WARNING);
+                        logger.warn(message);
+                    } else if (logger.isDebugEnabled()) {
+                        logger.debug(results.size() + " files will be copied from LOCAL space to " + spaceName +
+                                     " space");
+                    }
 
-            logDataspacesStatus(message, DataspacesStatusLevel.ERROR);
-            logDataspacesStatus(getStackTraceAsString(fse), DataspacesStatusLevel.ERROR);
-            logger.error(message, fse);
-            return fse;
-        }
+                    ConcurrentMap<String, FutureTask<Void>> createdFolders = null;
+                    if (isCreateFolderHierarchySequentiallyEnabled()) {
+                        createdFolders = transfer.createdFolders;
+                    }
+                    String base = SCRATCH.getVirtualURI();
+                    for (DataSpacesFileObject result : results) {
+                        String relativePath = relativize(base, result);
+                        if (transfer.destinations.add(dataspace.getRealURI() + "/" + relativePath)) {
+                            transfer.futures.add(parallelFileCopy(result,
+                                                                  dataspace,
+                                                                  relativePath,
+                                                                  false,
+                                                                  createdFolders));
+                        }
+                    }
+                } catch (FileSystemException fse) {
+                    String message = "Error while transferring to " + spaceName + " space at " +
+                                     dataspace.getRealURI() + " for selector " + outputSelector;
 
-        return null;
+                    logDataspacesStatus(message, DataspacesStatusLevel.ERROR);
+                    logDataspacesStatus(getStackTraceAsString(fse), DataspacesStatusLevel.ERROR);
+                    logger.error(message, fse);
+                    return fse;
+                }
+                return null;
+            }
+        });
     }
 
-    private void handleOutput(final DataSpacesFileObject dataspaceDestination, String spaceName,
-            org.objectweb.proactive.extensions.dataspaces.vfs.selector.FileSelector selector,
-            List<DataSpacesFileObject> results) throws FileSystemException {
-
-        long startTime = System.currentTimeMillis();
-
-        Utils.findFiles(SCRATCH, selector, results);
-
-        if (logger.isDebugEnabled()) {
-            if (results == null || results.size() == 0) {
-                logger.debug("No file found to copy from LOCAL space to " + spaceName + " space");
-            } else {
-                logger.debug("Files that will be copied from LOCAL space to " + spaceName + " space :");
+    /**
+     * Creates the folder of the target, or the target itself if the source is a folder, unless a previous
+     * copy already did it. Concurrent copies to the same folder wait for its creation. As with the sequential
+     * creation of the folder hierarchy, a failure is reported as a warning and the copy is attempted anyway.
+     */
+    void createFolderOnce(DataSpacesFileObject source, DataSpacesFileObject target,
+            ConcurrentMap<String, FutureTask<Void>> createdFolders) throws FileSystemException {
+        final DataSpacesFileObject folder = FileType.FOLDER.equals(source.getType()) ? target : target.getParent();
+        if (folder == null) {
+            return;
+        }
+        final String uri = folder.getRealURI();
+        FutureTask<Void> creation = createdFolders.get(uri);
+        if (creation == null) {
+            FutureTask<Void> newCreation = new FutureTask<>(() -> {
+                createFolder(folder, uri);
+                return null;
+            });
+            creation = createdFolders.putIfAbsent(uri, newCreation);
+            if (creation == null) {
+                // the folder is created by this copy, outside of the map so that other folders are not blocked
+                creation = newCreation;
+                creation.run();
             }
         }
-
-        String base = SCRATCH.getVirtualURI();
-
-        Map<String, DataSpacesFileObject> filesToCopy = new HashMap<>(results.size());
-
-        createFolderHierarchySequentially(dataspaceDestination, base, results, filesToCopy);
-
-        ArrayList<Future<Boolean>> transferFutures = new ArrayList<>(results.size());
-
-        for (Map.Entry<String, DataSpacesFileObject> entry : filesToCopy.entrySet()) {
-            transferFutures.add(parallelFileCopy(entry.getValue(), dataspaceDestination, entry.getKey(), false));
+        try {
+            creation.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new FileSystemException("Interrupted while waiting for the creation of folder " + uri);
+        } catch (ExecutionException e) {
+            // failures of the file system are reported by createFolder, other errors fail every copy to the folder
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IllegalStateException(e.getCause());
         }
+    }
 
-        handleResultsWhileTransferringFile(transferFutures, spaceName, startTime);
+    private void createFolder(DataSpacesFileObject folder, String uri) {
+        try {
+            if (!folder.exists()) {
+                logger.debug("Creating folder " + uri);
+                folder.createFolder();
+                setFolderRightsForRunAsUserMode(folder);
+            }
+        } catch (FileSystemException e) {
+            String message = "Could not create folder " + uri;
+            logger.warn(message, e);
+            logDataspacesStatus(message, DataspacesStatusLevel.WARNING);
+        }
     }
 
 }
@@ -129,19 +129,19 @@ public class ForkedJvmTaskExecutionCommandCreator implements Serializable {
         }
 
         if (forkEnvironment != null) {
+            VariableSubstitutor.Context substitution = VariableSubstitutor.newContext(variables);
             for (String jvmArgument : forkEnvironment.getJVMArguments()) {
-                jvmArguments.add(VariableSubstitutor.filterAndUpdate(jvmArgument, variables));
+                jvmArguments.add(substitution.filterAndUpdate(jvmArgument));
             }
 
             for (String classpathEntry : forkEnvironment.getAdditionalClasspath()) {
                 // classpath defined in the fork environment does not need to be converted to linux (as we expect the user to provide the correct path)
-                VariableSubstitutor.filterAndUpdate(classpathEntry, variables);
                 classpath.append(getPathSeparator(isDockerWindowsToLinux))
-                         .append(VariableSubstitutor.filterAndUpdate(classpathEntry, variables));
+                         .append(substitution.filterAndUpdate(classpathEntry));
             }
 
             if (!Strings.isNullOrEmpty(forkEnvironment.getJavaHome())) {
-                javaHome = VariableSubstitutor.filterAndUpdate(forkEnvironment.getJavaHome(), variables);
+                javaHome = substitution.filterAndUpdate(forkEnvironment.getJavaHome());
             }
         }
 
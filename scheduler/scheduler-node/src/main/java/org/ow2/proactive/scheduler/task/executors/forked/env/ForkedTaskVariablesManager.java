@@ -226,14 +226,14 @@ public class ForkedTaskVariablesManager implements Serializable {
     private void replace(Script script, Map<String, Serializable> substitutes, PrintStream errorStream) {
 
         if (script != null) {
+            VariableSubstitutor.Context substitution = VariableSubstitutor.newContext(substitutes);
             if ("java".equals(script.getEngineName())) {
                 try {
                     @SuppressWarnings("unchecked")
                     Map<String, Serializable> deserializedArgs = SerializationUtil.deserializeVariableMap((Map<String, byte[]>) script.getParameters()[0]);
                     for (Map.Entry<String, Serializable> deserializedArg : deserializedArgs.entrySet()) {
                         if (deserializedArg.getValue() instanceof String) {
-                            deserializedArg.setValue(VariableSubstitutor.filterAndUpdate((String) deserializedArg.getValue(),
-                                                                                         substitutes));
+                            deserializedArg.setValue(substitution.filterAndUpdate((String) deserializedArg.getValue()));
                         }
                     }
                     script.getParameters()[0] = new HashMap<>(SerializationUtil.serializeVariableMap(deserializedArgs));
@@ -242,14 +242,14 @@ public class ForkedTaskVariablesManager implements Serializable {
                     e.printStackTrace(errorStream);
                 }
             } else if ("native".equals(script.getEngineName())) { // to replace script arguments
-                script.setScript(VariableSubstitutor.filterAndUpdate(script.getScript(), substitutes));
+                script.setScript(substitution.filterAndUpdate(script.getScript()));
             } else {
                 Serializable[] args = script.getParameters();
 
                 if (args != null) {
                     for (int i = 0; i < args.length; i++) {
                         if (args[i] instanceof String) {
-                            args[i] = VariableSubstitutor.filterAndUpdate((String) args[i], substitutes);
+                            args[i] = substitution.filterAndUpdate((String) args[i]);
                         }
                     }
                 }
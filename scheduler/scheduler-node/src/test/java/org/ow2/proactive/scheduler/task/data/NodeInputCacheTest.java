@@ -0,0 +1,124 @@
+/*
+ * ProActive Parallel Suite(TM):
+ * The Open Source library for parallel and distributed
+ * Workflows & Scheduling, Orchestration, Cloud Automation
+ * and Big Data Analysis on Enterprise Grids & Clouds.
+ *
+ * Copyright (c) 2007 - 2017 ActiveEon
+ * Contact: contact@activeeon.com
+ *
+ * This library is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation: version 3 of
+ * the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ */
+package org.ow2.proactive.scheduler.task.data;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+
+public class NodeInputCacheTest {
+
+    private static final byte[] CONTENT = "reference data".getBytes(StandardCharsets.UTF_8);
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private NodeInputCache inputCache;
+
+    private AtomicInteger fetches;
+
+    private Path scratch;
+
+    @Before
+    public void setUp() throws IOException {
+        inputCache = new NodeInputCache(temporaryFolder.newFolder().toPath(), 1024, true);
+        fetches = new AtomicInteger();
+        scratch = temporaryFolder.newFolder().toPath();
+    }
+
+    @Test
+    public void testInputFileIsFetchedOnce() throws IOException {
+        inputCache.copy("file:///input/data", CONTENT.length, 1L, source(CONTENT), scratch.resolve("task1/data"));
+        inputCache.copy("file:///input/data", CONTENT.length, 1L, source(CONTENT), scratch.resolve("task2/data"));
+
+        assertThat(fetches.get()).isEqualTo(1);
+        assertThat(Files.readAllBytes(scratch.resolve("task2/data"))).isEqualTo(CONTENT);
+        assertThat(inputCache.getHits()).isEqualTo(1L);
+        assertThat(inputCache.getMisses()).isEqualTo(1L);
+    }
+
+    @Test
+    public void testModifiedSourceIsFetchedAgain() throws IOException {
+        inputCache.copy("file:///input/data", CONTENT.length, 1L, source(CONTENT), scratch.resolve("task1/data"));
+        inputCache.copy("file:///input/data", CONTENT.length, 2L, source(CONTENT), scratch.resolve("task2/data"));
+
+        assertThat(fetches.get()).isEqualTo(2);
+        // the same content is only stored once
+        assertThat(inputCache.getSize()).isEqualTo((long) CONTENT.length);
+    }
+
+    @Test
+    public void testCachedFileModifiedThroughALinkIsDiscarded() throws IOException {
+        Path firstTarget = scratch.resolve("task1/data");
+        inputCache.copy("file:///input/data", CONTENT.length, 1L, source(CONTENT), firstTarget);
+        Files.write(firstTarget, "modified by task".getBytes(StandardCharsets.UTF_8));
+        Files.setLastModifiedTime(firstTarget, FileTime.fromMillis(System.currentTimeMillis() + 60000));
+
+        inputCache.copy("file:///input/data", CONTENT.length, 1L, source(CONTENT), scratch.resolve("task2/data"));
+
+        assertThat(fetches.get()).isEqualTo(2);
+        assertThat(Files.readAllBytes(scratch.resolve("task2/data"))).isEqualTo(CONTENT);
+    }
+
+    @Test
+    public void testLeastRecentlyUsedFilesAreEvicted() throws IOException {
+        byte[] largeContent = new byte[600];
+        byte[] otherLargeContent = new byte[600];
+        otherLargeContent[0] = 1;
+
+        inputCache.copy("file:///input/first", 600, 1L, source(largeContent), scratch.resolve("first"));
+        inputCache.copy("file:///input/second", 600, 1L, source(otherLargeContent), scratch.resolve("second"));
+
+        assertThat(inputCache.getEvictions()).isEqualTo(1L);
+        assertThat(inputCache.getSize()).isEqualTo(600L);
+        // the scratch file survives the eviction of the cached file
+        assertThat(Files.readAllBytes(scratch.resolve("first"))).isEqualTo(largeContent);
+
+        inputCache.copy("file:///input/first", 600, 1L, source(largeContent), scratch.resolve("first-again"));
+        assertThat(fetches.get()).isEqualTo(3);
+    }
+
+    private Callable<InputStream> source(final byte[] content) {
+        return () -> {
+            fetches.incrementAndGet();
+            return new ByteArrayInputStream(content);
+        };
+    }
+}
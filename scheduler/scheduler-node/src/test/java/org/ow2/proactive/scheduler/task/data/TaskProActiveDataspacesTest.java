@@ -26,8 +26,11 @@
 package org.ow2.proactive.scheduler.task.data;
 
 import static com.google.common.truth.Truth.assertThat;
+import static org.junit.Assert.fail;
 import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
@@ -37,8 +40,16 @@ import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import org.junit.Test;
 import org.mockito.Mockito;
@@ -175,6 +186,102 @@ public class TaskProActiveDataspacesTest extends ProActiveTestClean {
 
     }
 
+    @Test
+    public void testCreateFolderOnceWithParallelCopies() throws Exception {
+        CreateFolderOnceFixture fixture = new CreateFolderOnceFixture();
+        final CountDownLatch creationStarted = new CountDownLatch(1);
+        final CountDownLatch creationAllowed = new CountDownLatch(1);
+        final AtomicBoolean created = new AtomicBoolean();
+        doAnswer(invocation -> {
+            creationStarted.countDown();
+            creationAllowed.await();
+            created.set(true);
+            return null;
+        }).when(fixture.folder).createFolder();
+
+        int nbCopies = 10;
+        ExecutorService executor = Executors.newFixedThreadPool(nbCopies);
+        try {
+            List<Future<Boolean>> copies = new ArrayList<>(nbCopies);
+            for (int i = 0; i < nbCopies; i++) {
+                copies.add(executor.submit(() -> {
+                    fixture.createFolderOnce();
+                    // every copy waits for the creation of the folder
+                    return created.get();
+                }));
+            }
+            assertThat(creationStarted.await(10, TimeUnit.SECONDS)).isTrue();
+            for (Future<Boolean> copy : copies) {
+                assertThat(copy.isDone()).isFalse();
+            }
+            creationAllowed.countDown();
+            for (Future<Boolean> copy : copies) {
+                assertThat(copy.get(10, TimeUnit.SECONDS)).isTrue();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        verify(fixture.folder, times(1)).createFolder();
+    }
+
+    @Test
+    public void testCreateFolderOnceFailureDoesNotPreventCopies() throws Exception {
+        CreateFolderOnceFixture fixture = new CreateFolderOnceFixture();
+        doThrow(new FileSystemException("disk full")).when(fixture.folder).createFolder();
+
+        // the failure is reported as a warning, and the copies are attempted anyway
+        fixture.createFolderOnce();
+        fixture.createFolderOnce();
+
+        verify(fixture.folder, times(1)).createFolder();
+    }
+
+    @Test
+    public void testCreateFolderOnceErrorIsPropagatedToEveryCopy() throws Exception {
+        CreateFolderOnceFixture fixture = new CreateFolderOnceFixture();
+        IllegalStateException error = new IllegalStateException("file system closed");
+        doThrow(error).when(fixture.folder).exists();
+
+        for (int i = 0; i < 2; i++) {
+            try {
+                fixture.createFolderOnce();
+                fail("The error should be propagated");
+            } catch (IllegalStateException e) {
+                assertThat(e).isSameAs(error);
+            }
+        }
+        verify(fixture.folder, times(1)).exists();
+    }
+
+    private static final class CreateFolderOnceFixture {
+
+        DataSpacesFileObject source;
+
+        DataSpacesFileObject target;
+
+        DataSpacesFileObject folder;
+
+        ConcurrentMap<String, FutureTask<Void>> createdFolders = new ConcurrentHashMap<>();
+
+        TaskProActiveDataspaces taskProActiveDataspaces = new TaskProActiveDataspaces();
+
+        CreateFolderOnceFixture() throws FileSystemException {
+            source = Mockito.mock(DataSpacesFileObject.class);
+            doReturn(org.objectweb.proactive.extensions.dataspaces.api.FileType.FILE).when(source).getType();
+
+            folder = Mockito.mock(DataSpacesFileObject.class);
+            doReturn("file:///output/folder").when(folder).getRealURI();
+
+            target = Mockito.mock(DataSpacesFileObject.class);
+            doReturn(folder).when(target).getParent();
+        }
+
+        void createFolderOnce() throws FileSystemException {
+            taskProActiveDataspaces.createFolderOnce(source, target, createdFolders);
+        }
+    }
+
     @Test
     public void testGetFileTransferThreadPoolSizeDefaultValue() {
         int fileTransferThreadPoolSize = testGetFileTransferThreadPoolSize(Optional.<String> absent());
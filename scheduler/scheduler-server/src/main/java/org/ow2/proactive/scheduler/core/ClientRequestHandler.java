@@ -26,7 +26,10 @@
 package org.ow2.proactive.scheduler.core;
 
 import java.lang.reflect.Method;
+import java.util.HashMap;
+import java.util.Iterator;
 import java.util.LinkedList;
+import java.util.Map;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
@@ -36,7 +39,11 @@ import java.util.concurrent.atomic.AtomicInteger;
 import org.apache.log4j.Logger;
 import org.objectweb.proactive.core.UniqueID;
 import org.objectweb.proactive.utils.NamedThreadFactory;
+import org.ow2.proactive.scheduler.common.NotificationData;
+import org.ow2.proactive.scheduler.common.SchedulerEvent;
 import org.ow2.proactive.scheduler.common.SchedulerEventListener;
+import org.ow2.proactive.scheduler.common.task.TaskId;
+import org.ow2.proactive.scheduler.common.task.TaskInfo;
 import org.ow2.proactive.scheduler.core.properties.PASchedulerProperties;
 import org.ow2.proactive.threading.ReifiedMethodCall;
 import org.ow2.proactive.utils.PAExecutors;
@@ -45,6 +52,11 @@ import org.ow2.proactive.utils.PAExecutors;
 /**
  * ClientRequestHandler is used to delegate event call to client.
  * This class should be used with the ThreadPoolController which handles threads.
+ * <p>
+ * The events waiting to be sent to a client are bounded: a newer progress event of a task replaces the
+ * waiting one. When a client does not consume its events fast enough, its oldest replaceable events (task
+ * progress, scheduler state followed by a newer one) are dropped. If no event can be dropped without leaving
+ * the client with a wrong state, the client is marked as dirty, it will be disconnected and has to resync.
  *
  * @author The ProActive Team
  * @since ProActive Scheduling 2.0
@@ -56,6 +68,13 @@ public class ClientRequestHandler {
     /** Number of threads used by the thread pool for clients events sending */
     private static final int THREAD_NUMBER = PASchedulerProperties.SCHEDULER_LISTENERS_THREADNUMBER.getValueAsInt();
 
+    /** Maximum number of events waiting to be sent to a client */
+    private static final int QUEUE_SIZE = PASchedulerProperties.SCHEDULER_LISTENERS_QUEUE_SIZE.getValueAsInt();
+
+    private static final String TASK_STATE_UPDATED_EVENT_METHOD = "taskStateUpdatedEvent";
+
+    private static final String SCHEDULER_STATE_UPDATED_EVENT_METHOD = "schedulerStateUpdatedEvent";
+
     /** thread pool */
     private static final ExecutorService threadPoolForNetworkCalls = PAExecutors.newCachedBoundedThreadPool(1,
                                                                                                             THREAD_NUMBER,
@@ -92,6 +111,18 @@ public class ClientRequestHandler {
     /** Events queue to be stored */
     private final LinkedList<ReifiedMethodCall> eventCallsToStore;
 
+    /** Progress events of the events queue, by task, which can be replaced by a newer progress */
+    private final Map<TaskId, ReifiedMethodCall> progressEventCallsToStore;
+
+    /** Latest scheduler state event of the events queue, the previous ones can be dropped */
+    private ReifiedMethodCall lastSchedulerStateEventCall;
+
+    /** Number of events dropped since the events queue is full, guarded by the events queue */
+    private int droppedEvents;
+
+    /** Whether the client was marked as dirty because its events could not be dropped, guarded by the events queue */
+    private boolean overloaded;
+
     /** Cross reference to the front-end : used to mark client as dirty */
     private final SchedulerFrontendState frontend;
 
@@ -107,6 +138,7 @@ public class ClientRequestHandler {
         this.frontend = frontend;
         this.clientId = clientId;
         this.eventCallsToStore = new LinkedList<>();
+        this.progressEventCallsToStore = new HashMap<>();
     }
 
     /**
@@ -117,12 +149,108 @@ public class ClientRequestHandler {
      */
     public void addEvent(Method method, Object... args) {
         synchronized (eventCallsToStore) {
-            eventCallsToStore.add(new ReifiedMethodCall(method, args));
+            if (overloaded) {
+                // the client will be disconnected
+                return;
+            }
+            TaskId taskId = getTaskId(method, args);
+            if (taskId != null) {
+                if (isTaskProgress(args)) {
+                    ReifiedMethodCall waitingProgress = progressEventCallsToStore.get(taskId);
+                    if (waitingProgress != null) {
+                        // only the latest progress of a task is worth sending
+                        waitingProgress.setArguments(args);
+                        return;
+                    }
+                } else {
+                    // a newer progress must not be sent before this event
+                    progressEventCallsToStore.remove(taskId);
+                }
+            }
+            if (QUEUE_SIZE > 0 && eventCallsToStore.size() >= QUEUE_SIZE && !dropOldestReplaceableEvent()) {
+                disconnectOverloadedClient();
+                return;
+            }
+            ReifiedMethodCall eventCall = new ReifiedMethodCall(method, args);
+            eventCallsToStore.add(eventCall);
+            if (taskId != null && isTaskProgress(args)) {
+                progressEventCallsToStore.put(taskId, eventCall);
+            } else if (SCHEDULER_STATE_UPDATED_EVENT_METHOD.equals(method.getName())) {
+                lastSchedulerStateEventCall = eventCall;
+            }
             requestLeft.incrementAndGet();
         }
         tryStartTask();
     }
 
+    /**
+     * Drops the oldest replaceable event of the events queue, which must be full.
+     *
+     * @return false if the events queue holds no replaceable event
+     */
+    private boolean dropOldestReplaceableEvent() {
+        Iterator<ReifiedMethodCall> iterator = eventCallsToStore.iterator();
+        while (iterator.hasNext()) {
+            ReifiedMethodCall eventCall = iterator.next();
+            TaskId taskId = getTaskId(eventCall.getMethod(), eventCall.getArguments());
+            boolean replaceable = taskId != null ? isTaskProgress(eventCall.getArguments())
+                                                 : isReplacedSchedulerStateEvent(eventCall);
+            if (replaceable) {
+                iterator.remove();
+                if (taskId != null) {
+                    progressEventCallsToStore.remove(taskId, eventCall);
+                }
+                requestLeft.decrementAndGet();
+                if (droppedEvents++ == 0) {
+                    logger.warn("Client " + clientId + " does not consume its events fast enough, " +
+                                "its oldest replaceable events are dropped (queue size: " + QUEUE_SIZE + ")");
+                }
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean isReplacedSchedulerStateEvent(ReifiedMethodCall eventCall) {
+        return SCHEDULER_STATE_UPDATED_EVENT_METHOD.equals(eventCall.getMethod().getName()) &&
+               eventCall != lastSchedulerStateEventCall;
+    }
+
+    /**
+     * Discards the events of a client whose events queue is full of events which cannot be dropped, and marks
+     * it as dirty: it is disconnected and has to register again to get the current state.
+     */
+    private void disconnectOverloadedClient() {
+        logger.warn("Client " + clientId + " does not consume its events fast enough and will be disconnected " +
+                    "(queue size: " + QUEUE_SIZE + ")");
+        overloaded = true;
+        int discardedEvents = eventCallsToStore.size();
+        eventCallsToStore.clear();
+        progressEventCallsToStore.clear();
+        lastSchedulerStateEventCall = null;
+        if (requestLeft.addAndGet(-discardedEvents) == 0) {
+            synchronized (requestLeft) {
+                requestLeft.notify();
+            }
+        }
+        frontend.markAsDirty(clientId);
+    }
+
+    private static TaskId getTaskId(Method method, Object[] args) {
+        if (TASK_STATE_UPDATED_EVENT_METHOD.equals(method.getName()) && args.length == 1 &&
+            args[0] instanceof NotificationData) {
+            Object taskInfo = ((NotificationData<?>) args[0]).getData();
+            if (taskInfo instanceof TaskInfo) {
+                return ((TaskInfo) taskInfo).getTaskId();
+            }
+        }
+        return null;
+    }
+
+    private static boolean isTaskProgress(Object[] args) {
+        return ((NotificationData<?>) args[0]).getEventType() == SchedulerEvent.TASK_PROGRESS;
+    }
+
     /**
      * Try to create a task with new events to send, and start it in the thread pool.
      * Can do nothing if some previous events are currently being sent.
@@ -135,6 +263,12 @@ public class ClientRequestHandler {
             if (eventCallsToStore.size() > 0 && !busy.get()) {
                 LinkedList<ReifiedMethodCall> tasks = (LinkedList<ReifiedMethodCall>) eventCallsToStore.clone();
                 eventCallsToStore.clear();
+                progressEventCallsToStore.clear();
+                lastSchedulerStateEventCall = null;
+                if (droppedEvents > 0) {
+                    logger.warn(droppedEvents + " events were dropped for client " + clientId);
+                    droppedEvents = 0;
+                }
                 busy.set(true);
                 threadPoolForNetworkCalls.execute(new TaskRunnable(tasks));
             }
@@ -323,6 +323,9 @@ public class SchedulerFrontend implements InitActive, Scheduler, RunActive, EndA
                                                                                                                  false,
                                                                                                                  2));
 
+            TaskTerminationExecutor taskTerminationExecutor = new TaskTerminationExecutor(PASchedulerProperties.SCHEDULER_TASK_TERMINATION_POOL_NBTHREAD.getValueAsInt(),
+                                                                                          PASchedulerProperties.SCHEDULER_TASK_TERMINATION_QUEUE_SIZE.getValueAsInt());
+
             ScheduledExecutorService scheduledThreadPool = new ScheduledThreadPoolExecutor(PASchedulerProperties.SCHEDULER_SCHEDULED_POOL_NBTHREAD.getValueAsInt(),
                                                                                            new NamedThreadFactory("SchedulingServiceTimerThread",
                                                                                                                   false,
@@ -361,6 +364,7 @@ public class SchedulerFrontend implements InitActive, Scheduler, RunActive, EndA
                                                                                        clientThreadPool,
                                                                                        internalThreadPool,
                                                                                        taskPingerThreadPool,
+                                                                                       taskTerminationExecutor,
                                                                                        scheduledThreadPool);
 
             this.spacesSupport = infrastructure.getSpacesSupport();
@@ -1835,6 +1839,14 @@ public class SchedulerFrontend implements InitActive, Scheduler, RunActive, EndA
     @RoleRead
     public String getJobServerLogs(String jobId)
             throws UnknownJobException, NotConnectedException, PermissionException {
+        return getJobServerLogs(jobId, 0, -1);
+    }
+
+    @Override
+    @ImmediateService
+    @RoleRead
+    public String getJobServerLogs(String jobId, long offset, long limit)
+            throws UnknownJobException, NotConnectedException, PermissionException {
         JobId id = JobIdImpl.makeJobId(jobId);
         Method currentMethod = new Object() {
         }.getClass().getEnclosingMethod();
@@ -1842,7 +1854,7 @@ public class SchedulerFrontend implements InitActive, Scheduler, RunActive, EndA
                                            frontendState.getIdentifiedJob(id),
                                            YOU_DO_NOT_HAVE_PERMISSIONS_TO_GET_THE_LOGS_OF_THIS_JOB);
 
-        return ServerJobAndTaskLogs.getInstance().getJobLog(JobIdImpl.makeJobId(jobId), frontendState.getJobTasks(id));
+        return ServerJobAndTaskLogs.getInstance().getJobLog(id, frontendState.getJobTasks(id), offset, limit);
     }
 
     @Override
@@ -1850,6 +1862,14 @@ public class SchedulerFrontend implements InitActive, Scheduler, RunActive, EndA
     @RoleRead
     public String getTaskServerLogs(String jobId, String taskName)
             throws UnknownJobException, UnknownTaskException, NotConnectedException, PermissionException {
+        return getTaskServerLogs(jobId, taskName, 0, -1);
+    }
+
+    @Override
+    @ImmediateService
+    @RoleRead
+    public String getTaskServerLogs(String jobId, String taskName, long offset, long limit)
+            throws UnknownJobException, UnknownTaskException, NotConnectedException, PermissionException {
 
         JobId id = JobIdImpl.makeJobId(jobId);
         Method currentMethod = new Object() {
@@ -1860,7 +1880,7 @@ public class SchedulerFrontend implements InitActive, Scheduler, RunActive, EndA
 
         for (TaskId taskId : frontendState.getJobTasks(id)) {
             if (taskId.getReadableName().equals(taskName)) {
-                return ServerJobAndTaskLogs.getInstance().getTaskLog(taskId);
+                return ServerJobAndTaskLogs.getInstance().getTaskLog(taskId, offset, limit);
             }
         }
 
@@ -1935,7 +1955,8 @@ public class SchedulerFrontend implements InitActive, Scheduler, RunActive, EndA
                                                    filterCriteria.getSubmittedTimeGreater(),
                                                    filterCriteria.getSubmittedTimeLessThan(),
                                                    filterCriteria.getStartAtTimeGreater(),
-                                                   filterCriteria.getStartAtTimeLessThan());
+                                                   filterCriteria.getStartAtTimeLessThan(),
+                                                   filterCriteria.getAfterJobId());
         /**
          * Add/inject to each JobInfo the list of signals used by the job, if they exist.
          */
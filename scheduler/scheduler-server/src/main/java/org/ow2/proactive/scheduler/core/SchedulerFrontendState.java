@@ -231,6 +231,12 @@ class SchedulerFrontendState implements SchedulerStateUpdate {
      */
     private final Map<UniqueID, UserAndCredentials> identifications;
 
+    /**
+     * Users having an event listener, by UniqueId of the sender : the part of the identifications to which
+     * the events are dispatched
+     */
+    private final Map<UniqueID, ListeningUser> listeningUsers;
+
     /** List used to mark the user that does not respond anymore */
     private final Set<UniqueID> dirtyList;
 
@@ -259,6 +265,7 @@ class SchedulerFrontendState implements SchedulerStateUpdate {
 
     SchedulerFrontendState(SchedulerStateImpl schedulerState, SchedulerJMXHelper jmxHelper) {
         this.identifications = new ConcurrentHashMap<>();
+        this.listeningUsers = new ConcurrentHashMap<>();
         this.dirtyList = new HashSet<>();
         this.jmxHelper = jmxHelper;
         this.jobsMap = new HashMap<>();
@@ -506,6 +513,7 @@ class SchedulerFrontendState implements SchedulerStateUpdate {
         // add the listener to the list of listener for this user.
         UniqueID id = PAActiveObject.getContext().getCurrentRequest().getSourceBodyID();
         uIdent.setListener(new ClientRequestHandler(this, id, sel));
+        listeningUsers.put(id, uIdent);
         // cancel timer for this user : session is now managed by events
         uIdent.getUser().cancelSession();
 
@@ -680,6 +688,7 @@ class SchedulerFrontendState implements SchedulerStateUpdate {
         UserIdentificationImpl ident = listeningUser.getUser();
         if (clearListener) {
             listeningUser.clearListener();
+            listeningUsers.remove(id);
         }
         // renew session for this user
         renewUserSession(id, ident);
@@ -780,6 +789,7 @@ class SchedulerFrontendState implements SchedulerStateUpdate {
      */
     private void disconnect(UniqueID id) {
         UserAndCredentials userAndCredentials = identifications.remove(id);
+        listeningUsers.remove(id);
         if (userAndCredentials != null) {
             // remove listeners if needed
             userAndCredentials.getListeningUser().clearListener();
@@ -816,6 +826,7 @@ class SchedulerFrontendState implements SchedulerStateUpdate {
         UserIdentificationImpl ident = listeningUser.getUser();
         if (clearListener) {
             listeningUser.clearListener();
+            listeningUsers.remove(id);
         }
         // renew session for this user
         renewUserSession(id, ident);
@@ -1137,6 +1148,43 @@ class SchedulerFrontendState implements SchedulerStateUpdate {
      * ###########################################################################################
      */
 
+    /**
+     * Adds an event to the queue of every listener interested in it. Only the users having a listener
+     * are visited, the other connected users are not concerned by events.
+     *
+     * @param eventMethod
+     *            the name of the listener method to call
+     * @param eventType
+     *            the type of the event, matched against the events requested by each user
+     * @param ownerEvent
+     *            true if the event concerns a single user, the owner, and must be filtered out for
+     *            the listeners which only receive their own events
+     * @param owner
+     *            the user concerned by the event
+     * @param event
+     *            the argument of the listener method
+     */
+    private void dispatchToListeners(String eventMethod, SchedulerEvent eventType, boolean ownerEvent, String owner,
+            Object event) {
+        Method method = eventMethods.get(eventMethod);
+        for (ListeningUser listeningUser : listeningUsers.values()) {
+            ClientRequestHandler listener = listeningUser.getListener();
+            // the listener may have been removed in the meantime, the code removing it also removes the user
+            // from listeningUsers: removing it here could unregister a listener added again in the meantime
+            if (listener == null) {
+                continue;
+            }
+            UserIdentificationImpl userId = listeningUser.getUser();
+            // if there is no specified event OR if the specified event is allowed
+            if ((userId.getUserEvents() == null) || userId.getUserEvents().contains(eventType)) {
+                // if this userId have the myEventOnly=false or (myEventOnly=true and it is its event)
+                if (!ownerEvent || !userId.isMyEventsOnly() || userId.getUsername().equals(owner)) {
+                    listener.addEvent(method, event);
+                }
+            }
+        }
+    }
+
     /**
      * Clear every dirty listeners that are no more responding
      */
@@ -1179,19 +1227,7 @@ class SchedulerFrontendState implements SchedulerStateUpdate {
             if (logger.isDebugEnabled()) {
                 logger.debug("event [" + eventType.toString() + "]");
             }
-            for (UserAndCredentials userAndCredentials : identifications.values()) {
-                ListeningUser userId = userAndCredentials.getListeningUser();
-                // if this user has a listener
-                if (userId.isListening()) {
-                    // if there is no specified event OR if the specified event
-                    // is allowed
-                    if ((userId.getUser().getUserEvents() == null) ||
-                        userId.getUser().getUserEvents().contains(eventType)) {
-                        userId.getListener().addEvent(eventMethods.get(SCHEDULER_STATE_UPDATED_EVENT_METHOD),
-                                                      eventType);
-                    }
-                }
-            }
+            dispatchToListeners(SCHEDULER_STATE_UPDATED_EVENT_METHOD, eventType, false, null, eventType);
             clearListeners();
         } catch (SecurityException e) {
             logger.error("", e);
@@ -1209,25 +1245,7 @@ class SchedulerFrontendState implements SchedulerStateUpdate {
             if (logger.isDebugEnabled()) {
                 jlogger.debug(job.getJobInfo().getJobId(), " event [" + SchedulerEvent.JOB_SUBMITTED + "]");
             }
-            for (UserAndCredentials userAndCredentials : identifications.values()) {
-                ListeningUser listeningUserId = userAndCredentials.getListeningUser();
-                // if this user has a listener
-                if (listeningUserId.isListening()) {
-                    UserIdentificationImpl userId = listeningUserId.getUser();
-                    // if there is no specified event OR if the specified
-                    // event is allowed
-                    if ((userId.getUserEvents() == null) ||
-                        userId.getUserEvents().contains(SchedulerEvent.JOB_SUBMITTED)) {
-                        // if this userId have the myEventOnly=false or
-                        // (myEventOnly=true and it is its event)
-                        if (!userId.isMyEventsOnly() ||
-                            (userId.isMyEventsOnly() && userId.getUsername().equals(job.getOwner()))) {
-                            listeningUserId.getListener().addEvent(eventMethods.get(JOB_SUBMITTED_EVENT_METHOD), job);
-                        }
-                    }
-
-                }
-            }
+            dispatchToListeners(JOB_SUBMITTED_EVENT_METHOD, SchedulerEvent.JOB_SUBMITTED, true, job.getOwner(), job);
             clearListeners();
         } catch (SecurityException e) {
             logger.error("", e);
@@ -1255,25 +1273,7 @@ class SchedulerFrontendState implements SchedulerStateUpdate {
                     jlogger.debug(notification.getData().getJobId(), " event [" + notification.getEventType() + "]");
                 }
             }
-            for (UserAndCredentials userAndCredentials : identifications.values()) {
-                ListeningUser listeningUserId = userAndCredentials.getListeningUser();
-                // if this user has a listener
-                if (listeningUserId.isListening()) {
-                    UserIdentificationImpl userId = listeningUserId.getUser();
-                    // if there is no specified event OR if the specified event
-                    // is allowed
-                    if ((userId.getUserEvents() == null) ||
-                        userId.getUserEvents().contains(notification.getEventType())) {
-                        // if this userId have the myEventOnly=false or
-                        // (myEventOnly=true and it is its event)
-                        if (!userId.isMyEventsOnly() ||
-                            (userId.isMyEventsOnly() && userId.getUsername().equals(owner))) {
-                            listeningUserId.getListener().addEvent(eventMethods.get(JOB_STATE_UPDATED_EVENT_METHOD),
-                                                                   notification);
-                        }
-                    }
-                }
-            }
+            dispatchToListeners(JOB_STATE_UPDATED_EVENT_METHOD, notification.getEventType(), true, owner, notification);
             clearListeners();
         } catch (SecurityException e) {
             logger.error("", e);
@@ -1291,26 +1291,11 @@ class SchedulerFrontendState implements SchedulerStateUpdate {
             if (logger.isDebugEnabled()) {
                 jlogger.debug(job.getJobInfo().getJobId(), " event [" + SchedulerEvent.JOB_UPDATED + "]");
             }
-            for (UserAndCredentials userAndCredentials : identifications.values()) {
-                ListeningUser listeningUserId = userAndCredentials.getListeningUser();
-                // if this user has a listener
-                if (listeningUserId.isListening()) {
-                    UserIdentificationImpl userId = listeningUserId.getUser();
-                    // if there is no specified event OR if the specified
-                    // event is allowed
-                    if ((userId.getUserEvents() == null) ||
-                        userId.getUserEvents().contains(SchedulerEvent.JOB_UPDATED)) {
-                        // if this userId have the myEventOnly=false or
-                        // (myEventOnly=true and it is its event)
-                        if (!userId.isMyEventsOnly() ||
-                            (userId.isMyEventsOnly() && userId.getUsername().equals(job.getOwner()))) {
-                            listeningUserId.getListener().addEvent(eventMethods.get(JOB_UPDATED_FULL_DATA_EVENT_METHOD),
-                                                                   job);
-                        }
-                    }
-
-                }
-            }
+            dispatchToListeners(JOB_UPDATED_FULL_DATA_EVENT_METHOD,
+                                SchedulerEvent.JOB_UPDATED,
+                                true,
+                                job.getOwner(),
+                                job);
             clearListeners();
         } catch (SecurityException e) {
             logger.error("", e);
@@ -1330,25 +1315,11 @@ class SchedulerFrontendState implements SchedulerStateUpdate {
             if (logger.isDebugEnabled()) {
                 tlogger.debug(notification.getData().getTaskId(), "event [" + notification.getEventType() + "]");
             }
-            for (UserAndCredentials userAndCredentials : identifications.values()) {
-                ListeningUser listeningUserId = userAndCredentials.getListeningUser();
-                // if this user has a listener
-                if (listeningUserId.isListening()) {
-                    UserIdentificationImpl userId = listeningUserId.getUser();
-                    // if there is no specified event OR if the specified event
-                    // is allowed
-                    if ((userId.getUserEvents() == null) ||
-                        userId.getUserEvents().contains(notification.getEventType())) {
-                        // if this userId have the myEventOnly=false or
-                        // (myEventOnly=true and it is its event)
-                        if (!userId.isMyEventsOnly() ||
-                            (userId.isMyEventsOnly() && userId.getUsername().equals(owner))) {
-                            listeningUserId.getListener().addEvent(eventMethods.get(TASK_STATE_UPDATED_EVENT_METHOD),
-                                                                   notification);
-                        }
-                    }
-                }
-            }
+            dispatchToListeners(TASK_STATE_UPDATED_EVENT_METHOD,
+                                notification.getEventType(),
+                                true,
+                                owner,
+                                notification);
             clearListeners();
         } catch (SecurityException e) {
             logger.error("", e);
@@ -1366,26 +1337,11 @@ class SchedulerFrontendState implements SchedulerStateUpdate {
             if (logger.isDebugEnabled()) {
                 logger.debug("event [" + notification.getEventType() + "]");
             }
-            for (UserAndCredentials userAndCredentials : identifications.values()) {
-                ListeningUser listeningUserId = userAndCredentials.getListeningUser();
-                // if this user has a listener
-                if (listeningUserId.isListening()) {
-                    UserIdentificationImpl userId = listeningUserId.getUser();
-                    // if there is no specified event OR if the specified event
-                    // is allowed
-                    if ((userId.getUserEvents() == null) ||
-                        userId.getUserEvents().contains(notification.getEventType())) {
-                        // if this userId have the myEventOnly=false or
-                        // (myEventOnly=true and it is its event)
-                        if (!userId.isMyEventsOnly() ||
-                            (userId.isMyEventsOnly() &&
-                             userId.getUsername().equals(notification.getData().getUsername()))) {
-                            listeningUserId.getListener().addEvent(eventMethods.get(USERS_UPDATED_EVENT_METHOD),
-                                                                   notification);
-                        }
-                    }
-                }
-            }
+            dispatchToListeners(USERS_UPDATED_EVENT_METHOD,
+                                notification.getEventType(),
+                                true,
+                                notification.getData().getUsername(),
+                                notification);
             // Important condition to avoid recursive checks
             if (checkForDownUser) {
                 clearListeners();
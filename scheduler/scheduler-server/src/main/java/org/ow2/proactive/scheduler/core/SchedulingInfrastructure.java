@@ -44,6 +44,8 @@ public interface SchedulingInfrastructure {
 
     ExecutorService getTaskPingerThreadPool();
 
+    TaskTerminationExecutor getTaskTerminationExecutor();
+
     /**
      * Delay the execution of the specified {@code runnable}
      * by the given {@code delay}.
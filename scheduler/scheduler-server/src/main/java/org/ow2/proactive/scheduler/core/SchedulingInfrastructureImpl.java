@@ -47,6 +47,8 @@ public class SchedulingInfrastructureImpl implements SchedulingInfrastructure {
 
     private final ExecutorService taskPingerService;
 
+    private final TaskTerminationExecutor taskTerminationExecutor;
+
     private final ScheduledExecutorService scheduledExecutorService;
 
     private final RMProxiesManager rmProxiesManager;
@@ -67,7 +69,7 @@ public class SchedulingInfrastructureImpl implements SchedulingInfrastructure {
     public SchedulingInfrastructureImpl(SchedulerDBManager dbManager, RMProxiesManager rmProxiesManager,
             DataSpaceServiceStarter dsStarter, ExecutorService clientExecutorService,
             ExecutorService internalExecutorService, ExecutorService taskPingerService,
-            ScheduledExecutorService scheduledExecutorService) {
+            TaskTerminationExecutor taskTerminationExecutor, ScheduledExecutorService scheduledExecutorService) {
         this.dbManager = dbManager;
         this.rmProxiesManager = rmProxiesManager;
         this.dsStarter = dsStarter;
@@ -75,6 +77,7 @@ public class SchedulingInfrastructureImpl implements SchedulingInfrastructure {
         this.internalExecutorService = internalExecutorService;
         this.scheduledExecutorService = scheduledExecutorService;
         this.taskPingerService = taskPingerService;
+        this.taskTerminationExecutor = taskTerminationExecutor;
         this.spacesSupport = new SchedulerSpacesSupport();
     }
 
@@ -103,6 +106,11 @@ public class SchedulingInfrastructureImpl implements SchedulingInfrastructure {
         return taskPingerService;
     }
 
+    @Override
+    public TaskTerminationExecutor getTaskTerminationExecutor() {
+        return taskTerminationExecutor;
+    }
+
     @Override
     public void schedule(final Runnable runnable, long delay) {
         scheduledExecutorService.schedule(new Runnable() {
@@ -135,6 +143,7 @@ public class SchedulingInfrastructureImpl implements SchedulingInfrastructure {
     public void shutdown() {
         clientExecutorService.shutdownNow();
         taskPingerService.shutdownNow();
+        taskTerminationExecutor.shutdown();
         internalExecutorService.shutdownNow();
         scheduledExecutorService.shutdownNow();
 
@@ -1050,6 +1050,18 @@ public final class SchedulingMethodImpl implements SchedulingMethod {
      */
     public static List<SelectionScript> resolveScriptVariables(List<SelectionScript> selectionScripts,
             Map<String, Serializable> variables, String sessionid, String owner) {
+        if (selectionScripts == null) {
+            return null;
+        }
+        return resolveScriptVariables(selectionScripts, VariableSubstitutor.newContext(variables), sessionid, owner);
+    }
+
+    /*
+     * Replace selection script variables with values of the given substitution context,
+     * shared by all the selection scripts of a task.
+     */
+    public static List<SelectionScript> resolveScriptVariables(List<SelectionScript> selectionScripts,
+            VariableSubstitutor.Context context, String sessionid, String owner) {
         List<SelectionScript> output = new LinkedList<>();
         if (selectionScripts == null) {
             return null;
@@ -1060,7 +1072,7 @@ public final class SchedulingMethodImpl implements SchedulingMethod {
                 script.setOwner(owner);
             }
             SelectionScript resolved = SelectionScript.resolvedSelectionScript(script);
-            VariableSubstitutor.filterAndUpdate(resolved, variables);
+            context.filterAndUpdate(resolved);
             output.add(resolved);
         }
         return output;
@@ -0,0 +1,199 @@
+/*
+ * ProActive Parallel Suite(TM):
+ * The Open Source library for parallel and distributed
+ * Workflows & Scheduling, Orchestration, Cloud Automation
+ * and Big Data Analysis on Enterprise Grids & Clouds.
+ *
+ * Copyright (c) 2007 - 2017 ActiveEon
+ * Contact: contact@activeeon.com
+ *
+ * This library is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation: version 3 of
+ * the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ */
+package org.ow2.proactive.scheduler.core;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.log4j.Logger;
+import org.objectweb.proactive.utils.NamedThreadFactory;
+
+
+/**
+ * Long-lived executor used to terminate tasks (kill the task launcher and release the nodes).
+ * <p>
+ * The number of threads and the number of pending terminations are bounded. When the queue is full,
+ * the termination is executed by the submitting thread, which slows down the producer instead of
+ * creating new threads. Terminations submitted together are interleaved node by node so that a node
+ * running many tasks does not delay the release of the other nodes.
+ */
+public class TaskTerminationExecutor {
+
+    private static final Logger logger = Logger.getLogger(TaskTerminationExecutor.class);
+
+    private final ThreadPoolExecutor executor;
+
+    private final AtomicLong submitted = new AtomicLong();
+
+    private final AtomicLong completed = new AtomicLong();
+
+    private final AtomicLong failed = new AtomicLong();
+
+    private final AtomicLong executedByCaller = new AtomicLong();
+
+    public TaskTerminationExecutor(int nbThreads, int queueSize) {
+        executor = new ThreadPoolExecutor(nbThreads,
+                                          nbThreads,
+                                          120L,
+                                          TimeUnit.SECONDS,
+                                          new LinkedBlockingQueue<>(queueSize),
+                                          new NamedThreadFactory("TaskTerminationThreadPool", false, 3),
+                                          new CallerRunsWhenSaturated());
+        executor.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * Executes the given actions and waits for their completion.
+     *
+     * @param actionsByNode actions to execute, grouped by the node they concern. Actions of
+     *                      different nodes are submitted in a round-robin fashion.
+     */
+    public void executeAll(Map<String, List<Runnable>> actionsByNode) {
+        long start = System.currentTimeMillis();
+        List<Future<?>> futures = new ArrayList<>();
+        for (Runnable action : interleave(actionsByNode)) {
+            FutureTask<Void> future = new FutureTask<>(() -> run(action), null);
+            submitted.incrementAndGet();
+            executor.execute(future);
+            futures.add(future);
+        }
+        for (Future<?> future : futures) {
+            try {
+                future.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                logger.warn("Interrupted while waiting for task terminations");
+                return;
+            } catch (ExecutionException e) {
+                logger.error("Failed to terminate task", e.getCause());
+            } catch (CancellationException e) {
+                logger.warn("Task termination cancelled, the scheduler is shutting down");
+            }
+        }
+        if (logger.isDebugEnabled()) {
+            logger.debug("Terminated " + futures.size() + " tasks on " + actionsByNode.size() + " nodes in " +
+                         (System.currentTimeMillis() - start) + " ms, " + this);
+        }
+    }
+
+    private void run(Runnable action) {
+        try {
+            action.run();
+        } catch (RuntimeException e) {
+            failed.incrementAndGet();
+            throw e;
+        } finally {
+            completed.incrementAndGet();
+        }
+    }
+
+    static List<Runnable> interleave(Map<String, List<Runnable>> actionsByNode) {
+        List<Runnable> result = new ArrayList<>();
+        List<Iterator<Runnable>> iterators = new ArrayList<>(actionsByNode.size());
+        for (List<Runnable> actions : actionsByNode.values()) {
+            iterators.add(actions.iterator());
+        }
+        while (!iterators.isEmpty()) {
+            Iterator<Iterator<Runnable>> it = iterators.iterator();
+            while (it.hasNext()) {
+                Iterator<Runnable> nodeActions = it.next();
+                if (nodeActions.hasNext()) {
+                    result.add(nodeActions.next());
+                } else {
+                    it.remove();
+                }
+            }
+        }
+        return result;
+    }
+
+    public int getActiveCount() {
+        return executor.getActiveCount();
+    }
+
+    public int getQueueSize() {
+        return executor.getQueue().size();
+    }
+
+    public long getSubmittedCount() {
+        return submitted.get();
+    }
+
+    public long getCompletedCount() {
+        return completed.get();
+    }
+
+    public long getFailedCount() {
+        return failed.get();
+    }
+
+    /**
+     * @return the number of terminations executed by the submitting thread because the queue was full
+     */
+    public long getExecutedByCallerCount() {
+        return executedByCaller.get();
+    }
+
+    public void shutdown() {
+        // pending terminations are cancelled so that no thread stays blocked waiting for them
+        for (Runnable pending : executor.shutdownNow()) {
+            ((Future<?>) pending).cancel(false);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "TaskTerminationExecutor[active=" + getActiveCount() + ", queued=" + getQueueSize() + ", submitted=" +
+               getSubmittedCount() + ", completed=" + getCompletedCount() + ", failed=" + getFailedCount() +
+               ", executedByCaller=" + getExecutedByCallerCount() + "]";
+    }
+
+    private class CallerRunsWhenSaturated implements RejectedExecutionHandler {
+
+        @Override
+        public void rejectedExecution(Runnable r, ThreadPoolExecutor executor) {
+            if (executor.isShutdown()) {
+                // the scheduler is shutting down, the waiting thread must not block forever
+                ((FutureTask<?>) r).cancel(false);
+                return;
+            }
+            executedByCaller.incrementAndGet();
+            r.run();
+        }
+    }
+
+}
@@ -34,12 +34,10 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
-import java.util.concurrent.Callable;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 
 import org.apache.commons.collections4.ListUtils;
 import org.apache.log4j.Logger;
@@ -62,6 +60,7 @@ import org.ow2.proactive.scheduler.task.internal.InternalTaskParentFinder;
 import org.ow2.proactive.scheduler.task.utils.VariablesMap;
 import org.ow2.proactive.scheduler.util.TaskLogger;
 import org.ow2.proactive.scripting.Script;
+import org.ow2.proactive.utils.NodeSet;
 import org.ow2.proactive.utils.TaskIdWrapper;
 
 
@@ -232,36 +231,46 @@ final class TerminationData {
             return;
         }
 
-        ExecutorService parallelTerminationService = Executors.newFixedThreadPool(tasksToTerminate.values().size());
+        Map<String, List<Runnable>> actionsByNode = new LinkedHashMap<>();
 
-        try {
-            List<Callable<Void>> callables = new ArrayList<>(tasksToTerminate.values().size());
-
-            for (final TaskTerminationData taskToTerminate : tasksToTerminate.values()) {
-
-                callables.add(() -> {
-                    try {
-                        RunningTaskData taskData = taskToTerminate.taskData;
-                        if (taskToTerminate.terminatedWhileRunning()) {
-                            terminateRunningTask(service, taskToTerminate, taskData);
-                        } else {
-                            TaskLogger.getInstance().close(taskToTerminate.taskData.getTask().getId());
-                        }
-                    } catch (Throwable e) {
-                        logger.error("Failed to terminate task " + taskToTerminate.taskData.getTask().getName(), e);
-                        throw new RuntimeException(e);
+        for (final TaskTerminationData taskToTerminate : tasksToTerminate.values()) {
+            actionsByNode.computeIfAbsent(getNodeURL(taskToTerminate), url -> new ArrayList<>()).add(() -> {
+                try {
+                    RunningTaskData taskData = taskToTerminate.taskData;
+                    if (taskToTerminate.terminatedWhileRunning()) {
+                        terminateRunningTask(service, taskToTerminate, taskData);
+                    } else {
+                        TaskLogger.getInstance().close(taskToTerminate.taskData.getTask().getId());
                     }
-                    return null;
-                });
-            }
-            parallelTerminationService.invokeAll(callables);
+                } catch (Throwable e) {
+                    logger.error("Failed to terminate task " + taskToTerminate.taskData.getTask().getName(), e);
+                    throw new RuntimeException(e);
+                }
+            });
+        }
+
+        try {
+            service.getInfrastructure().getTaskTerminationExecutor().executeAll(actionsByNode);
         } catch (Exception e) {
             logger.error("Failed to terminate tasks ", e);
-        } finally {
-            parallelTerminationService.shutdown();
         }
     }
 
+    /*
+     * The node used to group terminations, tasks which did not get a node are grouped together.
+     */
+    private String getNodeURL(TaskTerminationData taskToTerminate) {
+        try {
+            NodeSet nodes = taskToTerminate.taskData.getNodes();
+            if (nodes != null && !nodes.isEmpty()) {
+                return nodes.get(0).getNodeInformation().getURL();
+            }
+        } catch (Exception e) {
+            logger.debug("Cannot get the node of task " + taskToTerminate.taskData.getTask().getId(), e);
+        }
+        return "";
+    }
+
     private void terminateRunningTask(SchedulingService service, TaskTerminationData taskToTerminate,
             RunningTaskData taskData) {
         Map<String, String> genericInformation = new HashMap<>();
@@ -25,6 +25,7 @@
  */
 package org.ow2.proactive.scheduler.core.db;
 
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
@@ -215,4 +216,30 @@ public class DBJobDataParameters {
     public JobStatus getStatus() {
         return status;
     }
+
+    /**
+     * @return the values of the filters, which identify the total number of matching jobs whatever the
+     * requested page and order
+     */
+    List<Object> getCountKey() {
+        return Arrays.asList("jobs",
+                             user,
+                             tenant,
+                             isExplicitTenantFilter,
+                             statusRanks,
+                             withIssuesOnly,
+                             childJobs,
+                             jobName,
+                             projectName,
+                             bucketName,
+                             parentId,
+                             submissionMode,
+                             label,
+                             status,
+                             submittedTimeGreater,
+                             submittedTimeLessThan,
+                             startAtTimeGreater,
+                             startAtTimeLessThan);
+    }
+
 }
@@ -25,6 +25,9 @@
  */
 package org.ow2.proactive.scheduler.core.db;
 
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
 
 import org.ow2.proactive.scheduler.common.SortSpecifierContainer;
@@ -168,4 +171,12 @@ public class DBTaskDataParameters {
         return !Strings.isNullOrEmpty(tag);
     }
 
+    /**
+     * @return the values of the filters, which identify the total number of matching tasks whatever the
+     * requested page and order
+     */
+    List<Object> getCountKey() {
+        return Arrays.asList("tasks", user, tenant, tag, from, to, status == null ? null : new HashSet<>(status));
+    }
+
 }
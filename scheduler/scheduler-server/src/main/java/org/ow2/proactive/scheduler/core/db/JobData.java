@@ -141,7 +141,13 @@ import com.google.common.collect.Lists;
                 @NamedQuery(name = "updateJobLabel", query = "update JobData set label = :label where id in (:jobIdList)"),
                 @NamedQuery(name = "updateJobDataExternalEndpointUrls", query = "update JobData set externalEndpointUrls = :externalEndpointUrls where id = :jobId"),
                 @NamedQuery(name = "countJobDataStatusRankNull", query = "select count (*) from JobData where statusRank is null"),
-                @NamedQuery(name = "setStatusRankInJobDataIfNull", query = "update JobData job set job.statusRank = case when status = 0 then 2 when status in (1,2,4,8) then 1 else 0 end"), })
+                @NamedQuery(name = "setStatusRankInJobDataIfNull", query = "update JobData job set job.statusRank = case when status = 0 then 2 when status in (1,2,4,8) then 1 else 0 end"),
+                @NamedQuery(name = "getJobStatisticsToRollUp", query = "select id, jobName, projectName, bucketName, owner, tenant, status, submittedTime, startTime, finishedTime, " +
+                                                                       "numberOfFailedTasks, numberOfFaultyTasks, numberOfInErrorTasks, cumulatedCoreTime, numberOfNodes, numberOfNodesInParallel " +
+                                                                       "from JobData where statisticsRolledUp is null and status in (:statuses) order by id"),
+                @NamedQuery(name = "getRolledUpJobStatistics", query = "select id, jobName, projectName, bucketName, owner, tenant, status, submittedTime, startTime, finishedTime, " +
+                                                                       "numberOfFailedTasks, numberOfFaultyTasks, numberOfInErrorTasks, cumulatedCoreTime, numberOfNodes, numberOfNodesInParallel " +
+                                                                       "from JobData where statisticsRolledUp = true and id in (:ids)"), })
 @Table(name = "JOB_DATA", indexes = { @Index(name = "JOB_DATA_FINISH_TIME", columnList = "FINISH_TIME"),
                                       @Index(name = "JOB_DATA_OWNER", columnList = "OWNER"),
                                       @Index(name = "JOB_DATA_TENANT", columnList = "TENANT"),
@@ -156,6 +162,8 @@ import com.google.common.collect.Lists;
                                       @Index(name = "JOB_DATA_STATUS_RANK_ID", columnList = "STATUS_RANK DESC,ID DESC"),
                                       @Index(name = "JOB_DATA_PARENT_RANK_ID", columnList = "PARENT_JOB_ID,STATUS_RANK DESC,ID DESC"),
                                       @Index(name = "JOB_DATA_OWNER_PARENT_RANK_ID", columnList = "OWNER,PARENT_JOB_ID,STATUS_RANK DESC,ID DESC"),
+                                      @Index(name = "JOB_DATA_TENANT_PARENT_RANK_ID", columnList = "TENANT,PARENT_JOB_ID,STATUS_RANK DESC,ID DESC"),
+                                      @Index(name = "JOB_DATA_SUBMIT_TIME_ID", columnList = "SUBMIT_TIME DESC,ID DESC"),
                                       @Index(name = "JOB_DATA_FAILED_TASKS", columnList = "FAILED_TASKS"),
                                       @Index(name = "JOB_DATA_FAULTY_TASKS", columnList = "FAULTY_TASKS"),
                                       @Index(name = "JOB_DATA_BUCKET_NAME", columnList = "BUCKET_NAME"),
@@ -163,7 +171,8 @@ import com.google.common.collect.Lists;
                                       @Index(name = "JOB_DATA_PROJECT_NAME", columnList = "PROJECT_NAME"),
                                       @Index(name = "JOB_DATA_SUBMISSION_MODE", columnList = "SUBMISSION_MODE"),
                                       @Index(name = "JOB_DATA_LABEL", columnList = "LABEL"),
-                                      @Index(name = "JOB_DATA_START_AT", columnList = "START_AT DESC") })
+                                      @Index(name = "JOB_DATA_START_AT", columnList = "START_AT DESC"),
+                                      @Index(name = "JOB_DATA_STATISTICS_ROLLED_UP", columnList = "STATISTICS_ROLLED_UP,ID") })
 public class JobData implements Serializable {
 
     private static final Logger logger = Logger.getLogger(JobData.class);
@@ -272,6 +281,8 @@ public class JobData implements Serializable {
 
     private Long startAt;
 
+    private Boolean statisticsRolledUp;
+
     JobInfoImpl createJobInfo(JobId jobId) {
         JobInfoImpl jobInfo = new JobInfoImpl();
         jobInfo.setJobId(jobId);
@@ -963,6 +974,19 @@ public class JobData implements Serializable {
         this.startAt = startAt;
     }
 
+    /**
+     * <code>true</code> when the job is included in the statistics rollups, <code>false</code> when it was removed
+     * from them, <code>null</code> when it was never rolled up. Only written by {@link StatisticsRollup}.
+     */
+    @Column(name = "STATISTICS_ROLLED_UP", updatable = false)
+    public Boolean getStatisticsRolledUp() {
+        return statisticsRolledUp;
+    }
+
+    public void setStatisticsRolledUp(Boolean statisticsRolledUp) {
+        this.statisticsRolledUp = statisticsRolledUp;
+    }
+
     public void addJobContent(Job job) {
         JobContent content = new JobContent();
         content.setJobId(id);
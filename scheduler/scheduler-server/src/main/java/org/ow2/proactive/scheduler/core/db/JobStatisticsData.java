@@ -0,0 +1,285 @@
+/*
+ * ProActive Parallel Suite(TM):
+ * The Open Source library for parallel and distributed
+ * Workflows & Scheduling, Orchestration, Cloud Automation
+ * and Big Data Analysis on Enterprise Grids & Clouds.
+ *
+ * Copyright (c) 2007 - 2017 ActiveEon
+ * Contact: contact@activeeon.com
+ *
+ * This library is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation: version 3 of
+ * the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ */
+package org.ow2.proactive.scheduler.core.db;
+
+import java.io.Serializable;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.GeneratedValue;
+import javax.persistence.GenerationType;
+import javax.persistence.Id;
+import javax.persistence.Index;
+import javax.persistence.SequenceGenerator;
+import javax.persistence.Table;
+
+import org.ow2.proactive.scheduler.common.job.JobStatus;
+
+
+/**
+ * Aggregated statistics of the terminated jobs which share the same workflow, bucket, owner, tenant and status,
+ * and which finished during the same time bucket.
+ *
+ * @see StatisticsRollup
+ */
+@Entity
+@Table(name = "JOB_STATISTICS", indexes = { @Index(name = "JOB_STATISTICS_TIME_BUCKET", columnList = "TIME_BUCKET"),
+                                            @Index(name = "JOB_STATISTICS_JOB_NAME", columnList = "JOB_NAME"),
+                                            @Index(name = "JOB_STATISTICS_OWNER", columnList = "OWNER") })
+public class JobStatisticsData implements Serializable {
+
+    private Long id;
+
+    /** start of the time bucket */
+    private long timeBucket;
+
+    /** duration of the time bucket, rollups made with another duration are rebuilt */
+    private long bucketDuration;
+
+    private String jobName;
+
+    private String projectName;
+
+    private String bucketName;
+
+    private String owner;
+
+    private String tenant;
+
+    private JobStatus status;
+
+    /** number of jobs */
+    private long jobCount;
+
+    /** number of jobs with failed, faulty or in-error tasks */
+    private long jobsWithIssues;
+
+    /** number of jobs with failed or faulty tasks */
+    private long jobsWithFailedTasks;
+
+    /** total number of failed and faulty tasks */
+    private long errorCount;
+
+    /** number of jobs which have started, the following sums only include these jobs */
+    private long startedJobs;
+
+    private long cumulatedCoreTime;
+
+    private long numberOfNodes;
+
+    private long numberOfNodesInParallel;
+
+    /** number of started jobs which define their number of nodes in parallel */
+    private long jobsWithNodesInParallel;
+
+    private long executionTime;
+
+    private long pendingTime;
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "JOB_STATISTICS_ID_SEQUENCE")
+    @SequenceGenerator(name = "JOB_STATISTICS_ID_SEQUENCE", sequenceName = "JOB_STATISTICS_ID_SEQUENCE", allocationSize = 1)
+    @Column(name = "ID")
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    @Column(name = "TIME_BUCKET", nullable = false)
+    public long getTimeBucket() {
+        return timeBucket;
+    }
+
+    public void setTimeBucket(long timeBucket) {
+        this.timeBucket = timeBucket;
+    }
+
+    @Column(name = "BUCKET_DURATION", nullable = false)
+    public long getBucketDuration() {
+        return bucketDuration;
+    }
+
+    public void setBucketDuration(long bucketDuration) {
+        this.bucketDuration = bucketDuration;
+    }
+
+    @Column(name = "JOB_NAME")
+    public String getJobName() {
+        return jobName;
+    }
+
+    public void setJobName(String jobName) {
+        this.jobName = jobName;
+    }
+
+    @Column(name = "PROJECT_NAME")
+    public String getProjectName() {
+        return projectName;
+    }
+
+    public void setProjectName(String projectName) {
+        this.projectName = projectName;
+    }
+
+    @Column(name = "BUCKET_NAME")
+    public String getBucketName() {
+        return bucketName;
+    }
+
+    public void setBucketName(String bucketName) {
+        this.bucketName = bucketName;
+    }
+
+    @Column(name = "OWNER")
+    public String getOwner() {
+        return owner;
+    }
+
+    public void setOwner(String owner) {
+        this.owner = owner;
+    }
+
+    @Column(name = "TENANT")
+    public String getTenant() {
+        return tenant;
+    }
+
+    public void setTenant(String tenant) {
+        this.tenant = tenant;
+    }
+
+    @Column(name = "STATUS", nullable = false)
+    public JobStatus getStatus() {
+        return status;
+    }
+
+    public void setStatus(JobStatus status) {
+        this.status = status;
+    }
+
+    @Column(name = "JOB_COUNT")
+    public long getJobCount() {
+        return jobCount;
+    }
+
+    public void setJobCount(long jobCount) {
+        this.jobCount = jobCount;
+    }
+
+    @Column(name = "JOBS_WITH_ISSUES")
+    public long getJobsWithIssues() {
+        return jobsWithIssues;
+    }
+
+    public void setJobsWithIssues(long jobsWithIssues) {
+        this.jobsWithIssues = jobsWithIssues;
+    }
+
+    @Column(name = "JOBS_WITH_FAILED_TASKS")
+    public long getJobsWithFailedTasks() {
+        return jobsWithFailedTasks;
+    }
+
+    public void setJobsWithFailedTasks(long jobsWithFailedTasks) {
+        this.jobsWithFailedTasks = jobsWithFailedTasks;
+    }
+
+    @Column(name = "ERROR_COUNT")
+    public long getErrorCount() {
+        return errorCount;
+    }
+
+    public void setErrorCount(long errorCount) {
+        this.errorCount = errorCount;
+    }
+
+    @Column(name = "STARTED_JOBS")
+    public long getStartedJobs() {
+        return startedJobs;
+    }
+
+    public void setStartedJobs(long startedJobs) {
+        this.startedJobs = startedJobs;
+    }
+
+    @Column(name = "CUMULATED_CORE_TIME")
+    public long getCumulatedCoreTime() {
+        return cumulatedCoreTime;
+    }
+
+    public void setCumulatedCoreTime(long cumulatedCoreTime) {
+        this.cumulatedCoreTime = cumulatedCoreTime;
+    }
+
+    @Column(name = "NUMBER_OF_NODES")
+    public long getNumberOfNodes() {
+        return numberOfNodes;
+    }
+
+    public void setNumberOfNodes(long numberOfNodes) {
+        this.numberOfNodes = numberOfNodes;
+    }
+
+    @Column(name = "NUMBER_OF_NODES_IN_PARALLEL")
+    public long getNumberOfNodesInParallel() {
+        return numberOfNodesInParallel;
+    }
+
+    public void setNumberOfNodesInParallel(long numberOfNodesInParallel) {
+        this.numberOfNodesInParallel = numberOfNodesInParallel;
+    }
+
+    @Column(name = "JOBS_WITH_NODES_IN_PARALLEL")
+    public long getJobsWithNodesInParallel() {
+        return jobsWithNodesInParallel;
+    }
+
+    public void setJobsWithNodesInParallel(long jobsWithNodesInParallel) {
+        this.jobsWithNodesInParallel = jobsWithNodesInParallel;
+    }
+
+    @Column(name = "EXECUTION_TIME")
+    public long getExecutionTime() {
+        return executionTime;
+    }
+
+    public void setExecutionTime(long executionTime) {
+        this.executionTime = executionTime;
+    }
+
+    @Column(name = "PENDING_TIME")
+    public long getPendingTime() {
+        return pendingTime;
+    }
+
+    public void setPendingTime(long pendingTime) {
+        this.pendingTime = pendingTime;
+    }
+
+}
@@ -38,8 +38,13 @@ import java.nio.file.Files;
 import java.util.*;
 import java.util.concurrent.*;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiFunction;
+import java.util.function.Supplier;
+import java.util.function.ToDoubleFunction;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
+import javax.persistence.Tuple;
 import javax.persistence.criteria.*;
 
 import org.apache.commons.lang3.StringUtils;
@@ -60,6 +65,7 @@ import org.ow2.proactive.authentication.crypto.HybridEncryptionUtil.HybridEncryp
 import org.ow2.proactive.core.properties.PropertyDecrypter;
 import org.ow2.proactive.db.DatabaseManagerException;
 import org.ow2.proactive.db.SessionWork;
+import org.ow2.proactive.db.SortOrder;
 import org.ow2.proactive.db.SortParameter;
 import org.ow2.proactive.db.TransactionHelper;
 import org.ow2.proactive.scheduler.common.JobSortParameter;
@@ -115,6 +121,8 @@ import org.ow2.proactive.utils.ObjectByteConverter;
 import org.ow2.proactive.utils.PAExecutors;
 
 import com.google.common.base.Strings;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Iterables;
 import com.google.common.collect.Lists;
@@ -148,10 +156,31 @@ public class SchedulerDBManager {
 
     public static final int MAX_ITEMS_IN_LIST = PASchedulerProperties.SCHEDULER_DB_ITEMS_MAX_SIZE.getValueAsInt();
 
+    /**
+     * Job sort fields which can be undefined. Comparisons with a null value are never true, and the databases
+     * do not agree on the position of null values in an order, so these fields cannot be used in a page cursor.
+     */
+    private static final Set<String> NULLABLE_JOB_SORT_FIELDS = ImmutableSet.of("startAt");
+
     private final SessionFactory sessionFactory;
 
     private final TransactionHelper transactionHelper;
 
+    private final int countCacheDuration = PASchedulerProperties.SCHEDULER_DB_COUNT_CACHE_DURATION.getValueAsInt();
+
+    /**
+     * Total number of jobs or tasks matching a filter, reused between paginated requests
+     */
+    private final Cache<List<Object>, Integer> countCache = CacheBuilder.newBuilder()
+                                                                      .maximumSize(1000)
+                                                                      .expireAfterWrite(Math.max(countCacheDuration, 0),
+                                                                                        TimeUnit.MILLISECONDS)
+                                                                      .build();
+
+    private final StatisticsRollup statisticsRollup;
+
+    private ScheduledExecutorService statisticsRollupExecutor;
+
     private static boolean IS_HSQLDB = false;
 
     public static SchedulerDBManager createUsingProperties() {
@@ -200,6 +229,8 @@ public class SchedulerDBManager {
             configuration.addAnnotatedClass(SelectorData.class);
             configuration.addAnnotatedClass(ThirdPartyCredentialData.class);
             configuration.addAnnotatedClass(JobLabel.class);
+            configuration.addAnnotatedClass(JobStatisticsData.class);
+            configuration.addAnnotatedClass(TaskStatisticsData.class);
             if (drop) {
                 configuration.setProperty("hibernate.hbm2ddl.auto", "create");
             }
@@ -219,6 +250,33 @@ public class SchedulerDBManager {
             logger.error("Initial SessionFactory creation failed", ex);
             throw new DatabaseManagerException("Initial SessionFactory creation failed", ex);
         }
+
+        statisticsRollup = new StatisticsRollup(this,
+                                                PASchedulerProperties.SCHEDULER_DB_STATISTICS_BUCKET_DURATION.getValueAsInt(),
+                                                PASchedulerProperties.SCHEDULER_DB_STATISTICS_ROLLUP_BATCH_SIZE.getValueAsInt());
+        statisticsRollup.resetStaleRollups();
+        if (statisticsRollup.isEnabled()) {
+            long rollupPeriod = PASchedulerProperties.SCHEDULER_DB_STATISTICS_ROLLUP_PERIOD.getValueAsInt();
+            statisticsRollupExecutor = Executors.newSingleThreadScheduledExecutor(new NamedThreadFactory("StatisticsRollup",
+                                                                                                         true));
+            statisticsRollupExecutor.scheduleWithFixedDelay(() -> {
+                try {
+                    rollUpStatistics();
+                } catch (Exception e) {
+                    logger.warn("Error while rolling up the job statistics", e);
+                }
+            }, rollupPeriod, rollupPeriod, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Rolls up the statistics of the terminated jobs which are not included in them yet. This is done
+     * periodically when the statistics rollups are enabled.
+     *
+     * @return the number of jobs rolled up
+     */
+    public int rollUpStatistics() {
+        return statisticsRollup.rollUp();
     }
 
     public static class HSQLDBOrderByInterceptor extends EmptyInterceptor {
@@ -242,6 +300,45 @@ public class SchedulerDBManager {
             String projectName, String bucketName, Long parentId, String submissionMode, String label,
             final List<SortParameter<JobSortParameter>> sortParameters, JobStatus status, long submittedTimeGreater,
             long submittedTimeLessThan, long startAtTimeGreater, long startAtTimeLessThan) {
+        return getJobs(offset,
+                       limit,
+                       jobId,
+                       user,
+                       tenant,
+                       isExplicitTenantFilter,
+                       pending,
+                       running,
+                       finished,
+                       withIssuesOnly,
+                       childJobs,
+                       jobName,
+                       projectName,
+                       bucketName,
+                       parentId,
+                       submissionMode,
+                       label,
+                       sortParameters,
+                       status,
+                       submittedTimeGreater,
+                       submittedTimeLessThan,
+                       startAtTimeGreater,
+                       startAtTimeLessThan,
+                       null);
+    }
+
+    /**
+     * Same as the method above, but when <code>afterJobId</code> is a positive job id the page starts right after
+     * this job in the requested sort order (keyset pagination) and <code>offset</code> is ignored. Deep pages are
+     * then read from the sort indexes instead of skipping all the preceding rows. If the job does not exist anymore,
+     * or if the jobs are sorted on a field which can be undefined (see {@link #NULLABLE_JOB_SORT_FIELDS}), the
+     * offset is used instead.
+     */
+    public Page<JobInfo> getJobs(final int offset, final int limit, final Long jobId, final String user,
+            final String tenant, final boolean isExplicitTenantFilter, final boolean pending, final boolean running,
+            final boolean finished, final boolean withIssuesOnly, final boolean childJobs, String jobName,
+            String projectName, String bucketName, Long parentId, String submissionMode, String label,
+            final List<SortParameter<JobSortParameter>> sortParameters, JobStatus status, long submittedTimeGreater,
+            long submittedTimeLessThan, long startAtTimeGreater, long startAtTimeLessThan, final Long afterJobId) {
 
         if (jobId != null && jobId > 0) {
             List<JobInfo> lJobs = executeReadOnlyTransaction(session -> {
@@ -348,73 +445,36 @@ public class SchedulerDBManager {
                                      cb.gt(root.get("numberOfInErrorTasks"), 0)));
             }
 
+            // the REST API sends -1 when no cursor is given
+            boolean hasCursor = afterJobId != null && afterJobId > 0;
+            List<SortParameter<JobSortParameter>> effectiveSortParameters = withIdTieBreaker(sortParameters,
+                                                                                              hasCursor);
+            List<String> sortFields = effectiveSortParameters.stream()
+                                                             .map(param -> getJobSortField(param.getParameter()))
+                                                             .collect(Collectors.toList());
+
+            Predicate keysetPredicate = null;
+            if (hasCursor) {
+                keysetPredicate = createKeysetPredicate(session,
+                                                        cb,
+                                                        root,
+                                                        afterJobId,
+                                                        effectiveSortParameters,
+                                                        sortFields);
+                if (keysetPredicate != null) {
+                    predicates.add(keysetPredicate);
+                }
+            }
+
             if (!predicates.isEmpty()) {
                 criteriaQuery.select(root).where(predicates.toArray(new Predicate[0]));
             } else {
                 criteriaQuery.select(root);
             }
 
-            List<javax.persistence.criteria.Order> orders = new ArrayList<>();
-            if (sortParameters != null) {
-                javax.persistence.criteria.Order sortOrder;
-                for (SortParameter<JobSortParameter> param : sortParameters) {
-                    switch (param.getParameter()) {
-                        case ID:
-                            sortOrder = configureSortOrder(cb, root, param, "id");
-                            break;
-                        case NAME:
-                            sortOrder = configureSortOrder(cb, root, param, "jobName");
-                            break;
-                        case OWNER:
-                            sortOrder = configureSortOrder(cb, root, param, "owner");
-                            break;
-                        case PRIORITY:
-                            sortOrder = configureSortOrder(cb, root, param, "priority");
-                            break;
-                        case STATE:
-                            sortOrder = configureSortOrder(cb, root, param, "statusRank");
-                            break;
-                        case START_AT:
-                            sortOrder = configureSortOrder(cb, root, param, "startAt");
-                            break;
-                        case SUBMIT_TIME:
-                            sortOrder = configureSortOrder(cb, root, param, "submittedTime");
-                            break;
-                        case START_TIME:
-                            sortOrder = configureSortOrder(cb, root, param, "startTime");
-                            break;
-                        case FINISH_TIME:
-                            sortOrder = configureSortOrder(cb, root, param, "finishedTime");
-                            break;
-                        case IN_ERROR_TIME:
-                            sortOrder = configureSortOrder(cb, root, param, "finishedTime");
-                            break;
-                        case TOTAL_TASKS:
-                            sortOrder = configureSortOrder(cb, root, param, "totalNumberOfTasks");
-                            break;
-                        case PENDING_TASKS:
-                            sortOrder = configureSortOrder(cb, root, param, "numberOfPendingTasks");
-                            break;
-                        case RUNNING_TASKS:
-                            sortOrder = configureSortOrder(cb, root, param, "numberOfRunningTasks");
-                            break;
-                        case IN_ERROR_TASKS:
-                            sortOrder = configureSortOrder(cb, root, param, "numberOfInErrorTasks");
-                            break;
-                        case FINISHED_TASKS:
-                            sortOrder = configureSortOrder(cb, root, param, "numberOfFinishedTasks");
-                            break;
-                        case FAULTY_TASKS:
-                            sortOrder = configureSortOrder(cb, root, param, "numberOfFaultyTasks");
-                            break;
-                        case FAILED_TASKS:
-                            sortOrder = configureSortOrder(cb, root, param, "numberOfFailedTasks");
-                            break;
-                        default:
-                            throw new IllegalArgumentException("Unsupported sort parameter: " + param.getParameter());
-                    }
-                    orders.add(sortOrder);
-                }
+            List<javax.persistence.criteria.Order> orders = new ArrayList<>(effectiveSortParameters.size());
+            for (int i = 0; i < effectiveSortParameters.size(); i++) {
+                orders.add(configureSortOrder(cb, root, effectiveSortParameters.get(i), sortFields.get(i)));
             }
             if (!orders.isEmpty()) {
                 criteriaQuery.orderBy(orders);
@@ -425,7 +485,7 @@ public class SchedulerDBManager {
             if (limit > 0) {
                 query.setMaxResults(limit);
             }
-            if (offset >= 0) {
+            if (keysetPredicate == null && offset >= 0) {
                 query.setFirstResult(offset);
             }
             List<JobData> jobsList = query.list();
@@ -438,83 +498,185 @@ public class SchedulerDBManager {
     public int getNumberOfFilteredJobs(final String workflowName, String bucketName, String user, String tenant,
             final long startTime, final long endTime, Collection<JobStatus> statuses, Boolean withFailedTasks) {
 
-        return executeReadOnlyTransaction(session -> {
-            CriteriaBuilder cb = session.getCriteriaBuilder();
-            CriteriaQuery<Long> criteriaQuery = cb.createQuery(Long.class);
-            Root<JobData> root = criteriaQuery.from(JobData.class);
-            List<Predicate> predicates = new ArrayList<>();
-            if (statuses != null && !statuses.isEmpty()) {
-                predicates.add(root.get("status").in(statuses));
-            }
-            if (StringUtils.isNotEmpty(user)) {
-                predicates.add(cb.equal(root.get("owner"), user));
-                if (StringUtils.isNotEmpty(tenant)) {
-                    predicates.add(cb.or(cb.equal(root.get("tenant"), tenant), cb.isNull(root.get("tenant"))));
+        StatisticsRollup.Period period = statisticsRollup.getPeriod(startTime, endTime);
+        // non terminated jobs are never rolled up
+        boolean useRollups = period.useRollups() && (statuses == null || statuses.isEmpty() ||
+                                                     !Collections.disjoint(statuses,
+                                                                           StatisticsRollup.TERMINAL_JOB_STATUSES));
+
+        statisticsRollup.getLock().readLock().lock();
+        try {
+            return executeReadOnlyTransaction(session -> {
+                CriteriaBuilder cb = session.getCriteriaBuilder();
+                CriteriaQuery<Long> criteriaQuery = cb.createQuery(Long.class);
+                Root<JobData> root = criteriaQuery.from(JobData.class);
+                List<Predicate> predicates = getJobStatisticsPredicates(cb,
+                                                                        root,
+                                                                        workflowName,
+                                                                        bucketName,
+                                                                        user,
+                                                                        tenant,
+                                                                        statuses);
+                if (startTime > 0) {
+                    predicates.add(cb.ge(root.get("finishedTime"), startTime));
                 }
+                if (endTime > 0) {
+                    predicates.add(cb.lt(root.get("finishedTime"), endTime));
+                }
+                if (Boolean.TRUE.equals(withFailedTasks)) {
+                    predicates.add(cb.or(cb.gt(root.get("numberOfFailedTasks"), 0),
+                                         cb.gt(root.get("numberOfFaultyTasks"), 0),
+                                         cb.gt(root.get("numberOfInErrorTasks"), 0)));
+                } else if (Boolean.FALSE.equals(withFailedTasks)) {
+                    predicates.add(cb.and(cb.equal(root.get("numberOfFailedTasks"), 0),
+                                          cb.equal(root.get("numberOfFaultyTasks"), 0),
+                                          cb.equal(root.get("numberOfInErrorTasks"), 0)));
+                }
+                if (useRollups) {
+                    predicates.add(period.getNotRolledUpPredicate(cb,
+                                                                  root.get("finishedTime"),
+                                                                  root.get("statisticsRolledUp")));
+                }
+                if (!predicates.isEmpty()) {
+                    criteriaQuery.select(cb.count(root)).where(predicates.toArray(new Predicate[0]));
+                } else {
+                    criteriaQuery.select(cb.count(root));
+                }
+                org.hibernate.query.Query<Long> query = session.createQuery(criteriaQuery);
+                int count = query.getSingleResult().intValue();
+                if (useRollups) {
+                    count += getNumberOfRolledUpJobs(session,
+                                                     period,
+                                                     workflowName,
+                                                     bucketName,
+                                                     user,
+                                                     tenant,
+                                                     statuses,
+                                                     withFailedTasks);
+                }
+                return count;
+            }, IS_HSQLDB ? new HSQLDBOrderByInterceptor() : null);
+        } finally {
+            statisticsRollup.getLock().readLock().unlock();
+        }
+    }
+
+    private int getNumberOfRolledUpJobs(Session session, StatisticsRollup.Period period, String workflowName,
+            String bucketName, String user, String tenant, Collection<JobStatus> statuses, Boolean withFailedTasks) {
+        CriteriaBuilder cb = session.getCriteriaBuilder();
+        CriteriaQuery<Long> criteriaQuery = cb.createQuery(Long.class);
+        Root<JobStatisticsData> root = criteriaQuery.from(JobStatisticsData.class);
+        List<Predicate> predicates = getJobStatisticsPredicates(cb,
+                                                                root,
+                                                                workflowName,
+                                                                bucketName,
+                                                                user,
+                                                                tenant,
+                                                                statuses);
+        predicates.add(period.getRollupPredicate(cb, root.get("timeBucket")));
+        Expression<Long> numberOfJobs;
+        if (Boolean.TRUE.equals(withFailedTasks)) {
+            numberOfJobs = root.get("jobsWithIssues");
+        } else if (Boolean.FALSE.equals(withFailedTasks)) {
+            numberOfJobs = cb.diff(root.get("jobCount"), root.<Long> get("jobsWithIssues"));
+        } else {
+            numberOfJobs = root.get("jobCount");
+        }
+        criteriaQuery.select(cb.sum(numberOfJobs)).where(predicates.toArray(new Predicate[0]));
+        Long count = session.createQuery(criteriaQuery).getSingleResult();
+        return count != null ? count.intValue() : 0;
+    }
+
+    /**
+     * Predicates on the job attributes shared by JobData and JobStatisticsData
+     */
+    private static List<Predicate> getJobStatisticsPredicates(CriteriaBuilder cb, Root<?> root, String workflowName,
+            String bucketName, String user, String tenant, Collection<JobStatus> statuses) {
+        List<Predicate> predicates = new ArrayList<>();
+        if (statuses != null && !statuses.isEmpty()) {
+            predicates.add(root.get("status").in(statuses));
+        }
+        if (StringUtils.isNotEmpty(user)) {
+            predicates.add(cb.equal(root.get("owner"), user));
+            if (StringUtils.isNotEmpty(tenant)) {
+                predicates.add(cb.or(cb.equal(root.get("tenant"), tenant), cb.isNull(root.get("tenant"))));
             }
-            if (StringUtils.isNotEmpty(workflowName)) {
-                predicates.add(cb.like(root.get("jobName"), workflowName + "%"));
-            }
-            if (StringUtils.isNotEmpty(bucketName)) {
-                predicates.add(cb.like(root.get("bucketName"), bucketName + "%"));
-            }
-            if (startTime > 0) {
-                predicates.add(cb.ge(root.get("finishedTime"), startTime));
-            }
-            if (endTime > 0) {
-                predicates.add(cb.lt(root.get("finishedTime"), endTime));
-            }
-            if (Boolean.TRUE.equals(withFailedTasks)) {
-                predicates.add(cb.or(cb.gt(root.get("numberOfFailedTasks"), 0),
-                                     cb.gt(root.get("numberOfFaultyTasks"), 0),
-                                     cb.gt(root.get("numberOfInErrorTasks"), 0)));
-            } else if (Boolean.FALSE.equals(withFailedTasks)) {
-                predicates.add(cb.and(cb.equal(root.get("numberOfFailedTasks"), 0),
-                                      cb.equal(root.get("numberOfFaultyTasks"), 0),
-                                      cb.equal(root.get("numberOfInErrorTasks"), 0)));
-            }
-            if (!predicates.isEmpty()) {
-                criteriaQuery.select(cb.count(root)).where(predicates.toArray(new Predicate[0]));
-            } else {
-                criteriaQuery.select(cb.count(root));
-            }
-            org.hibernate.query.Query<Long> query = session.createQuery(criteriaQuery);
-            return query.getSingleResult().intValue();
-        }, IS_HSQLDB ? new HSQLDBOrderByInterceptor() : null);
+        }
+        if (StringUtils.isNotEmpty(workflowName)) {
+            predicates.add(cb.like(root.get("jobName"), workflowName + "%"));
+        }
+        if (StringUtils.isNotEmpty(bucketName)) {
+            predicates.add(cb.like(root.get("bucketName"), bucketName + "%"));
+        }
+        return predicates;
     }
 
     public int getNumberOfFilteredTasks(final String taskName, String user, String tenant, final long startTime,
             final long endTime, Collection<TaskStatus> statuses) {
 
-        return executeReadOnlyTransaction(session -> {
-            CriteriaBuilder cb = session.getCriteriaBuilder();
-            CriteriaQuery<Long> criteriaQuery = cb.createQuery(Long.class);
-            Root<TaskData> root = criteriaQuery.from(TaskData.class);
-            List<Predicate> predicates = new ArrayList<>();
-            predicates.add(root.get("taskStatus").in(statuses));
-            if (StringUtils.isNotEmpty(user)) {
-                predicates.add(cb.equal(root.get("owner"), user));
-                if (StringUtils.isNotEmpty(tenant)) {
-                    predicates.add(cb.or(cb.equal(root.get("tenant"), tenant), cb.isNull(root.get("tenant"))));
+        StatisticsRollup.Period period = statisticsRollup.getPeriod(startTime, endTime);
+
+        statisticsRollup.getLock().readLock().lock();
+        try {
+            return executeReadOnlyTransaction(session -> {
+                CriteriaBuilder cb = session.getCriteriaBuilder();
+                CriteriaQuery<Long> criteriaQuery = cb.createQuery(Long.class);
+                Root<TaskData> root = criteriaQuery.from(TaskData.class);
+                List<Predicate> predicates = getTaskStatisticsPredicates(cb, root, taskName, user, tenant, statuses);
+                if (startTime > 0) {
+                    predicates.add(cb.ge(root.get("finishedTime"), startTime));
+                }
+                if (endTime > 0) {
+                    predicates.add(cb.lt(root.get("finishedTime"), endTime));
+                }
+                if (period.useRollups()) {
+                    // the tasks are rolled up with their job
+                    predicates.add(period.getNotRolledUpPredicate(cb,
+                                                                  root.get("finishedTime"),
+                                                                  root.get("jobData").get("statisticsRolledUp")));
                 }
-            }
-            if (StringUtils.isNotEmpty(taskName)) {
-                predicates.add(cb.like(root.get("taskName"), taskName + "%"));
-            }
-            if (startTime > 0) {
-                predicates.add(cb.ge(root.get("finishedTime"), startTime));
-            }
-            if (endTime > 0) {
-                predicates.add(cb.lt(root.get("finishedTime"), endTime));
-            }
-            if (!predicates.isEmpty()) {
                 criteriaQuery.select(cb.count(root)).where(predicates.toArray(new Predicate[0]));
-            } else {
-                criteriaQuery.select(cb.count(root));
+                org.hibernate.query.Query<Long> query = session.createQuery(criteriaQuery);
+                int count = query.getSingleResult().intValue();
+                if (period.useRollups()) {
+                    CriteriaQuery<Long> rollupQuery = cb.createQuery(Long.class);
+                    Root<TaskStatisticsData> rollupRoot = rollupQuery.from(TaskStatisticsData.class);
+                    List<Predicate> rollupPredicates = getTaskStatisticsPredicates(cb,
+                                                                                   rollupRoot,
+                                                                                   taskName,
+                                                                                   user,
+                                                                                   tenant,
+                                                                                   statuses);
+                    rollupPredicates.add(period.getRollupPredicate(cb, rollupRoot.get("timeBucket")));
+                    rollupQuery.select(cb.sum(rollupRoot.<Long> get("taskCount")))
+                               .where(rollupPredicates.toArray(new Predicate[0]));
+                    Long rolledUpCount = session.createQuery(rollupQuery).getSingleResult();
+                    count += rolledUpCount != null ? rolledUpCount.intValue() : 0;
+                }
+                return count;
+            }, IS_HSQLDB ? new HSQLDBOrderByInterceptor() : null);
+        } finally {
+            statisticsRollup.getLock().readLock().unlock();
+        }
+    }
+
+    /**
+     * Predicates on the task attributes shared by TaskData and TaskStatisticsData
+     */
+    private static List<Predicate> getTaskStatisticsPredicates(CriteriaBuilder cb, Root<?> root, String taskName,
+            String user, String tenant, Collection<TaskStatus> statuses) {
+        List<Predicate> predicates = new ArrayList<>();
+        predicates.add(root.get("taskStatus").in(statuses));
+        if (StringUtils.isNotEmpty(user)) {
+            predicates.add(cb.equal(root.get("owner"), user));
+            if (StringUtils.isNotEmpty(tenant)) {
+                predicates.add(cb.or(cb.equal(root.get("tenant"), tenant), cb.isNull(root.get("tenant"))));
             }
-            org.hibernate.query.Query<Long> query = session.createQuery(criteriaQuery);
-            return query.getSingleResult().intValue();
-        }, IS_HSQLDB ? new HSQLDBOrderByInterceptor() : null);
+        }
+        if (StringUtils.isNotEmpty(taskName)) {
+            predicates.add(cb.like(root.get("taskName"), taskName + "%"));
+        }
+        return predicates;
     }
 
     public List<JobInfo> getJobs(final List<String> jobIds) {
@@ -584,12 +746,36 @@ public class SchedulerDBManager {
 
     private int getTotalNumberOfTasks(final DBTaskDataParameters params) {
 
-        return executeReadOnlyTransaction(TaskDBUtils.getTotalNumberOfTasks(params));
+        return getCachedCount(params.getCountKey(),
+                              () -> executeReadOnlyTransaction(TaskDBUtils.getTotalNumberOfTasks(params)));
 
     }
 
     private int getTotalNumberOfJobs(final DBJobDataParameters params) {
 
+        return getCachedCount(params.getCountKey(), () -> countJobs(params));
+
+    }
+
+    /**
+     * Counting all the rows matching a filter is as expensive as reading them, while the portals ask for the same
+     * total on every refresh. The count is thus reused during a bounded duration, or until jobs are added or removed.
+     * It is approximate: jobs and tasks changing status are not taken into account until the count expires.
+     */
+    private int getCachedCount(List<Object> key, Supplier<Integer> counter) {
+        if (countCacheDuration <= 0) {
+            return counter.get();
+        }
+        Integer count = countCache.getIfPresent(key);
+        if (count == null) {
+            count = counter.get();
+            countCache.put(key, count);
+        }
+        return count;
+    }
+
+    private int countJobs(final DBJobDataParameters params) {
+
         return executeReadOnlyTransaction(session -> {
 
             Set<Integer> statusRanks = params.getStatusRanks();
@@ -736,6 +922,114 @@ public class SchedulerDBManager {
         }
     }
 
+    private static String getJobSortField(JobSortParameter parameter) {
+        switch (parameter) {
+            case ID:
+                return "id";
+            case NAME:
+                return "jobName";
+            case OWNER:
+                return "owner";
+            case PRIORITY:
+                return "priority";
+            case STATE:
+                return "statusRank";
+            case START_AT:
+                return "startAt";
+            case SUBMIT_TIME:
+                return "submittedTime";
+            case START_TIME:
+                return "startTime";
+            case FINISH_TIME:
+            case IN_ERROR_TIME:
+                return "finishedTime";
+            case TOTAL_TASKS:
+                return "totalNumberOfTasks";
+            case PENDING_TASKS:
+                return "numberOfPendingTasks";
+            case RUNNING_TASKS:
+                return "numberOfRunningTasks";
+            case IN_ERROR_TASKS:
+                return "numberOfInErrorTasks";
+            case FINISHED_TASKS:
+                return "numberOfFinishedTasks";
+            case FAULTY_TASKS:
+                return "numberOfFaultyTasks";
+            case FAILED_TASKS:
+                return "numberOfFailedTasks";
+            default:
+                throw new IllegalArgumentException("Unsupported sort parameter: " + parameter);
+        }
+    }
+
+    /**
+     * Appends the job id to the sort parameters, so that the order is total and a page can start right after a
+     * given job. Without sort parameters and without cursor the jobs are left unordered, as before.
+     */
+    private static List<SortParameter<JobSortParameter>> withIdTieBreaker(
+            List<SortParameter<JobSortParameter>> sortParameters, boolean hasCursor) {
+        List<SortParameter<JobSortParameter>> result = new ArrayList<>();
+        if (sortParameters != null) {
+            result.addAll(sortParameters);
+        }
+        if ((!result.isEmpty() || hasCursor) &&
+            result.stream().noneMatch(param -> param.getParameter() == JobSortParameter.ID)) {
+            result.add(new SortParameter<>(JobSortParameter.ID, SortOrder.DESC));
+        }
+        return result;
+    }
+
+    /**
+     * Creates the predicate selecting the jobs placed after the given job in the given order, i.e.
+     * <code>(k1 > v1) or (k1 = v1 and k2 > v2) or ...</code> where <code>vi</code> are the sort values of this job.
+     *
+     * @return the predicate, or null when the job does not exist, has an undefined sort value, or when one of the
+     * sort fields can be undefined
+     */
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    private static Predicate createKeysetPredicate(Session session, CriteriaBuilder cb, Root<JobData> root,
+            long afterJobId, List<SortParameter<JobSortParameter>> sortParameters, List<String> sortFields) {
+        if (!Collections.disjoint(sortFields, NULLABLE_JOB_SORT_FIELDS)) {
+            logger.debug("Jobs are sorted on a field which can be undefined, using offset instead of job " +
+                         afterJobId + " as page cursor");
+            return null;
+        }
+        CriteriaQuery<Tuple> cursorQuery = cb.createTupleQuery();
+        Root<JobData> cursorRoot = cursorQuery.from(JobData.class);
+        List<Selection<?>> cursorSelections = new ArrayList<>(sortFields.size());
+        for (String sortField : sortFields) {
+            cursorSelections.add(cursorRoot.get(sortField));
+        }
+        cursorQuery.multiselect(cursorSelections).where(cb.equal(cursorRoot.get("id"), afterJobId));
+        List<Tuple> cursorValues = session.createQuery(cursorQuery).list();
+        if (cursorValues.isEmpty()) {
+            logger.debug("Job " + afterJobId + " used as page cursor does not exist, using offset instead");
+            return null;
+        }
+        Tuple cursor = cursorValues.get(0);
+
+        List<Predicate> alternatives = new ArrayList<>(sortFields.size());
+        List<Predicate> equalities = new ArrayList<>(sortFields.size());
+        for (int i = 0; i < sortFields.size(); i++) {
+            Comparable value = (Comparable) cursor.get(i);
+            if (value == null) {
+                logger.debug("Job " + afterJobId + " used as page cursor has no " + sortFields.get(i) +
+                             ", using offset instead");
+                return null;
+            }
+            Expression field = root.get(sortFields.get(i));
+            List<Predicate> alternative = new ArrayList<>(equalities);
+            if (sortParameters.get(i).getSortOrder().isAscending()) {
+                alternative.add(cb.greaterThan(field, value));
+            } else {
+                alternative.add(cb.lessThan(field, value));
+            }
+            alternatives.add(cb.and(alternative.toArray(new Predicate[0])));
+            equalities.add(cb.equal(field, value));
+        }
+        return cb.or(alternatives.toArray(new Predicate[0]));
+    }
+
     public List<JobUsage> getUsage(final String userName, final Date startDate, final Date endDate) {
         return executeReadOnlyTransaction(session -> {
             if (startDate == null || endDate == null) {
@@ -764,6 +1058,9 @@ public class SchedulerDBManager {
     }
 
     public void close() {
+        if (statisticsRollupExecutor != null) {
+            statisticsRollupExecutor.shutdownNow();
+        }
         try {
             if (sessionFactory != null) {
                 logger.info("Closing session factory");
@@ -1113,31 +1410,23 @@ public class SchedulerDBManager {
     public List<FilteredTopWorkflow> getTopWorkflowsWithIssues(int numberOfWorkflows, final String workflowName,
             String bucketName, String user, String tenant, final long startTime, final long endTime) {
 
-        return executeReadOnlyTransaction(session -> {
-
-            String selectSubQuery = "select jobName, projectName, (sum(numberOfFailedTasks) + sum(numberOfFaultyTasks)) as errorCount, count(*) as numberOfExecution from JobData where (numberOfFailedTasks > 0 or numberOfFaultyTasks > 0) ";
-            String subQueryGroupByStatement = "group by jobName, projectName order by errorCount desc";
-            Query query = getTopWorkflowsQuery(session,
-                                               workflowName,
-                                               bucketName,
-                                               user,
-                                               tenant,
-                                               startTime,
-                                               endTime,
-                                               numberOfWorkflows,
-                                               selectSubQuery,
-                                               subQueryGroupByStatement,
-                                               FINISHED_AND_STARTED);
-
-            List<Object[]> list = query.list();
-            return list.stream()
-                       .map(nameAndCount -> new FilteredTopWorkflow(nameAndCount[0].toString(),
-                                                                    nameAndCount[1] != null ? nameAndCount[1].toString()
-                                                                                            : null,
-                                                                    Long.parseLong(nameAndCount[2].toString()),
-                                                                    Integer.parseInt(nameAndCount[3].toString())))
-                       .collect(Collectors.toList());
-        });
+        String selectSubQuery = "select jobName, projectName, (sum(numberOfFailedTasks) + sum(numberOfFaultyTasks)) as errorCount, count(*) as numberOfExecution from JobData where (numberOfFailedTasks > 0 or numberOfFaultyTasks > 0) ";
+        String selectRollupSubQuery = "select jobName, projectName, sum(errorCount), sum(jobsWithFailedTasks) from JobStatisticsData where jobsWithFailedTasks > 0 ";
+        Map<List<String>, long[]> statistics = getWorkflowsStatistics(workflowName,
+                                                                      bucketName,
+                                                                      user,
+                                                                      tenant,
+                                                                      startTime,
+                                                                      endTime,
+                                                                      selectSubQuery,
+                                                                      selectRollupSubQuery);
+        return getTopWorkflows(statistics,
+                               numberOfWorkflows,
+                               measures -> measures[0],
+                               (names, measures) -> new FilteredTopWorkflow(names.get(0),
+                                                                            names.get(1),
+                                                                            measures[0],
+                                                                            (int) measures[1]));
     }
 
     public Map<String, Integer> getNumberOfJobsSubmittedFromEachPortals(final String workflowName, String bucketName,
@@ -1171,125 +1460,190 @@ public class SchedulerDBManager {
             final String workflowName, String bucketName, String user, String tenant, final long startTime,
             final long endTime) {
 
-        return executeReadOnlyTransaction(session -> {
-
-            String selectSubQuery = "select jobName, projectName, sum(cumulatedCoreTime) as totalCumulatedCoreTime, count(*) as numberOfExecution from JobData where startTime > 0 and finishedTime > 0  ";
-            String subQueryGroupByStatement = "group by jobName, projectName order by totalCumulatedCoreTime desc";
-            Query query = getTopWorkflowsQuery(session,
-                                               workflowName,
-                                               bucketName,
-                                               user,
-                                               tenant,
-                                               startTime,
-                                               endTime,
-                                               numberOfWorkflows,
-                                               selectSubQuery,
-                                               subQueryGroupByStatement,
-                                               FINISHED_AND_STARTED);
-
-            List<Object[]> list = query.list();
-            return list.stream()
-                       .map(nameAndCount -> new FilteredTopWorkflowsCumulatedCoreTime(nameAndCount[0].toString(),
-                                                                                      nameAndCount[1] != null ? nameAndCount[1].toString()
-                                                                                                              : null,
-                                                                                      nameAndCount[2] != null ? Long.parseLong(nameAndCount[2].toString())
-                                                                                                              : 0L,
-                                                                                      Integer.parseInt(nameAndCount[3].toString())))
-                       .collect(Collectors.toList());
-        });
+        String selectSubQuery = "select jobName, projectName, sum(cumulatedCoreTime) as totalCumulatedCoreTime, count(*) as numberOfExecution from JobData where startTime > 0 and finishedTime > 0  ";
+        String selectRollupSubQuery = "select jobName, projectName, sum(cumulatedCoreTime), sum(startedJobs) from JobStatisticsData where startedJobs > 0 ";
+        Map<List<String>, long[]> statistics = getWorkflowsStatistics(workflowName,
+                                                                      bucketName,
+                                                                      user,
+                                                                      tenant,
+                                                                      startTime,
+                                                                      endTime,
+                                                                      selectSubQuery,
+                                                                      selectRollupSubQuery);
+        return getTopWorkflows(statistics,
+                               numberOfWorkflows,
+                               measures -> measures[0],
+                               (names, measures) -> new FilteredTopWorkflowsCumulatedCoreTime(names.get(0),
+                                                                                              names.get(1),
+                                                                                              measures[0],
+                                                                                              (int) measures[1]));
     }
 
     public List<FilteredTopWorkflowsNumberOfNodes> getTopWorkflowsNumberOfNodes(int numberOfWorkflows,
             final String workflowName, String bucketName, String user, String tenant, final long startTime,
             final long endTime, boolean inParallel) {
 
-        return executeReadOnlyTransaction(session -> {
-
-            String queryNumberOfNodes = "select jobName, projectName, sum(numberOfNodes) as totalNumberOfNodes, count(*) as numberOfExecution from JobData where startTime > 0 and finishedTime > 0  ";
-            String queryNumberOfNodesInParallel = "select jobName, projectName, avg(numberOfNodesInParallel) as totalNumberOfNodes, count(*) as numberOfExecution from JobData where startTime > 0 and finishedTime > 0  ";
-            String selectSubQuery = inParallel ? queryNumberOfNodesInParallel : queryNumberOfNodes;
-            String subQueryGroupByStatement = "group by jobName, projectName order by totalNumberOfNodes desc";
-            Query query = getTopWorkflowsQuery(session,
-                                               workflowName,
-                                               bucketName,
-                                               user,
-                                               tenant,
-                                               startTime,
-                                               endTime,
-                                               numberOfWorkflows,
-                                               selectSubQuery,
-                                               subQueryGroupByStatement,
-                                               FINISHED_AND_STARTED);
-
-            List<Object[]> list = query.list();
-            return list.stream()
-                       .map(nameAndCount -> new FilteredTopWorkflowsNumberOfNodes(nameAndCount[0].toString(),
-                                                                                  nameAndCount[1] != null ? nameAndCount[1].toString()
-                                                                                                          : null,
-                                                                                  (int) Math.round(Double.parseDouble(nameAndCount[2].toString())),
-                                                                                  Integer.parseInt(nameAndCount[3].toString())))
-                       .collect(Collectors.toList());
-        });
+        // the average number of nodes in parallel only considers the jobs where it is defined
+        String queryNumberOfNodes = "select jobName, projectName, sum(numberOfNodes) as totalNumberOfNodes, count(*) as nodesCount, count(*) as numberOfExecution from JobData where startTime > 0 and finishedTime > 0  ";
+        String queryNumberOfNodesInParallel = "select jobName, projectName, sum(numberOfNodesInParallel) as totalNumberOfNodes, count(numberOfNodesInParallel) as nodesCount, count(*) as numberOfExecution from JobData where startTime > 0 and finishedTime > 0  ";
+        String rollupNumberOfNodes = "select jobName, projectName, sum(numberOfNodes), sum(startedJobs), sum(startedJobs) from JobStatisticsData where startedJobs > 0 ";
+        String rollupNumberOfNodesInParallel = "select jobName, projectName, sum(numberOfNodesInParallel), sum(jobsWithNodesInParallel), sum(startedJobs) from JobStatisticsData where startedJobs > 0 ";
+        Map<List<String>, long[]> statistics = getWorkflowsStatistics(workflowName,
+                                                                      bucketName,
+                                                                      user,
+                                                                      tenant,
+                                                                      startTime,
+                                                                      endTime,
+                                                                      inParallel ? queryNumberOfNodesInParallel
+                                                                                 : queryNumberOfNodes,
+                                                                      inParallel ? rollupNumberOfNodesInParallel
+                                                                                 : rollupNumberOfNodes);
+        ToDoubleFunction<long[]> numberOfNodes = inParallel ? measures -> average(measures[0], measures[1])
+                                                            : measures -> measures[0];
+        return getTopWorkflows(statistics,
+                               numberOfWorkflows,
+                               numberOfNodes,
+                               (names, measures) -> new FilteredTopWorkflowsNumberOfNodes(names.get(0),
+                                                                                          names.get(1),
+                                                                                          (int) Math.round(numberOfNodes.applyAsDouble(measures)),
+                                                                                          (int) measures[2]));
     }
 
     public List<WorkflowDuration> getTopExecutionTimeWorkflows(int numberOfWorkflows, final String workflowName,
             String bucketName, String user, String tenant, final long startTime, final long endTime) {
 
-        return executeReadOnlyTransaction(session -> {
-
-            String selectSubQuery = "select jobName, projectName, avg(finishedTime - startTime) as executionTime, count(*) as numberOfExecution from JobData where startTime > 0 and finishedTime > 0 ";
-            String subQueryGroupByStatement = "group by jobName, projectName order by executionTime desc";
-            Query query = getTopWorkflowsQuery(session,
-                                               workflowName,
-                                               bucketName,
-                                               user,
-                                               tenant,
-                                               startTime,
-                                               endTime,
-                                               numberOfWorkflows,
-                                               selectSubQuery,
-                                               subQueryGroupByStatement,
-                                               FINISHED_AND_STARTED);
-
-            List<Object[]> list = query.list();
-            return list.stream()
-                       .map(nameAndCount -> new WorkflowDuration(nameAndCount[0].toString(),
-                                                                 nameAndCount[1] != null ? nameAndCount[1].toString()
-                                                                                         : null,
-                                                                 Math.round(Double.parseDouble(nameAndCount[2].toString())),
-                                                                 Integer.parseInt(nameAndCount[3].toString())))
-                       .collect(Collectors.toList());
-        });
+        String selectSubQuery = "select jobName, projectName, sum(finishedTime - startTime) as executionTime, count(*) as numberOfExecution from JobData where startTime > 0 and finishedTime > 0 ";
+        String selectRollupSubQuery = "select jobName, projectName, sum(executionTime), sum(startedJobs) from JobStatisticsData where startedJobs > 0 ";
+        return getTopWorkflowDurations(numberOfWorkflows,
+                                       workflowName,
+                                       bucketName,
+                                       user,
+                                       tenant,
+                                       startTime,
+                                       endTime,
+                                       selectSubQuery,
+                                       selectRollupSubQuery);
     }
 
     public List<WorkflowDuration> getTopPendingTimeWorkflows(int numberOfWorkflows, final String workflowName,
             String bucketName, String user, String tenant, final long startTime, final long endTime) {
 
-        return executeReadOnlyTransaction(session -> {
+        String selectSubQuery = "select jobName, projectName, sum(startTime - submittedTime) as pendingTime, count(*) as numberOfExecution from JobData where startTime > 0 and finishedTime > 0 ";
+        String selectRollupSubQuery = "select jobName, projectName, sum(pendingTime), sum(startedJobs) from JobStatisticsData where startedJobs > 0 ";
+        return getTopWorkflowDurations(numberOfWorkflows,
+                                       workflowName,
+                                       bucketName,
+                                       user,
+                                       tenant,
+                                       startTime,
+                                       endTime,
+                                       selectSubQuery,
+                                       selectRollupSubQuery);
+    }
+
+    private List<WorkflowDuration> getTopWorkflowDurations(int numberOfWorkflows, String workflowName,
+            String bucketName, String user, String tenant, long startTime, long endTime, String selectSubQuery,
+            String selectRollupSubQuery) {
+        Map<List<String>, long[]> statistics = getWorkflowsStatistics(workflowName,
+                                                                      bucketName,
+                                                                      user,
+                                                                      tenant,
+                                                                      startTime,
+                                                                      endTime,
+                                                                      selectSubQuery,
+                                                                      selectRollupSubQuery);
+        return getTopWorkflows(statistics,
+                               numberOfWorkflows,
+                               measures -> average(measures[0], measures[1]),
+                               (names, measures) -> new WorkflowDuration(names.get(0),
+                                                                         names.get(1),
+                                                                         Math.round(average(measures[0], measures[1])),
+                                                                         (int) measures[1]));
+    }
 
-            String selectSubQuery = "select jobName, projectName, avg(startTime - submittedTime) as pendingTime, count(*) as numberOfExecution from JobData where startTime > 0 and finishedTime > 0 ";
-            String subQueryGroupByStatement = "group by jobName, projectName order by pendingTime desc";
-            Query query = getTopWorkflowsQuery(session,
-                                               workflowName,
-                                               bucketName,
-                                               user,
-                                               tenant,
-                                               startTime,
-                                               endTime,
-                                               numberOfWorkflows,
-                                               selectSubQuery,
-                                               subQueryGroupByStatement,
-                                               FINISHED_AND_STARTED);
+    /**
+     * Sums the measures selected by the given queries per job name and project name, over the jobs which finished
+     * in the given period. Both queries must select the job name, the project name and the same measures, the
+     * first one from JobData and the second one from JobStatisticsData. The rollups are used for the time buckets
+     * fully included in the period, and JobData for the remaining jobs.
+     */
+    private Map<List<String>, long[]> getWorkflowsStatistics(String workflowName, String bucketName, String user,
+            String tenant, long startTime, long endTime, String selectSubQuery, String selectRollupSubQuery) {
+        StatisticsRollup.Period period = statisticsRollup.getPeriod(startTime, endTime);
+        String groupByStatement = "group by jobName, projectName";
 
-            List<Object[]> list = query.list();
-            return list.stream()
-                       .map(nameAndCount -> new WorkflowDuration(nameAndCount[0].toString(),
-                                                                 nameAndCount[1] != null ? nameAndCount[1].toString()
-                                                                                         : null,
-                                                                 Math.round(Double.parseDouble(nameAndCount[2].toString())),
-                                                                 Integer.parseInt(nameAndCount[3].toString())))
-                       .collect(Collectors.toList());
-        });
+        statisticsRollup.getLock().readLock().lock();
+        try {
+            return executeReadOnlyTransaction(session -> {
+                Map<List<String>, long[]> statistics = new HashMap<>();
+                String jobDataSubQuery = selectSubQuery;
+                if (period.useRollups()) {
+                    jobDataSubQuery += "and " + period.getNotRolledUpCondition("finishedTime", "statisticsRolledUp") +
+                                       " ";
+                }
+                Query query = getTopWorkflowsQuery(session,
+                                                   workflowName,
+                                                   bucketName,
+                                                   user,
+                                                   tenant,
+                                                   startTime,
+                                                   endTime,
+                                                   0,
+                                                   jobDataSubQuery,
+                                                   groupByStatement,
+                                                   FINISHED_AND_STARTED);
+                if (period.useRollups()) {
+                    period.setParameters(query);
+                }
+                addWorkflowsStatistics(statistics, query.list());
+
+                if (period.useRollups()) {
+                    query = getTopWorkflowsQuery(session,
+                                                 workflowName,
+                                                 bucketName,
+                                                 user,
+                                                 tenant,
+                                                 0,
+                                                 0,
+                                                 0,
+                                                 selectRollupSubQuery + "and " + period.getRollupCondition() + " ",
+                                                 groupByStatement,
+                                                 FINISHED_AND_STARTED);
+                    period.setParameters(query);
+                    addWorkflowsStatistics(statistics, query.list());
+                }
+                return statistics;
+            });
+        } finally {
+            statisticsRollup.getLock().readLock().unlock();
+        }
+    }
+
+    private static void addWorkflowsStatistics(Map<List<String>, long[]> statistics, List<Object[]> rows) {
+        for (Object[] row : rows) {
+            long[] measures = statistics.computeIfAbsent(Arrays.asList(row[0].toString(),
+                                                                       row[1] != null ? row[1].toString() : null),
+                                                         names -> new long[row.length - 2]);
+            for (int i = 2; i < row.length; i++) {
+                if (row[i] != null) {
+                    measures[i - 2] += ((Number) row[i]).longValue();
+                }
+            }
+        }
+    }
+
+    private static <T> List<T> getTopWorkflows(Map<List<String>, long[]> statistics, int numberOfWorkflows,
+            ToDoubleFunction<long[]> order, BiFunction<List<String>, long[], T> mapper) {
+        Comparator<Map.Entry<List<String>, long[]>> byOrder = Comparator.comparingDouble(entry -> order.applyAsDouble(entry.getValue()));
+        Stream<Map.Entry<List<String>, long[]>> entries = statistics.entrySet().stream().sorted(byOrder.reversed());
+        if (numberOfWorkflows > 0) {
+            entries = entries.limit(numberOfWorkflows);
+        }
+        return entries.map(entry -> mapper.apply(entry.getKey(), entry.getValue())).collect(Collectors.toList());
+    }
+
+    private static double average(long sum, long count) {
+        return count > 0 ? (double) sum / count : 0;
     }
 
     private Query getTopWorkflowsQuery(Session session, String workflowName, String bucketName, String user,
@@ -1677,12 +2031,28 @@ public class SchedulerDBManager {
     public void executeHousekeepingInDB(final List<Long> jobIdList, final boolean shouldRemoveFromDb) {
         List<List<Long>> jobIdSubSets = Lists.partition(jobIdList, MAX_ITEMS_IN_LIST);
         for (List<Long> jobIdSubList : jobIdSubSets) {
+            if (shouldRemoveFromDb) {
+                removeJobsFromStatistics(jobIdSubList);
+            }
             HousekeepingSessionWork housekeepingSessionWork = new HousekeepingSessionWork(jobIdSubList,
                                                                                           shouldRemoveFromDb);
             for (SessionWork<Integer> sessionWork : housekeepingSessionWork.getAllTransactions()) {
                 executeReadWriteTransaction(sessionWork);
             }
         }
+        countCache.invalidateAll();
+    }
+
+    private void removeJobsFromStatistics(List<Long> jobIds) {
+        statisticsRollup.getLock().writeLock().lock();
+        try {
+            executeReadWriteTransaction((SessionWork<Void>) session -> {
+                statisticsRollup.removeJobs(session, jobIds);
+                return null;
+            });
+        } finally {
+            statisticsRollup.getLock().writeLock().unlock();
+        }
     }
 
     public void removeJob(final JobId jobId, final long removedTime, final boolean removeData) {
@@ -1693,9 +2063,11 @@ public class SchedulerDBManager {
         Set<String> updatedParentIds = new HashSet<>();
         List<List<JobId>> jobIdSubSets = Lists.partition(jobIds, MAX_ITEMS_IN_LIST);
         for (List<JobId> jobIdSubList : jobIdSubSets) {
+            List<Long> ids = jobIdSubList.stream().map(SchedulerDBManager::jobId).collect(Collectors.toList());
+            if (removeData) {
+                removeJobsFromStatistics(ids);
+            }
             executeReadWriteTransaction((SessionWork<Void>) session -> {
-                List<Long> ids = jobIdSubList.stream().map(SchedulerDBManager::jobId).collect(Collectors.toList());
-
                 for (Long parentId : (List<Long>) session.getNamedQuery("getParentIds")
                                                          .setParameterList("ids", ids)
                                                          .list()) {
@@ -1732,6 +2104,7 @@ public class SchedulerDBManager {
                 return null;
             });
         }
+        countCache.invalidateAll();
         return updatedParentIds;
     }
 
@@ -2927,6 +3300,7 @@ public class SchedulerDBManager {
             }
             return jobRuntimeData;
         });
+        countCache.invalidateAll();
     }
 
     private void replaceSystemVariables(JobData jobData) {
@@ -2934,10 +3308,11 @@ public class SchedulerDBManager {
         variableReplacement.put(SchedulerVars.PA_JOB_ID.name(), jobData.getId());
         variableReplacement.put(SchedulerVars.PA_JOB_NAME.name(), jobData.getJobName());
         variableReplacement.put(SchedulerVars.PA_USER.name(), jobData.getOwner());
+        VariableSubstitutor.Context substitution = VariableSubstitutor.newContext(variableReplacement);
 
         jobData.getVariables().values().forEach(variable -> {
             String originalValue = variable.getValue();
-            variable.setValue(VariableSubstitutor.filterAndUpdate(originalValue, variableReplacement));
+            variable.setValue(substitution.filterAndUpdate(originalValue));
         });
     }
 
@@ -2946,10 +3321,11 @@ public class SchedulerDBManager {
         variableReplacement.put(SchedulerVars.PA_JOB_ID.name(), internalJob.getId());
         variableReplacement.put(SchedulerVars.PA_JOB_NAME.name(), internalJob.getName());
         variableReplacement.put(SchedulerVars.PA_USER.name(), internalJob.getOwner());
+        VariableSubstitutor.Context substitution = VariableSubstitutor.newContext(variableReplacement);
 
         internalJob.getVariables().values().forEach(runtimeVariable -> {
             String originalValue = runtimeVariable.getValue();
-            runtimeVariable.setValue(VariableSubstitutor.filterAndUpdate(originalValue, variableReplacement));
+            runtimeVariable.setValue(substitution.filterAndUpdate(originalValue));
         });
     }
 
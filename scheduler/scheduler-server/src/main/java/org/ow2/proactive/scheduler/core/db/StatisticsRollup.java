@@ -0,0 +1,504 @@
+/*
+ * ProActive Parallel Suite(TM):
+ * The Open Source library for parallel and distributed
+ * Workflows & Scheduling, Orchestration, Cloud Automation
+ * and Big Data Analysis on Enterprise Grids & Clouds.
+ *
+ * Copyright (c) 2007 - 2017 ActiveEon
+ * Contact: contact@activeeon.com
+ *
+ * This library is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation: version 3 of
+ * the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ */
+package org.ow2.proactive.scheduler.core.db;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Collectors;
+
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.Expression;
+import javax.persistence.criteria.Predicate;
+
+import org.apache.log4j.Logger;
+import org.hibernate.Query;
+import org.hibernate.Session;
+import org.ow2.proactive.scheduler.common.job.JobStatus;
+import org.ow2.proactive.scheduler.common.task.TaskStatus;
+
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Lists;
+
+
+/**
+ * Maintains the statistics of terminated jobs and tasks aggregated per time bucket of their finished time
+ * ({@link JobStatisticsData} and {@link TaskStatisticsData}).
+ * <p>
+ * Terminated jobs are rolled up in batches, in the order of their ids, by a periodic task of the
+ * {@link SchedulerDBManager}. The first runs roll up the existing history. A job which is rolled up has its
+ * <code>statisticsRolledUp</code> flag set, and is subtracted from the rollups when it is removed from the database.
+ * <p>
+ * A statistics request over a period reads the rollups of the buckets fully included in the period
+ * (see {@link Period}), and aggregates the remaining jobs of the period (the ones at its edges, and the ones
+ * which are not rolled up yet) from the jobs table. Both parts are read under the read lock, which is held
+ * exclusively by the rollup and removal transactions, so that each job is counted exactly once.
+ */
+public class StatisticsRollup {
+
+    private static final Logger logger = Logger.getLogger(StatisticsRollup.class);
+
+    public static final Set<JobStatus> TERMINAL_JOB_STATUSES = ImmutableSet.of(JobStatus.FINISHED,
+                                                                               JobStatus.CANCELED,
+                                                                               JobStatus.FAILED,
+                                                                               JobStatus.KILLED);
+
+    private final SchedulerDBManager dbManager;
+
+    private final long bucketDuration;
+
+    private final int batchSize;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    public StatisticsRollup(SchedulerDBManager dbManager, long bucketDuration, int batchSize) {
+        this.dbManager = dbManager;
+        this.bucketDuration = bucketDuration;
+        this.batchSize = batchSize;
+    }
+
+    public boolean isEnabled() {
+        return bucketDuration > 0;
+    }
+
+    /**
+     * Lock to hold in read mode while reading statistics, and in write mode while adding or removing jobs
+     * from the rollups. It must be acquired before opening the transaction.
+     */
+    public ReadWriteLock getLock() {
+        return lock;
+    }
+
+    public Period getPeriod(long startTime, long endTime) {
+        return new Period(startTime, endTime);
+    }
+
+    /**
+     * Deletes the rollups which are stale, so that the history is rolled up again: the ones made with another
+     * bucket duration, or all of them when the rollups are disabled, as the jobs removed while the rollups are
+     * disabled are not subtracted from them.
+     */
+    public void resetStaleRollups() {
+        lock.writeLock().lock();
+        try {
+            dbManager.executeReadWriteTransaction(session -> {
+                long stale = (Long) session.createQuery("select count(*) from JobStatisticsData where bucketDuration <> :bucketDuration")
+                                           .setParameter("bucketDuration", bucketDuration)
+                                           .uniqueResult();
+                stale += (Long) session.createQuery("select count(*) from TaskStatisticsData where bucketDuration <> :bucketDuration")
+                                       .setParameter("bucketDuration", bucketDuration)
+                                       .uniqueResult();
+                if (!isEnabled()) {
+                    stale += (Long) session.createQuery("select count(*) from JobData where statisticsRolledUp is not null")
+                                           .uniqueResult();
+                }
+                if (stale > 0) {
+                    if (isEnabled()) {
+                        logger.info("Statistics bucket duration changed to " + bucketDuration +
+                                    " ms, rolling up the jobs history again");
+                    } else {
+                        logger.info("Statistics rollups are disabled, deleting the existing rollups");
+                    }
+                    session.createQuery("delete from JobStatisticsData").executeUpdate();
+                    session.createQuery("delete from TaskStatisticsData").executeUpdate();
+                    session.createSQLQuery("update JOB_DATA set STATISTICS_ROLLED_UP = null where STATISTICS_ROLLED_UP is not null")
+                           .executeUpdate();
+                }
+                return null;
+            });
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Rolls up the terminated jobs which are not included in the statistics yet, batch after batch.
+     *
+     * @return the number of jobs rolled up
+     */
+    public int rollUp() {
+        if (!isEnabled()) {
+            return 0;
+        }
+        int total = 0;
+        int rolledUp;
+        do {
+            rolledUp = rollUpNextBatch();
+            total += rolledUp;
+        } while (rolledUp >= batchSize);
+        if (total > 0) {
+            logger.debug("Rolled up the statistics of " + total + " jobs");
+        }
+        return total;
+    }
+
+    private int rollUpNextBatch() {
+        lock.writeLock().lock();
+        try {
+            return dbManager.executeReadWriteTransaction(session -> {
+                List<Object[]> jobs = session.getNamedQuery("getJobStatisticsToRollUp")
+                                             .setParameterList("statuses", TERMINAL_JOB_STATUSES)
+                                             .setMaxResults(batchSize)
+                                             .list();
+                if (!jobs.isEmpty()) {
+                    updateRollups(session, jobs, 1);
+                    markJobs(session, jobs, true);
+                }
+                return jobs.size();
+            });
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Subtracts the given jobs from the rollups before they are removed from the database. Must be called in
+     * a transaction opened under the write lock, and before the tasks of the jobs are deleted. Does nothing when
+     * the rollups are disabled.
+     */
+    public void removeJobs(Session session, List<Long> jobIds) {
+        if (!isEnabled()) {
+            // no job is flagged as rolled up, see resetStaleRollups
+            return;
+        }
+        for (List<Long> jobIdSubList : Lists.partition(jobIds, SchedulerDBManager.MAX_ITEMS_IN_LIST)) {
+            List<Object[]> jobs = session.getNamedQuery("getRolledUpJobStatistics")
+                                         .setParameterList("ids", jobIdSubList)
+                                         .list();
+            if (!jobs.isEmpty()) {
+                updateRollups(session, jobs, -1);
+                markJobs(session, jobs, false);
+            }
+        }
+    }
+
+    private void updateRollups(Session session, List<Object[]> jobs, int sign) {
+        Map<List<Object>, JobStatisticsData> jobDeltas = new HashMap<>();
+        for (Object[] job : jobs) {
+            JobStatisticsData delta = jobDeltas.computeIfAbsent(Arrays.asList(getTimeBucket((Long) job[9]),
+                                                                              job[1],
+                                                                              job[2],
+                                                                              job[3],
+                                                                              job[4],
+                                                                              job[5],
+                                                                              job[6]),
+                                                                this::newJobStatistics);
+            addJob(delta, job, sign);
+        }
+        updateJobRollups(session, jobDeltas);
+
+        Map<List<Object>, TaskStatisticsData> taskDeltas = new HashMap<>();
+        for (List<Long> jobIds : Lists.partition(getJobIds(jobs), SchedulerDBManager.MAX_ITEMS_IN_LIST)) {
+            List<Object[]> tasks = session.getNamedQuery("getTaskStatisticsToRollUp")
+                                          .setParameterList("jobIdList", jobIds)
+                                          .list();
+            for (Object[] task : tasks) {
+                TaskStatisticsData delta = taskDeltas.computeIfAbsent(Arrays.asList(getTimeBucket((Long) task[4]),
+                                                                                    task[0],
+                                                                                    task[1],
+                                                                                    task[2],
+                                                                                    task[3]),
+                                                                      this::newTaskStatistics);
+                delta.setTaskCount(delta.getTaskCount() + sign);
+            }
+        }
+        updateTaskRollups(session, taskDeltas);
+    }
+
+    private void addJob(JobStatisticsData statistics, Object[] job, int sign) {
+        long submittedTime = (Long) job[7];
+        long startTime = (Long) job[8];
+        long finishedTime = (Long) job[9];
+        int failedTasks = toInt(job[10]);
+        int faultyTasks = toInt(job[11]);
+        int inErrorTasks = toInt(job[12]);
+
+        statistics.setJobCount(statistics.getJobCount() + sign);
+        if (failedTasks > 0 || faultyTasks > 0 || inErrorTasks > 0) {
+            statistics.setJobsWithIssues(statistics.getJobsWithIssues() + sign);
+        }
+        if (failedTasks > 0 || faultyTasks > 0) {
+            statistics.setJobsWithFailedTasks(statistics.getJobsWithFailedTasks() + sign);
+            statistics.setErrorCount(statistics.getErrorCount() + sign * (failedTasks + faultyTasks));
+        }
+        if (startTime > 0 && finishedTime > 0) {
+            statistics.setStartedJobs(statistics.getStartedJobs() + sign);
+            statistics.setCumulatedCoreTime(statistics.getCumulatedCoreTime() + sign * toLong(job[13]));
+            statistics.setNumberOfNodes(statistics.getNumberOfNodes() + sign * toLong(job[14]));
+            if (job[15] != null) {
+                statistics.setNumberOfNodesInParallel(statistics.getNumberOfNodesInParallel() + sign * toLong(job[15]));
+                statistics.setJobsWithNodesInParallel(statistics.getJobsWithNodesInParallel() + sign);
+            }
+            statistics.setExecutionTime(statistics.getExecutionTime() + sign * (finishedTime - startTime));
+            statistics.setPendingTime(statistics.getPendingTime() + sign * (startTime - submittedTime));
+        }
+    }
+
+    private void updateJobRollups(Session session, Map<List<Object>, JobStatisticsData> deltas) {
+        Map<List<Object>, JobStatisticsData> rollups = new HashMap<>();
+        for (List<Long> timeBuckets : Lists.partition(getTimeBuckets(deltas.keySet()),
+                                                      SchedulerDBManager.MAX_ITEMS_IN_LIST)) {
+            List<JobStatisticsData> list = session.createQuery("from JobStatisticsData where timeBucket in (:timeBuckets)")
+                                                  .setParameterList("timeBuckets", timeBuckets)
+                                                  .list();
+            for (JobStatisticsData rollup : list) {
+                rollups.put(getKey(rollup), rollup);
+            }
+        }
+        for (Map.Entry<List<Object>, JobStatisticsData> entry : deltas.entrySet()) {
+            JobStatisticsData delta = entry.getValue();
+            JobStatisticsData rollup = rollups.get(entry.getKey());
+            if (rollup == null) {
+                if (delta.getJobCount() > 0) {
+                    session.save(delta);
+                }
+                continue;
+            }
+            rollup.setJobCount(rollup.getJobCount() + delta.getJobCount());
+            if (rollup.getJobCount() <= 0) {
+                session.delete(rollup);
+                continue;
+            }
+            rollup.setJobsWithIssues(rollup.getJobsWithIssues() + delta.getJobsWithIssues());
+            rollup.setJobsWithFailedTasks(rollup.getJobsWithFailedTasks() + delta.getJobsWithFailedTasks());
+            rollup.setErrorCount(rollup.getErrorCount() + delta.getErrorCount());
+            rollup.setStartedJobs(rollup.getStartedJobs() + delta.getStartedJobs());
+            rollup.setCumulatedCoreTime(rollup.getCumulatedCoreTime() + delta.getCumulatedCoreTime());
+            rollup.setNumberOfNodes(rollup.getNumberOfNodes() + delta.getNumberOfNodes());
+            rollup.setNumberOfNodesInParallel(rollup.getNumberOfNodesInParallel() +
+                                              delta.getNumberOfNodesInParallel());
+            rollup.setJobsWithNodesInParallel(rollup.getJobsWithNodesInParallel() +
+                                              delta.getJobsWithNodesInParallel());
+            rollup.setExecutionTime(rollup.getExecutionTime() + delta.getExecutionTime());
+            rollup.setPendingTime(rollup.getPendingTime() + delta.getPendingTime());
+        }
+    }
+
+    private void updateTaskRollups(Session session, Map<List<Object>, TaskStatisticsData> deltas) {
+        Map<List<Object>, TaskStatisticsData> rollups = new HashMap<>();
+        for (List<Long> timeBuckets : Lists.partition(getTimeBuckets(deltas.keySet()),
+                                                      SchedulerDBManager.MAX_ITEMS_IN_LIST)) {
+            List<TaskStatisticsData> list = session.createQuery("from TaskStatisticsData where timeBucket in (:timeBuckets)")
+                                                   .setParameterList("timeBuckets", timeBuckets)
+                                                   .list();
+            for (TaskStatisticsData rollup : list) {
+                rollups.put(getKey(rollup), rollup);
+            }
+        }
+        for (Map.Entry<List<Object>, TaskStatisticsData> entry : deltas.entrySet()) {
+            TaskStatisticsData delta = entry.getValue();
+            TaskStatisticsData rollup = rollups.get(entry.getKey());
+            if (rollup == null) {
+                if (delta.getTaskCount() > 0) {
+                    session.save(delta);
+                }
+            } else {
+                rollup.setTaskCount(rollup.getTaskCount() + delta.getTaskCount());
+                if (rollup.getTaskCount() <= 0) {
+                    session.delete(rollup);
+                }
+            }
+        }
+    }
+
+    private void markJobs(Session session, List<Object[]> jobs, boolean rolledUp) {
+        for (List<Long> jobIds : Lists.partition(getJobIds(jobs), SchedulerDBManager.MAX_ITEMS_IN_LIST)) {
+            session.createSQLQuery("update JOB_DATA set STATISTICS_ROLLED_UP = :rolledUp where ID in (:ids)")
+                   .setParameter("rolledUp", rolledUp)
+                   .setParameterList("ids", jobIds)
+                   .executeUpdate();
+        }
+    }
+
+    private JobStatisticsData newJobStatistics(List<Object> key) {
+        JobStatisticsData statistics = new JobStatisticsData();
+        statistics.setTimeBucket((Long) key.get(0));
+        statistics.setBucketDuration(bucketDuration);
+        statistics.setJobName((String) key.get(1));
+        statistics.setProjectName((String) key.get(2));
+        statistics.setBucketName((String) key.get(3));
+        statistics.setOwner((String) key.get(4));
+        statistics.setTenant((String) key.get(5));
+        statistics.setStatus((JobStatus) key.get(6));
+        return statistics;
+    }
+
+    private TaskStatisticsData newTaskStatistics(List<Object> key) {
+        TaskStatisticsData statistics = new TaskStatisticsData();
+        statistics.setTimeBucket((Long) key.get(0));
+        statistics.setBucketDuration(bucketDuration);
+        statistics.setTaskName((String) key.get(1));
+        statistics.setOwner((String) key.get(2));
+        statistics.setTenant((String) key.get(3));
+        statistics.setTaskStatus((TaskStatus) key.get(4));
+        return statistics;
+    }
+
+    private static List<Object> getKey(JobStatisticsData statistics) {
+        return Arrays.asList(statistics.getTimeBucket(),
+                             statistics.getJobName(),
+                             statistics.getProjectName(),
+                             statistics.getBucketName(),
+                             statistics.getOwner(),
+                             statistics.getTenant(),
+                             statistics.getStatus());
+    }
+
+    private static List<Object> getKey(TaskStatisticsData statistics) {
+        return Arrays.asList(statistics.getTimeBucket(),
+                             statistics.getTaskName(),
+                             statistics.getOwner(),
+                             statistics.getTenant(),
+                             statistics.getTaskStatus());
+    }
+
+    private static List<Long> getTimeBuckets(Collection<List<Object>> keys) {
+        return keys.stream().map(key -> (Long) key.get(0)).distinct().collect(Collectors.toList());
+    }
+
+    private static List<Long> getJobIds(List<Object[]> jobs) {
+        List<Long> jobIds = new ArrayList<>(jobs.size());
+        for (Object[] job : jobs) {
+            jobIds.add((Long) job[0]);
+        }
+        return jobIds;
+    }
+
+    private long getTimeBucket(long finishedTime) {
+        return Math.floorDiv(finishedTime, bucketDuration) * bucketDuration;
+    }
+
+    private static int toInt(Object value) {
+        return value != null ? ((Number) value).intValue() : 0;
+    }
+
+    private static long toLong(Object value) {
+        return value != null ? ((Number) value).longValue() : 0L;
+    }
+
+    /**
+     * Splits a statistics period <code>[startTime, endTime)</code> on finished times (a bound lower or equal to 0
+     * meaning no bound) between the time buckets fully included in the period, read from the rollups, and the
+     * jobs which are either at the edges of the period or not rolled up, read from the jobs table.
+     */
+    public class Period {
+
+        private final Long rollupStart;
+
+        private final Long rollupEnd;
+
+        private final boolean useRollups;
+
+        Period(long startTime, long endTime) {
+            if (!isEnabled()) {
+                rollupStart = null;
+                rollupEnd = null;
+                useRollups = false;
+                return;
+            }
+            rollupStart = startTime > 0 ? Math.floorDiv(startTime + bucketDuration - 1, bucketDuration) *
+                                          bucketDuration
+                                        : null;
+            rollupEnd = endTime > 0 ? getTimeBucket(endTime) : null;
+            useRollups = (rollupStart == null || rollupEnd == null || rollupStart < rollupEnd);
+        }
+
+        public boolean useRollups() {
+            return useRollups;
+        }
+
+        /**
+         * HQL condition on the time bucket of the rollups
+         */
+        public String getRollupCondition() {
+            StringBuilder condition = new StringBuilder("1 = 1");
+            if (rollupStart != null) {
+                condition.append(" and timeBucket >= :rollupStart");
+            }
+            if (rollupEnd != null) {
+                condition.append(" and timeBucket < :rollupEnd");
+            }
+            return condition.toString();
+        }
+
+        /**
+         * HQL condition selecting the jobs which are not included in the rollups read for this period
+         */
+        public String getNotRolledUpCondition(String finishedTime, String statisticsRolledUp) {
+            StringBuilder condition = new StringBuilder("(").append(statisticsRolledUp)
+                                                            .append(" is null or ")
+                                                            .append(statisticsRolledUp)
+                                                            .append(" = false");
+            if (rollupStart != null) {
+                condition.append(" or ").append(finishedTime).append(" < :rollupStart");
+            }
+            if (rollupEnd != null) {
+                condition.append(" or ").append(finishedTime).append(" >= :rollupEnd");
+            }
+            return condition.append(")").toString();
+        }
+
+        public void setParameters(Query query) {
+            if (rollupStart != null) {
+                query.setParameter("rollupStart", rollupStart);
+            }
+            if (rollupEnd != null) {
+                query.setParameter("rollupEnd", rollupEnd);
+            }
+        }
+
+        public Predicate getRollupPredicate(CriteriaBuilder cb, Expression<Long> timeBucket) {
+            List<Predicate> predicates = new ArrayList<>(2);
+            if (rollupStart != null) {
+                predicates.add(cb.ge(timeBucket, rollupStart));
+            }
+            if (rollupEnd != null) {
+                predicates.add(cb.lt(timeBucket, rollupEnd));
+            }
+            return cb.and(predicates.toArray(new Predicate[0]));
+        }
+
+        public Predicate getNotRolledUpPredicate(CriteriaBuilder cb, Expression<Long> finishedTime,
+                Expression<Boolean> statisticsRolledUp) {
+            List<Predicate> predicates = new ArrayList<>(4);
+            predicates.add(cb.isNull(statisticsRolledUp));
+            predicates.add(cb.isFalse(statisticsRolledUp));
+            if (rollupStart != null) {
+                predicates.add(cb.lt(finishedTime, rollupStart));
+            }
+            if (rollupEnd != null) {
+                predicates.add(cb.ge(finishedTime, rollupEnd));
+            }
+            return cb.or(predicates.toArray(new Predicate[0]));
+        }
+    }
+}
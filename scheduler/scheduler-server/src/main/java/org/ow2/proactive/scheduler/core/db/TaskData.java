@@ -171,7 +171,8 @@ import org.ow2.proactive.topology.descriptor.TopologyDescriptor;
                                                                         "task.startTime = :startTime, task.finishedTime = :finishedTime, " +
                                                                         "task.executionHostName = :executionHostName, " +
                                                                         "task.executerInformationData = :executerInformationData " +
-                                                                        " where task.id = :taskId"), })
+                                                                        " where task.id = :taskId"),
+                @NamedQuery(name = "getTaskStatisticsToRollUp", query = "select taskName, owner, tenant, taskStatus, finishedTime from TaskData where id.jobId in (:jobIdList)"), })
 @Table(name = "TASK_DATA", indexes = { @Index(name = "TASK_DATA_CLEAN_SCRIPT_ID", columnList = "CLEAN_SCRIPT_ID"),
                                        @Index(name = "TASK_DATA_ENV_SCRIPT_ID", columnList = "ENV_SCRIPT_ID"),
                                        @Index(name = "TASK_DATA_FINISH_TIME", columnList = "FINISH_TIME"),
@@ -189,7 +190,8 @@ import org.ow2.proactive.topology.descriptor.TopologyDescriptor;
                                        @Index(name = "TASK_DATA_TASK_ID_TASK", columnList = "TASK_ID_TASK"),
                                        @Index(name = "TASK_DATA_TASK_NAME", columnList = "TASK_NAME"),
                                        @Index(name = "TASK_DATA_OWNER", columnList = "OWNER"),
-                                       @Index(name = "TASK_DATA_TENANT", columnList = "TENANT") })
+                                       @Index(name = "TASK_DATA_TENANT", columnList = "TENANT"),
+                                       @Index(name = "TASK_DATA_STATUS_OWNER", columnList = "STATUS,OWNER") })
 public class TaskData {
 
     private static final String SCRIPT_TASK = "SCRIPT_TASK";
@@ -0,0 +1,146 @@
+/*
+ * ProActive Parallel Suite(TM):
+ * The Open Source library for parallel and distributed
+ * Workflows & Scheduling, Orchestration, Cloud Automation
+ * and Big Data Analysis on Enterprise Grids & Clouds.
+ *
+ * Copyright (c) 2007 - 2017 ActiveEon
+ * Contact: contact@activeeon.com
+ *
+ * This library is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation: version 3 of
+ * the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ */
+package org.ow2.proactive.scheduler.core.db;
+
+import java.io.Serializable;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.GeneratedValue;
+import javax.persistence.GenerationType;
+import javax.persistence.Id;
+import javax.persistence.Index;
+import javax.persistence.SequenceGenerator;
+import javax.persistence.Table;
+
+import org.ow2.proactive.scheduler.common.task.TaskStatus;
+
+
+/**
+ * Number of tasks of terminated jobs which share the same name, owner, tenant and status, and which finished
+ * during the same time bucket.
+ *
+ * @see StatisticsRollup
+ */
+@Entity
+@Table(name = "TASK_STATISTICS", indexes = { @Index(name = "TASK_STATISTICS_TIME_BUCKET", columnList = "TIME_BUCKET"),
+                                             @Index(name = "TASK_STATISTICS_OWNER", columnList = "OWNER") })
+public class TaskStatisticsData implements Serializable {
+
+    private Long id;
+
+    /** start of the time bucket */
+    private long timeBucket;
+
+    /** duration of the time bucket, rollups made with another duration are rebuilt */
+    private long bucketDuration;
+
+    private String taskName;
+
+    private String owner;
+
+    private String tenant;
+
+    private TaskStatus taskStatus;
+
+    private long taskCount;
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "TASK_STATISTICS_ID_SEQUENCE")
+    @SequenceGenerator(name = "TASK_STATISTICS_ID_SEQUENCE", sequenceName = "TASK_STATISTICS_ID_SEQUENCE", allocationSize = 1)
+    @Column(name = "ID")
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    @Column(name = "TIME_BUCKET", nullable = false)
+    public long getTimeBucket() {
+        return timeBucket;
+    }
+
+    public void setTimeBucket(long timeBucket) {
+        this.timeBucket = timeBucket;
+    }
+
+    @Column(name = "BUCKET_DURATION", nullable = false)
+    public long getBucketDuration() {
+        return bucketDuration;
+    }
+
+    public void setBucketDuration(long bucketDuration) {
+        this.bucketDuration = bucketDuration;
+    }
+
+    @Column(name = "TASK_NAME")
+    public String getTaskName() {
+        return taskName;
+    }
+
+    public void setTaskName(String taskName) {
+        this.taskName = taskName;
+    }
+
+    @Column(name = "OWNER")
+    public String getOwner() {
+        return owner;
+    }
+
+    public void setOwner(String owner) {
+        this.owner = owner;
+    }
+
+    @Column(name = "TENANT")
+    public String getTenant() {
+        return tenant;
+    }
+
+    public void setTenant(String tenant) {
+        this.tenant = tenant;
+    }
+
+    @Column(name = "STATUS", nullable = false)
+    public TaskStatus getTaskStatus() {
+        return taskStatus;
+    }
+
+    public void setTaskStatus(TaskStatus taskStatus) {
+        this.taskStatus = taskStatus;
+    }
+
+    @Column(name = "TASK_COUNT")
+    public long getTaskCount() {
+        return taskCount;
+    }
+
+    public void setTaskCount(long taskCount) {
+        this.taskCount = taskCount;
+    }
+
+}
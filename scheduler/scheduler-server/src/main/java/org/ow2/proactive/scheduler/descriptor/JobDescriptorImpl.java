@@ -101,6 +101,12 @@ public class JobDescriptorImpl implements JobDescriptor {
     /** All tasks with their children */
     private final Map<InternalTask, TaskDescriptor> allTasksWithTheirChildren = new HashMap<>();
 
+    /** Tasks of allTasksWithTheirChildren indexed by their readable id name */
+    private final Map<String, TaskDescriptor> tasksByReadableName = new HashMap<>();
+
+    /** Tasks of allTasksWithTheirChildren indexed by their name */
+    private final Map<String, InternalTask> internalTasksByName = new HashMap<>();
+
     private Map<String, String> genericInformation;
 
     private String owner;
@@ -189,6 +195,8 @@ public class JobDescriptorImpl implements JobDescriptor {
             }
 
             allTasksWithTheirChildren.put(td, lt);
+            tasksByReadableName.putIfAbsent(td.getId().getReadableName(), lt);
+            internalTasksByName.putIfAbsent(td.getName(), td);
         }
 
         //now for each taskDescriptor, set the parents and children list
@@ -639,6 +647,11 @@ public class JobDescriptorImpl implements JobDescriptor {
     }
 
     public EligibleTaskDescriptor getTaskByName(String taskName) {
+        TaskDescriptor task = tasksByReadableName.get(taskName);
+        if (task != null && taskName.equals(task.getTaskId().getReadableName())) {
+            return (EligibleTaskDescriptor) task;
+        }
+        // the task id was renamed after the descriptor creation
         return (EligibleTaskDescriptor) allTasksWithTheirChildren.values()
                                                                  .stream()
                                                                  .filter(x -> x.getTaskId()
@@ -649,6 +662,11 @@ public class JobDescriptorImpl implements JobDescriptor {
     }
 
     public InternalTask getInternalTaskByName(String taskName) {
+        InternalTask task = internalTasksByName.get(taskName);
+        if (task != null && taskName.equals(task.getName())) {
+            return task;
+        }
+        // the task was renamed after the descriptor creation
         return allTasksWithTheirChildren.keySet().stream().filter(x -> x.getName().equals(taskName)).findFirst().get();
     }
 
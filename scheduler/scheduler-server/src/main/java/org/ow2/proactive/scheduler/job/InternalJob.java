@@ -112,6 +112,14 @@ public abstract class InternalJob extends JobState {
      */
     protected Map<TaskId, InternalTask> tasks = new ConcurrentHashMap<>();
 
+    /**
+     * Index of the tasks by name, built lazily by {@link #findTask(String)}.
+     * Names change when replication or iteration indexes are assigned, so entries
+     * are checked on lookup and the index is rebuilt when they are stale.
+     */
+    @XmlTransient
+    private transient volatile Map<String, InternalTask> tasksByName;
+
     /**
      * Information (that can be modified) about job execution
      */
@@ -294,6 +302,10 @@ public abstract class InternalJob extends JobState {
 
         if (result) {
             jobInfo.setTotalNumberOfTasks(jobInfo.getTotalNumberOfTasks() + 1);
+            Map<String, InternalTask> index = tasksByName;
+            if (index != null && task.getName() != null) {
+                index.putIfAbsent(task.getName(), task);
+            }
         }
 
         return result;
@@ -647,18 +659,14 @@ public abstract class InternalJob extends JobState {
                                                                   dup.size());
 
         // ensure naming unicity
-        // time-consuming but safe
+        Set<String> taskNames = new HashSet<>(tasks.size());
+        for (InternalTask task : tasks.values()) {
+            taskNames.add(task.getName());
+        }
         for (InternalTask nt : dup.values()) {
-            boolean ok;
-            do {
-                ok = true;
-                for (InternalTask task : tasks.values()) {
-                    if (nt.getName().equals(task.getName())) {
-                        nt.setIterationIndex(nt.getIterationIndex() + 1);
-                        ok = false;
-                    }
-                }
-            } while (!ok);
+            while (taskNames.contains(nt.getName())) {
+                nt.setIterationIndex(nt.getIterationIndex() + 1);
+            }
         }
 
         // configure the new tasks
@@ -754,12 +762,27 @@ public abstract class InternalJob extends JobState {
 
     // replaced findTaskUp call due to recursion issues
     public InternalTask findTask(String name) {
-        for (InternalTask task : tasks.values()) {
-            if (name.equals(task.getName())) {
+        Map<String, InternalTask> index = tasksByName;
+        if (index != null) {
+            InternalTask task = index.get(name);
+            if (task != null && name.equals(task.getName()) && tasks.get(task.getId()) == task) {
                 return task;
             }
         }
-        return null;
+        // unknown name or stale entry
+        return indexTasksByName().get(name);
+    }
+
+    private Map<String, InternalTask> indexTasksByName() {
+        Map<String, InternalTask> index = new ConcurrentHashMap<>(tasks.size());
+        for (InternalTask task : tasks.values()) {
+            // unnamed tasks cannot be looked up by name
+            if (task.getName() != null) {
+                index.putIfAbsent(task.getName(), task);
+            }
+        }
+        tasksByName = index;
+        return index;
     }
 
     /**
@@ -857,6 +880,7 @@ public abstract class InternalJob extends JobState {
         // sort task according to the ID
         Collections.sort(sorted);
         tasks.clear();
+        tasksByName = null;
         // re-init taskId
         int id = 0;
         for (InternalTask td : sorted) {
@@ -1021,6 +1045,7 @@ public abstract class InternalJob extends JobState {
     }
 
     public void setTasks(Collection<InternalTask> tasksList) {
+        tasksByName = null;
         tasks = new HashMap<>(tasksList.size());
         for (InternalTask task : tasksList) {
             tasks.put(task.getId(), task);
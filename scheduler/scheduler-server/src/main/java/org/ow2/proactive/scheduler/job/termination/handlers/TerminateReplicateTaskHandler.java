@@ -82,6 +82,8 @@ public class TerminateReplicateTaskHandler {
             }
         }
 
+        Map<String, Integer> nextReplicationIndexes = getNextReplicationIndexes();
+
         // for each initial task to replicate
         for (InternalTask internalTaskToReplicate : toReplicate) {
 
@@ -141,7 +143,8 @@ public class TerminateReplicateTaskHandler {
                 // configure the new tasks
                 for (InternalTask internalTask : tasksBetweenInitiatorAndTarget.values()) {
                     internalTask.setJobInfo(((JobInfoImpl) internalJob.getJobInfo()));
-                    int dupIndex = getNextReplicationIndex(InternalTask.getInitialName(internalTask.getName()),
+                    int dupIndex = getNextReplicationIndex(nextReplicationIndexes,
+                                                           InternalTask.getInitialName(internalTask.getName()),
                                                            internalTask.getIterationIndex());
                     internalJob.addTask(internalTask);
                     internalTask.setReplicationIndex(dupIndex);
@@ -304,15 +307,31 @@ public class TerminateReplicateTaskHandler {
         replicatedTask.setTag(buf.toString());
     }
 
-    private int getNextReplicationIndex(String baseName, int iteration) {
-        int rep = 0;
+    /**
+     * Computes, for each task base name and iteration, the first replication index not used in the job
+     */
+    private Map<String, Integer> getNextReplicationIndexes() {
+        Map<String, Integer> nextIndexes = new HashMap<>();
         for (InternalTask it : internalJob.getIHMTasks().values()) {
-            String name = InternalTask.getInitialName(it.getName());
-            if (baseName.equals(name) && iteration == it.getIterationIndex()) {
-                rep = Math.max(rep, it.getReplicationIndex() + 1);
-            }
+            nextIndexes.merge(replicationKey(InternalTask.getInitialName(it.getName()), it.getIterationIndex()),
+                              it.getReplicationIndex() + 1,
+                              Math::max);
         }
+        return nextIndexes;
+    }
+
+    /**
+     * Returns the next replication index for the given task and reserves it
+     */
+    private int getNextReplicationIndex(Map<String, Integer> nextIndexes, String baseName, int iteration) {
+        String key = replicationKey(baseName, iteration);
+        int rep = nextIndexes.getOrDefault(key, 0);
+        nextIndexes.put(key, rep + 1);
         return rep;
     }
 
+    private static String replicationKey(String baseName, int iteration) {
+        return baseName + TaskId.ITERATION_SEPARATOR + iteration;
+    }
+
 }
@@ -0,0 +1,203 @@
+/*
+ * ProActive Parallel Suite(TM):
+ * The Open Source library for parallel and distributed
+ * Workflows & Scheduling, Orchestration, Cloud Automation
+ * and Big Data Analysis on Enterprise Grids & Clouds.
+ *
+ * Copyright (c) 2007 - 2017 ActiveEon
+ * Contact: contact@activeeon.com
+ *
+ * This library is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation: version 3 of
+ * the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ */
+package org.ow2.proactive.scheduler.util;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+import java.util.Iterator;
+import java.util.List;
+
+
+/**
+ * Reads a sequence of log segments (log files or plain text headers) as a single stream,
+ * starting at a given byte offset and stopping after a given number of bytes.
+ *
+ * Segments are opened lazily, one at a time, and segments located before the offset are
+ * never opened. The length of each file is captured when the segment is created, so that
+ * data appended to a log file while it is being read is not returned.
+ */
+class LogSegmentsInputStream extends InputStream {
+
+    private final Iterator<Segment> segments;
+
+    private long bytesToSkip;
+
+    private long bytesRemaining;
+
+    private InputStream current;
+
+    private long currentRemaining;
+
+    /**
+     * @param segments segments to read, in order
+     * @param offset number of bytes to skip at the beginning of the stream
+     * @param limit maximum number of bytes to read, a negative value means no limit
+     */
+    LogSegmentsInputStream(List<Segment> segments, long offset, long limit) {
+        this.segments = segments.iterator();
+        this.bytesToSkip = Math.max(0, offset);
+        this.bytesRemaining = limit < 0 ? Long.MAX_VALUE : limit;
+    }
+
+    /**
+     * Returns the number of bytes which will be produced by the given segments
+     */
+    static long totalLength(List<Segment> segments) {
+        long total = 0;
+        for (Segment segment : segments) {
+            total += segment.length();
+        }
+        return total;
+    }
+
+    @Override
+    public int read() throws IOException {
+        byte[] single = new byte[1];
+        int n = read(single, 0, 1);
+        return n == -1 ? -1 : single[0] & 0xFF;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        if (len == 0) {
+            return 0;
+        }
+        while (bytesRemaining > 0) {
+            if (current == null && !openNextSegment()) {
+                return -1;
+            }
+            if (currentRemaining <= 0) {
+                closeCurrent();
+                continue;
+            }
+            int toRead = (int) Math.min(len, Math.min(bytesRemaining, currentRemaining));
+            int n = current.read(b, off, toRead);
+            if (n == -1) {
+                closeCurrent();
+                continue;
+            }
+            currentRemaining -= n;
+            bytesRemaining -= n;
+            return n;
+        }
+        return -1;
+    }
+
+    @Override
+    public void close() throws IOException {
+        bytesRemaining = 0;
+        closeCurrent();
+    }
+
+    private boolean openNextSegment() throws IOException {
+        while (segments.hasNext()) {
+            Segment segment = segments.next();
+            if (bytesToSkip >= segment.length()) {
+                bytesToSkip -= segment.length();
+                continue;
+            }
+            InputStream in = segment.open(bytesToSkip);
+            if (in == null) {
+                // the file disappeared since the segment was created (e.g. log rotation or removal)
+                continue;
+            }
+            current = in;
+            currentRemaining = segment.length() - bytesToSkip;
+            bytesToSkip = 0;
+            return true;
+        }
+        return false;
+    }
+
+    private void closeCurrent() throws IOException {
+        if (current != null) {
+            try {
+                current.close();
+            } finally {
+                current = null;
+                currentRemaining = 0;
+            }
+        }
+    }
+
+    /**
+     * A part of a log stream, either the content of a file or a constant text
+     */
+    static class Segment {
+
+        private final File file;
+
+        private final byte[] text;
+
+        private final long length;
+
+        private Segment(File file, byte[] text, long length) {
+            this.file = file;
+            this.text = text;
+            this.length = length;
+        }
+
+        static Segment ofFile(File file) {
+            return new Segment(file, null, file.length());
+        }
+
+        static Segment ofText(String text, Charset charset) {
+            byte[] bytes = text.getBytes(charset);
+            return new Segment(null, bytes, bytes.length);
+        }
+
+        long length() {
+            return length;
+        }
+
+        /**
+         * Opens the segment positioned at the given offset, returns null if the segment file does not exist anymore
+         */
+        InputStream open(long offset) throws IOException {
+            if (text != null) {
+                return new ByteArrayInputStream(text, (int) offset, text.length - (int) offset);
+            }
+            FileInputStream in;
+            try {
+                in = new FileInputStream(file);
+            } catch (FileNotFoundException e) {
+                return null;
+            }
+            try {
+                in.getChannel().position(offset);
+            } catch (IOException e) {
+                in.close();
+                throw e;
+            }
+            return in;
+        }
+    }
+}
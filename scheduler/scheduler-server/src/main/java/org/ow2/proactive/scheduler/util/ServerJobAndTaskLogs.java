@@ -32,6 +32,11 @@ import static org.ow2.proactive.scheduler.core.properties.PASchedulerProperties.
 
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
@@ -66,6 +71,12 @@ public class ServerJobAndTaskLogs {
 
     private static final int MAX_REMOVAL_ATTEMPTS = 10;
 
+    private static final Charset LOG_CHARSET = Charset.defaultCharset();
+
+    private static final int READ_BUFFER_SIZE = 8192;
+
+    private static final int MAX_PREALLOCATED_LOG_SIZE = 64 * 1024 * 1024;
+
     private SchedulerSpacesSupport spacesSupport = null;
 
     private static ServerJobAndTaskLogs activeInstance = null;
@@ -111,25 +122,68 @@ public class ServerJobAndTaskLogs {
     }
 
     public String getTaskLog(TaskId id) {
-        String result = readLog(TaskLogger.getTaskLogRelativePath(id));
-        return result != null ? result : "Cannot retrieve logs for task " + id;
+        return getTaskLog(id, 0, -1);
+    }
+
+    /**
+     * Returns a window of the server logs of the given task.
+     *
+     * @param id id of the task
+     * @param offset number of bytes of the logs to skip
+     * @param limit maximum number of bytes to return, a negative value returns the logs until the end
+     * @return the requested part of the task logs
+     */
+    public String getTaskLog(TaskId id, long offset, long limit) {
+        return readSegments(taskLogSegments(id), offset, limit);
     }
 
     public String getJobLog(JobId jobId, Set<TaskId> tasks) {
-        String jobLog = readLog(JobLogger.getJobLogRelativePath(jobId));
-        if (jobLog == null) {
+        return getJobLog(jobId, tasks, 0, -1);
+    }
+
+    /**
+     * Returns a window of the server logs of the given job, followed by the server logs of the given tasks.
+     *
+     * Only the log files overlapping the requested window are read.
+     *
+     * @param jobId id of the job
+     * @param tasks tasks whose logs are appended to the job logs
+     * @param offset number of bytes of the logs to skip
+     * @param limit maximum number of bytes to return, a negative value returns the logs until the end
+     * @return the requested part of the job logs
+     */
+    public String getJobLog(JobId jobId, Set<TaskId> tasks, long offset, long limit) {
+        List<LogSegmentsInputStream.Segment> segments = jobLogSegments(jobId, tasks);
+        if (segments == null) {
             return "Cannot retrieve logs for job " + jobId;
         }
+        return readSegments(segments, offset, limit);
+    }
+
+    private List<LogSegmentsInputStream.Segment> jobLogSegments(JobId jobId, Set<TaskId> tasks) {
+        List<LogSegmentsInputStream.Segment> jobLog = logSegments(JobLogger.getJobLogRelativePath(jobId));
+        if (jobLog.isEmpty()) {
+            return null;
+        }
 
-        StringBuilder result = new StringBuilder();
-        result.append("================= Job ").append(jobId).append(" logs =================\n");
-        result.append(jobLog);
+        List<LogSegmentsInputStream.Segment> segments = new ArrayList<>(jobLog.size() + 3 * tasks.size() + 1);
+        segments.add(LogSegmentsInputStream.Segment.ofText("================= Job " + jobId +
+                                                           " logs =================\n", LOG_CHARSET));
+        segments.addAll(jobLog);
         for (TaskId taskId : tasks) {
-            result.append("\n================ Task ").append(taskId).append(" logs =================\n");
-            result.append(getTaskLog(taskId));
+            segments.add(LogSegmentsInputStream.Segment.ofText("\n================ Task " + taskId +
+                                                               " logs =================\n", LOG_CHARSET));
+            segments.addAll(taskLogSegments(taskId));
         }
-        return result.toString();
+        return segments;
+    }
 
+    private List<LogSegmentsInputStream.Segment> taskLogSegments(TaskId id) {
+        List<LogSegmentsInputStream.Segment> segments = logSegments(TaskLogger.getTaskLogRelativePath(id));
+        if (segments.isEmpty()) {
+            segments.add(LogSegmentsInputStream.Segment.ofText("Cannot retrieve logs for task " + id, LOG_CHARSET));
+        }
+        return segments;
     }
 
     public void remove(JobId jobId, String jobOwner, Credentials userCredentials) {
@@ -244,30 +298,48 @@ public class ServerJobAndTaskLogs {
         return PASchedulerProperties.SCHEDULER_DB_HIBERNATE_DROPDB.getValueAsBoolean();
     }
 
-    private String readLog(String filename) {
-        String result = null;
+    /**
+     * Returns the segments of a log file, the rolled-over part first
+     */
+    private List<LogSegmentsInputStream.Segment> logSegments(String filename) {
+        List<LogSegmentsInputStream.Segment> segments = new ArrayList<>(2);
         for (String suffix : new String[] { ".1", "" }) {
-            String contents = readFile(new File(getLogsLocation(), filename + suffix));
-            if (contents != null) {
-                if (result == null) {
-                    result = contents;
-                } else {
-                    result += contents;
-                }
+            File file = new File(getLogsLocation(), filename + suffix);
+            if (file.exists()) {
+                segments.add(LogSegmentsInputStream.Segment.ofFile(file));
             }
         }
-        return result;
+        return segments;
     }
 
-    private String readFile(File file) {
-        if (file.exists()) {
-            try {
-                return org.apache.commons.io.FileUtils.readFileToString(file);
-            } catch (IOException e) {
-                logger.warn(e);
+    private String readSegments(List<LogSegmentsInputStream.Segment> segments, long offset, long limit) {
+        long available = Math.max(0, LogSegmentsInputStream.totalLength(segments) - Math.max(0, offset));
+        long expectedSize = limit < 0 ? available : Math.min(limit, available);
+        StringBuilder result = new StringBuilder((int) Math.min(expectedSize, MAX_PREALLOCATED_LOG_SIZE));
+        try (Reader reader = new InputStreamReader(openWindow(segments, offset, limit), LOG_CHARSET)) {
+            char[] buffer = new char[READ_BUFFER_SIZE];
+            int n;
+            while ((n = reader.read(buffer)) != -1) {
+                result.append(buffer, 0, n);
             }
+        } catch (IOException e) {
+            logger.warn(e);
+        }
+        return result.toString();
+    }
+
+    /**
+     * Opens the given byte window of the segments. UTF-8 logs are aligned on character boundaries, so that
+     * a character split by the window is not decoded as invalid data.
+     */
+    private InputStream openWindow(List<LogSegmentsInputStream.Segment> segments, long offset, long limit) {
+        if (!StandardCharsets.UTF_8.equals(LOG_CHARSET)) {
+            return new LogSegmentsInputStream(segments, offset, limit);
         }
-        return null;
+        long extendedLimit = limit < 0 ? limit : limit + Utf8WindowInputStream.MAX_CONTINUATION_BYTES;
+        return new Utf8WindowInputStream(new LogSegmentsInputStream(segments, offset, extendedLimit),
+                                         offset > 0,
+                                         limit);
     }
 
     void removeLogsDirectory() {
@@ -0,0 +1,134 @@
+/*
+ * ProActive Parallel Suite(TM):
+ * The Open Source library for parallel and distributed
+ * Workflows & Scheduling, Orchestration, Cloud Automation
+ * and Big Data Analysis on Enterprise Grids & Clouds.
+ *
+ * Copyright (c) 2007 - 2017 ActiveEon
+ * Contact: contact@activeeon.com
+ *
+ * This library is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation: version 3 of
+ * the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ */
+package org.ow2.proactive.scheduler.util;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+
+/**
+ * Aligns a byte window of UTF-8 encoded data on character boundaries.
+ *
+ * A character belongs to the window which contains its first byte: the continuation bytes found at the
+ * beginning of the window are skipped, and the last character started in the window is read whole, even
+ * if it ends after the window. Consecutive windows can thus be decoded separately and concatenated.
+ *
+ * The given stream must start at the beginning of the window and provide at least
+ * {@link #MAX_CONTINUATION_BYTES} bytes past its end when they exist.
+ */
+class Utf8WindowInputStream extends FilterInputStream {
+
+    /**
+     * Maximum number of continuation bytes following the first byte of a UTF-8 character
+     */
+    static final int MAX_CONTINUATION_BYTES = 3;
+
+    private boolean atWindowStart;
+
+    private long bytesRemaining;
+
+    private boolean characterStarted;
+
+    private int pendingByte = -1;
+
+    private boolean ended;
+
+    /**
+     * @param in stream positioned at the beginning of the window
+     * @param skipLeadingContinuationBytes true if the window does not start at the beginning of the data
+     * @param limit size of the window in bytes, a negative value means no limit
+     */
+    Utf8WindowInputStream(InputStream in, boolean skipLeadingContinuationBytes, long limit) {
+        super(in);
+        this.atWindowStart = skipLeadingContinuationBytes;
+        this.bytesRemaining = limit < 0 ? Long.MAX_VALUE : limit;
+    }
+
+    @Override
+    public int read() throws IOException {
+        byte[] single = new byte[1];
+        int n = read(single, 0, 1);
+        return n == -1 ? -1 : single[0] & 0xFF;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        if (len == 0) {
+            return 0;
+        }
+        if (atWindowStart) {
+            skipLeadingContinuationBytes();
+        }
+        if (pendingByte != -1) {
+            b[off] = (byte) pendingByte;
+            pendingByte = -1;
+            return 1;
+        }
+        if (ended) {
+            return -1;
+        }
+        if (bytesRemaining > 0) {
+            int n = in.read(b, off, (int) Math.min(len, bytesRemaining));
+            if (n == -1) {
+                ended = true;
+                return -1;
+            }
+            bytesRemaining -= n;
+            characterStarted = true;
+            return n;
+        }
+        // the window is exhausted, complete the character it ends with
+        int next = characterStarted ? in.read() : -1;
+        if (next == -1 || !isContinuationByte(next)) {
+            ended = true;
+            return -1;
+        }
+        b[off] = (byte) next;
+        return 1;
+    }
+
+    private void skipLeadingContinuationBytes() throws IOException {
+        atWindowStart = false;
+        while (bytesRemaining > 0) {
+            int next = in.read();
+            if (next == -1) {
+                ended = true;
+                return;
+            }
+            bytesRemaining--;
+            if (!isContinuationByte(next)) {
+                pendingByte = next;
+                characterStarted = true;
+                return;
+            }
+        }
+    }
+
+    private static boolean isContinuationByte(int b) {
+        return (b & 0xC0) == 0x80;
+    }
+}
@@ -39,6 +39,7 @@ import org.junit.Test;
 import org.ow2.proactive.db.SortOrder;
 import org.ow2.proactive.db.SortParameter;
 import org.ow2.proactive.scheduler.common.JobSortParameter;
+import org.ow2.proactive.scheduler.common.Page;
 import org.ow2.proactive.scheduler.common.job.JobInfo;
 import org.ow2.proactive.scheduler.common.job.JobPriority;
 import org.ow2.proactive.scheduler.common.job.JobStatus;
@@ -1350,15 +1351,104 @@ public class TestLoadJobsPagination extends BaseSchedulerDBTest {
         checkJobs(jobs, 3);
     }
 
+    @Test
+    public void testKeysetPagination() throws Exception {
+        defaultSubmitJob(createJob("A", JobPriority.NORMAL)); // 1
+        defaultSubmitJob(createJob("B", JobPriority.NORMAL)); // 2
+        defaultSubmitJob(createJob("C", JobPriority.NORMAL)); // 3
+        defaultSubmitJob(createJob("A", JobPriority.NORMAL)); // 4
+        defaultSubmitJob(createJob("B", JobPriority.NORMAL)); // 5
+        defaultSubmitJob(createJob("C", JobPriority.NORMAL)); // 6
+
+        // jobs with the same name are ordered by decreasing id
+        List<SortParameter<JobSortParameter>> sortParameters = sortParameters(new SortParameter<>(JobSortParameter.NAME,
+                                                                                                  SortOrder.ASC));
+
+        Page<JobInfo> page = getJobsAfter(0, null, sortParameters);
+        checkJobs(page.getList(), 4, 1);
+        Assert.assertEquals(6, page.getSize());
+
+        page = getJobsAfter(0, 1L, sortParameters);
+        checkJobs(page.getList(), 5, 2);
+        Assert.assertEquals(6, page.getSize());
+
+        checkJobs(getJobsAfter(0, 2L, sortParameters).getList(), 6, 3);
+        checkJobs(getJobsAfter(0, 3L, sortParameters).getList());
+
+        // the offset is ignored when a cursor is given
+        checkJobs(getJobsAfter(4, 1L, sortParameters).getList(), 5, 2);
+
+        // an unknown cursor falls back to the offset
+        checkJobs(getJobsAfter(2, 100L, sortParameters).getList(), 5, 2);
+
+        // without sort parameters, jobs are ordered by decreasing id
+        checkJobs(getJobsAfter(0, 5L, null).getList(), 4, 3);
+    }
+
+    @Test
+    public void testKeysetPaginationWithNullSortValues() throws Exception {
+        defaultSubmitJob(createJob(null, null, null, null, null, null, 1000L)); // 1
+        defaultSubmitJob(createJob(null, null, null, null, null, null, null)); // 2
+        defaultSubmitJob(createJob(null, null, null, null, null, null, 2000L)); // 3
+        defaultSubmitJob(createJob(null, null, null, null, null, null, null)); // 4
+
+        List<SortParameter<JobSortParameter>> sortParameters = sortParameters(new SortParameter<>(JobSortParameter.START_AT,
+                                                                                                  SortOrder.ASC));
+
+        // the database decides where the jobs without start at time are placed, the second page must hold
+        // the remaining jobs whatever the job ending the first page
+        List<Integer> firstPage = getJobIds(getJobsAfter(0, null, sortParameters).getList());
+        Assert.assertEquals(2, firstPage.size());
+        long cursor = firstPage.get(1);
+        List<Integer> secondPage = getJobIds(getJobsAfter(2, cursor, sortParameters).getList());
+        Assert.assertEquals(getJobIds(getJobsAfter(2, null, sortParameters).getList()), secondPage);
+
+        List<Integer> ids = new ArrayList<>(firstPage);
+        ids.addAll(secondPage);
+        assertThat(ids).containsExactly(1, 2, 3, 4);
+    }
+
+    private Page<JobInfo> getJobsAfter(int offset, Long afterJobId,
+            List<SortParameter<JobSortParameter>> sortParameters) {
+        return dbManager.getJobs(offset,
+                                 2,
+                                 null,
+                                 null,
+                                 null,
+                                 false,
+                                 true,
+                                 true,
+                                 true,
+                                 false,
+                                 true,
+                                 null,
+                                 null,
+                                 null,
+                                 null,
+                                 null,
+                                 null,
+                                 sortParameters,
+                                 null,
+                                 0,
+                                 0,
+                                 0,
+                                 0,
+                                 afterJobId);
+    }
+
     private List<SortParameter<JobSortParameter>> sortParameters(SortParameter<JobSortParameter>... params) {
         return Arrays.asList(params);
     }
 
     private void checkJobs(List<JobInfo> jobs, Integer... expectedIds) {
+        Assert.assertEquals(Arrays.asList(expectedIds), getJobIds(jobs));
+    }
+
+    private List<Integer> getJobIds(List<JobInfo> jobs) {
         List<Integer> ids = new ArrayList<>();
         for (JobInfo job : jobs) {
             ids.add(Integer.valueOf(job.getJobId().value()));
         }
-        Assert.assertEquals(Arrays.asList(expectedIds), ids);
+        return ids;
     }
 }
@@ -0,0 +1,174 @@
+/*
+ * ProActive Parallel Suite(TM):
+ * The Open Source library for parallel and distributed
+ * Workflows & Scheduling, Orchestration, Cloud Automation
+ * and Big Data Analysis on Enterprise Grids & Clouds.
+ *
+ * Copyright (c) 2007 - 2017 ActiveEon
+ * Contact: contact@activeeon.com
+ *
+ * This library is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation: version 3 of
+ * the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ */
+package functionaltests.db.schedulerdb;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.ow2.proactive.scheduler.common.job.CompletedJobsCount;
+import org.ow2.proactive.scheduler.common.job.CompletedTasksCount;
+import org.ow2.proactive.scheduler.common.job.FilteredStatistics;
+import org.ow2.proactive.scheduler.common.job.JobStatus;
+import org.ow2.proactive.scheduler.common.job.TaskFlowJob;
+import org.ow2.proactive.scheduler.common.task.TaskId;
+import org.ow2.proactive.scheduler.core.db.StatisticsRollup;
+import org.ow2.proactive.scheduler.core.properties.PASchedulerProperties;
+import org.ow2.proactive.scheduler.job.InternalJob;
+
+
+public class TestStatisticsRollup extends BaseSchedulerDBTest {
+
+    private static final long HOUR = 1000 * 60 * 60;
+
+    @BeforeClass
+    public static void enableRollups() {
+        PASchedulerProperties.SCHEDULER_DB_STATISTICS_BUCKET_DURATION.updateProperty(String.valueOf(HOUR));
+        // rollups are only triggered by the test
+        PASchedulerProperties.SCHEDULER_DB_STATISTICS_ROLLUP_PERIOD.updateProperty(String.valueOf(HOUR));
+    }
+
+    @AfterClass
+    public static void disableRollups() {
+        PASchedulerProperties.SCHEDULER_DB_STATISTICS_BUCKET_DURATION.updateProperty("0");
+        PASchedulerProperties.SCHEDULER_DB_STATISTICS_ROLLUP_PERIOD.updateProperty("10000");
+    }
+
+    @Test
+    public void testStatisticsAreTheSameBeforeAndAfterRollup() throws Exception {
+        defaultSubmitJob(createJob("pending"));
+        InternalJob job1 = addKilledJob("workflow1", DEFAULT_USER_NAME);
+        addKilledJob("workflow1", DEFAULT_USER_NAME);
+        addKilledJob("workflow2", "user2");
+
+        long now = System.currentTimeMillis();
+        List<Object> statistics = getStatistics(now);
+        Assert.assertEquals(3, ((FilteredStatistics) statistics.get(0)).getKilledJobs());
+
+        Assert.assertEquals(3, dbManager.rollUpStatistics());
+        Assert.assertEquals(0, dbManager.rollUpStatistics());
+        assertSameStatistics(statistics, getStatistics(now));
+
+        addKilledJob("workflow2", "user2");
+        statistics = getStatistics(now);
+        Assert.assertEquals(4, ((FilteredStatistics) statistics.get(0)).getKilledJobs());
+        Assert.assertEquals(1, dbManager.rollUpStatistics());
+        assertSameStatistics(statistics, getStatistics(now));
+
+        dbManager.removeJob(job1.getId(), 0, true);
+        statistics = getStatistics(now);
+        Assert.assertEquals(3, ((FilteredStatistics) statistics.get(0)).getKilledJobs());
+        Assert.assertEquals(2,
+                            dbManager.getNumberOfFilteredJobs("workflow2",
+                                                              null,
+                                                              null,
+                                                              null,
+                                                              now - HOUR,
+                                                              now + HOUR,
+                                                              Collections.singletonList(JobStatus.KILLED),
+                                                              null));
+        Assert.assertEquals(0, dbManager.rollUpStatistics());
+        assertSameStatistics(statistics, getStatistics(now));
+    }
+
+    @Test
+    public void testRollupsAreResetWhenDisabled() throws Exception {
+        addKilledJob("workflow1", DEFAULT_USER_NAME);
+        InternalJob job2 = addKilledJob("workflow2", DEFAULT_USER_NAME);
+        Assert.assertEquals(2, dbManager.rollUpStatistics());
+
+        long now = System.currentTimeMillis();
+        StatisticsRollup disabled = new StatisticsRollup(dbManager, 0, 100);
+        Assert.assertFalse(disabled.getPeriod(now - 24 * HOUR, now + HOUR).useRollups());
+        Assert.assertEquals(0, disabled.rollUp());
+
+        disabled.resetStaleRollups();
+        // the jobs removed while the rollups are disabled are not subtracted from the rollups
+        dbManager.removeJob(job2.getId(), 0, true);
+        Assert.assertEquals(1, dbManager.rollUpStatistics());
+        Assert.assertEquals(1, dbManager.getFilteredStatistics(null, null, null, null, 0, 0).getKilledJobs());
+    }
+
+    private List<Object> getStatistics(long now) {
+        FilteredStatistics allTime = dbManager.getFilteredStatistics(null, null, null, null, 0, 0);
+        FilteredStatistics lastDay = dbManager.getFilteredStatistics(null, null, null, null, now - 24 * HOUR, now + HOUR);
+        FilteredStatistics user = dbManager.getFilteredStatistics("workflow", null, "user2", null, now - HOUR, 0);
+        CompletedJobsCount completedJobs = dbManager.getCompletedJobs(null,
+                                                                      null,
+                                                                      null,
+                                                                      null,
+                                                                      now - 24 * HOUR,
+                                                                      now + 24 * HOUR,
+                                                                      4);
+        CompletedTasksCount completedTasks = dbManager.getCompletedTasks(null,
+                                                                         null,
+                                                                         null,
+                                                                         now - 24 * HOUR,
+                                                                         now + 24 * HOUR,
+                                                                         4);
+        return Arrays.asList(allTime,
+                             lastDay,
+                             user,
+                             completedJobs.getJobsWithIssues(),
+                             completedJobs.getJobsWithoutIssues(),
+                             completedTasks.getTasksWithIssues(),
+                             completedTasks.getTasksWithoutIssues(),
+                             dbManager.getTopWorkflowsWithIssues(10, null, null, null, null, 0, 0).size(),
+                             dbManager.getTopExecutionTimeWorkflows(10, null, null, null, null, 0, 0).size());
+    }
+
+    private void assertSameStatistics(List<Object> expected, List<Object> actual) {
+        for (int i = 0; i < 3; i++) {
+            FilteredStatistics expectedStatistics = (FilteredStatistics) expected.get(i);
+            FilteredStatistics actualStatistics = (FilteredStatistics) actual.get(i);
+            Assert.assertEquals(expectedStatistics.getPendingJobs(), actualStatistics.getPendingJobs());
+            Assert.assertEquals(expectedStatistics.getCanceledJobs(), actualStatistics.getCanceledJobs());
+            Assert.assertEquals(expectedStatistics.getKilledJobs(), actualStatistics.getKilledJobs());
+            Assert.assertEquals(expectedStatistics.getFailedJobs(), actualStatistics.getFailedJobs());
+            Assert.assertEquals(expectedStatistics.getSuccessfulJobs(), actualStatistics.getSuccessfulJobs());
+            Assert.assertEquals(expectedStatistics.getTotalJobs(), actualStatistics.getTotalJobs());
+        }
+        Assert.assertEquals(expected.subList(3, expected.size()), actual.subList(3, actual.size()));
+    }
+
+    private InternalJob addKilledJob(String name, String user) throws Exception {
+        InternalJob job = defaultSubmitJob(createJob(name), user);
+        job.failed(null, JobStatus.KILLED);
+        dbManager.updateAfterJobKilled(job, Collections.<TaskId> emptySet());
+        return job;
+    }
+
+    private TaskFlowJob createJob(String name) throws Exception {
+        TaskFlowJob job = new TaskFlowJob();
+        job.setName(name);
+        job.addTask(createDefaultTask("task"));
+        return job;
+    }
+}
@@ -50,6 +50,7 @@ import org.ow2.proactive.scheduler.common.task.TaskId;
 import org.ow2.proactive.scheduler.core.DataSpaceServiceStarter;
 import org.ow2.proactive.scheduler.core.SchedulerSpacesSupport;
 import org.ow2.proactive.scheduler.core.SchedulingInfrastructure;
+import org.ow2.proactive.scheduler.core.TaskTerminationExecutor;
 import org.ow2.proactive.scheduler.core.db.SchedulerDBManager;
 import org.ow2.proactive.scheduler.core.rmproxies.RMProxiesManager;
 import org.ow2.proactive.scheduler.core.rmproxies.RMProxy;
@@ -68,6 +69,8 @@ public class MockSchedulingInfrastructure implements SchedulingInfrastructure {
 
     private final ExecutorService executorService;
 
+    private final TaskTerminationExecutor taskTerminationExecutor = new TaskTerminationExecutor(5, 100);
+
     private final DataSpaceServiceStarter dsStarter;
 
     private AtomicInteger releaseNodeCounter = new AtomicInteger();
@@ -151,6 +154,7 @@ public class MockSchedulingInfrastructure implements SchedulingInfrastructure {
 
     public void shutdown() {
         scheduledExecutorService.shutdownNow();
+        taskTerminationExecutor.shutdown();
     }
 
     @Override
@@ -183,6 +187,11 @@ public class MockSchedulingInfrastructure implements SchedulingInfrastructure {
         return executorService;
     }
 
+    @Override
+    public TaskTerminationExecutor getTaskTerminationExecutor() {
+        return taskTerminationExecutor;
+    }
+
     @Override
     public SchedulerSpacesSupport getSpacesSupport() {
         return null;
@@ -0,0 +1,186 @@
+/*
+ * ProActive Parallel Suite(TM):
+ * The Open Source library for parallel and distributed
+ * Workflows & Scheduling, Orchestration, Cloud Automation
+ * and Big Data Analysis on Enterprise Grids & Clouds.
+ *
+ * Copyright (c) 2007 - 2017 ActiveEon
+ * Contact: contact@activeeon.com
+ *
+ * This library is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation: version 3 of
+ * the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ */
+package org.ow2.proactive.scheduler.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Vector;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.objectweb.proactive.core.UniqueID;
+import org.ow2.proactive.scheduler.common.NotificationData;
+import org.ow2.proactive.scheduler.common.SchedulerEvent;
+import org.ow2.proactive.scheduler.common.SchedulerEventListener;
+import org.ow2.proactive.scheduler.common.job.UserIdentification;
+import org.ow2.proactive.scheduler.common.task.TaskId;
+import org.ow2.proactive.scheduler.common.task.TaskInfo;
+import org.ow2.proactive.scheduler.core.properties.PASchedulerProperties;
+import org.ow2.proactive.scheduler.job.JobIdImpl;
+import org.ow2.proactive.scheduler.task.TaskIdImpl;
+import org.ow2.tests.ProActiveTestClean;
+
+
+public class ClientRequestHandlerTest extends ProActiveTestClean {
+
+    private final TaskId taskId = TaskIdImpl.createTaskId(new JobIdImpl(42, "job"), "task", 1);
+
+    private final List<Object> receivedEvents = new Vector<>();
+
+    private final CountDownLatch firstEventReceived = new CountDownLatch(1);
+
+    private final CountDownLatch clientReleased = new CountDownLatch(1);
+
+    private final UniqueID clientId = new UniqueID();
+
+    private final int queueSize = PASchedulerProperties.SCHEDULER_LISTENERS_QUEUE_SIZE.getValueAsInt();
+
+    private final NotificationData<UserIdentification> usersEvent = new NotificationData<>(SchedulerEvent.USERS_UPDATE,
+                                                                                           null);
+
+    private Method taskStateUpdatedEvent;
+
+    private Method usersUpdatedEvent;
+
+    private SchedulerFrontendState frontend;
+
+    private ClientRequestHandler clientRequestHandler;
+
+    @Before
+    public void setUp() throws Exception {
+        taskStateUpdatedEvent = SchedulerEventListener.class.getMethod("taskStateUpdatedEvent",
+                                                                       NotificationData.class);
+        usersUpdatedEvent = SchedulerEventListener.class.getMethod("usersUpdatedEvent", NotificationData.class);
+        frontend = mock(SchedulerFrontendState.class);
+        SchedulerEventListener client = mock(SchedulerEventListener.class);
+        doAnswer(invocation -> {
+            receivedEvents.add(invocation.getArguments()[0]);
+            if (receivedEvents.size() == 1) {
+                // keep the client busy so that the next events are queued
+                firstEventReceived.countDown();
+                clientReleased.await(10, TimeUnit.SECONDS);
+            }
+            return null;
+        }).when(client).taskStateUpdatedEvent(any(NotificationData.class));
+        clientRequestHandler = new ClientRequestHandler(frontend, clientId, client);
+    }
+
+    @Test
+    public void testWaitingProgressEventsAreReplacedByTheLatest() throws Exception {
+        NotificationData<TaskInfo> running = taskEvent(SchedulerEvent.TASK_PENDING_TO_RUNNING);
+        NotificationData<TaskInfo> lastProgress = taskEvent(SchedulerEvent.TASK_PROGRESS);
+        NotificationData<TaskInfo> finished = taskEvent(SchedulerEvent.TASK_RUNNING_TO_FINISHED);
+
+        sendAndWaitForClient(running);
+        clientRequestHandler.addEvent(taskStateUpdatedEvent, taskEvent(SchedulerEvent.TASK_PROGRESS));
+        clientRequestHandler.addEvent(taskStateUpdatedEvent, taskEvent(SchedulerEvent.TASK_PROGRESS));
+        clientRequestHandler.addEvent(taskStateUpdatedEvent, lastProgress);
+        clientRequestHandler.addEvent(taskStateUpdatedEvent, finished);
+
+        assertReceived(running, lastProgress, finished);
+    }
+
+    @Test
+    public void testProgressEventsAreNotMovedBeforeOtherEventsOfTheTask() throws Exception {
+        NotificationData<TaskInfo> running = taskEvent(SchedulerEvent.TASK_PENDING_TO_RUNNING);
+        NotificationData<TaskInfo> firstProgress = taskEvent(SchedulerEvent.TASK_PROGRESS);
+        NotificationData<TaskInfo> waitingOnError = taskEvent(SchedulerEvent.TASK_WAITING_FOR_RESTART);
+        NotificationData<TaskInfo> secondProgress = taskEvent(SchedulerEvent.TASK_PROGRESS);
+
+        sendAndWaitForClient(running);
+        clientRequestHandler.addEvent(taskStateUpdatedEvent, firstProgress);
+        clientRequestHandler.addEvent(taskStateUpdatedEvent, waitingOnError);
+        clientRequestHandler.addEvent(taskStateUpdatedEvent, secondProgress);
+
+        assertReceived(running, firstProgress, waitingOnError, secondProgress);
+    }
+
+    @Test
+    public void testProgressEventsAreDroppedWhenTheQueueIsFull() throws Exception {
+        NotificationData<TaskInfo> running = taskEvent(SchedulerEvent.TASK_PENDING_TO_RUNNING);
+        NotificationData<TaskInfo> finished = taskEvent(SchedulerEvent.TASK_RUNNING_TO_FINISHED);
+
+        sendAndWaitForClient(running);
+        clientRequestHandler.addEvent(taskStateUpdatedEvent, taskEvent(SchedulerEvent.TASK_PROGRESS));
+        for (int i = 1; i < queueSize; i++) {
+            clientRequestHandler.addEvent(usersUpdatedEvent, usersEvent);
+        }
+        clientRequestHandler.addEvent(usersUpdatedEvent, usersEvent);
+        clientRequestHandler.addEvent(taskStateUpdatedEvent, finished);
+
+        assertReceived(running, finished);
+        verify(frontend, never()).markAsDirty(clientId);
+    }
+
+    @Test
+    public void testClientIsMarkedAsDirtyWhenNoEventCanBeDropped() throws Exception {
+        NotificationData<TaskInfo> running = taskEvent(SchedulerEvent.TASK_PENDING_TO_RUNNING);
+
+        sendAndWaitForClient(running);
+        for (int i = 0; i < queueSize; i++) {
+            clientRequestHandler.addEvent(usersUpdatedEvent, usersEvent);
+        }
+        verify(frontend, never()).markAsDirty(clientId);
+        clientRequestHandler.addEvent(usersUpdatedEvent, usersEvent);
+        verify(frontend).markAsDirty(clientId);
+
+        // the events of the client are discarded until it is disconnected
+        clientRequestHandler.addEvent(taskStateUpdatedEvent, taskEvent(SchedulerEvent.TASK_RUNNING_TO_FINISHED));
+        assertReceived(running);
+    }
+
+    private void sendAndWaitForClient(NotificationData<TaskInfo> event) throws InterruptedException {
+        clientRequestHandler.addEvent(taskStateUpdatedEvent, event);
+        assertTrue(firstEventReceived.await(10, TimeUnit.SECONDS));
+    }
+
+    private void assertReceived(Object... expectedEvents) throws InterruptedException {
+        clientReleased.countDown();
+        long deadline = System.currentTimeMillis() + 10000;
+        while (receivedEvents.size() < expectedEvents.length && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(Arrays.asList(expectedEvents), receivedEvents);
+    }
+
+    private NotificationData<TaskInfo> taskEvent(SchedulerEvent eventType) {
+        TaskInfo taskInfo = mock(TaskInfo.class);
+        when(taskInfo.getTaskId()).thenReturn(taskId);
+        return new NotificationData<>(eventType, taskInfo);
+    }
+}
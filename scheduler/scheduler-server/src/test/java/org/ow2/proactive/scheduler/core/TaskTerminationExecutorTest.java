@@ -0,0 +1,120 @@
+/*
+ * ProActive Parallel Suite(TM):
+ * The Open Source library for parallel and distributed
+ * Workflows & Scheduling, Orchestration, Cloud Automation
+ * and Big Data Analysis on Enterprise Grids & Clouds.
+ *
+ * Copyright (c) 2007 - 2017 ActiveEon
+ * Contact: contact@activeeon.com
+ *
+ * This library is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation: version 3 of
+ * the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ */
+package org.ow2.proactive.scheduler.core;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Test;
+
+
+public class TaskTerminationExecutorTest {
+
+    private TaskTerminationExecutor executor;
+
+    @After
+    public void shutdown() {
+        if (executor != null) {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void testInterleaveActionsOfNodes() {
+        List<String> order = new ArrayList<>();
+        Map<String, List<Runnable>> actionsByNode = new LinkedHashMap<>();
+        actionsByNode.put("node1",
+                          Arrays.asList(() -> order.add("1a"), () -> order.add("1b"), () -> order.add("1c")));
+        actionsByNode.put("node2", Collections.singletonList(() -> order.add("2a")));
+        actionsByNode.put("node3", Arrays.asList(() -> order.add("3a"), () -> order.add("3b")));
+
+        TaskTerminationExecutor.interleave(actionsByNode).forEach(Runnable::run);
+
+        assertThat(order, contains("1a", "2a", "3a", "1b", "3b", "1c"));
+    }
+
+    @Test
+    public void testExecuteAllWaitsForAllActions() {
+        executor = new TaskTerminationExecutor(2, 2);
+        AtomicInteger executed = new AtomicInteger();
+        List<Runnable> actions = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            actions.add(executed::incrementAndGet);
+        }
+        actions.add(() -> {
+            throw new IllegalStateException("expected");
+        });
+
+        executor.executeAll(Collections.singletonMap("node", actions));
+
+        assertThat(executed.get(), is(20));
+        assertThat(executor.getSubmittedCount(), is(21L));
+        assertThat(executor.getCompletedCount(), is(21L));
+        assertThat(executor.getFailedCount(), is(1L));
+    }
+
+    @Test
+    public void testCallerExecutesWhenQueueIsFull() throws Exception {
+        executor = new TaskTerminationExecutor(1, 1);
+        CountDownLatch blocked = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Thread caller = Thread.currentThread();
+        List<Thread> executingThreads = Collections.synchronizedList(new ArrayList<>());
+
+        List<Runnable> actions = new ArrayList<>();
+        actions.add(() -> {
+            blocked.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        actions.add(() -> executingThreads.add(Thread.currentThread()));
+        actions.add(() -> {
+            executingThreads.add(Thread.currentThread());
+            release.countDown();
+        });
+
+        executor.executeAll(Collections.singletonMap("node", actions));
+
+        assertThat(blocked.getCount(), is(0L));
+        assertThat(executingThreads.contains(caller), is(true));
+        assertThat(executor.getExecutedByCallerCount(), is(1L));
+    }
+
+}
@@ -32,6 +32,7 @@ import java.io.IOException;
 import java.util.HashMap;
 import java.util.Map;
 
+import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 import org.mockito.Mock;
@@ -89,11 +90,19 @@ public class TerminationDataTest extends ProActiveTestClean {
     @Mock
     private SchedulerDBManager dbManager;
 
+    private TaskTerminationExecutor terminationExecutor = new TaskTerminationExecutor(2, 10);
+
+    @After
+    public void shutdownExecutor() {
+        terminationExecutor.shutdown();
+    }
+
     @Before
     public void init() throws RMProxyCreationException {
         MockitoAnnotations.initMocks(this);
         Mockito.when(service.getInfrastructure()).thenReturn(schedulingInfrastructure);
         Mockito.when(schedulingInfrastructure.getRMProxiesManager()).thenReturn(proxiesManager);
+        Mockito.when(schedulingInfrastructure.getTaskTerminationExecutor()).thenReturn(terminationExecutor);
         Mockito.when(proxiesManager.getUserRMProxy("user", null)).thenReturn(rmProxy);
         Mockito.when(service.getInfrastructure().getDBManager()).thenReturn(dbManager);
         Mockito.when(service.getInfrastructure().getDBManager().thirdPartyCredentialsMap(Mockito.any(String.class)))
@@ -0,0 +1,110 @@
+/*
+ * ProActive Parallel Suite(TM):
+ * The Open Source library for parallel and distributed
+ * Workflows & Scheduling, Orchestration, Cloud Automation
+ * and Big Data Analysis on Enterprise Grids & Clouds.
+ *
+ * Copyright (c) 2007 - 2017 ActiveEon
+ * Contact: contact@activeeon.com
+ *
+ * This library is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation: version 3 of
+ * the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ */
+package org.ow2.proactive.scheduler.job;
+
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.Assert.assertThat;
+
+import java.util.Collections;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.ow2.proactive.scheduler.common.job.JobPriority;
+import org.ow2.proactive.scheduler.common.task.OnTaskError;
+import org.ow2.proactive.scheduler.task.internal.InternalScriptTask;
+import org.ow2.proactive.scheduler.task.internal.InternalTask;
+
+
+public class InternalJobTest {
+
+    private InternalJob job;
+
+    @Before
+    public void init() {
+        job = new InternalTaskFlowJob("test-name", JobPriority.NORMAL, OnTaskError.CANCEL_JOB, "description");
+        job.setId(new JobIdImpl(42, job.getName()));
+    }
+
+    @Test
+    public void testFindTask() {
+        InternalTask task1 = addTask("task1");
+        InternalTask task2 = addTask("task2");
+
+        assertThat(job.findTask("task1"), sameInstance(task1));
+        assertThat(job.findTask("task2"), sameInstance(task2));
+        assertThat(job.findTask("unknown"), nullValue());
+    }
+
+    @Test
+    public void testFindTaskAddedAfterIndexing() {
+        addTask("task1");
+        assertThat(job.findTask("task1") != null, is(true));
+
+        InternalTask task2 = addTask("task2");
+
+        assertThat(job.findTask("task2"), sameInstance(task2));
+    }
+
+    @Test
+    public void testFindRenamedTask() {
+        InternalTask task = addTask("task");
+        assertThat(job.findTask("task"), sameInstance(task));
+
+        // replicated tasks are renamed after being added to the job
+        task.setReplicationIndex(2);
+
+        assertThat(job.findTask("task"), nullValue());
+        assertThat(job.findTask(task.getName()), sameInstance(task));
+    }
+
+    @Test
+    public void testFindTaskAfterSetTasks() {
+        InternalTask task = addTask("task");
+        assertThat(job.findTask("task"), sameInstance(task));
+
+        InternalTask other = newTask("other");
+        other.setId(task.getId());
+        job.setTasks(Collections.singletonList(other));
+
+        assertThat(job.findTask("task"), nullValue());
+        assertThat(job.findTask("other"), sameInstance(other));
+    }
+
+    private InternalTask addTask(String name) {
+        InternalTask task = newTask(name);
+        job.addTask(task);
+        return task;
+    }
+
+    private InternalTask newTask(String name) {
+        InternalTask task = new InternalScriptTask(job);
+        task.setName(name);
+        return task;
+    }
+
+}
@@ -29,6 +29,7 @@ import static java.nio.charset.Charset.defaultCharset;
 import static org.hamcrest.CoreMatchers.is;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
 
 import java.io.File;
 import java.io.IOException;
@@ -47,6 +48,7 @@ import org.ow2.proactive.resourcemanager.core.properties.PAResourceManagerProper
 import org.ow2.proactive.scheduler.common.job.JobId;
 import org.ow2.proactive.scheduler.job.JobIdImpl;
 import org.ow2.proactive.utils.appenders.AsynchChachedFileAppender;
+import org.ow2.proactive.utils.appenders.AsynchFileAppender;
 import org.ow2.proactive.utils.appenders.FileAppender;
 
 
@@ -105,6 +107,33 @@ public class JobLoggerTest {
         doLogTestCached(logFolder, true);
     }
 
+    @Test
+    public void testLoggerAsyncStatistics() throws IOException {
+
+        PAResourceManagerProperties.LOG4J_ASYNC_APPENDER_ENABLED.updateProperty("true");
+        PAResourceManagerProperties.LOG4J_ASYNC_APPENDER_CACHE_ENABLED.updateProperty("false");
+
+        initLoggers();
+        AsynchFileAppender appender = (AsynchFileAppender) Logger.getLogger(JobLogger.class)
+                                                                 .getAllAppenders()
+                                                                 .nextElement();
+
+        JobId id = new JobIdImpl(115, "readableName");
+        for (int i = 0; i < 100; i++) {
+            JobLogger.getInstance().info(id, "message " + i);
+        }
+        JobLogger.getInstance().flush(id);
+
+        // the logger also writes its own flush message
+        assertTrue(appender.getWrittenEvents() >= 100);
+        assertEquals(0, appender.getDroppedEvents());
+        assertEquals(0, appender.getQueueSize());
+        assertEquals(1, appender.getOpenFilesCount());
+
+        JobLogger.getInstance().close(id);
+        assertEquals(0, appender.getOpenFilesCount());
+    }
+
     private File initLoggers() throws IOException {
         Logger jobLogger = Logger.getLogger(JobLogger.class);
         FileAppender appender = ServerJobAndTaskLogs.createFileAppender();
@@ -159,6 +159,28 @@ public class ServerJobAndTaskLogsTest extends ProActiveTestClean {
         assertEquals(0, fakeSchedulerHome.list().length);
     }
 
+    @Test
+    public void logWindow() throws Exception {
+        jobLogger.info(jobId, "job log");
+        taskLogger.info(taskId, "task log");
+
+        jobLogger.close(jobId);
+        taskLogger.close(taskId);
+
+        Thread.sleep(200);
+        ServerJobAndTaskLogs logs = ServerJobAndTaskLogs.getInstance();
+        String fullJobLog = logs.getJobLog(jobId, Collections.singleton(taskId));
+        assertEquals(fullJobLog, logs.getJobLog(jobId, Collections.singleton(taskId), 0, -1));
+        assertEquals(fullJobLog.substring(5, 25), logs.getJobLog(jobId, Collections.singleton(taskId), 5, 20));
+        assertEquals(fullJobLog.substring(fullJobLog.length() - 10),
+                     logs.getJobLog(jobId, Collections.singleton(taskId), fullJobLog.length() - 10, 100));
+        assertEquals("", logs.getJobLog(jobId, Collections.singleton(taskId), fullJobLog.length(), -1));
+
+        String fullTaskLog = logs.getTaskLog(taskId);
+        assertEquals(fullTaskLog.substring(3), logs.getTaskLog(taskId, 3, -1));
+        assertEquals(fullTaskLog.substring(0, 4), logs.getTaskLog(taskId, 0, 4));
+    }
+
     private void checkContains(JobId jobId, TaskId taskId, String word) throws InterruptedException {
         Thread.sleep(200);
         assertThat(ServerJobAndTaskLogs.getInstance().getJobLog(jobId, Collections.singleton(taskId)),
@@ -0,0 +1,86 @@
+/*
+ * ProActive Parallel Suite(TM):
+ * The Open Source library for parallel and distributed
+ * Workflows & Scheduling, Orchestration, Cloud Automation
+ * and Big Data Analysis on Enterprise Grids & Clouds.
+ *
+ * Copyright (c) 2007 - 2017 ActiveEon
+ * Contact: contact@activeeon.com
+ *
+ * This library is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation: version 3 of
+ * the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ */
+package org.ow2.proactive.scheduler.util;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.Test;
+
+
+public class Utf8WindowInputStreamTest {
+
+    // characters encoded on one, two, three and four bytes
+    private static final String TEXT = "a\u00e9\u20ac\ud83d\ude00b\u00e9\u00e9\u20ac";
+
+    private static final byte[] BYTES = TEXT.getBytes(StandardCharsets.UTF_8);
+
+    @Test
+    public void testConsecutiveWindowsAreConcatenated() throws IOException {
+        for (int windowSize = 1; windowSize <= BYTES.length; windowSize++) {
+            StringBuilder text = new StringBuilder();
+            for (int offset = 0; offset < BYTES.length; offset += windowSize) {
+                text.append(readWindow(offset, windowSize));
+            }
+            assertEquals("window size " + windowSize, TEXT, text.toString());
+        }
+    }
+
+    @Test
+    public void testWindowWithoutLimit() throws IOException {
+        assertEquals(TEXT, readWindow(0, -1));
+        // the euro sign spans bytes 3 to 5, it belongs to the previous window
+        assertEquals(TEXT.substring(3), readWindow(4, -1));
+    }
+
+    @Test
+    public void testWindowInsideACharacter() throws IOException {
+        // the emoji spans bytes 6 to 9
+        assertEquals("", readWindow(7, 2));
+        assertEquals("\ud83d\ude00", readWindow(6, 1));
+    }
+
+    private String readWindow(int offset, int limit) throws IOException {
+        int available = BYTES.length - offset;
+        int length = limit < 0 ? available
+                               : Math.min(available, limit + Utf8WindowInputStream.MAX_CONTINUATION_BYTES);
+        InputStream window = new Utf8WindowInputStream(new ByteArrayInputStream(BYTES, offset, length),
+                                                       offset > 0,
+                                                       limit);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buffer = new byte[3];
+        int n;
+        while ((n = window.read(buffer)) != -1) {
+            out.write(buffer, 0, n);
+        }
+        return new String(out.toByteArray(), StandardCharsets.UTF_8);
+    }
+}
@@ -209,12 +209,24 @@ public abstract class AbstractSmartProxy<T extends JobTracker> implements Schedu
         return getScheduler().getJobServerLogs(id);
     }
 
+    @Override
+    public String getJobServerLogs(String id, long offset, long limit)
+            throws UnknownJobException, NotConnectedException, PermissionException {
+        return getScheduler().getJobServerLogs(id, offset, limit);
+    }
+
     @Override
     public String getTaskServerLogs(String id, String taskName)
             throws UnknownJobException, UnknownTaskException, NotConnectedException, PermissionException {
         return getScheduler().getTaskServerLogs(id, taskName);
     }
 
+    @Override
+    public String getTaskServerLogs(String id, String taskName, long offset, long limit)
+            throws UnknownJobException, UnknownTaskException, NotConnectedException, PermissionException {
+        return getScheduler().getTaskServerLogs(id, taskName, offset, limit);
+    }
+
     @Override
     public String getTaskServerLogsByTag(String id, String taskTag)
             throws UnknownJobException, NotConnectedException, PermissionException {
@@ -941,7 +953,8 @@ public abstract class AbstractSmartProxy<T extends JobTracker> implements Schedu
         String tname = tid.getReadableName();
         TaskStatus status = taskInfoData.getStatus();
 
-        AwaitedJob aj = jobTracker.getAwaitedJob(id.toString());
+        // only the task of the notification is read and updated, not every task of the job
+        AwaitedJob aj = jobTracker.getAwaitedJob(id.toString(), tname);
 
         if (aj == null)
             return;
@@ -951,8 +964,10 @@ public abstract class AbstractSmartProxy<T extends JobTracker> implements Schedu
         if (at == null)
             return;
 
-        at.setTaskId(tid.toString());
-        jobTracker.putAwaitedJob(id.toString(), aj);
+        if (!tid.toString().equals(at.getTaskId())) {
+            at.setTaskId(tid.toString());
+            jobTracker.putAwaitedTask(id.toString(), at);
+        }
 
         switch (status) {
             case ABORTED:
@@ -25,20 +25,41 @@
  */
 package org.ow2.proactive.scheduler.smartproxy.common;
 
-import java.io.*;
-import java.util.*;
+import java.io.File;
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 
+import org.apache.commons.io.FileUtils;
 import org.apache.log4j.Logger;
-
-import jdbm.PrimaryHashMap;
-import jdbm.RecordManager;
-import jdbm.RecordManagerFactory;
+import org.objectweb.proactive.utils.NamedThreadFactory;
+import org.ow2.proactive.scheduler.common.task.dataspaces.OutputSelector;
+import org.ow2.proactive.utils.ObjectByteConverter;
 
 
 /**
  * Database in charge to persist references to awaited jobs in order to prevent data loss.
  *
+ * Awaited jobs and their awaited tasks are stored in two tables of an embedded HSQLDB database, indexed by job id
+ * and by job id and task name, so that a task update only rewrites the task row. Changes are committed in batches:
+ * when {@link #commit()} is called, when enough changes are pending, or shortly after they were made. The
+ * registration of a new job and the discard operations are committed immediately. The database log is replayed
+ * when the database is loaded after a crash, and its files are compacted when it is loaded and when too much space
+ * is wasted.
+ *
  * @author The ProActive Team
  */
 public class JobDatabase {
@@ -52,65 +73,129 @@ public class JobDatabase {
      */
     protected static final String DEFAULT_STATUS_FILENAME = "SmartProxy";
 
+    /**
+     * Suffix added to the session name to build the name of the database files
+     */
+    private static final String STORE_SUFFIX = "Store";
+
     protected static String sessionName = DEFAULT_STATUS_FILENAME;
 
     /**
-     * File which persists the list of {@link AwaitedJob}
+     * Files prefix of the database which persists the list of {@link AwaitedJob}
      */
-    public static File statusFile = new File(TMPDIR, sessionName);
+    public static File statusFile = new File(TMPDIR, sessionName + STORE_SUFFIX);
 
     /**
-     * Name of the jobs backup table being recorded
+     * Maximum number of changes which are not committed
      */
-    public static final String STATUS_RECORD_NAME = "AWAITED_JOBS";
+    private static final int COMMIT_BATCH_SIZE = 100;
 
     /**
-     * Object handling the AwaitedJobsFile connection
+     * Maximum delay in milliseconds before a change is committed
      */
-    protected RecordManager recMan;
+    private static final long COMMIT_DELAY = 1000;
 
-    ReentrantReadWriteLock readWriteLock = new ReentrantReadWriteLock();
+    /**
+     * Size in megabytes of the database log above which the database is checkpointed
+     */
+    private static final int LOG_SIZE = 16;
 
-    ReentrantReadWriteLock.ReadLock readLock = readWriteLock.readLock();
+    /**
+     * Percentage of wasted space in the database files above which they are compacted during a checkpoint
+     */
+    private static final int DEFRAG_LIMIT = 30;
 
-    ReentrantReadWriteLock.WriteLock writeLock = readWriteLock.writeLock();
+    private static final String CREATE_JOB_TABLE = "CREATE CACHED TABLE IF NOT EXISTS AWAITED_JOB (" +
+                                                   "JOB_ID VARCHAR(255) PRIMARY KEY, " +
+                                                   "LOCAL_INPUT_FOLDER LONGVARCHAR, INPUT_SPACE_URL LONGVARCHAR, " +
+                                                   "PUSH_URL LONGVARCHAR, LOCAL_OUTPUT_FOLDER LONGVARCHAR, " +
+                                                   "OUTPUT_SPACE_URL LONGVARCHAR, PULL_URL LONGVARCHAR, " +
+                                                   "ISOLATE_TASK_OUTPUTS BOOLEAN, AUTOMATIC_TRANSFER BOOLEAN)";
+
+    private static final String CREATE_TASK_TABLE = "CREATE CACHED TABLE IF NOT EXISTS AWAITED_TASK (" +
+                                                    "JOB_ID VARCHAR(255), TASK_NAME VARCHAR(255), " +
+                                                    "TASK_ID VARCHAR(255), TRANSFERRING BOOLEAN, " +
+                                                    "OUTPUT_SELECTORS LONGVARBINARY, " +
+                                                    "PRIMARY KEY (JOB_ID, TASK_NAME), " +
+                                                    "FOREIGN KEY (JOB_ID) REFERENCES AWAITED_JOB (JOB_ID) " +
+                                                    "ON DELETE CASCADE)";
+
+    private static final String JOB_COLUMNS = "LOCAL_INPUT_FOLDER, INPUT_SPACE_URL, PUSH_URL, LOCAL_OUTPUT_FOLDER, " +
+                                              "OUTPUT_SPACE_URL, PULL_URL, ISOLATE_TASK_OUTPUTS, AUTOMATIC_TRANSFER";
+
+    private static final String SELECT_JOB = "SELECT " + JOB_COLUMNS + " FROM AWAITED_JOB WHERE JOB_ID = ?";
+
+    private static final String INSERT_JOB = "INSERT INTO AWAITED_JOB (" + JOB_COLUMNS +
+                                             ", JOB_ID) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String UPDATE_JOB = "UPDATE AWAITED_JOB SET LOCAL_INPUT_FOLDER = ?, INPUT_SPACE_URL = ?, " +
+                                             "PUSH_URL = ?, LOCAL_OUTPUT_FOLDER = ?, OUTPUT_SPACE_URL = ?, " +
+                                             "PULL_URL = ?, ISOLATE_TASK_OUTPUTS = ?, AUTOMATIC_TRANSFER = ? " +
+                                             "WHERE JOB_ID = ?";
+
+    private static final String DELETE_JOB = "DELETE FROM AWAITED_JOB WHERE JOB_ID = ?";
+
+    private static final String SELECT_TASKS = "SELECT TASK_NAME, TASK_ID, TRANSFERRING, OUTPUT_SELECTORS " +
+                                               "FROM AWAITED_TASK WHERE JOB_ID = ?";
+
+    private static final String SELECT_TASK = SELECT_TASKS + " AND TASK_NAME = ?";
+
+    private static final String INSERT_TASK = "INSERT INTO AWAITED_TASK " +
+                                              "(JOB_ID, TASK_NAME, TASK_ID, TRANSFERRING, OUTPUT_SELECTORS) " +
+                                              "VALUES (?, ?, ?, ?, ?)";
+
+    private static final String UPDATE_TASK = "UPDATE AWAITED_TASK SET TASK_ID = ?, TRANSFERRING = ?, " +
+                                              "OUTPUT_SELECTORS = ? WHERE JOB_ID = ? AND TASK_NAME = ?";
+
+    private static final String UPDATE_TASK_TRANSFERRING = "UPDATE AWAITED_TASK SET TRANSFERRING = ? " +
+                                                           "WHERE JOB_ID = ? AND TASK_NAME = ?";
+
+    private static final String DELETE_TASK = "DELETE FROM AWAITED_TASK WHERE JOB_ID = ? AND TASK_NAME = ?";
+
+    private static final String DELETE_TASKS = "DELETE FROM AWAITED_TASK WHERE JOB_ID = ?";
+
+    private static final String SELECT_ANY_TASK = "SELECT TASK_NAME FROM AWAITED_TASK WHERE JOB_ID = ? LIMIT 1";
+
+    /**
+     * Connection to the database persisting the awaited jobs
+     */
+    protected Connection connection;
+
+    /**
+     * Number of changes made since the last commit
+     */
+    private int uncommittedChanges;
 
     /**
-     * A map of jobs that have been launched and which results are awaited each
-     * time a new job is sent to the scheduler for computation, it will be added
-     * to this map, as an entry of (JobId, AwaitedJob), where JobId is given as
-     * a string. When the output data related to this job has been transferred,
-     * the corresponding awaited job will be removed from this map. This map is
-     * persisted in the status file
+     * Commits the pending changes in the background
      */
-    protected PrimaryHashMap<String, AwaitedJob> awaitedJobs;
+    private ScheduledExecutorService committer;
+
+    ReentrantReadWriteLock readWriteLock = new ReentrantReadWriteLock();
+
+    ReentrantReadWriteLock.ReadLock readLock = readWriteLock.readLock();
+
+    ReentrantReadWriteLock.WriteLock writeLock = readWriteLock.writeLock();
 
     public void cleanDataBase() {
         try {
             writeLock.lock();
 
-            if (recMan != null) {
+            if (connection != null) {
                 throw new IllegalStateException("Connection to a DB is established, cannot clean it");
             }
 
             log.info("Cleaning database");
 
-            // delete all db files
-            File[] dbJobFiles = new File(TMPDIR).listFiles(new FilenameFilter() {
-                @Override
-                public boolean accept(File dir, String name) {
-                    if (name.startsWith(sessionName)) {
-                        return true;
-                    }
-                    return false;
-                }
-            });
+            // delete all db files, including the ones of the former JDBM database
+            File[] dbJobFiles = new File(TMPDIR).listFiles((dir, name) -> name.startsWith(sessionName));
+            if (dbJobFiles == null) {
+                return;
+            }
             for (File file : dbJobFiles) {
-                try {
-                    log.info("Deleting " + file);
-                    file.delete();
-                } catch (Exception e) {
-                    log.info("Error while deleting file during database cleanup", e);
+                log.info("Deleting " + file);
+                if (!FileUtils.deleteQuietly(file)) {
+                    log.info("Could not delete " + file + " during database cleanup");
                 }
             }
         } finally {
@@ -118,11 +203,16 @@ public class JobDatabase {
         }
     }
 
+    /**
+     * Commits all the pending changes.
+     */
     public void commit() throws IOException {
         try {
             writeLock.lock();
 
-            recMan.commit();
+            commitChanges();
+        } catch (SQLException e) {
+            throw new IOException("Could not commit changes to " + statusFile, e);
         } finally {
             writeLock.unlock();
         }
@@ -134,12 +224,13 @@ public class JobDatabase {
     public void discardAllJobs() {
         try {
             writeLock.lock();
-            awaitedJobs.clear();
-            log.info("Proxy's database has been reseted.");
-            try {
-                recMan.commit();
-            } catch (IOException e) {
-                log.error("Exception occured while closing connection to status file:", e);
+            try (Statement statement = connection.createStatement()) {
+                statement.executeUpdate("DELETE FROM AWAITED_JOB");
+                changeMade();
+                commitChanges();
+                log.info("Proxy's database has been reseted.");
+            } catch (SQLException e) {
+                log.error("Exception occured while resetting the proxy's database:", e);
             }
         } finally {
             writeLock.unlock();
@@ -152,16 +243,14 @@ public class JobDatabase {
     public void discardJob(String jobID) {
         try {
             writeLock.lock();
-            if (awaitedJobs.containsKey(jobID)) {
-                awaitedJobs.remove(jobID);
-                try {
-                    recMan.commit();
-                } catch (IOException e) {
-                    log.error("Exception occured while closing connection to status file:", e);
-                }
+            if (deleteJob(jobID)) {
+                changeMade();
+                commitChanges();
             } else {
                 log.warn("Job " + jobID + " is not handled by the proxy.");
             }
+        } catch (SQLException e) {
+            log.error("Exception occured while discarding job " + jobID + ":", e);
         } finally {
             writeLock.unlock();
         }
@@ -170,7 +259,9 @@ public class JobDatabase {
     public Set<String> getAwaitedJobsIds() {
         try {
             readLock.lock();
-            return new LinkedHashSet<>(awaitedJobs.keySet());
+            return selectJobIds();
+        } catch (SQLException e) {
+            throw new IllegalStateException("Could not read awaited jobs from " + statusFile, e);
         } finally {
             readLock.unlock();
         }
@@ -179,7 +270,53 @@ public class JobDatabase {
     public AwaitedJob getAwaitedJob(String id) {
         try {
             readLock.lock();
-            return awaitedJobs.get(id);
+            return selectJob(id);
+        } catch (SQLException e) {
+            throw new IllegalStateException("Could not read job " + id + " from " + statusFile, e);
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    /**
+     * Returns an awaited job holding only the given task, without reading the other tasks of the job
+     *
+     * @param id       jobID
+     * @param taskName task name
+     * @return the awaited job, or null if the job is not awaited. The task is absent from the job if it is not awaited
+     */
+    public AwaitedJob getAwaitedJob(String id, String taskName) {
+        try {
+            readLock.lock();
+            AwaitedJob awaitedJob = selectJobWithoutTasks(id);
+            if (awaitedJob != null) {
+                AwaitedTask awaitedTask = selectTask(id, taskName);
+                if (awaitedTask != null) {
+                    awaitedJob.putAwaitedTask(taskName, awaitedTask);
+                }
+            }
+            return awaitedJob;
+        } catch (SQLException e) {
+            throw new IllegalStateException("Could not read job " + id + " from " + statusFile, e);
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    /**
+     * Returns the given task of an awaited job, without reading the other tasks of the job
+     *
+     * @param id       jobID
+     * @param taskName task name
+     * @return the awaited task, or null if the job or the task is not awaited
+     */
+    public AwaitedTask getAwaitedTask(String id, String taskName) {
+        try {
+            readLock.lock();
+            return selectTask(id, taskName);
+        } catch (SQLException e) {
+            throw new IllegalStateException("Could not read task " + taskName + " of job " + id + " from " +
+                                            statusFile, e);
         } finally {
             readLock.unlock();
         }
@@ -198,14 +335,27 @@ public class JobDatabase {
     private void loadJobs(boolean firstAttempt) {
         try {
             writeLock.lock();
-            closeRecordManager();
+            closeConnection();
             try {
-                recMan = RecordManagerFactory.createRecordManager(statusFile.getCanonicalPath());
-                awaitedJobs = recMan.hashMap(STATUS_RECORD_NAME);
-                // This empty loop triggers InvalidClassException in case of serial version uid problems
-                for (Map.Entry<String, AwaitedJob> job : awaitedJobs.entrySet())
-                    ;
-                recMan.commit();
+                // like the former JDBM database, the files are not locked, so that a crashed proxy can be restarted
+                // right away instead of waiting for the lock of the previous process to expire
+                connection = DriverManager.getConnection("jdbc:hsqldb:file:" + statusFile.getCanonicalPath() +
+                                                         ";shutdown=true;hsqldb.lock_file=false", "SA", "");
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("SET FILES WRITE DELAY FALSE");
+                    statement.execute("SET FILES LOG SIZE " + LOG_SIZE);
+                    statement.execute("SET FILES DEFRAG " + DEFRAG_LIMIT);
+                    statement.execute(CREATE_JOB_TABLE);
+                    statement.execute(CREATE_TASK_TABLE);
+                }
+                connection.setAutoCommit(false);
+                migrateJdbmDatabase();
+                // Reading every job triggers InvalidClassException in case of serial version uid problems
+                for (String id : selectJobIds()) {
+                    selectJob(id);
+                }
+                compact();
+                startCommitter();
                 if (!firstAttempt) {
                     log.info("Loading of job database successful after clean.");
                 }
@@ -213,12 +363,11 @@ public class JobDatabase {
                 if (firstAttempt) {
                     log.error("Error occurred when loading job database " + statusFile.getAbsolutePath() +
                               ", now cleaning it and retrying.", e);
-                    closeRecordManager();
-                    recMan = null;
+                    closeConnection();
                     cleanDataBase();
                     loadJobs(false);
                 } else {
-                    closeRecordManager();
+                    closeConnection();
                     throw new IllegalStateException("Error when loading database (even after cleaning it): " +
                                                     statusFile.getAbsolutePath(), e);
                 }
@@ -228,14 +377,76 @@ public class JobDatabase {
         }
     }
 
-    private void closeRecordManager() {
-        if (recMan != null) {
+    /**
+     * Moves the awaited jobs of the former JDBM database of this session, if any, to this database.
+     */
+    private void migrateJdbmDatabase() throws SQLException {
+        JdbmJobDatabase jdbmJobDatabase = new JdbmJobDatabase();
+        jdbmJobDatabase.setSessionName(sessionName);
+        if (jdbmJobDatabase.listDatabaseFiles().length == 0) {
+            return;
+        }
+        log.info("Migrating awaited jobs of " + JdbmJobDatabase.statusFile + " to " + statusFile);
+        try {
+            jdbmJobDatabase.loadJobs();
+            for (String id : jdbmJobDatabase.getAwaitedJobsIds()) {
+                saveJob(jdbmJobDatabase.getAwaitedJob(id));
+            }
+            connection.commit();
+        } catch (IllegalStateException e) {
+            log.error("Could not migrate awaited jobs of " + JdbmJobDatabase.statusFile, e);
+        } finally {
+            jdbmJobDatabase.close();
+        }
+        jdbmJobDatabase.cleanDataBase();
+    }
+
+    /**
+     * Compacts the database files.
+     */
+    public void compact() throws IOException {
+        try {
+            writeLock.lock();
+            // a checkpoint cannot happen during a transaction, even one which only read the tables
+            connection.commit();
+            uncommittedChanges = 0;
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("CHECKPOINT DEFRAG");
+            }
+        } catch (SQLException e) {
+            throw new IOException("Could not compact " + statusFile, e);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    private void startCommitter() {
+        committer = Executors.newSingleThreadScheduledExecutor(new NamedThreadFactory("SmartProxyJobDatabaseCommitter",
+                                                                                      true));
+        committer.scheduleWithFixedDelay(() -> {
+            try {
+                commit();
+            } catch (IOException e) {
+                log.error("Could not commit pending changes", e);
+            }
+        }, COMMIT_DELAY, COMMIT_DELAY, TimeUnit.MILLISECONDS);
+    }
+
+    private void closeConnection() {
+        if (committer != null) {
+            committer.shutdownNow();
+            committer = null;
+        }
+        if (connection != null) {
             try {
-                recMan.close();
-            } catch (IOException e1) {
-                log.trace("Error when closing record manager", e1);
+                commitChanges();
+                connection.close();
+            } catch (SQLException e1) {
+                log.trace("Error when closing connection", e1);
             }
+            connection = null;
         }
+        uncommittedChanges = 0;
     }
 
     public void putAwaitedJob(String id, AwaitedJob awaitedJob) {
@@ -246,11 +457,14 @@ public class JobDatabase {
                                                    awaitedJob.getJobId());
             }
 
-            this.awaitedJobs.put(id, awaitedJob);
-
             try {
-                this.recMan.commit();
-            } catch (IOException e) {
+                boolean newJob = saveJob(awaitedJob);
+                changeMade();
+                if (newJob) {
+                    // a new job must not be lost, otherwise its output data would never be transferred
+                    commitChanges();
+                }
+            } catch (SQLException e) {
                 log.error("Could not save status file after adding job on awaited jobs list " + awaitedJob.getJobId(),
                           e);
             }
@@ -262,7 +476,80 @@ public class JobDatabase {
     public AwaitedJob removeAwaitedJob(String id) {
         try {
             writeLock.lock();
-            return this.awaitedJobs.remove(id);
+            AwaitedJob awaitedJob = selectJob(id);
+            if (awaitedJob != null) {
+                deleteJob(id);
+                changeMade();
+            }
+            return awaitedJob;
+        } catch (SQLException e) {
+            throw new IllegalStateException("Could not remove job " + id + " from " + statusFile, e);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Updates the given task of an awaited job, without rewriting the other tasks of the job
+     *
+     * @param id          jobID
+     * @param awaitedTask task to update
+     */
+    public void putAwaitedTask(String id, AwaitedTask awaitedTask) {
+        try {
+            writeLock.lock();
+            try (PreparedStatement update = connection.prepareStatement(UPDATE_TASK)) {
+                update.setString(1, awaitedTask.getTaskId());
+                update.setBoolean(2, awaitedTask.isTransferring());
+                update.setBytes(3, ObjectByteConverter.objectToByteArray(awaitedTask.getOutputSelectors()));
+                update.setString(4, id);
+                update.setString(5, awaitedTask.getTaskName());
+                if (update.executeUpdate() > 0) {
+                    changeMade();
+                } else {
+                    log.warn("Task " + awaitedTask.getTaskName() + " from Job " + id + " not in the awaited list");
+                }
+            } catch (SQLException e) {
+                log.error("Could not save status file after updating task " + awaitedTask.getTaskName() +
+                          " from Job " + id, e);
+            }
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Removes the given task of an awaited job. The job is removed as well when it has no other awaited task.
+     *
+     * @param id       jobID
+     * @param taskName task name
+     * @return true if the job was removed because the given task was its last awaited task
+     */
+    public boolean removeAwaitedTask(String id, String taskName) {
+        try {
+            writeLock.lock();
+            try (PreparedStatement delete = connection.prepareStatement(DELETE_TASK)) {
+                delete.setString(1, id);
+                delete.setString(2, taskName);
+                if (delete.executeUpdate() == 0) {
+                    return false;
+                }
+            }
+            changeMade();
+            try (PreparedStatement select = connection.prepareStatement(SELECT_ANY_TASK)) {
+                select.setString(1, id);
+                try (ResultSet resultSet = select.executeQuery()) {
+                    if (resultSet.next()) {
+                        return false;
+                    }
+                }
+            }
+            deleteJob(id);
+            changeMade();
+            return true;
+        } catch (SQLException e) {
+            throw new IllegalStateException("Could not remove task " + taskName + " of job " + id + " from " +
+                                            statusFile, e);
         } finally {
             writeLock.unlock();
         }
@@ -277,7 +564,7 @@ public class JobDatabase {
     public void setSessionName(String name) {
         try {
             writeLock.lock();
-            if (awaitedJobs != null) {
+            if (connection != null) {
                 throw new IllegalStateException("Session already started, try calling setSessionName before calling init");
             }
             if (name != null && !name.matches("\\w+")) {
@@ -288,7 +575,7 @@ public class JobDatabase {
             } else {
                 sessionName = name;
             }
-            statusFile = new File(TMPDIR, sessionName);
+            statusFile = new File(TMPDIR, sessionName + STORE_SUFFIX);
         } finally {
             writeLock.unlock();
         }
@@ -304,25 +591,18 @@ public class JobDatabase {
     public void setTaskTransferring(String id, String taskName, boolean transferring) {
         try {
             writeLock.lock();
-            AwaitedJob aj = awaitedJobs.get(id);
-            if (aj == null) {
-                log.warn("Job " + id + " not in the awaited list");
-                return;
-            }
-
-            AwaitedTask at = aj.getAwaitedTask(taskName);
-
-            if (at == null) {
-                log.warn("Task " + taskName + " from Job " + id + " not in the awaited list");
-                return;
-            }
-
-            at.setTransferring(transferring);
-            awaitedJobs.put(id, aj);
-
-            try {
-                this.recMan.commit();
-            } catch (IOException e) {
+            try (PreparedStatement update = connection.prepareStatement(UPDATE_TASK_TRANSFERRING)) {
+                update.setBoolean(1, transferring);
+                update.setString(2, id);
+                update.setString(3, taskName);
+                if (update.executeUpdate() > 0) {
+                    changeMade();
+                } else if (selectJob(id) == null) {
+                    log.warn("Job " + id + " not in the awaited list");
+                } else {
+                    log.warn("Task " + taskName + " from Job " + id + " not in the awaited list");
+                }
+            } catch (SQLException e) {
                 log.error("Could not save status file after setting transferring mode to task Task " + taskName +
                           " from Job" + id, e);
             }
@@ -334,16 +614,149 @@ public class JobDatabase {
     public void close() {
         try {
             writeLock.lock();
-            if (recMan != null) {
-                try {
-                    recMan.close();
-                    recMan = null;
-                } catch (IOException e) {
+            closeConnection();
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    private void changeMade() throws SQLException {
+        uncommittedChanges++;
+        if (uncommittedChanges >= COMMIT_BATCH_SIZE) {
+            commitChanges();
+        }
+    }
+
+    private void commitChanges() throws SQLException {
+        if (uncommittedChanges > 0) {
+            connection.commit();
+            uncommittedChanges = 0;
+        }
+    }
 
+    private Set<String> selectJobIds() throws SQLException {
+        Set<String> ids = new LinkedHashSet<>();
+        try (Statement statement = connection.createStatement();
+                ResultSet resultSet = statement.executeQuery("SELECT JOB_ID FROM AWAITED_JOB")) {
+            while (resultSet.next()) {
+                ids.add(resultSet.getString(1));
+            }
+        }
+        return ids;
+    }
+
+    private AwaitedJob selectJob(String id) throws SQLException {
+        AwaitedJob awaitedJob = selectJobWithoutTasks(id);
+        if (awaitedJob == null) {
+            return null;
+        }
+        try (PreparedStatement select = connection.prepareStatement(SELECT_TASKS)) {
+            select.setString(1, id);
+            try (ResultSet resultSet = select.executeQuery()) {
+                while (resultSet.next()) {
+                    AwaitedTask awaitedTask = readTask(resultSet);
+                    awaitedJob.putAwaitedTask(awaitedTask.getTaskName(), awaitedTask);
                 }
             }
-        } finally {
-            writeLock.unlock();
+        }
+        return awaitedJob;
+    }
+
+    private AwaitedJob selectJobWithoutTasks(String id) throws SQLException {
+        try (PreparedStatement select = connection.prepareStatement(SELECT_JOB)) {
+            select.setString(1, id);
+            try (ResultSet resultSet = select.executeQuery()) {
+                if (!resultSet.next()) {
+                    return null;
+                }
+                return new AwaitedJob(id,
+                                      resultSet.getString(1),
+                                      resultSet.getString(2),
+                                      resultSet.getString(3),
+                                      resultSet.getString(4),
+                                      resultSet.getString(5),
+                                      resultSet.getString(6),
+                                      resultSet.getBoolean(7),
+                                      resultSet.getBoolean(8),
+                                      new HashMap<>());
+            }
+        }
+    }
+
+    private AwaitedTask selectTask(String id, String taskName) throws SQLException {
+        try (PreparedStatement select = connection.prepareStatement(SELECT_TASK)) {
+            select.setString(1, id);
+            select.setString(2, taskName);
+            try (ResultSet resultSet = select.executeQuery()) {
+                return resultSet.next() ? readTask(resultSet) : null;
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private AwaitedTask readTask(ResultSet resultSet) throws SQLException {
+        byte[] outputSelectors = resultSet.getBytes(4);
+        AwaitedTask awaitedTask = new AwaitedTask(resultSet.getString(1),
+                                                  (List<OutputSelector>) ObjectByteConverter.byteArrayToObject(outputSelectors));
+        awaitedTask.setTaskId(resultSet.getString(2));
+        awaitedTask.setTransferring(resultSet.getBoolean(3));
+        return awaitedTask;
+    }
+
+    /**
+     * Inserts or updates the given job and replaces its tasks.
+     *
+     * @return true if the job was inserted
+     */
+    private boolean saveJob(AwaitedJob awaitedJob) throws SQLException {
+        boolean newJob;
+        try (PreparedStatement update = connection.prepareStatement(UPDATE_JOB)) {
+            setJobParameters(update, awaitedJob);
+            newJob = update.executeUpdate() == 0;
+        }
+        if (newJob) {
+            try (PreparedStatement insert = connection.prepareStatement(INSERT_JOB)) {
+                setJobParameters(insert, awaitedJob);
+                insert.executeUpdate();
+            }
+        } else {
+            try (PreparedStatement delete = connection.prepareStatement(DELETE_TASKS)) {
+                delete.setString(1, awaitedJob.getJobId());
+                delete.executeUpdate();
+            }
+        }
+        if (awaitedJob.getAwaitedTasks() != null && !awaitedJob.getAwaitedTasks().isEmpty()) {
+            try (PreparedStatement insert = connection.prepareStatement(INSERT_TASK)) {
+                for (Map.Entry<String, AwaitedTask> task : awaitedJob.getAwaitedTasks().entrySet()) {
+                    insert.setString(1, awaitedJob.getJobId());
+                    insert.setString(2, task.getKey());
+                    insert.setString(3, task.getValue().getTaskId());
+                    insert.setBoolean(4, task.getValue().isTransferring());
+                    insert.setBytes(5, ObjectByteConverter.objectToByteArray(task.getValue().getOutputSelectors()));
+                    insert.addBatch();
+                }
+                insert.executeBatch();
+            }
+        }
+        return newJob;
+    }
+
+    private void setJobParameters(PreparedStatement statement, AwaitedJob awaitedJob) throws SQLException {
+        statement.setString(1, awaitedJob.getLocalInputFolder());
+        statement.setString(2, awaitedJob.getInputSpaceURL());
+        statement.setString(3, awaitedJob.getPushURL());
+        statement.setString(4, awaitedJob.getLocalOutputFolder());
+        statement.setString(5, awaitedJob.getOutputSpaceURL());
+        statement.setString(6, awaitedJob.getPullURL());
+        statement.setBoolean(7, awaitedJob.isIsolateTaskOutputs());
+        statement.setBoolean(8, awaitedJob.isAutomaticTransfer());
+        statement.setString(9, awaitedJob.getJobId());
+    }
+
+    private boolean deleteJob(String id) throws SQLException {
+        try (PreparedStatement delete = connection.prepareStatement(DELETE_JOB)) {
+            delete.setString(1, id);
+            return delete.executeUpdate() > 0;
         }
     }
 
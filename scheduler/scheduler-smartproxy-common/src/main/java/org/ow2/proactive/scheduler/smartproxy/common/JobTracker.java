@@ -97,6 +97,17 @@ public abstract class JobTracker {
         return jobDatabase.getAwaitedJob(id);
     }
 
+    public AwaitedTask getAwaitedTask(String id, String taskName) {
+        return jobDatabase.getAwaitedTask(id, taskName);
+    }
+
+    /**
+     * @return the awaited job holding only the given task, see {@link JobDatabase#getAwaitedJob(String, String)}
+     */
+    public AwaitedJob getAwaitedJob(String id, String taskName) {
+        return jobDatabase.getAwaitedJob(id, taskName);
+    }
+
     public boolean isAwaitedJob(String id) {
         return getAwaitedJob(id) != null;
     }
@@ -105,6 +116,10 @@ public abstract class JobTracker {
         jobDatabase.putAwaitedJob(id, aj);
     }
 
+    public void putAwaitedTask(String id, AwaitedTask awaitedTask) {
+        jobDatabase.putAwaitedTask(id, awaitedTask);
+    }
+
     public void setTaskTransferring(String id, String taskName, boolean transferring) {
         jobDatabase.setTaskTransferring(id, taskName, transferring);
     }
@@ -0,0 +1,186 @@
+/*
+ * ProActive Parallel Suite(TM):
+ * The Open Source library for parallel and distributed
+ * Workflows & Scheduling, Orchestration, Cloud Automation
+ * and Big Data Analysis on Enterprise Grids & Clouds.
+ *
+ * Copyright (c) 2007 - 2017 ActiveEon
+ * Contact: contact@activeeon.com
+ *
+ * This library is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation: version 3 of
+ * the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ */
+package org.ow2.proactive.scheduler.smartproxy.common;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Collections;
+import java.util.HashMap;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.objectweb.proactive.extensions.dataspaces.vfs.selector.FileSelector;
+import org.ow2.proactive.scheduler.common.task.dataspaces.OutputAccessMode;
+import org.ow2.proactive.scheduler.common.task.dataspaces.OutputSelector;
+
+
+public class JobDatabaseTest {
+
+    private JobDatabase jobDatabase;
+
+    @Before
+    public void setUp() {
+        jobDatabase = new JobDatabase();
+        jobDatabase.setSessionName("JobDatabaseTest");
+        jobDatabase.cleanDataBase();
+        jobDatabase.loadJobs();
+    }
+
+    @After
+    public void tearDown() {
+        jobDatabase.close();
+        jobDatabase.cleanDataBase();
+    }
+
+    @Test
+    public void testAwaitedJobIsPersisted() {
+        jobDatabase.putAwaitedJob("1", createAwaitedJob("1", "task1", "task2"));
+
+        reload();
+
+        assertEquals(Collections.singleton("1"), jobDatabase.getAwaitedJobsIds());
+        AwaitedJob awaitedJob = jobDatabase.getAwaitedJob("1");
+        assertEquals("/input/1", awaitedJob.getLocalInputFolder());
+        assertEquals("file:///push/1", awaitedJob.getPushURL());
+        assertNull(awaitedJob.getInputSpaceURL());
+        assertTrue(awaitedJob.isIsolateTaskOutputs());
+        assertFalse(awaitedJob.isAutomaticTransfer());
+        assertEquals(2, awaitedJob.getAwaitedTasks().size());
+        AwaitedTask awaitedTask = awaitedJob.getAwaitedTask("task1");
+        assertEquals("1t0", awaitedTask.getTaskId());
+        assertEquals(OutputAccessMode.TransferToOutputSpace, awaitedTask.getOutputSelectors().get(0).getMode());
+    }
+
+    @Test
+    public void testUpdatedAwaitedJobReplacesItsTasks() throws Exception {
+        AwaitedJob awaitedJob = createAwaitedJob("1", "task1", "task2");
+        jobDatabase.putAwaitedJob("1", awaitedJob);
+
+        awaitedJob.removeAwaitedTask("task2");
+        jobDatabase.putAwaitedJob("1", awaitedJob);
+        jobDatabase.commit();
+        reload();
+
+        assertEquals(Collections.singleton("task1"), jobDatabase.getAwaitedJob("1").getAwaitedTasks().keySet());
+        assertNull(jobDatabase.getAwaitedTask("1", "task2"));
+    }
+
+    @Test
+    public void testTaskTransferringIsPersisted() {
+        jobDatabase.putAwaitedJob("1", createAwaitedJob("1", "task1", "task2"));
+
+        jobDatabase.setTaskTransferring("1", "task1", true);
+        jobDatabase.setTaskTransferring("1", "unknownTask", true);
+        jobDatabase.setTaskTransferring("2", "task1", true);
+        reload();
+
+        assertTrue(jobDatabase.getAwaitedTask("1", "task1").isTransferring());
+        assertFalse(jobDatabase.getAwaitedJob("1").getAwaitedTask("task2").isTransferring());
+        assertNull(jobDatabase.getAwaitedTask("2", "task1"));
+    }
+
+    @Test
+    public void testRemovedAwaitedJobs() throws Exception {
+        jobDatabase.putAwaitedJob("1", createAwaitedJob("1", "task1"));
+        jobDatabase.putAwaitedJob("2", createAwaitedJob("2", "task1"));
+        jobDatabase.putAwaitedJob("3", createAwaitedJob("3", "task1"));
+
+        assertEquals("1", jobDatabase.removeAwaitedJob("1").getJobId());
+        assertNull(jobDatabase.removeAwaitedJob("1"));
+        jobDatabase.commit();
+        jobDatabase.discardJob("2");
+        reload();
+
+        assertEquals(Collections.singleton("3"), jobDatabase.getAwaitedJobsIds());
+        assertNull(jobDatabase.getAwaitedTask("1", "task1"));
+
+        jobDatabase.discardAllJobs();
+        reload();
+
+        assertTrue(jobDatabase.getAwaitedJobsIds().isEmpty());
+    }
+
+    @Test
+    public void testAwaitedTaskIsUpdatedAndRemovedOnItsOwn() throws Exception {
+        jobDatabase.putAwaitedJob("1", createAwaitedJob("1", "task1", "task2"));
+
+        AwaitedJob awaitedJob = jobDatabase.getAwaitedJob("1", "task1");
+        assertEquals(Collections.singleton("task1"), awaitedJob.getAwaitedTasks().keySet());
+        assertEquals("file:///pull/1", awaitedJob.getPullURL());
+        assertTrue(jobDatabase.getAwaitedJob("1", "unknownTask").getAwaitedTasks().isEmpty());
+        assertNull(jobDatabase.getAwaitedJob("2", "task1"));
+
+        AwaitedTask awaitedTask = awaitedJob.getAwaitedTask("task1");
+        awaitedTask.setTaskId("1t5");
+        jobDatabase.putAwaitedTask("1", awaitedTask);
+        jobDatabase.commit();
+        reload();
+
+        assertEquals("1t5", jobDatabase.getAwaitedTask("1", "task1").getTaskId());
+        assertEquals("1t1", jobDatabase.getAwaitedTask("1", "task2").getTaskId());
+
+        assertFalse(jobDatabase.removeAwaitedTask("1", "task1"));
+        assertFalse(jobDatabase.removeAwaitedTask("1", "task1"));
+        assertEquals(Collections.singleton("task2"), jobDatabase.getAwaitedJob("1").getAwaitedTasks().keySet());
+
+        // the job is removed with its last task
+        assertTrue(jobDatabase.removeAwaitedTask("1", "task2"));
+        jobDatabase.commit();
+        reload();
+
+        assertTrue(jobDatabase.getAwaitedJobsIds().isEmpty());
+    }
+
+    private void reload() {
+        jobDatabase.close();
+        jobDatabase.loadJobs();
+    }
+
+    private AwaitedJob createAwaitedJob(String jobId, String... taskNames) {
+        HashMap<String, AwaitedTask> awaitedTasks = new HashMap<>();
+        for (int i = 0; i < taskNames.length; i++) {
+            AwaitedTask awaitedTask = new AwaitedTask(taskNames[i],
+                                                      Collections.singletonList(new OutputSelector(new FileSelector("*.out"),
+                                                                                                   OutputAccessMode.TransferToOutputSpace)));
+            awaitedTask.setTaskId(jobId + "t" + i);
+            awaitedTasks.put(taskNames[i], awaitedTask);
+        }
+        return new AwaitedJob(jobId,
+                              "/input/" + jobId,
+                              null,
+                              "file:///push/" + jobId,
+                              "/output/" + jobId,
+                              "file:///output",
+                              "file:///pull/" + jobId,
+                              true,
+                              false,
+                              awaitedTasks);
+    }
+}
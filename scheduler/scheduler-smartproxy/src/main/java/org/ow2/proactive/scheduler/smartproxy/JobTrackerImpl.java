@@ -81,60 +81,11 @@ public class JobTrackerImpl extends JobTracker {
             return;
         }
         logger.debug("Removing knowledge of job " + id);
-
-        String pullUrl = aj.getPullURL();
-        String pushUrl = aj.getPushURL();
-
-        FileObject remotePullFolder = null;
-        FileObject remotePushFolder = null;
-
-        try {
-            remotePullFolder = resolveFile(pullUrl);
-            remotePushFolder = resolveFile(pushUrl);
-        } catch (Exception e) {
-            logger.error("Could not remove data for job " + id, e);
+        if (!deleteJobData(aj)) {
             return;
         }
-        if (aj.isIsolateTaskOutputs()) {
-            try {
-                remotePullFolder = remotePullFolder.getParent();
-            } catch (FileSystemException e) {
-                logger.error("Could not get the parent of folder " + remotePullFolder, e);
-            }
-        }
-
-        Set<FileObject> foldersToDelete = new HashSet<>();
-        try {
-            foldersToDelete.add(remotePullFolder.getParent());
-            if (!remotePullFolder.getParent().equals(remotePushFolder.getParent()))
-                foldersToDelete.add(remotePushFolder.getParent());
-        } catch (FileSystemException e) {
-            logger.warn("Data in folders " + pullUrl + " and " + pushUrl +
-                        " cannot be deleted due to an unexpected error ", e);
-        }
-
-        String url = "NOT YET DEFINED";
-        for (FileObject fo : foldersToDelete) {
-            try {
-                url = fo.getURL().toString();
-
-                if (!logger.isTraceEnabled()) {
-                    logger.debug("Deleting directory " + url);
-                    fo.delete(Selectors.SELECT_ALL);
-                    fo.delete();
-                }
-            } catch (FileSystemException e) {
-                logger.warn("Could not delete temporary files at location " + url + " .", e);
-            }
-        }
-
         jobDatabase.removeAwaitedJob(id);
-
-        try {
-            jobDatabase.commit();
-        } catch (IOException e) {
-            logger.error("Could not save status file after removing job " + id, e);
-        }
+        commitJobRemoval(id);
     }
 
     /**
@@ -145,7 +96,7 @@ public class JobTrackerImpl extends JobTracker {
      * @param taskName task name
      */
     public void removeAwaitedTask(String id, String taskName) {
-        AwaitedJob awaitedJob = jobDatabase.getAwaitedJob(id);
+        AwaitedJob awaitedJob = jobDatabase.getAwaitedJob(id, taskName);
         if (awaitedJob == null) {
             logger.warn("Job " + id + " not in the awaited list");
             return;
@@ -178,20 +129,73 @@ public class JobTrackerImpl extends JobTracker {
 
         }
 
-        awaitedJob.removeAwaitedTask(taskName);
+        // the task row is deleted on its own and committed with the next batch of changes
+        if (jobDatabase.removeAwaitedTask(id, taskName)) {
+            logger.debug("Removing knowledge of job " + id);
+            deleteJobData(awaitedJob);
+            commitJobRemoval(id);
+        }
+    }
 
-        if (awaitedJob.getAwaitedTasks().isEmpty()) {
-            removeAwaitedJob(id);
-            return;
-        } else {
-            // this is done to ensure persistence of the operation
-            jobDatabase.putAwaitedJob(id, awaitedJob);
+    /**
+     * Deletes the folders created by the given job in the shared input and output spaces
+     *
+     * @return false if the folders of the job could not be resolved
+     */
+    private boolean deleteJobData(AwaitedJob awaitedJob) {
+        String pullUrl = awaitedJob.getPullURL();
+        String pushUrl = awaitedJob.getPushURL();
+
+        FileObject remotePullFolder = null;
+        FileObject remotePushFolder = null;
+
+        try {
+            remotePullFolder = resolveFile(pullUrl);
+            remotePushFolder = resolveFile(pushUrl);
+        } catch (Exception e) {
+            logger.error("Could not remove data for job " + awaitedJob.getJobId(), e);
+            return false;
+        }
+        if (awaitedJob.isIsolateTaskOutputs()) {
+            try {
+                remotePullFolder = remotePullFolder.getParent();
+            } catch (FileSystemException e) {
+                logger.error("Could not get the parent of folder " + remotePullFolder, e);
+            }
         }
 
+        Set<FileObject> foldersToDelete = new HashSet<>();
+        try {
+            foldersToDelete.add(remotePullFolder.getParent());
+            if (!remotePullFolder.getParent().equals(remotePushFolder.getParent()))
+                foldersToDelete.add(remotePushFolder.getParent());
+        } catch (FileSystemException e) {
+            logger.warn("Data in folders " + pullUrl + " and " + pushUrl +
+                        " cannot be deleted due to an unexpected error ", e);
+        }
+
+        String url = "NOT YET DEFINED";
+        for (FileObject fo : foldersToDelete) {
+            try {
+                url = fo.getURL().toString();
+
+                if (!logger.isTraceEnabled()) {
+                    logger.debug("Deleting directory " + url);
+                    fo.delete(Selectors.SELECT_ALL);
+                    fo.delete();
+                }
+            } catch (FileSystemException e) {
+                logger.warn("Could not delete temporary files at location " + url + " .", e);
+            }
+        }
+        return true;
+    }
+
+    private void commitJobRemoval(String id) {
         try {
             jobDatabase.commit();
         } catch (IOException e) {
-            logger.error("Could not save status file after removing task Task " + taskName + " from Job" + id, e);
+            logger.error("Could not save status file after removing job " + id, e);
         }
     }
 